@@ -0,0 +1,645 @@
+package Client.Network;
+
+import Client.ClientApp;
+import Client.View.View;
+import Enumeration.GameWarning;
+import Utils.Cell;
+import Utils.ChatMessage;
+import Utils.Coordinates;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockCommonGoal;
+import Utils.MockObjects.MockModel;
+import Utils.MockObjects.MockPlayer;
+import Utils.NetworkSettings;
+import Utils.Rank;
+import Utils.Tile;
+
+import java.rmi.RemoteException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static Interface.Server.LobbyInterface.NO_SEQUENCE;
+
+/**
+ * Puts the load of many players on a server running on this machine. Every player is a bot: a headless {@link View}
+ * connected through its own {@link ClientSocket} or {@link ClientRMI}, the same networks of the application.
+ * <p>
+ * The bots are seated at tables of the same size, the players of a table log into the same lobby and play
+ * a game after the other. In its turn a bot picks from the board it received one to three tiles that can be taken,
+ * in a row or a column, and inserts them in a column of its shelf with room for them; sometimes it writes
+ * in the chat. Now and then a bot logs out in the middle of the game and rejoins it a few seconds later,
+ * resuming from the last update it received; only one player of a table is away at a time, so no game is abandoned.
+ * <p>
+ * It reports, every few seconds and at the end, the turns played per second and the percentiles of the time
+ * from {@code selectTiles} to {@code outcomeSelectTiles}, by transport. The first seconds, while the bots log in,
+ * are left out of the final report. At the end it reports too the time from every kind of RMI call to the answer
+ * of the server, measured by the {@link CallPipeline} of the networks. The bots quit without logging out, the server logs them out when they stop pinging.
+ * <p>
+ * Start the server first, then run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.main=Client.Network.LoadGenerator -Dbench.args="mixed 1000 4 60 200 2"}
+ * (socket, rmi or mixed, bots, players of every table, seconds, think time of a turn in ms, disconnections every 100 turns,
+ * and optionally the socket and RMI ports of the server, the ones of the settings otherwise).
+ */
+public class LoadGenerator {
+    private static final String HOST = "127.0.0.1";
+    private static final long RAMP_UP = 5000;
+    private static final long WARM_UP = RAMP_UP + 5000;
+    private static final long REPORT = 5000;
+    private static final long AWAY_MIN = 1000;
+    private static final long AWAY_MAX = 4000;
+    private static final long RETRY = 1000;
+    private static final String[] TRANSPORTS = {"SOCKET", "RMI"};
+
+    private static final Timer pings = new Timer("bot-pings", true);
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bot-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Map<String, Latencies> latencies = new LinkedHashMap<>();
+    private static final LongAdder turns = new LongAdder();
+    private static final LongAdder games = new LongAdder();
+    private static final LongAdder chats = new LongAdder();
+    private static final LongAdder disconnections = new LongAdder();
+    private static final LongAdder rejoins = new LongAdder();
+    private static final LongAdder drops = new LongAdder();
+    private static final LongAdder exceptions = new LongAdder();
+    private static final AtomicInteger playing = new AtomicInteger();
+    /**
+     * The call pipelines of the RMI networks opened by the bots.
+     */
+    private static final Queue<CallPipeline> pipelines = new ConcurrentLinkedQueue<>();
+
+    private static long think;
+    private static double disconnectChance;
+    private static volatile boolean measuring;
+
+    public static void main(String[] args) throws Exception {
+        String transport = args.length > 0 ? args[0].toUpperCase() : "MIXED";
+        int bots = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int players = args.length > 2 ? Math.min(4, Math.max(2, Integer.parseInt(args[2]))) : 4;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+        think = args.length > 4 ? Long.parseLong(args[4]) : 200;
+        disconnectChance = args.length > 5 ? Double.parseDouble(args[5]) / 100 : 0.02;
+
+        ClientApp.IP_SERVER = HOST;
+        ClientApp.SOCKET_PORT = args.length > 6 ? Integer.parseInt(args[6]) : NetworkSettings.socketFromJSON();
+        ClientApp.RMI_PORT = args.length > 7 ? Integer.parseInt(args[7]) : NetworkSettings.rmiFromJSON();
+        ClientApp.COMPRESSION = NetworkSettings.compressionFromJSON();
+        ClientApp.executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bot-", 0).factory());
+
+        List<String> transports = switch (transport) {
+            case "SOCKET", "RMI" -> List.of(transport);
+            case "MIXED" -> List.of(TRANSPORTS);
+            default -> throw new IllegalArgumentException("Unknown transport " + args[0] + ", use socket, rmi or mixed");
+        };
+        for (String name : transports) latencies.put(name, new Latencies());
+        System.out.printf("%d bots over %s at tables of %d, against %s (socket %d, RMI %d), for %d s%n", bots,
+                String.join(" and ", transports), players, HOST, ClientApp.SOCKET_PORT, ClientApp.RMI_PORT, seconds);
+
+        // the lobbies of a run don't meet the ones of the runs before on the same server
+        String run = Long.toString(System.currentTimeMillis() % 1_000_000, 36);
+        List<Bot> all = new ArrayList<>();
+        Table table = null;
+        for (int i = 0; i < bots; i++) {
+            if (i % players == 0) table = new Table("load-" + run + "-" + i / players, players);
+            Bot bot = new Bot("bot-" + run + "-" + i, transports.get(i % transports.size()), table, new Random(i));
+            all.add(bot);
+            scheduler.schedule(bot::connect, RAMP_UP * i / bots, TimeUnit.MILLISECONDS);
+        }
+
+        System.out.printf("%8s %8s %10s %8s %8s %9s %9s %9s%n", "time(s)", "playing", "turns/s", "games", "away", "p50(ms)", "p99(ms)", "max(ms)");
+        long start = System.currentTimeMillis();
+        long end = start + seconds * 1000L;
+        long lastTurns = 0;
+        long measuredTurns = 0;
+        long measuredFrom = 0;
+        long last = start;
+        while (System.currentTimeMillis() < end) {
+            Thread.sleep(Math.min(REPORT, end - System.currentTimeMillis()));
+            long now = System.currentTimeMillis();
+            long played = turns.sum();
+            long[] interval = new long[0];
+            for (Latencies recorded : latencies.values()) interval = merge(interval, recorded.interval());
+            System.out.printf("%8.0f %8d %10.1f %8d %8d %9.1f %9.1f %9.1f%n", (now - start) / 1e3, playing.get(),
+                    (played - lastTurns) * 1e3 / Math.max(1, now - last), games.sum(), all.stream().filter(bot -> bot.away).count(),
+                    percentile(interval, 0.50), percentile(interval, 0.99), percentile(interval, 1));
+            lastTurns = played;
+            last = now;
+            if (!measuring && now - start >= WARM_UP) {
+                measuring = true;
+                measuredTurns = played;
+                measuredFrom = now;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        System.out.println();
+        if (measuredFrom == 0) {
+            System.out.println("The run is shorter than the warm-up of " + WARM_UP / 1000 + " s, nothing measured");
+        } else {
+            System.out.printf("%.1f turns/s over %.0f s, %d games, %d chat messages, %d disconnections, %d rejoins, %d connections lost, %d exceptions from the server%n",
+                    (turns.sum() - measuredTurns) * 1e3 / (now - measuredFrom), (now - measuredFrom) / 1e3, games.sum(),
+                    chats.sum(), disconnections.sum(), rejoins.sum(), drops.sum(), exceptions.sum());
+            System.out.printf("%-8s %9s %9s %9s %9s %9s %9s%n", "select", "samples", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+            for (Map.Entry<String, Latencies> entry : latencies.entrySet()) {
+                long[] samples = entry.getValue().all();
+                System.out.printf("%-8s %9d %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey().toLowerCase(), samples.length,
+                        percentile(samples, 0.50), percentile(samples, 0.90), percentile(samples, 0.99), percentile(samples, 0.999), percentile(samples, 1));
+            }
+            reportCalls();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Prints, for every kind of RMI call, the calls made and the time to the answer of the server, over the whole run.
+     */
+    private static void reportCalls() {
+        Map<String, long[]> counts = new TreeMap<>();
+        Map<String, double[]> times = new TreeMap<>();
+        for (CallPipeline pipeline : pipelines) {
+            for (String kind : pipeline.getKinds()) {
+                long count = pipeline.getCount(kind);
+                counts.computeIfAbsent(kind, k -> new long[1])[0] += count;
+                double[] time = times.computeIfAbsent(kind, k -> new double[2]);
+                time[0] += pipeline.getLatency(kind) * count;
+                time[1] = Math.max(time[1], pipeline.getMaxLatency(kind));
+            }
+        }
+        if (counts.isEmpty()) return;
+        System.out.println();
+        System.out.printf("%-14s %9s %9s %9s%n", "rmi call", "calls", "avg(ms)", "max(ms)");
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            double[] time = times.get(entry.getKey());
+            System.out.printf("%-14s %9d %9.1f %9.1f%n", entry.getKey(), entry.getValue()[0], time[0] / entry.getValue()[0], time[1]);
+        }
+    }
+
+    private static long[] merge(long[] first, long[] second) {
+        long[] merged = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, merged, first.length, second.length);
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    /**
+     * Returns a percentile of sorted samples, in milliseconds.
+     */
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.max(0, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static void later(Runnable task, long millis) {
+        scheduler.schedule(() -> ClientApp.executorService.execute(task), millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The times from {@code selectTiles} to {@code outcomeSelectTiles} of a transport, in nanoseconds.
+     */
+    private static final class Latencies {
+        private long[] interval = new long[1024];
+        private int intervalSize;
+        private long[] all = new long[1024];
+        private int allSize;
+
+        private synchronized void add(long nanos) {
+            if (intervalSize == interval.length) interval = Arrays.copyOf(interval, intervalSize * 2);
+            interval[intervalSize++] = nanos;
+            if (!measuring) return;
+            if (allSize == all.length) all = Arrays.copyOf(all, allSize * 2);
+            all[allSize++] = nanos;
+        }
+
+        /**
+         * Returns the samples since the last call, sorted.
+         */
+        private synchronized long[] interval() {
+            long[] samples = Arrays.copyOf(interval, intervalSize);
+            intervalSize = 0;
+            Arrays.sort(samples);
+            return samples;
+        }
+
+        /**
+         * Returns the samples since the end of the warm-up, sorted.
+         */
+        private synchronized long[] all() {
+            long[] samples = Arrays.copyOf(all, allSize);
+            Arrays.sort(samples);
+            return samples;
+        }
+    }
+
+    /**
+     * The bots playing together, a game after the other: the game of a round is played in its own lobby.
+     */
+    private static final class Table {
+        private final String name;
+        private final int size;
+        private final AtomicInteger round = new AtomicInteger();
+        /**
+         * The bot of the table that is away, null if they're all playing.
+         */
+        private final AtomicReference<Bot> away = new AtomicReference<>();
+
+        private Table(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        private String lobby(int round) {
+            return name + "-" + round;
+        }
+
+        /**
+         * Records that the game of a round ended, the table moves to the next one.
+         */
+        private void ended(int round) {
+            if (this.round.compareAndSet(round, round + 1)) games.increment();
+        }
+    }
+
+    /**
+     * A player with no one in front of it, it sees the game through the view it's made of.
+     */
+    private static final class Bot extends View {
+        private final String playerID;
+        private final String transport;
+        private final Table table;
+        private final Random random;
+        private Network network;
+        private int round;
+        private String lobbyID;
+        /**
+         * Tells if the bot is coming back to its game.
+         */
+        private boolean rejoining;
+        /**
+         * Tells if the bot logged out, or lost its connection, and isn't back in its game yet.
+         */
+        private volatile boolean away;
+        private boolean loginSent;
+        private boolean turnStarted;
+        private List<Coordinates> selected;
+        private List<Integer> sort;
+        private long selectedAt;
+        private int failures;
+
+        private Bot(String playerID, String transport, Table table, Random random) throws RemoteException {
+            super();
+            this.playerID = playerID;
+            this.transport = transport;
+            this.table = table;
+            this.random = random;
+        }
+
+        /**
+         * Opens a new connection, the server answers with the lobbies.
+         */
+        private synchronized void connect() {
+            try {
+                Network network = NetworkFactory.instanceNetwork(this.transport, this, pings, this::lost);
+                this.network = network;
+                if (network instanceof ClientRMI rmi) pipelines.add(rmi.getCalls());
+                this.loginSent = false;
+                ClientApp.executorService.execute(network::init);
+            } catch (RemoteException e) {
+                drops.increment();
+                later(this::connect, RETRY);
+            }
+        }
+
+        /**
+         * Logs into the lobby of the current round of the table, or back into the game it left.
+         */
+        @Override
+        public synchronized void askPlayerInfo(List<Map<String, String>> lobbyInfo) throws RemoteException {
+            if (this.rejoining && this.table.round.get() > this.round) {
+                // the game ended while the bot was away
+                this.rejoining = false;
+                abandon();
+            }
+            if (this.loginSent) {
+                // the server didn't take the login, e.g. it didn't notice yet that the bot left
+                this.loginSent = false;
+                Network network = this.network;
+                later(() -> retry(network), RETRY);
+                return;
+            }
+            login();
+        }
+
+        private synchronized void retry(Network network) {
+            if (network != this.network || network.isClosed() || this.loginSent) return;
+            try {
+                login();
+            } catch (RemoteException e) {
+                lost();
+            }
+        }
+
+        private void login() throws RemoteException {
+            this.loginSent = true;
+            if (this.rejoining) {
+                this.network.login(this.playerID, this.lobbyID, getSequence(), this, this.network);
+                return;
+            }
+            this.round = this.table.round.get();
+            this.lobbyID = this.table.lobby(this.round);
+            this.network.login(this.playerID, this.lobbyID, NO_SEQUENCE, this, this.network);
+        }
+
+        @Override
+        public synchronized void askLobbySize() throws RemoteException {
+            if (this.rejoining) {
+                // the game isn't there any more, the bot opened a lobby with its ID: it leaves and joins the table again
+                this.table.ended(this.round);
+                this.rejoining = false;
+                abandon();
+                leave();
+                return;
+            }
+            this.network.setLobbySize(this.playerID, this.lobbyID, this.table.size);
+        }
+
+        @Override
+        public synchronized void outcomeLogin(String localPlayer, String lobbyID) throws RemoteException {
+            this.loginSent = false;
+            this.network.startPing(localPlayer, lobbyID);
+        }
+
+        @Override
+        public synchronized void allGame(MockModel mockModel) throws RemoteException {
+            if (this.mockModel == null) playing.incrementAndGet();
+            this.mockModel = mockModel;
+            updateSequence(mockModel.getSequence());
+            if (this.rejoining) {
+                this.rejoining = false;
+                rejoins.increment();
+            }
+            back();
+            newTurn(mockModel.getCurrentPlayer());
+        }
+
+        @Override
+        public synchronized void newTurn(String currentPlayer) throws RemoteException {
+            if (this.mockModel == null) return;
+            if (this.rejoining) {
+                // back in the game, with the updates it missed
+                this.rejoining = false;
+                rejoins.increment();
+                back();
+            }
+            this.mockModel.setCurrentPlayer(currentPlayer);
+            this.turnStarted = false;
+            this.selected = null;
+            this.sort = null;
+            if (currentPlayer.equals(this.playerID)) {
+                Network network = this.network;
+                later(() -> play(network), think);
+            }
+        }
+
+        /**
+         * Selects the tiles of the turn.
+         */
+        private synchronized void play(Network network) {
+            if (network != this.network || network.isClosed() || this.turnStarted || this.mockModel == null
+                    || !this.playerID.equals(this.mockModel.getCurrentPlayer())) return;
+            int room = room();
+            List<Coordinates> pick = pick(Math.min(room, this.failures > 0 ? 1 : 1 + this.random.nextInt(3)));
+            if (pick.isEmpty()) return;
+            this.turnStarted = true;
+            this.selected = pick;
+            this.selectedAt = System.nanoTime();
+            try {
+                network.selectTiles(this.playerID, pick);
+            } catch (RemoteException e) {
+                lost();
+            }
+        }
+
+        @Override
+        public synchronized void outcomeSelectTiles(List<Tile> selectedTiles) throws RemoteException {
+            if (this.selected == null) return;
+            latencies.get(this.transport).add(System.nanoTime() - this.selectedAt);
+            this.sort = new ArrayList<>();
+            for (int i = 1; i <= selectedTiles.size(); i++) this.sort.add(i);
+            Collections.shuffle(this.sort, this.random);
+            this.network.insertTiles(this.playerID, this.sort, column(this.sort.size()));
+        }
+
+        @Override
+        public synchronized void outcomeInsertTiles(boolean success) throws RemoteException {
+            if (!success) return;
+            turns.increment();
+            this.failures = 0;
+            this.selected = null;
+            this.sort = null;
+            if (this.random.nextInt(4) == 0) {
+                this.network.writeChat(this.playerID, "gg from " + this.playerID, null);
+                chats.increment();
+            }
+            if (this.random.nextDouble() < disconnectChance && this.table.away.compareAndSet(null, this)) {
+                disconnections.increment();
+                this.away = true;
+                this.rejoining = true;
+                leave();
+            }
+        }
+
+        @Override
+        public synchronized void outcomeException(Exception e) throws RemoteException {
+            exceptions.increment();
+            if (this.selected == null || this.network == null || this.failures++ > 3) return;
+            if (this.sort != null) {
+                // the insertion was refused, the shelf of the bot may be behind: it tries another column
+                this.network.insertTiles(this.playerID, this.sort, this.random.nextInt(5));
+                return;
+            }
+            // the selection was refused, the board of the bot may be behind: it tries again with a single tile
+            this.turnStarted = false;
+            this.selected = null;
+            Network network = this.network;
+            later(() -> play(network), think);
+        }
+
+        @Override
+        public synchronized void endGame(List<Rank> leaderboard) throws RemoteException {
+            over();
+        }
+
+        @Override
+        public synchronized void outcomeMessage(GameWarning warning) throws RemoteException {
+            if (warning == GameWarning.WON) over();
+        }
+
+        /**
+         * The game is over, the bot logs into the lobby of the next round of the table.
+         */
+        private void over() throws RemoteException {
+            if (this.mockModel == null) return;
+            abandon();
+            this.table.ended(this.round);
+            if (this.network != null) login();
+        }
+
+        /**
+         * Forgets the game, it's over.
+         */
+        private void abandon() {
+            if (this.mockModel != null) playing.decrementAndGet();
+            this.mockModel = null;
+            this.selected = null;
+            this.sort = null;
+            back();
+        }
+
+        @Override
+        public synchronized void crashedPlayer(String crashedPlayer) throws RemoteException {
+            if (this.mockModel != null && this.mockModel.getPlayer(crashedPlayer) != null)
+                this.mockModel.getPlayer(crashedPlayer).setOnline(false);
+        }
+
+        @Override
+        public synchronized void reloadPlayer(String reloadPlayer) throws RemoteException {
+            if (this.mockModel != null && this.mockModel.getPlayer(reloadPlayer) != null)
+                this.mockModel.getPlayer(reloadPlayer).setOnline(true);
+        }
+
+        @Override
+        public synchronized void updateBoard(MockBoard mockBoard) {
+            if (this.mockModel != null) this.mockModel.setMockBoard(mockBoard);
+        }
+
+        @Override
+        public synchronized void updateCommonGoal(MockCommonGoal mockCommonGoal) {
+            if (this.mockModel != null) this.mockModel.update(mockCommonGoal);
+        }
+
+        @Override
+        public synchronized void updatePlayer(MockPlayer mockPlayer) {
+            if (this.mockModel != null) this.mockModel.update(mockPlayer);
+        }
+
+        @Override
+        public void updateChat(ChatMessage message) {
+        }
+
+        @Override
+        protected void requestBoard() throws RemoteException {
+            if (this.network != null) this.network.requestBoard(this.playerID);
+        }
+
+        /**
+         * Logs out of the game, or of the lobby opened by mistake, closes the connection and comes back a little later.
+         */
+        private void leave() throws RemoteException {
+            Network network = this.network;
+            this.network = null;
+            if (network != null) {
+                // the socket network gives up the connection as it logs out, this bot isn't its view any more
+                network.logOut(this.playerID, this.lobbyID);
+                network.close();
+            }
+            later(this::connect, AWAY_MIN + this.random.nextLong(AWAY_MAX - AWAY_MIN));
+        }
+
+        /**
+         * The connection was lost without logging out: the bot comes back as if it left.
+         */
+        private synchronized void lost() {
+            if (this.network == null || this.network.isClosed()) return;
+            drops.increment();
+            this.network.close();
+            this.network = null;
+            if (this.mockModel != null) {
+                this.rejoining = true;
+                this.away = true;
+            }
+            later(this::connect, AWAY_MIN + this.random.nextLong(AWAY_MAX - AWAY_MIN));
+        }
+
+        /**
+         * Records that the bot is back, another bot of the table can leave.
+         */
+        private void back() {
+            this.away = false;
+            this.table.away.compareAndSet(this, null);
+        }
+
+        /**
+         * Returns the most tiles that fit in a column of the shelf of the bot.
+         */
+        private int room() {
+            int room = 0;
+            Tile[][] shelf = shelf();
+            if (shelf == null) return 3;
+            for (int column = 0; column < shelf[0].length; column++) room = Math.max(room, room(shelf, column));
+            return Math.min(3, room);
+        }
+
+        private static int room(Tile[][] shelf, int column) {
+            int free = 0;
+            while (free < shelf.length && shelf[free][column] == null) free++;
+            return free;
+        }
+
+        /**
+         * Returns a random column with room for the tiles.
+         */
+        private int column(int tiles) {
+            Tile[][] shelf = shelf();
+            if (shelf == null) return this.random.nextInt(5);
+            List<Integer> columns = new ArrayList<>();
+            for (int column = 0; column < shelf[0].length; column++)
+                if (room(shelf, column) >= tiles) columns.add(column);
+            return columns.isEmpty() ? 0 : columns.get(this.random.nextInt(columns.size()));
+        }
+
+        private Tile[][] shelf() {
+            MockPlayer player = this.mockModel.getPlayer(this.playerID);
+            return (player != null) ? player.getShelf() : null;
+        }
+
+        /**
+         * Picks up to the given number of tiles that can be taken together, starting from a random free tile
+         * and going on along a row or a column.
+         */
+        private List<Coordinates> pick(int most) {
+            Cell[][] board = this.mockModel.getMockBoard().getBoard();
+            List<Coordinates> free = new ArrayList<>();
+            for (int x = 0; x < board.length; x++)
+                for (int y = 0; y < board[x].length; y++)
+                    if (takeable(board, x, y)) free.add(new Coordinates(x, y));
+            if (free.isEmpty()) return List.of();
+            Coordinates first = free.get(this.random.nextInt(free.size()));
+            List<Coordinates> pick = new ArrayList<>(List.of(first));
+            boolean row = this.random.nextBoolean();
+            for (int step = 1; step < most; step++) {
+                int x = row ? first.x() : first.x() + step;
+                int y = row ? first.y() + step : first.y();
+                if (x >= board.length || y >= board[x].length || !takeable(board, x, y)) break;
+                pick.add(new Coordinates(x, y));
+            }
+            return pick;
+        }
+
+        private static boolean takeable(Cell[][] board, int x, int y) {
+            if (!board[x][y].getStatus() || board[x][y].getTile() == null) return false;
+            if (x == 0 || y == 0 || x == board.length - 1 || y == board[x].length - 1) return true;
+            return board[x - 1][y].getTile() == null || board[x + 1][y].getTile() == null
+                    || board[x][y - 1].getTile() == null || board[x][y + 1].getTile() == null;
+        }
+
+        @Override
+        public String toString() {
+            return this.playerID;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package Messages.Wire;
+
+import Enumeration.TurnPhase;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.AllGameMessage;
+import Messages.ServerMessage;
+import Server.Model.GameModel;
+import Utils.Coordinates;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockFactory;
+import Utils.MockObjects.MockModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways of sending a game update to every recipient of a game: encoding it once per recipient
+ * with the codec (and the compressor) of each connection, and encoding it once in a {@link SharedMessage}
+ * whose frame is written on every connection. The recipients are the players plus the spectators.
+ * <p>
+ * The update is the batch sent at the end of a turn (a board delta, the player and a common goal),
+ * or the whole game sent to a rejoining player.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.args="BroadcastBenchmark"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class BroadcastBenchmark {
+    @Param({"2", "4", "64"})
+    public int recipients;
+
+    @Param({"JAVA", "BINARY"})
+    public WireFormat format;
+
+    @Param({"false", "true"})
+    public boolean compressed;
+
+    @Param({"turn", "allGame"})
+    public String update;
+
+    private ServerMessage message;
+    private MessageCodec[] codecs;
+    private FrameCompressor[] compressors;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        GameModel model = new GameModel("lobby-1", List.of("alice", "bob", "carol", "dave"));
+        MockModel mockModel = MockFactory.getMock(model);
+        mockModel.setCurrentPlayer("alice");
+        mockModel.setTurnPhase(TurnPhase.PICKING);
+        model.getBoard().getTiles(List.of(new Coordinates(4, 1), new Coordinates(4, 2)));
+        MockBoardDelta pick = MockFactory.getDelta(model.getBoard());
+        this.message = switch (this.update) {
+            case "turn" -> new UpdateMessage(new MockBatch(List.of(pick, mockModel.getMockPlayers().get(0), mockModel.getMockCommonGoal().get(0))));
+            default -> new AllGameMessage(mockModel);
+        };
+
+        this.codecs = new MessageCodec[this.recipients];
+        this.compressors = new FrameCompressor[this.recipients];
+        for (int i = 0; i < this.recipients; i++) {
+            this.codecs[i] = this.format.newCodec();
+            // the first message of a connection sends the identifiers in full, measure the steady state
+            this.codecs[i].encode(this.message);
+            if (this.compressed) this.compressors[i] = new FrameCompressor(this.format);
+        }
+    }
+
+    @Benchmark
+    public void perRecipient(Blackhole blackhole) throws IOException {
+        for (int i = 0; i < this.recipients; i++) {
+            byte[] payload = this.codecs[i].encode(this.message);
+            byte[] deflated = this.compressed ? this.compressors[i].compress(payload) : null;
+            if (deflated != null) payload = deflated;
+            ByteBuffer frame = ByteBuffer.allocate(Frame.HEADER_SIZE + payload.length);
+            frame.putInt(deflated != null ? payload.length | Frame.COMPRESSED : payload.length).put(payload).flip();
+            blackhole.consume(frame);
+        }
+    }
+
+    @Benchmark
+    public void shared(Blackhole blackhole) throws IOException {
+        SharedMessage shared = new SharedMessage(this.message);
+        for (int i = 0; i < this.recipients; i++)
+            blackhole.consume(shared.frame(this.format, this.compressed));
+    }
+}
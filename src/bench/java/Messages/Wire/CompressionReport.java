@@ -0,0 +1,134 @@
+package Messages.Wire;
+
+import Enumeration.Color;
+import Enumeration.TurnPhase;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.AllGameMessage;
+import Server.Model.GameModel;
+import Utils.Cell;
+import Utils.ChatMessage;
+import Utils.Tile;
+import Utils.MockObjects.MockFactory;
+import Utils.MockObjects.MockModel;
+import Utils.MockObjects.MockPlayer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.zip.Deflater;
+
+/**
+ * Reports the bytes saved by the {@link FrameCompressor} on late-game snapshots, against the time it costs.
+ * The snapshot is the one sent by a rejoin: a four-player game with the shelves filled to the given level,
+ * half of the board picked and the given number of chat messages. Every payload is compressed without dictionary
+ * and with the preset dictionary at the fastest, default and best level, and decompressed back.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.main=Messages.Wire.CompressionReport -Dbench.args="0.8 150 2000"}
+ * (shelf fill level, chat messages, iterations).
+ */
+public class CompressionReport {
+    private static final String[] PHRASES = {
+            "nice move!", "I'm going for the blue column", "who has the cats?", "gg", "last round!",
+            "I need one more green for my personal goal", "don't take the yellow ones please", "brb",
+            "that's a great combo", "hurry up, it's your turn"
+    };
+
+    public static void main(String[] args) throws Exception {
+        double fill = args.length > 0 ? Double.parseDouble(args[0]) : 0.8;
+        int chat = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        MockModel snapshot = lateGame(fill, chat, new Random(42));
+        Map<String, Serializable> messages = new LinkedHashMap<>();
+        messages.put("AllGame", new AllGameMessage(snapshot));
+        messages.put("Update(board)", new UpdateMessage(snapshot.getMockBoard()));
+        messages.put("Update(player)", new UpdateMessage(snapshot.getMockPlayers().get(0)));
+
+        System.out.printf("late game: shelves %.0f%% full, %d chat messages, %d iterations%n%n", fill * 100, chat, iterations);
+        System.out.printf("%-7s %-15s %7s %8s %8s %8s %8s %10s %10s%n",
+                "format", "message", "raw", "noDict", "dict(1)", "dict(6)", "dict(9)", "deflate6us", "inflate6us");
+        for (WireFormat format : WireFormat.values()) {
+            for (Map.Entry<String, Serializable> entry : messages.entrySet()) {
+                // a fresh codec, as for the first snapshot of a (re)joining connection
+                byte[] payload = format.newCodec().encode(entry.getValue());
+                int noDict = deflate(payload);
+                int fast = size(new FrameCompressor(format, Deflater.BEST_SPEED), payload);
+                FrameCompressor standard = new FrameCompressor(format);
+                int normal = size(standard, payload);
+                int best = size(new FrameCompressor(format, Deflater.BEST_COMPRESSION), payload);
+
+                byte[] compressed = standard.compress(payload);
+                if (compressed != null && !Arrays.equals(payload, standard.decompress(compressed)))
+                    throw new IllegalStateException(entry.getKey() + " doesn't survive the round trip");
+                double deflateMicros = time(iterations, () -> standard.compress(payload));
+                double inflateMicros = compressed == null ? 0 : time(iterations, () -> {
+                    try {
+                        standard.decompress(compressed);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                System.out.printf("%-7s %-15s %7d %8d %8d %8d %8d %10.1f %10.1f%n", format, entry.getKey(), payload.length,
+                        noDict, fast, normal, best, deflateMicros, inflateMicros);
+            }
+        }
+        System.out.printf("%nThe frames below %d bytes are never compressed; a cell equal to the raw size means the frame is sent as it is.%n",
+                FrameCompressor.THRESHOLD);
+    }
+
+    private static MockModel lateGame(double fill, int chat, Random random) {
+        GameModel model = new GameModel("lobby-1", List.of("alice", "bob", "carol", "dave"));
+        MockModel mock = MockFactory.getMock(model);
+        Color[] colors = Color.values();
+        for (MockPlayer player : mock.getMockPlayers()) {
+            Tile[][] shelf = new Tile[6][5];
+            for (int j = 0; j < 5; j++) {
+                int height = (int) Math.round(6 * fill + random.nextGaussian());
+                for (int i = 5; i >= 0 && 5 - i < height; i--)
+                    shelf[i][j] = new Tile(colors[random.nextInt(colors.length)]);
+            }
+            player.setShelf(shelf);
+            player.setScore(random.nextInt(30));
+        }
+        for (Cell[] row : mock.getMockBoard().getBoard())
+            for (Cell cell : row)
+                if (cell != null && random.nextBoolean()) cell.setTile(null);
+
+        List<String> players = List.of("alice", "bob", "carol", "dave");
+        mock.setChat(new Stack<>());
+        for (int i = 0; i < chat; i++) {
+            String from = players.get(random.nextInt(players.size()));
+            String to = random.nextInt(4) == 0 ? players.get(random.nextInt(players.size())) : null;
+            mock.addMessage(new ChatMessage(from, PHRASES[random.nextInt(PHRASES.length)], to));
+        }
+        mock.setCurrentPlayer("alice");
+        mock.setTurnPhase(TurnPhase.PICKING);
+        return mock;
+    }
+
+    private static int size(FrameCompressor compressor, byte[] payload) {
+        byte[] compressed = compressor.compress(payload);
+        return compressed == null ? payload.length : compressed.length;
+    }
+
+    private static int deflate(byte[] payload) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(payload);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8 * 1024];
+        while (!deflater.finished()) out.write(buffer, 0, deflater.deflate(buffer));
+        deflater.end();
+        return out.size();
+    }
+
+    /**
+     * Returns the average time of the task in microseconds, after as many warm-up runs.
+     */
+    private static double time(int iterations, Runnable task) {
+        for (int i = 0; i < iterations; i++) task.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) task.run();
+        return (System.nanoTime() - start) / 1e3 / iterations;
+    }
+}
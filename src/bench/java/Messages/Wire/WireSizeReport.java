@@ -0,0 +1,128 @@
+package Messages.Wire;
+
+import Enumeration.Color;
+import Enumeration.GameWarning;
+import Enumeration.TurnPhase;
+import Messages.Client.GameController.InsertTilesMessage;
+import Messages.Client.GameController.RequestBoardMessage;
+import Messages.Client.GameController.SelectedTilesMessage;
+import Messages.Client.GameController.WriteChatMessage;
+import Messages.Client.Lobby.*;
+import Messages.Server.Network.PongMessage;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.*;
+import Server.Model.GameModel;
+import Utils.ChatMessage;
+import Utils.Coordinates;
+import Utils.Rank;
+import Utils.Tile;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockFactory;
+import Utils.MockObjects.MockModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Reports the bytes sent on the wire for every message, with the legacy object stream
+ * (writeObject and reset on a long-lived stream), with Java-serialized frames and with the {@link BinaryCodec}.
+ * The binary size is reported for the first message, when the identifiers are sent in full,
+ * and for the following ones, when they are sent as handles. Every binary message is decoded and re-encoded
+ * to check that nothing is lost on the way.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.main=Messages.Wire.WireSizeReport}.
+ */
+public class WireSizeReport {
+    public static void main(String[] args) throws Exception {
+        List<String> players = List.of("alice", "bob", "carol", "dave");
+        GameModel model = new GameModel("lobby-1", players);
+        MockModel mockModel = MockFactory.getMock(model);
+        model.getBoard().getTiles(List.of(new Coordinates(4, 1), new Coordinates(4, 2)));
+        MockBoardDelta pick = MockFactory.getDelta(model.getBoard());
+        mockModel.setChat(new Stack<>());
+        mockModel.addMessage(new ChatMessage("alice", "good luck everyone", null));
+        mockModel.setCurrentPlayer("alice");
+        mockModel.setTurnPhase(TurnPhase.PICKING);
+
+        Map<String, String> lobbies = new HashMap<>();
+        lobbies.put("lobby-2", "1/3");
+        lobbies.put("lobby-3", "2/4");
+        Map<String, String> games = new HashMap<>();
+        games.put("lobby-1", "4/4");
+
+        Map<String, Serializable> messages = new LinkedHashMap<>();
+        messages.put("AddPlayer", new AddPlayerMessage("alice", "lobby-1"));
+        messages.put("LobbySize", new LobbySizeMessage("alice", "lobby-1", 4));
+        messages.put("GetLobbiesInfo", new GetLobbiesInfoMessage());
+        messages.put("Ping", new PingMessage("alice", "lobby-1"));
+        messages.put("SelectedTiles", new SelectedTilesMessage("alice", List.of(new Coordinates(4, 1), new Coordinates(4, 2))));
+        messages.put("InsertTiles", new InsertTilesMessage("alice", List.of(1, 0), 3));
+        messages.put("WriteChat", new WriteChatMessage("alice", "nice move!", "bob"));
+        messages.put("RequestBoard", new RequestBoardMessage("alice"));
+        messages.put("LogOut", new LogOutMessage("alice", "lobby-1"));
+        messages.put("AskPlayerInfo", new AskPlayerInfoMessage(List.of(lobbies, games)));
+        messages.put("OutcomeLogin", new OutcomeLoginMessage("alice", "lobby-1"));
+        messages.put("AskLobbySize", new AskLobbySizeMessage());
+        messages.put("Pong", new PongMessage("alice", "lobby-1"));
+        messages.put("AllGame", new AllGameMessage(mockModel));
+        messages.put("Update(board)", new UpdateMessage(mockModel.getMockBoard()));
+        messages.put("Update(boardDelta)", new UpdateMessage(pick));
+        messages.put("Update(player)", new UpdateMessage(mockModel.getMockPlayers().get(0)));
+        messages.put("Update(commonGoal)", new UpdateMessage(mockModel.getMockCommonGoal().get(0)));
+        messages.put("Update(chat)", new UpdateMessage(new ChatMessage("alice", "nice move!", "bob")));
+        messages.put("Update(batch)", new UpdateMessage(new MockBatch(List.of(pick, mockModel.getMockPlayers().get(0), mockModel.getMockCommonGoal().get(0)))));
+        messages.put("NewTurn", new NewTurnMessage("bob"));
+        messages.put("OutcomeSelectTiles", new OutcomeSelectTilesMessage(List.of(new Tile(Color.BLUE), new Tile(Color.PINK))));
+        messages.put("OutcomeInsertTiles", new OutcomeInsertTilesMessage(true));
+        messages.put("Outcome", new OutcomeMessage(GameWarning.LAST_ROUND));
+        messages.put("CrashedPlayer", new CrashedPlayerMessage("carol"));
+        messages.put("ReloadPlayer", new ReloadPlayerMessage("carol"));
+        messages.put("Error", new ErrorMessage(new RuntimeException("It's not your turn")));
+        messages.put("EndGame", new EndGameMessage(List.of(new Rank("alice", 40, 12, 16, 12), new Rank("bob", 31, 6, 17, 8))));
+
+        ByteArrayOutputStream legacyBytes = new ByteArrayOutputStream();
+        ObjectOutputStream legacy = new ObjectOutputStream(legacyBytes);
+        BinaryCodec encoder = new BinaryCodec();
+        BinaryCodec decoder = new BinaryCodec();
+        BinaryCodec mirror = new BinaryCodec();
+
+        System.out.printf("%-20s %8s %8s %13s %14s %7s%n", "message", "legacy", "javaFrm", "binary(first)", "binary(steady)", "saving");
+        long legacyTotal = 0, binaryTotal = 0;
+        for (Map.Entry<String, Serializable> entry : messages.entrySet()) {
+            Serializable message = entry.getValue();
+
+            int before = legacyBytes.size();
+            legacy.writeObject(message);
+            legacy.flush();
+            legacy.reset();
+            int legacySize = legacyBytes.size() - before;
+
+            int javaSize = Frame.HEADER_SIZE + Frame.encode(message).length;
+            int first = Frame.HEADER_SIZE + roundTrip(message, encoder, decoder, mirror);
+            int steady = Frame.HEADER_SIZE + roundTrip(message, encoder, decoder, mirror);
+
+            legacyTotal += legacySize;
+            binaryTotal += steady;
+            System.out.printf("%-20s %8d %8d %13d %14d %6.1f%%%n", entry.getKey(), legacySize, javaSize, first, steady, 100.0 * (legacySize - steady) / legacySize);
+        }
+        System.out.printf("%-20s %8.1f %8s %13s %14.1f %6.1f%%%n", "average", (double) legacyTotal / messages.size(), "", "",
+                (double) binaryTotal / messages.size(), 100.0 * (legacyTotal - binaryTotal) / legacyTotal);
+    }
+
+    /**
+     * Encodes the message, decodes it and checks that the decoded message encodes to the same bytes.
+     *
+     * @return the size of the binary payload
+     */
+    private static int roundTrip(Serializable message, BinaryCodec encoder, BinaryCodec decoder, BinaryCodec mirror) throws IOException {
+        byte[] payload = encoder.encode(message);
+        byte[] again = mirror.encode((Serializable) decoder.decode(payload));
+        if (!Arrays.equals(payload, again))
+            throw new IllegalStateException(message.getClass().getSimpleName() + " doesn't survive the round trip");
+        return payload.length;
+    }
+}
@@ -0,0 +1,134 @@
+package Server.Archive;
+
+import Enumeration.Color;
+import Server.Model.Move;
+import Server.ServerApp;
+import Utils.Coordinates;
+import Utils.Tile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the {@link GameArchive} on many games: how many bytes a game takes, how fast the games are appended,
+ * and how fast the {@link ArchiveReader} answers a query over all of them, the average score by pair of common goals.
+ * <p>
+ * The games are made up, with the sizes of real ones: full shelves, a board with a few tiles left and one move
+ * for every tile of the shelves. The query is timed a few times, the first one maps the file cold from the page cache.
+ * A sample of the games is decoded again and compared with the games written.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.main=Server.Archive.ArchiveScanBenchmark -Dbench.args="2000000 5"}
+ * (games, scans).
+ */
+public class ArchiveScanBenchmark {
+    private static final int SAMPLE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int scans = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        ServerApp.logger = Logger.getLogger(ServerApp.class.getName());
+        ServerApp.logger.setLevel(Level.WARNING);
+        Path file = Files.createTempFile("archive-bench-", ".archive");
+        Files.delete(file);
+
+        Random random = new Random(7);
+        List<GameSummary> sample = new ArrayList<>();
+        long begin = System.nanoTime();
+        try (GameArchive archive = new GameArchive(file)) {
+            for (int i = 0; i < games; i++) {
+                GameSummary game = game(i, random);
+                if (i % (games / SAMPLE + 1) == 0) sample.add(game);
+                archive.append(game);
+            }
+        }
+        double writing = (System.nanoTime() - begin) / 1e9;
+        long size = Files.size(file);
+        System.out.printf("%d games written in %.1f s, %.0f games/s, %.1f MB, %.1f bytes a game%n",
+                games, writing, games / writing, size / 1e6, (double) size / games);
+
+        try (ArchiveReader reader = new ArchiveReader(file)) {
+            List<GameSummary> decoded = new ArrayList<>();
+            int[] index = {0};
+            reader.scan(entry -> {
+                if (index[0]++ % (games / SAMPLE + 1) == 0) decoded.add(entry.summary());
+            });
+            int mismatches = 0;
+            for (int i = 0; i < sample.size(); i++) if (!same(sample.get(i), decoded.get(i))) mismatches++;
+            System.out.println(sample.size() + " games decoded again, " + mismatches + " different");
+
+            List<ArchiveReader.CommonGoalsScore> scores = null;
+            for (int run = 1; run <= scans; run++) {
+                long start = System.nanoTime();
+                scores = reader.scoreByCommonGoals();
+                double elapsed = (System.nanoTime() - start) / 1e9;
+                System.out.printf("scan %d: %.0f ms, %.1f M games/s, %.0f MB/s%n", run, elapsed * 1e3, games / elapsed / 1e6, size / elapsed / 1e6);
+            }
+            scores.sort(Comparator.comparingDouble(ArchiveReader.CommonGoalsScore::average).reversed());
+            System.out.println("Best pairs of common goals:");
+            for (ArchiveReader.CommonGoalsScore score : scores.subList(0, Math.min(5, scores.size())))
+                System.out.printf("\t%s: %.2f in %d games%n", score.commonGoals(), score.average(), score.games());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Makes up a finished game, whose scores depend a little on its common goals.
+     */
+    private static GameSummary game(int index, Random random) {
+        int players = 2 + random.nextInt(3);
+        List<String> playerIDs = new ArrayList<>();
+        for (int i = 0; i < players; i++) playerIDs.add("player" + random.nextInt(100000));
+        int first = random.nextInt(12);
+        int second = (first + 1 + random.nextInt(11)) % 12;
+        int[] personalGoals = new int[players];
+        int[][] scores = new int[players][];
+        List<Tile[][]> shelves = new ArrayList<>();
+        List<Move> moves = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            personalGoals[i] = random.nextInt(12);
+            int personal = random.nextInt(13);
+            int pattern = random.nextInt(20) + first % 4;
+            int shared = random.nextInt(9) + second % 3;
+            scores[i] = new int[]{personal + pattern + shared, personal, pattern, shared};
+            Tile[][] shelf = new Tile[6][5];
+            for (Tile[] row : shelf)
+                for (int column = 0; column < row.length; column++) row[column] = tile(random);
+            shelves.add(shelf);
+        }
+        for (int m = 0; m < 15 * players; m++) {
+            int tiles = 1 + random.nextInt(3);
+            List<Coordinates> coordinates = new ArrayList<>();
+            List<Integer> sort = new ArrayList<>();
+            for (int k = 0; k < tiles; k++) {
+                coordinates.add(new Coordinates(random.nextInt(9), random.nextInt(9)));
+                sort.add(k + 1);
+            }
+            Collections.shuffle(sort, random);
+            moves.add(new Move(playerIDs.get(m % players), coordinates, sort, random.nextInt(5)));
+        }
+        Tile[][] board = new Tile[9][9];
+        for (int t = 0; t < 6; t++) board[random.nextInt(9)][random.nextInt(9)] = tile(random);
+        return new GameSummary("game" + index, GameSummary.Outcome.values()[random.nextInt(10) == 0 ? 1 : 0],
+                1_700_000_000_000L + index, playerIDs, new int[]{first, second}, personalGoals, scores, board, shelves, moves);
+    }
+
+    private static Tile tile(Random random) {
+        return new Tile(Color.values()[random.nextInt(Color.values().length)]);
+    }
+
+    private static boolean same(GameSummary written, GameSummary read) {
+        return written.gameID().equals(read.gameID()) && written.outcome() == read.outcome()
+                && written.endedAt() == read.endedAt() && written.players().equals(read.players())
+                && Arrays.equals(written.commonGoals(), read.commonGoals())
+                && Arrays.equals(written.personalGoals(), read.personalGoals())
+                && Arrays.deepEquals(written.scores(), read.scores())
+                && Arrays.deepEquals(written.board(), read.board())
+                && Arrays.deepEquals(written.shelves().toArray(), read.shelves().toArray())
+                && written.moves().equals(read.moves());
+    }
+}
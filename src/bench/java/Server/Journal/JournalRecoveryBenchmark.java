@@ -0,0 +1,230 @@
+package Server.Journal;
+
+import Enumeration.GameWarning;
+import Interface.Client.RemoteView;
+import Server.Controller.GameController;
+import Server.ExecutionMode;
+import Server.Model.GameModel;
+import Server.Model.LivingRoom.Board;
+import Server.Model.Player.Shelf;
+import Server.Network.Client.ClientHandler;
+import Server.Network.Client.RemoteDispatcher;
+import Server.Network.Lobby.Lobby;
+import Server.ServerApp;
+import Utils.Coordinates;
+import Utils.MockObjects.MockModel;
+import Utils.Rank;
+import Utils.Tile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures how long the server takes to rebuild its games from the {@link MoveJournal} after a crash.
+ * It plays many games at once with the journal on, every turn a player selects a tile, inserts it and writes a
+ * chat message, and leaves the last turn of every other game half done, with the tile selected. Then the server
+ * "crashes": the journal is left as it is, without closing it, and a new lobby recovers the games from it, as a
+ * restarted server does; the recovery is repeated, each one on top of the restarts of the ones before.
+ * <p>
+ * It reports the time to read the segments and the time to replay the games, and checks that every game came back
+ * as it was: the games crashed between two turns must have the same board, current player and version.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.main=Server.Journal.JournalRecoveryBenchmark -Dbench.args="1000 12 4 3"}
+ * (games, turns of every game, players of every game, recoveries).
+ */
+public class JournalRecoveryBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int turns = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        int players = args.length > 2 ? Math.min(4, Math.max(2, Integer.parseInt(args[2]))) : 4;
+        int recoveries = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        ServerApp.logger = Logger.getLogger(ServerApp.class.getName());
+        ServerApp.logger.setLevel(Level.WARNING);
+        ServerApp.executorService = ExecutionMode.CACHED.taskExecutor();
+        ServerApp.gameService = ExecutionMode.CACHED.gameExecutor();
+        ServerApp.dispatcher = new RemoteDispatcher(ExecutionMode.CACHED.dispatchExecutor(), (playerID, lobbyID) -> {
+        });
+        ServerApp.lobby = Lobby.create();
+        Path directory = Files.createTempDirectory("journal-bench-");
+        ServerApp.journal = new MoveJournal(directory);
+
+        long begin = System.nanoTime();
+        List<GameController> played = play(games, turns, players);
+        double playing = (System.nanoTime() - begin) / 1e6;
+        Map<String, Expected> expected = new HashMap<>();
+        for (GameController game : played) expected.put(game.getGameID(), new Expected(game));
+        System.out.printf("%d games of %d players, %d turns: played in %.0f ms, journal %s%n", games, players, turns, playing, ServerApp.journal);
+
+        System.out.printf("%8s %8s %10s %10s %10s %10s %12s %9s%n", "recovery", "games", "records", "read(ms)", "replay(ms)", "total(ms)", "per game(us)", "mismatch");
+        for (int run = 1; run <= recoveries; run++) {
+            // the crash: the journal is left open, the new lobby reads what the old one wrote
+            long start = System.nanoTime();
+            MoveJournal journal = new MoveJournal(directory);
+            long read = System.nanoTime();
+            Lobby lobby = Lobby.create();
+            ServerApp.lobby = lobby;
+            ServerApp.journal = journal;
+            int recovered = lobby.recover(journal);
+            long end = System.nanoTime();
+
+            int records = journal.getRecovered().values().stream().mapToInt(List::size).sum();
+            int mismatches = 0;
+            for (Expected game : expected.values())
+                if (!game.matches(lobby.findGame(game.gameID))) mismatches++;
+            System.out.printf("%8d %8d %10d %10.1f %10.1f %10.1f %12.1f %9d%n", run, recovered, records,
+                    (read - start) / 1e6, (end - read) / 1e6, (end - start) / 1e6, (end - start) / 1e3 / Math.max(1, recovered), mismatches);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Plays the turns of all the games, one turn of every game at a time.
+     */
+    private static List<GameController> play(int games, int turns, int players) throws Exception {
+        List<GameController> started = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            HashMap<String, ClientHandler> handlers = new HashMap<>();
+            for (int p = 0; p < players; p++) {
+                String playerID = "game" + i + "-p" + p;
+                handlers.put(playerID, new ClientHandler(playerID, "game" + i, new Silent()));
+            }
+            started.add(new GameController("game" + i, handlers));
+        }
+        for (int turn = 0; turn < turns; turn++) {
+            CountDownLatch done = new CountDownLatch(started.size());
+            for (int i = 0; i < started.size(); i++) {
+                GameController game = started.get(i);
+                GameModel model = game.getGameModel();
+                String current = model.getCurrentPlayer().getPlayerID();
+                Coordinates pick = pickable(model.getBoard());
+                int column = freeColumn(model.getCurrentPlayer().getMyShelf());
+                if (pick != null && column >= 0) {
+                    game.selectTiles(current, List.of(pick));
+                    // every other game crashes with the tile selected
+                    if (turn < turns - 1 || i % 2 == 0) game.insertTiles(current, List.of(1), column);
+                }
+                game.writeChat(current, "turn " + turn, null);
+                game.execute(done::countDown);
+            }
+            if (!done.await(60, TimeUnit.SECONDS)) throw new IllegalStateException("Turn " + turn + " not played");
+        }
+        return started;
+    }
+
+    private static Coordinates pickable(Board board) {
+        for (int x = 0; x < board.getBoard().length; x++)
+            for (int y = 0; y < board.getBoard()[x].length; y++) {
+                try {
+                    board.convalidateMove(List.of(new Coordinates(x, y)));
+                    return new Coordinates(x, y);
+                } catch (Exception e) {
+                    // not pickable
+                }
+            }
+        return null;
+    }
+
+    private static int freeColumn(Shelf shelf) {
+        for (int column = 0; column < shelf.numberColumns(); column++)
+            if (shelf.getTile(0, column) == null) return column;
+        return -1;
+    }
+
+    /**
+     * A game as it was when the server crashed.
+     */
+    private static class Expected {
+        private final String gameID;
+        private final boolean betweenTurns;
+        private final long version;
+        private final String current;
+        private final Tile[][] board;
+
+        private Expected(GameController game) {
+            this.gameID = game.getGameID();
+            MockModel model = game.getGameModel().snapshot().model();
+            this.version = game.getGameModel().getVersion();
+            this.current = game.getGameModel().getCurrentPlayer().getPlayerID();
+            this.board = tiles(model);
+            this.betweenTurns = Integer.parseInt(this.gameID.substring(4)) % 2 == 0;
+        }
+
+        private boolean matches(GameController game) {
+            if (game == null) return false;
+            if (!this.betweenTurns) return true;
+            return this.version == game.getGameModel().getVersion()
+                    && this.current.equals(game.getGameModel().getCurrentPlayer().getPlayerID())
+                    && Arrays.deepEquals(this.board, tiles(game.getGameModel().snapshot().model()));
+        }
+
+        private static Tile[][] tiles(MockModel model) {
+            var cells = model.getMockBoard().getBoard();
+            Tile[][] tiles = new Tile[cells.length][];
+            for (int x = 0; x < cells.length; x++) {
+                tiles[x] = new Tile[cells[x].length];
+                for (int y = 0; y < cells[x].length; y++) tiles[x][y] = cells[x][y].getTile();
+            }
+            return tiles;
+        }
+    }
+
+    /**
+     * A player that ignores what the game sends it.
+     */
+    private static class Silent implements RemoteView {
+        @Override
+        public void newTurn(String currentPlayer) {
+        }
+
+        @Override
+        public void outcomeSelectTiles(List<Tile> selectedTiles) {
+        }
+
+        @Override
+        public void outcomeInsertTiles(boolean success) {
+        }
+
+        @Override
+        public void outcomeException(Exception e) {
+        }
+
+        @Override
+        public void outcomeLogin(String localPlayer, String lobbyID) {
+        }
+
+        @Override
+        public void askPlayerInfo(List<Map<String, String>> lobbyInfo) {
+        }
+
+        @Override
+        public void askLobbySize() {
+        }
+
+        @Override
+        public void allGame(MockModel mockModel) {
+        }
+
+        @Override
+        public void endGame(List<Rank> leaderboard) {
+        }
+
+        @Override
+        public void crashedPlayer(String crashedPlayer) {
+        }
+
+        @Override
+        public void reloadPlayer(String reloadPlayer) {
+        }
+
+        @Override
+        public void outcomeMessage(GameWarning warning) {
+        }
+    }
+}
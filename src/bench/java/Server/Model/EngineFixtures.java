@@ -0,0 +1,97 @@
+package Server.Model;
+
+import Enumeration.Color;
+import Server.Model.Player.PersonalGoal;
+import Server.Model.Player.Player;
+import Utils.Tile;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * The games made up for the benchmarks of the model: the settings of the game and shelves filled at random,
+ * the same ones on every run.
+ */
+public final class EngineFixtures {
+    /**
+     * The number of shelves a benchmark goes through, so a single lucky shelf doesn't decide the numbers;
+     * a power of two, the next shelf is picked with a mask.
+     */
+    public static final int SHELVES = 256;
+
+    private EngineFixtures() {
+    }
+
+    /**
+     * Reads a file of the settings, as the {@link GameModel} does.
+     *
+     * @param name the name of the file, in the settings folder
+     * @param type the type of its content
+     * @return the content of the file
+     */
+    public static <T extends JsonElement> T settings(String name, Class<T> type) {
+        JsonReader reader = new JsonReader(new InputStreamReader(Objects.requireNonNull(ClassLoader.getSystemResourceAsStream("settings/" + name))));
+        return new Gson().fromJson(reader, type);
+    }
+
+    /**
+     * Makes up a shelf with the given share of its cells filled, the tiles of a column laid from the bottom up
+     * as the inserts do, in random columns and of random colors.
+     *
+     * @param random the source of the colors and the columns
+     * @param fill   the share of the filled cells, in percent
+     * @return the tiles of the shelf, 6 rows of 5 columns, the first row at the top
+     */
+    public static Tile[][] shelf(Random random, int fill) {
+        Tile[][] shelf = new Tile[6][5];
+        int[] heights = new int[5];
+        int tiles = Math.round(30 * fill / 100f);
+        for (int placed = 0; placed < tiles; placed++) {
+            int column = random.nextInt(5);
+            while (heights[column] == 6) column = (column + 1) % 5;
+            shelf[5 - heights[column]++][column] = new Tile(Color.values()[random.nextInt(Color.values().length)]);
+        }
+        return shelf;
+    }
+
+    /**
+     * Makes up players with the shelves of {@link #shelf(Random, int)} and the personal goals of the settings, in turn.
+     *
+     * @param seed the seed of the shelves
+     * @param fill the share of the filled cells of the shelves, in percent
+     * @return {@link #SHELVES} players
+     */
+    public static List<Player> players(long seed, int fill) {
+        Random random = new Random(seed);
+        List<PersonalGoal> personalGoals = personalGoals();
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < SHELVES; i++) {
+            Player player = new Player("player" + i, personalGoals.get(i % personalGoals.size()));
+            Tile[][] shelf = shelf(random, fill);
+            for (int row = 0; row < shelf.length; row++)
+                for (int column = 0; column < shelf[row].length; column++)
+                    if (shelf[row][column] != null) player.getMyShelf().placeTile(shelf[row][column], row, column);
+            players.add(player);
+        }
+        return players;
+    }
+
+    /**
+     * Returns the personal goals of the settings.
+     *
+     * @return the personal goals, in the order of the settings
+     */
+    public static List<PersonalGoal> personalGoals() {
+        List<PersonalGoal> personalGoals = new ArrayList<>();
+        for (JsonElement json : settings("personalGoal.json", JsonArray.class))
+            personalGoals.add(new PersonalGoal(json.getAsJsonObject(), personalGoals.size()));
+        return personalGoals;
+    }
+}
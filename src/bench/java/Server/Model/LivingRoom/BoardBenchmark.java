@@ -0,0 +1,131 @@
+package Server.Model.LivingRoom;
+
+import Exception.Board.CantRefillBoardException;
+import Exception.Board.NoValidMoveException;
+import Exception.Board.NullTileException;
+import Server.Model.EngineFixtures;
+import Utils.Cell;
+import Utils.Coordinates;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the checks of the board made at every turn: {@link Board#convalidateMove(List)} on the moves a player
+ * can make and on moves it can't, and {@link Board#checkRefill(Bag)} after the move.
+ * <p>
+ * The board of the settings for the number of players is laid out full, with half of its tiles taken at random,
+ * or with only the tiles with no other tile beside them, as in a board that needs a refill.
+ * Nothing was taken from the board, so the refill of the isolated board draws no tile and leaves it as it is:
+ * {@code checkRefill} looks at every tile on it, where on the other boards it stops at the first tile with a neighbour.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.args="BoardBenchmark -prof gc"},
+ * the gc profiler reports the bytes allocated by every call as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class BoardBenchmark {
+    private static final int MOVES = 256;
+
+    @Param({"2", "3", "4"})
+    public int players;
+
+    @Param({"full", "half", "isolated"})
+    public String layout;
+
+    private Board board;
+    private Bag bag;
+    private List<List<Coordinates>> validMoves;
+    private List<List<Coordinates>> invalidMoves;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(this.players);
+        JsonObject settings = EngineFixtures.settings("board.json", JsonObject.class).getAsJsonObject(Integer.toString(this.players));
+        this.bag = new Bag(random);
+        this.board = new Board(settings, this.bag);
+        Cell[][] cells = this.board.getBoard();
+        for (int x = 0; x < cells.length; x++)
+            for (int y = 0; y < cells.length; y++)
+                switch (this.layout) {
+                    case "half" -> {
+                        if (random.nextBoolean()) cells[x][y].setTile(null);
+                    }
+                    case "isolated" -> {
+                        if ((x + y) % 2 == 1) cells[x][y].setTile(null);
+                    }
+                    default -> {
+                    }
+                }
+
+        List<List<Coordinates>> valid = new ArrayList<>();
+        for (int x = 0; x < cells.length; x++)
+            for (int y = 0; y < cells.length; y++)
+                for (int tiles = 1; tiles <= 3; tiles++) {
+                    addIfValid(valid, row(x, y, tiles, 0, 1));
+                    if (tiles > 1) addIfValid(valid, row(x, y, tiles, 1, 0));
+                }
+        List<List<Coordinates>> invalid = new ArrayList<>();
+        while (invalid.size() < MOVES) {
+            List<Coordinates> move = new ArrayList<>();
+            for (int tiles = 1 + random.nextInt(3); tiles > 0; tiles--)
+                move.add(new Coordinates(random.nextInt(cells.length), random.nextInt(cells.length)));
+            if (!isValid(move)) invalid.add(move);
+        }
+
+        this.validMoves = new ArrayList<>();
+        this.invalidMoves = invalid;
+        while (this.validMoves.size() < MOVES) this.validMoves.add(valid.get(random.nextInt(valid.size())));
+    }
+
+    private static List<Coordinates> row(int x, int y, int tiles, int dx, int dy) {
+        List<Coordinates> move = new ArrayList<>();
+        for (int i = 0; i < tiles; i++) move.add(new Coordinates(x + i * dx, y + i * dy));
+        return move;
+    }
+
+    private void addIfValid(List<List<Coordinates>> moves, List<Coordinates> move) {
+        if (isValid(move)) moves.add(move);
+    }
+
+    private boolean isValid(List<Coordinates> move) {
+        try {
+            this.board.convalidateMove(move);
+            return true;
+        } catch (NoValidMoveException | NullTileException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public List<Coordinates> validMove() throws NoValidMoveException, NullTileException {
+        List<Coordinates> move = this.validMoves.get(this.next++ & (MOVES - 1));
+        this.board.convalidateMove(move);
+        return move;
+    }
+
+    @Benchmark
+    public Exception invalidMove() {
+        try {
+            this.board.convalidateMove(this.invalidMoves.get(this.next++ & (MOVES - 1)));
+            return null;
+        } catch (NoValidMoveException | NullTileException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Board checkRefill() throws CantRefillBoardException {
+        this.board.checkRefill(this.bag);
+        return this.board;
+    }
+}
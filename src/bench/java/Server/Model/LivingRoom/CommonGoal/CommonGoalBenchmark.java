@@ -0,0 +1,76 @@
+package Server.Model.LivingRoom.CommonGoal;
+
+import Exception.CommonGoal.NullPlayerException;
+import Server.Model.EngineFixtures;
+import Server.Model.Player.Player;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CommonGoal#check(Player)} of every common goal of the settings, on shelves filled at random
+ * up to a share of their cells. The goals are built by the {@link CommonGoalFactory}: 0 and 1 are
+ * {@link GroupAdjacentGoal}, 2 {@link VerticesGoal}, 3 {@link SquareGoal}, 4 {@link SameNGoal}, 5 {@link DiagonalGoal},
+ * 6 {@link CrossGoal}, 7 {@link StaircaseGoal} and 8 to 11 {@link RowColumnGoal}.
+ * <p>
+ * Every call checks the next of {@link EngineFixtures#SHELVES} shelves. A goal can be accomplished only once
+ * by a player, so when a shelf accomplishes it the player is forgotten and the token is given back,
+ * and the message of the accomplished goal is printed on a stream that throws it away.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.args="CommonGoalBenchmark -prof gc"},
+ * the gc profiler reports the bytes allocated by every check as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class CommonGoalBenchmark {
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"})
+    public int goal;
+
+    @Param({"20", "50", "80", "100"})
+    public int fill;
+
+    private CommonGoal commonGoal;
+    private Player[] players;
+    private int next;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JsonObject settings = EngineFixtures.settings("commonGoal.json", JsonObject.class);
+        List<Integer> tokens = new ArrayList<>();
+        for (JsonElement token : settings.getAsJsonObject("scoringToken").getAsJsonArray("4")) tokens.add(0, token.getAsInt());
+        for (JsonElement json : settings.getAsJsonArray("commonGoal"))
+            if (json.getAsJsonObject().get("enum").getAsInt() == this.goal)
+                this.commonGoal = CommonGoalFactory.getCommonGoal(tokens, json.getAsJsonObject());
+        this.players = EngineFixtures.players(this.goal * 101L + this.fill, this.fill).toArray(new Player[0]);
+
+        this.out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(this.out);
+    }
+
+    @Benchmark
+    public CommonGoal check() throws NullPlayerException {
+        Player player = this.players[this.next++ & (EngineFixtures.SHELVES - 1)];
+        this.commonGoal.check(player);
+        if (!this.commonGoal.getAccomplished().isEmpty()) {
+            this.commonGoal.getAccomplished().clear();
+            this.commonGoal.getScoringToken().push(2);
+        }
+        return this.commonGoal;
+    }
+}
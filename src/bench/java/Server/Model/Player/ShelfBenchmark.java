@@ -0,0 +1,54 @@
+package Server.Model.Player;
+
+import Server.Model.EngineFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the scores of a shelf, {@link Shelf#checkEndGame()} for the groups of adjacent tiles
+ * and {@link PersonalGoal#check(Utils.Tile[][])} for the personal goal, and {@link Shelf#maxTiles()},
+ * asked at every turn, on shelves filled at random up to a share of their cells.
+ * Every call takes the next of {@link EngineFixtures#SHELVES} shelves, each with one of the personal goals of the settings.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.args="ShelfBenchmark -prof gc"},
+ * the gc profiler reports the bytes allocated by every call as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ShelfBenchmark {
+    @Param({"0", "20", "50", "80", "100"})
+    public int fill;
+
+    private Player[] players;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.players = EngineFixtures.players(this.fill, this.fill).toArray(new Player[0]);
+    }
+
+    private Player nextPlayer() {
+        return this.players[this.next++ & (EngineFixtures.SHELVES - 1)];
+    }
+
+    @Benchmark
+    public int checkEndGame() {
+        return nextPlayer().getMyShelf().checkEndGame();
+    }
+
+    @Benchmark
+    public int maxTiles() {
+        return nextPlayer().getMyShelf().maxTiles();
+    }
+
+    @Benchmark
+    public int personalGoal() {
+        Player player = nextPlayer();
+        return player.getPersonalGoal().check(player.getMyShelf().getMyShelf());
+    }
+}
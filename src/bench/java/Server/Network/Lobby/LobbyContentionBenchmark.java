@@ -0,0 +1,205 @@
+package Server.Network.Lobby;
+
+import Enumeration.GameWarning;
+import Interface.Client.RemoteClient;
+import Interface.Client.RemoteView;
+import Interface.Server.GameCommand;
+import Server.ExecutionMode;
+import Server.Network.Client.RemoteDispatcher;
+import Server.ServerApp;
+import Utils.MockObjects.MockModel;
+import Utils.Rank;
+import Utils.Tile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drives the {@link Lobby} with many threads at once, each one keeping its own players logged in: every operation
+ * logs out its oldest player, logs in a new one, pings one of the others and now and then reads the lobby information.
+ * So thousands of sessions are alive while the logins, pings and logouts run concurrently.
+ * It reports the throughput and the latency of every kind of operation.
+ * <p>
+ * The players join lobbies of up to three players, so no game starts and only the lobby itself is measured;
+ * with one player per lobby the threads never share a lobby, and any waiting is contention inside the lobby.
+ * The clients answer at once, the logger only writes warnings.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.main=Server.Network.Lobby.LobbyContentionBenchmark -Dbench.args="32 128 20000 1"}
+ * (threads, players kept by each thread, operations of each thread, players per lobby).
+ */
+public class LobbyContentionBenchmark {
+    private static final String[] OPERATIONS = {"login", "ping", "logOut", "lobbyInfo"};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 128;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        int perLobby = args.length > 3 ? Math.min(3, Math.max(1, Integer.parseInt(args[3]))) : 1;
+
+        ServerApp.logger = Logger.getLogger(ServerApp.class.getName());
+        ServerApp.logger.setLevel(Level.WARNING);
+        ServerApp.executorService = ExecutionMode.CACHED.taskExecutor();
+        ServerApp.gameService = ExecutionMode.CACHED.gameExecutor();
+        ServerApp.dispatcher = new RemoteDispatcher(ExecutionMode.CACHED.dispatchExecutor(), (playerID, lobbyID) -> {
+        });
+        Lobby lobby = Lobby.create();
+        ServerApp.lobby = lobby;
+
+        // warm-up, then the measured run with new players
+        run(lobby, threads, sessions, operations / 4, perLobby, "w");
+        long[][] latencies = new long[OPERATIONS.length][];
+        long elapsed = run(lobby, threads, sessions, operations, perLobby, "m", latencies);
+
+        long total = (long) threads * operations;
+        System.out.printf("%d threads, %d live sessions, %d players per lobby: %.0f operations/s%n",
+                threads, threads * sessions, perLobby, total / (elapsed / 1e9));
+        System.out.printf("%-10s %10s %9s %9s %9s%n", "operation", "calls", "p50(us)", "p99(us)", "max(us)");
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            long[] sorted = latencies[i];
+            Arrays.sort(sorted);
+            if (sorted.length == 0) continue;
+            System.out.printf("%-10s %10d %9.1f %9.1f %9.1f%n", OPERATIONS[i], sorted.length,
+                    sorted[sorted.length / 2] / 1e3, sorted[(int) (sorted.length * 0.99)] / 1e3, sorted[sorted.length - 1] / 1e3);
+        }
+        System.exit(0);
+    }
+
+    private static long run(Lobby lobby, int threads, int sessions, int operations, int perLobby, String round) throws Exception {
+        return run(lobby, threads, sessions, operations, perLobby, round, null);
+    }
+
+    private static long run(Lobby lobby, int threads, int sessions, int operations, int perLobby, String round, long[][] latencies) throws Exception {
+        List<long[][]> samples = new ArrayList<>();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        var workers = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            long[][] sample = new long[OPERATIONS.length][operations];
+            int[] counts = new int[OPERATIONS.length];
+            samples.add(sample);
+            String thread = round + t;
+            workers.execute(() -> {
+                String[] players = new String[sessions];
+                String[] lobbies = new String[sessions];
+                FakeClient[] clients = new FakeClient[sessions];
+                ready.countDown();
+                try {
+                    start.await();
+                    for (int op = 0; op < operations; op++) {
+                        int slot = op % sessions;
+                        if (players[slot] != null)
+                            time(sample, counts, 2, () -> lobby.logOut(players[slot], lobbies[slot]));
+                        players[slot] = thread + "-p" + op;
+                        lobbies[slot] = thread + "-l" + (op / perLobby);
+                        clients[slot] = new FakeClient();
+                        time(sample, counts, 0, () -> lobby.login(players[slot], lobbies[slot], clients[slot], clients[slot]));
+                        int other = ThreadLocalRandom.current().nextInt(sessions);
+                        if (players[other] != null)
+                            time(sample, counts, 1, () -> lobby.ping(players[other], lobbies[other]));
+                        if (op % 16 == 0) time(sample, counts, 3, () -> lobby.getLobbyInfo(clients[slot]));
+                    }
+                    for (int slot = 0; slot < sessions; slot++)
+                        if (players[slot] != null) lobby.logOut(players[slot], lobbies[slot]);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    for (int i = 0; i < OPERATIONS.length; i++) sample[i] = Arrays.copyOf(sample[i], counts[i]);
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        workers.shutdown();
+
+        if (latencies != null) {
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                int index = i;
+                latencies[i] = samples.stream().flatMapToLong(sample -> Arrays.stream(sample[index])).toArray();
+            }
+        }
+        return elapsed;
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private static void time(long[][] sample, int[] counts, int kind, Operation operation) throws Exception {
+        long begin = System.nanoTime();
+        operation.run();
+        sample[kind][counts[kind]++] = System.nanoTime() - begin;
+    }
+
+    /**
+     * A client that answers every call at once.
+     */
+    private static class FakeClient implements RemoteView, RemoteClient {
+        @Override
+        public void newTurn(String currentPlayer) {
+        }
+
+        @Override
+        public void askLobbySize() {
+        }
+
+        @Override
+        public void outcomeSelectTiles(List<Tile> selectedTiles) {
+        }
+
+        @Override
+        public void outcomeInsertTiles(boolean success) {
+        }
+
+        @Override
+        public void outcomeException(Exception e) {
+        }
+
+        @Override
+        public void outcomeLogin(String localPlayer, String lobbyID) {
+        }
+
+        @Override
+        public void askPlayerInfo(List<Map<String, String>> lobbyInfo) {
+        }
+
+        @Override
+        public void allGame(MockModel mockModel) {
+        }
+
+        @Override
+        public void endGame(List<Rank> leaderboard) {
+        }
+
+        @Override
+        public void crashedPlayer(String crashedPlayer) {
+        }
+
+        @Override
+        public void reloadPlayer(String reloadPlayer) {
+        }
+
+        @Override
+        public void outcomeMessage(GameWarning warning) {
+        }
+
+        @Override
+        public void pong(String playerID, String lobbyID) {
+        }
+
+        @Override
+        public void setGameController(GameCommand gameController) {
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package Server.Network.Router;
+
+import Enumeration.GameWarning;
+import Interface.Client.RemoteClient;
+import Interface.Client.RemoteView;
+import Interface.Scout;
+import Interface.Server.GameCommand;
+import Interface.Server.LobbyInterface;
+import Interface.Server.RouterInterface;
+import Utils.ChatMessage;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockModel;
+import Utils.Rank;
+import Utils.Tile;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how the throughput of the games grows with the backends behind a {@link LobbyRouter}.
+ * Every run starts a router and 1, 2, 4... backends, each in its own process on this machine, and plays the same
+ * number of two-player games through the router: the players log in through the router, then the two players of a game
+ * send each other chat messages, one waiting for the message of the other before answering.
+ * It reports the chat messages delivered per second, their round-trip latency and the speedup over one backend.
+ * <p>
+ * With {@code taskset} and enough cores, every backend is pinned to its own cores, the last ones of the machine,
+ * as if it ran on a host of that size, and the router and the players keep the first cores.
+ * Otherwise the backends share the machine, and the throughput grows only while they have idle cores to take.
+ * The logs of the servers are left in a temporary directory.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.main=Server.Network.Router.RouterScalingBenchmark -Dbench.args="4 256 10 1"}
+ * (maximum backends, games, seconds of every run, cores of every backend).
+ */
+public class RouterScalingBenchmark {
+    private static final String HOST = "127.0.0.1";
+    private static final int BASE_PORT = 47000;
+    private static final long WARM_UP = 2000;
+
+    private static ExecutorService players;
+
+    public static void main(String[] args) throws Exception {
+        int maxBackends = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int cores = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        int available = Runtime.getRuntime().availableProcessors();
+        boolean pin = new File("/usr/bin/taskset").canExecute() && maxBackends * cores + 2 <= available;
+        System.out.println(pin ? "Every backend pinned to " + cores + " cores of " + available
+                : "Backends not pinned: " + available + " cores, " + (maxBackends * cores + 2) + " needed and taskset");
+        players = Executors.newFixedThreadPool(Math.max(4, available));
+
+        List<String> rows = new ArrayList<>();
+        double base = 0;
+        int round = 0;
+        for (int backends = 1; backends <= maxBackends; backends *= 2) {
+            double[] result = run(round++, backends, games, seconds, pin ? cores : 0, available);
+            if (base == 0) base = result[0];
+            rows.add(String.format("%8d %6d %12.0f %9.2f %9.2f %8.2fx", backends, games, result[0], result[1], result[2], result[0] / base));
+        }
+        System.out.printf("%8s %6s %12s %9s %9s %9s%n", "backends", "games", "messages/s", "p50(ms)", "p99(ms)", "speedup");
+        rows.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    /**
+     * Starts the servers, plays the games and stops the servers.
+     *
+     * @return the messages delivered per second, and the p50 and p99 of their round trip in milliseconds
+     */
+    private static double[] run(int round, int backends, int games, int seconds, int cores, int available) throws Exception {
+        Path dir = Files.createTempDirectory("router-bench-" + backends + "-");
+        int routerPort = BASE_PORT + round * 100;
+        List<Process> processes = new ArrayList<>();
+        List<Table> tables = new ArrayList<>();
+        try {
+            List<String> addresses = new ArrayList<>();
+            for (int k = 0; k < backends; k++) {
+                int port = routerPort + 10 * (k + 1);
+                addresses.add(HOST + ":" + (port + 1));
+                String cpus = cores > 0 ? (available - (k + 1) * cores) + "-" + (available - k * cores - 1) : null;
+                processes.add(server(dir.resolve("backend" + k), cpus, "-s", String.valueOf(port), "-r", String.valueOf(port + 1), "-u", HOST + ":" + (routerPort + 1)));
+            }
+            processes.add(server(dir.resolve("router"), null, "-s", String.valueOf(routerPort), "-r", String.valueOf(routerPort + 1), "-k", String.join(",", addresses)));
+
+            Registry registry = LocateRegistry.getRegistry(HOST, routerPort + 1);
+            awaitBackends(registry, backends);
+            LobbyInterface lobby = (LobbyInterface) registry.lookup("Lobby");
+
+            CountDownLatch ready = new CountDownLatch(2 * games);
+            for (int i = 0; i < games; i++) tables.add(new Table("b" + backends + "-game" + i, lobby, ready));
+            if (!ready.await(60, TimeUnit.SECONDS)) throw new IllegalStateException(ready.getCount() + " players not playing, see " + dir);
+
+            for (Table table : tables) table.start();
+            Thread.sleep(WARM_UP);
+            for (Table table : tables) table.measure(true);
+            long begin = System.nanoTime();
+            Thread.sleep(seconds * 1000L);
+            for (Table table : tables) table.measure(false);
+            long elapsed = System.nanoTime() - begin;
+
+            long[] latencies = tables.stream().flatMapToLong(table -> Arrays.stream(table.latencies())).sorted().toArray();
+            if (latencies.length == 0) throw new IllegalStateException("No message delivered, see " + dir);
+            return new double[]{latencies.length / (elapsed / 1e9),
+                    latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99)] / 1e6};
+        } finally {
+            for (Table table : tables) table.stop();
+            for (Process process : processes) process.destroy();
+            for (Process process : processes)
+                if (!process.waitFor(5, TimeUnit.SECONDS)) process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Starts a server in its own process and directory, pinned to the given cores if any.
+     */
+    private static Process server(Path dir, String cpus, String... options) throws Exception {
+        Files.createDirectories(dir);
+        List<String> command = new ArrayList<>();
+        if (cpus != null) command.addAll(List.of("taskset", "-c", cpus));
+        command.addAll(List.of(ProcessHandle.current().info().command().orElse("java"), "--enable-preview",
+                "-cp", System.getProperty("java.class.path"), "Server.ServerApp", HOST));
+        command.addAll(List.of(options));
+        return new ProcessBuilder(command).directory(dir.toFile())
+                .redirectErrorStream(true).redirectOutput(dir.resolve("out.txt").toFile()).start();
+    }
+
+    private static void awaitBackends(Registry registry, int backends) throws Exception {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                if (((RouterInterface) registry.lookup("Router")).getLoads().size() == backends) return;
+            } catch (Exception e) {
+                // not started yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("The backends didn't report to the router");
+    }
+
+    /**
+     * A game of two players sending each other chat messages, one message at a time.
+     */
+    private static class Table {
+        private final Player first;
+        private final Player second;
+        private volatile boolean running;
+        private volatile boolean measuring;
+        private volatile long sentAt;
+        private final List<Long> latencies;
+        private final AtomicLong sequence;
+
+        private Table(String lobbyID, LobbyInterface lobby, CountDownLatch ready) throws RemoteException {
+            this.latencies = new ArrayList<>();
+            this.sequence = new AtomicLong();
+            this.first = new Player(lobbyID + "-a", lobbyID, lobby, this, ready);
+            this.second = new Player(lobbyID + "-b", lobbyID, lobby, this, ready);
+            this.first.other = this.second;
+            this.second.other = this.first;
+            lobby.login(this.first.name, lobbyID, this.first.stub(), this.first.stub());
+            lobby.login(this.second.name, lobbyID, this.second.stub(), this.second.stub());
+        }
+
+        private void start() {
+            this.running = true;
+            send(this.first);
+        }
+
+        private void measure(boolean measuring) {
+            this.measuring = measuring;
+        }
+
+        private void stop() {
+            this.running = false;
+            this.first.unexport();
+            this.second.unexport();
+        }
+
+        private void send(Player from) {
+            if (!this.running) return;
+            this.sentAt = System.nanoTime();
+            players.execute(() -> {
+                try {
+                    from.game.writeChat(from.name, "m" + this.sequence.incrementAndGet(), from.other.name);
+                } catch (RemoteException e) {
+                    this.running = false;
+                }
+            });
+        }
+
+        private void received(Player to) {
+            long latency = System.nanoTime() - this.sentAt;
+            if (this.measuring) {
+                synchronized (this.latencies) {
+                    this.latencies.add(latency);
+                }
+            }
+            send(to);
+        }
+
+        private long[] latencies() {
+            synchronized (this.latencies) {
+                return this.latencies.stream().mapToLong(Long::longValue).toArray();
+            }
+        }
+    }
+
+    /**
+     * A player answering the chat messages of the other player of its game.
+     */
+    private static class Player implements RemoteView, RemoteClient, Scout<Object> {
+        private final String name;
+        private final String lobbyID;
+        private final LobbyInterface lobby;
+        private final Table table;
+        private final CountDownLatch ready;
+        private final Remote stub;
+        private Player other;
+        private volatile GameCommand game;
+
+        private Player(String name, String lobbyID, LobbyInterface lobby, Table table, CountDownLatch ready) throws RemoteException {
+            this.name = name;
+            this.lobbyID = lobbyID;
+            this.lobby = lobby;
+            this.table = table;
+            this.ready = ready;
+            this.stub = UnicastRemoteObject.exportObject(this, 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T stub() {
+            return (T) this.stub;
+        }
+
+        private void unexport() {
+            try {
+                UnicastRemoteObject.unexportObject(this, true);
+            } catch (RemoteException e) {
+                // already unexported
+            }
+        }
+
+        @Override
+        public void askLobbySize() {
+            players.execute(() -> {
+                try {
+                    this.lobby.setLobbySize(this.name, this.lobbyID, 2);
+                } catch (RemoteException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        @Override
+        public void setGameController(GameCommand gameController) {
+            this.game = gameController;
+            players.execute(() -> {
+                try {
+                    gameController.addScout(this.name, (Scout<?>) this.stub);
+                    this.ready.countDown();
+                } catch (RemoteException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        @Override
+        public void update(Object update) {
+            List<?> updates = update instanceof MockBatch batch ? batch.getUpdates() : List.of(update);
+            for (Object object : updates)
+                if (object instanceof ChatMessage chat && this.name.equals(chat.to())) this.table.received(this);
+        }
+
+        @Override
+        public void newTurn(String currentPlayer) {
+        }
+
+        @Override
+        public void outcomeSelectTiles(List<Tile> selectedTiles) {
+        }
+
+        @Override
+        public void outcomeInsertTiles(boolean success) {
+        }
+
+        @Override
+        public void outcomeException(Exception e) {
+            System.err.println(this.name + ": " + e.getMessage());
+        }
+
+        @Override
+        public void outcomeLogin(String localPlayer, String lobbyID) {
+        }
+
+        @Override
+        public void askPlayerInfo(List<Map<String, String>> lobbyInfo) {
+        }
+
+        @Override
+        public void allGame(MockModel mockModel) {
+        }
+
+        @Override
+        public void endGame(List<Rank> leaderboard) {
+        }
+
+        @Override
+        public void crashedPlayer(String crashedPlayer) {
+        }
+
+        @Override
+        public void reloadPlayer(String reloadPlayer) {
+        }
+
+        @Override
+        public void outcomeMessage(GameWarning warning) {
+        }
+
+        @Override
+        public void pong(String playerID, String lobbyID) {
+        }
+    }
+}
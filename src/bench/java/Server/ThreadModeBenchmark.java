@@ -0,0 +1,116 @@
+package Server;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Compares the {@link ExecutionMode}s on the server workload: many connections parked on a blocking read
+ * and a burst of short outbound calls (the fan-out of a game update).
+ * It reports the platform threads, the heap and the resident memory of the process while the connections are parked,
+ * and the latency of the burst from submission to completion. Every mode runs once as warm-up before being measured.
+ * <p>
+ * Run it with {@code mvn -Pserver,bench test-compile exec:exec -Dbench.main=Server.ThreadModeBenchmark -Dbench.args="2000 20000 2"}
+ * (connections, outbound calls, milliseconds spent by each call).
+ */
+public class ThreadModeBenchmark {
+    private static final Object STOP = new Object();
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        int callMillis = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            run(mode, connections, calls, callMillis, false);
+        }
+        System.out.printf("%-8s %11s %16s %8s %8s %9s %9s %9s %11s%n", "mode", "connections", "platformThreads", "heapMB", "rssMB", "p50(ms)", "p99(ms)", "max(ms)", "burst(ms)");
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            run(mode, connections, calls, callMillis, true);
+        }
+    }
+
+    private static void run(ExecutionMode mode, int connections, int calls, int callMillis, boolean report) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int baseThreads = threads.getThreadCount();
+
+        ExecutorService tasks = mode.taskExecutor();
+        ExecutorService connectionService = mode.connectionExecutor(tasks);
+
+        // the connections, each one blocked on its "socket"
+        List<BlockingQueue<Object>> sockets = new ArrayList<>();
+        CountDownLatch parked = new CountDownLatch(connections);
+        for (int i = 0; i < connections; i++) {
+            BlockingQueue<Object> socket = new LinkedBlockingQueue<>();
+            sockets.add(socket);
+            connectionService.execute(() -> {
+                parked.countDown();
+                try {
+                    socket.take();
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+        parked.await();
+        System.gc();
+        long heap = memory.getHeapMemoryUsage().getUsed();
+        long rss = residentMemory();
+        int platformThreads = threads.getThreadCount() - baseThreads;
+
+        // the burst of outbound calls
+        long[] latencies = new long[calls];
+        CountDownLatch done = new CountDownLatch(calls);
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            int index = i;
+            long submitted = System.nanoTime();
+            tasks.execute(() -> {
+                try {
+                    Thread.sleep(callMillis);
+                } catch (InterruptedException ignored) {
+                }
+                latencies[index] = System.nanoTime() - submitted;
+                done.countDown();
+            });
+        }
+        done.await();
+        long burst = System.nanoTime() - start;
+
+        for (BlockingQueue<Object> socket : sockets) socket.add(STOP);
+        connectionService.shutdown();
+        tasks.shutdown();
+        connectionService.awaitTermination(1, TimeUnit.MINUTES);
+        tasks.awaitTermination(1, TimeUnit.MINUTES);
+
+        Thread.sleep(1000);
+        if (!report) return;
+        Arrays.sort(latencies);
+        System.out.printf("%-8s %11d %16d %8.1f %8.1f %9.2f %9.2f %9.2f %11.1f%n", mode, connections, platformThreads, heap / 1048576.0, rss / 1048576.0,
+                millis(latencies[calls / 2]), millis(latencies[(int) (calls * 0.99)]), millis(latencies[calls - 1]), millis(burst));
+    }
+
+    /**
+     * Reads the resident set size of the process, it's where the thread stacks show up (Linux only, 0 elsewhere).
+     */
+    private static long residentMemory() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status")))
+                if (line.startsWith("VmRSS:"))
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+        } catch (IOException | NumberFormatException ignored) {
+        }
+        return 0;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -19,6 +19,10 @@ public class ClientApp {
     public static String IP_SERVER;
     public static int SOCKET_PORT;
     public static int RMI_PORT;
+    /**
+     * Tells if the socket connection accepts the compression offered by the server.
+     */
+    public static boolean COMPRESSION = true;
 
     public static View view;
     public static Network network;
@@ -86,5 +90,6 @@ public class ClientApp {
         IP_SERVER = NetworkSettings.ipHostFromJSON();
         SOCKET_PORT = NetworkSettings.socketFromJSON();
         RMI_PORT = NetworkSettings.rmiFromJSON();
+        COMPRESSION = NetworkSettings.compressionFromJSON();
     }
 }
@@ -0,0 +1,205 @@
+package Client.Network;
+
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The {@code CallPipeline} class sends the remote calls of a session to the server one after the other, in the order
+ * they were made. The caller doesn't wait for the round trip: the call is queued and a single worker, borrowed
+ * from the executor only while there are calls waiting, runs the queued calls back to back.
+ * <p>
+ * The queue is bounded, a caller blocks when it's full until the worker catches up.
+ * A call that can be coalesced, like a ping, is not queued again while the previous one is still waiting.
+ * The pipeline measures, for every kind of call, the time from the call to the answer of the server.
+ */
+public class CallPipeline {
+    /**
+     * A remote call to the server.
+     */
+    @FunctionalInterface
+    public interface Call {
+        /**
+         * Runs the call.
+         *
+         * @throws RemoteException if a remote communication error occurs
+         */
+        void run() throws RemoteException;
+    }
+
+    private record Pending(String name, Call call, long queuedAt) {
+    }
+
+    /**
+     * The latency of a kind of call.
+     */
+    private static final class Latency {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void add(long elapsed) {
+            this.calls.increment();
+            this.nanos.add(elapsed);
+            this.maxNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private final BlockingQueue<Pending> calls;
+    private final Executor executor;
+    private final Consumer<RemoteException> failure;
+    private final AtomicBoolean scheduled;
+    private final Set<String> coalesced;
+    private final Map<String, Latency> latencies;
+
+    /**
+     * Constructs a new pipeline.
+     *
+     * @param capacity the maximum number of queued calls
+     * @param executor the executor that provides the worker
+     * @param failure  what to do when a call fails
+     */
+    public CallPipeline(int capacity, Executor executor, Consumer<RemoteException> failure) {
+        this.calls = new ArrayBlockingQueue<>(capacity);
+        this.executor = executor;
+        this.failure = failure;
+        this.scheduled = new AtomicBoolean(false);
+        this.coalesced = ConcurrentHashMap.newKeySet();
+        this.latencies = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Queues a call, it will run after every call queued before it.
+     *
+     * @param name the kind of call, for the latency report
+     * @param call the call
+     */
+    public void submit(String name, Call call) {
+        put(new Pending(name, call, System.nanoTime()));
+    }
+
+    /**
+     * Queues a call unless a call of the same kind is already waiting, then the waiting one is enough.
+     *
+     * @param name the kind of call
+     * @param call the call
+     */
+    public void submitOnce(String name, Call call) {
+        if (!this.coalesced.add(name)) return;
+        boolean queued = put(new Pending(name, () -> {
+            this.coalesced.remove(name);
+            call.run();
+        }, System.nanoTime()));
+        // a call that was never queued would keep out every later call of its kind
+        if (!queued) this.coalesced.remove(name);
+    }
+
+    /**
+     * Queues a call and schedules the worker, waiting for room in the queue.
+     *
+     * @return false if the caller was interrupted before the call was queued
+     */
+    private boolean put(Pending pending) {
+        try {
+            this.calls.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Returns the number of calls waiting for the worker.
+     *
+     * @return the number of queued calls
+     */
+    public int pending() {
+        return this.calls.size();
+    }
+
+    /**
+     * Returns the kinds of call that reached the server at least once.
+     *
+     * @return the names of the kinds of call, sorted
+     */
+    public Set<String> getKinds() {
+        return new TreeSet<>(this.latencies.keySet());
+    }
+
+    /**
+     * Returns the number of calls of the given kind that reached the server.
+     *
+     * @param name the kind of call
+     * @return the number of calls made
+     */
+    public long getCount(String name) {
+        Latency latency = this.latencies.get(name);
+        return latency == null ? 0 : latency.calls.sum();
+    }
+
+    /**
+     * Returns the average time from a call of the given kind to the answer of the server.
+     *
+     * @param name the kind of call
+     * @return the average latency in milliseconds, 0 if no such call was made
+     */
+    public double getLatency(String name) {
+        Latency latency = this.latencies.get(name);
+        if (latency == null || latency.calls.sum() == 0) return 0;
+        return latency.nanos.sum() / 1e6 / latency.calls.sum();
+    }
+
+    /**
+     * Returns the longest time from a call of the given kind to the answer of the server.
+     *
+     * @param name the kind of call
+     * @return the maximum latency in milliseconds
+     */
+    public double getMaxLatency(String name) {
+        Latency latency = this.latencies.get(name);
+        return latency == null ? 0 : latency.maxNanos.get() / 1e6;
+    }
+
+    private void schedule() {
+        if (!this.calls.isEmpty() && this.scheduled.compareAndSet(false, true))
+            this.executor.execute(this::drain);
+    }
+
+    private void drain() {
+        try {
+            Pending pending;
+            while ((pending = this.calls.poll()) != null) {
+                try {
+                    pending.call().run();
+                } catch (RemoteException e) {
+                    this.failure.accept(e);
+                }
+                this.latencies.computeIfAbsent(pending.name(), name -> new Latency()).add(System.nanoTime() - pending.queuedAt());
+            }
+        } finally {
+            this.scheduled.set(false);
+            schedule();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(pending()).append(" queued");
+        for (Map.Entry<String, Latency> entry : new TreeMap<>(this.latencies).entrySet()) {
+            sb.append(", ").append(entry.getKey()).append(' ').append(entry.getValue().calls.sum()).append(" calls ")
+                    .append(String.format("%.1f", getLatency(entry.getKey()))).append(" ms (max ")
+                    .append(String.format("%.1f", getMaxLatency(entry.getKey()))).append(" ms)");
+        }
+        return sb.toString();
+    }
+}
@@ -1,17 +1,20 @@
 package Client.Network;
 
+import Client.View.View;
 import Interface.Client.RemoteClient;
 import Interface.Client.RemoteView;
 import Interface.Scout;
 import Interface.Server.GameCommand;
 import Interface.Server.LobbyInterface;
 import Utils.Coordinates;
+import Utils.LobbyQuery;
 
 
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.util.List;
+import java.util.Timer;
 
 import static Client.ClientApp.*;
 
@@ -19,10 +22,24 @@ import static Client.ClientApp.*;
  * The {@code ClientRMI} class represents a client's network implementation using RMI for client-server communication.
  * It extends the {@code Network} class and provides methods to initialize the RMI connection, send messages to the server,
  * and handle incoming messages from the server.
+ * The calls to the server go through a {@link CallPipeline}, so they reach the server in the order they were made.
  */
 public class ClientRMI extends Network {
+    /**
+     * The maximum number of calls waiting to be sent to the server.
+     */
+    private static final int PIPELINE_CAPACITY = 64;
+
     private GameCommand gc;
     private LobbyInterface lobby;
+    /**
+     * Sends the calls to the server in order, without making the caller wait for the round trip.
+     */
+    private final CallPipeline calls;
+    /**
+     * The ID of the player logged in through this network.
+     */
+    private volatile String playerID;
 
     /**
      * Constructs a new instance of the {@code ClientRMI} class.
@@ -31,6 +48,31 @@ public class ClientRMI extends Network {
      */
     public ClientRMI() throws RemoteException {
         super();
+        Runnable lost = this.lost;
+        this.calls = new CallPipeline(PIPELINE_CAPACITY, executorService, e -> lost.run());
+    }
+
+    /**
+     * Constructs a new instance of the {@code ClientRMI} class for a client with its own view.
+     *
+     * @param view         the view updated by the network
+     * @param timer        the timer that checks the connection, it can be shared by many networks
+     * @param disconnected what to do when the connection is lost
+     * @throws RemoteException if a remote communication error occurs
+     */
+    public ClientRMI(View view, Timer timer, Runnable disconnected) throws RemoteException {
+        super(view, timer, disconnected);
+        Runnable lost = this.lost;
+        this.calls = new CallPipeline(PIPELINE_CAPACITY, executorService, e -> lost.run());
+    }
+
+    /**
+     * Returns the pipeline of the calls to the server, with the latency of every kind of call.
+     *
+     * @return the call pipeline
+     */
+    public CallPipeline getCalls() {
+        return calls;
     }
 
     /**
@@ -42,12 +84,12 @@ public class ClientRMI extends Network {
         try {
             Registry registry = LocateRegistry.getRegistry(IP_SERVER, RMI_PORT);
             this.lobby = (LobbyInterface) registry.lookup("Lobby");
-            this.lobby.getLobbyInfo(view);
+            this.lobby.getLobbyInfo(getView());
         } catch (Exception e) {
             try {
-                view.outcomeException(e);
+                getView().outcomeException(e);
             } catch (RemoteException ex) {
-                quit(404);
+                disconnected();
             }
         }
     }
@@ -61,12 +103,9 @@ public class ClientRMI extends Network {
      */
     @Override
     public void selectTiles(String playerID, List<Coordinates> coordinates) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.gc.selectTiles(playerID, coordinates);
-            } catch (RemoteException e) {
-                quit(404);
-            }
+        this.calls.submit("selectTiles", () -> {
+            this.gc.selectTiles(playerID, coordinates);
+            sent();
         });
     }
 
@@ -79,12 +118,9 @@ public class ClientRMI extends Network {
      */
     @Override
     public void writeChat(String from, String message, String to) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.gc.writeChat(from, message, to);
-            } catch (RemoteException e) {
-                quit(404);
-            }
+        this.calls.submit("writeChat", () -> {
+            this.gc.writeChat(from, message, to);
+            sent();
         });
     }
 
@@ -98,13 +134,7 @@ public class ClientRMI extends Network {
     @SuppressWarnings("rawtypes")
     @Override
     public void addScout(String playerID, Scout scout) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.gc.addScout(localPlayer, this);
-            } catch (RemoteException e) {
-                quit(404);
-            }
-        });
+        this.calls.submit("addScout", () -> this.gc.addScout(player(), this));
     }
 
     /**
@@ -117,12 +147,23 @@ public class ClientRMI extends Network {
      */
     @Override
     public void insertTiles(String playerID, List<Integer> sorted, int column) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.gc.insertTiles(playerID, sorted, column);
-            } catch (RemoteException e) {
-                quit(404);
-            }
+        this.calls.submit("insertTiles", () -> {
+            this.gc.insertTiles(playerID, sorted, column);
+            sent();
+        });
+    }
+
+    /**
+     * Asks the server for the whole board.
+     *
+     * @param playerID the ID of the player
+     * @throws RemoteException if a remote communication error occurs
+     */
+    @Override
+    public void requestBoard(String playerID) throws RemoteException {
+        this.calls.submit("requestBoard", () -> {
+            this.gc.requestBoard(playerID);
+            sent();
         });
     }
 
@@ -135,13 +176,34 @@ public class ClientRMI extends Network {
      */
     @Override
     public void getLobbyInfo(RemoteView remote) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.lobby.getLobbyInfo(remote);
-            } catch (RemoteException e) {
-                quit(404);
-            }
-        });
+        this.calls.submit("getLobbyInfo", () -> this.lobby.getLobbyInfo(remote));
+    }
+
+    /**
+     * Puts the player in the quick-play queue of the server.
+     *
+     * @param playerID      the ID of the player
+     * @param preferredSize the size of the table the player prefers, 0 for any size
+     * @param remoteView    the remote view of the player
+     * @param client        the remote client of the player
+     * @throws RemoteException if a remote communication error occurs
+     */
+    @Override
+    public void quickPlay(String playerID, int preferredSize, RemoteView remoteView, RemoteClient client) throws RemoteException {
+        this.playerID = playerID;
+        this.calls.submit("quickPlay", () -> this.lobby.quickPlay(playerID, preferredSize, remoteView, client));
+    }
+
+    /**
+     * Sends a request to the server to get a page of the lobby information.
+     *
+     * @param remote the remote view to update with the lobby information
+     * @param query  the page to get and its filters
+     * @throws RemoteException if a remote communication error occurs
+     */
+    @Override
+    public void getLobbyInfo(RemoteView remote, LobbyQuery query) throws RemoteException {
+        this.calls.submit("getLobbyInfo", () -> this.lobby.getLobbyInfo(remote, query));
     }
 
     /**
@@ -154,13 +216,7 @@ public class ClientRMI extends Network {
      */
     @Override
     public void setLobbySize(String playerID, String lobbyID, int lobbySize) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.lobby.setLobbySize(playerID, lobbyID, lobbySize);
-            } catch (RemoteException e) {
-                quit(404);
-            }
-        });
+        this.calls.submit("setLobbySize", () -> this.lobby.setLobbySize(playerID, lobbyID, lobbySize));
     }
 
     /**
@@ -168,19 +224,15 @@ public class ClientRMI extends Network {
      *
      * @param playerID    the ID of the player
      * @param lobbyID     the ID of the lobby
+     * @param lastSequence the sequence of the last update received, {@link #NO_SEQUENCE} if none
      * @param remoteView  the remote view associated with the player
      * @param client      the remote client network interface
      * @throws RemoteException if a remote communication error occurs
      */
     @Override
-    public void login(String playerID, String lobbyID, RemoteView remoteView, RemoteClient client) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.lobby.login(playerID, lobbyID, remoteView, client);
-            } catch (RemoteException e) {
-                quit(404);
-            }
-        });
+    public void login(String playerID, String lobbyID, long lastSequence, RemoteView remoteView, RemoteClient client) throws RemoteException {
+        this.playerID = playerID;
+        this.calls.submit("login", () -> this.lobby.login(playerID, lobbyID, lastSequence, remoteView, client));
     }
 
     /**
@@ -192,13 +244,7 @@ public class ClientRMI extends Network {
      */
     @Override
     public void ping(String playerID, String lobbyID) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.lobby.ping(playerID, lobbyID);
-            } catch (RemoteException e) {
-                quit(404);
-            }
-        });
+        this.calls.submitOnce("ping", () -> this.lobby.ping(playerID, lobbyID));
     }
 
     /**
@@ -210,13 +256,7 @@ public class ClientRMI extends Network {
      */
     @Override
     public void logOut(String playerID, String lobbyID) throws RemoteException {
-        executorService.execute(() -> {
-            try {
-                this.lobby.logOut(playerID, lobbyID);
-            } catch (RemoteException e) {
-                quit(404);
-            }
-        });
+        this.calls.submit("logOut", () -> this.lobby.logOut(playerID, lobbyID));
     }
 
     /**
@@ -228,13 +268,7 @@ public class ClientRMI extends Network {
     @Override
     public void setGameController(GameCommand gameController) throws RemoteException {
         this.gc = gameController;
-        executorService.execute(() -> {
-            try {
-                this.gc.addScout(localPlayer, this);
-            } catch (RemoteException e) {
-                quit(404);
-            }
-        });
+        this.calls.submit("addScout", () -> this.gc.addScout(player(), this));
     }
 
     /**
@@ -248,8 +282,15 @@ public class ClientRMI extends Network {
         if (scouts.containsKey(objects.getClass())) {
             scouts.get(objects.getClass()).update(objects);
         } else {
-            view.outcomeException(new RuntimeException("Scout-Handler not found"));
+            getView().outcomeException(new RuntimeException("Scout-Handler not found"));
             throw new RemoteException("Scout not found");
         }
     }
+
+    /**
+     * Returns the player logged in through this network, the local player of the application if none logged in yet.
+     */
+    private String player() {
+        return (this.playerID != null) ? this.playerID : localPlayer;
+    }
 }
@@ -1,23 +1,35 @@
 package Client.Network;
 
+import Client.View.View;
 import Interface.Client.RemoteClient;
 import Interface.Client.RemoteView;
 import Interface.Scout;
 import Interface.Server.GameCommand;
 import Messages.Client.GameController.InsertTilesMessage;
+import Messages.Client.GameController.RequestBoardMessage;
 import Messages.Client.GameController.SelectedTilesMessage;
 import Messages.Client.GameController.WriteChatMessage;
 import Messages.Client.Lobby.*;
 import Messages.ClientMessage;
 import Messages.ServerMessage;
+import Messages.Server.Network.PongMessage;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.AllGameMessage;
 
+import Messages.Wire.Frame;
+import Messages.Wire.FrameCompressor;
+import Messages.Wire.MessageCodec;
+import Messages.Wire.WireFormat;
 import Utils.Coordinates;
+import Utils.LobbyQuery;
+import Utils.SerialExecutor;
 
 
 import java.io.*;
 import java.net.Socket;
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.Timer;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static Client.ClientApp.*;
@@ -34,7 +46,23 @@ public class ClientSocket extends Network {
     @SuppressWarnings("FieldCanBeLocal")
     private ObjectInputStream in;
     private ObjectOutputStream out;
+    /**
+     * The stream used to write frames, null when the server speaks the legacy object stream.
+     */
+    private DataOutputStream frameOut;
+    /**
+     * The codec of the frames, chosen among the formats offered by the server.
+     */
+    private MessageCodec codec;
+    /**
+     * The compressor of the big payloads, null if the server doesn't offer the compression or the client turned it off.
+     */
+    private FrameCompressor compressor;
     private final AtomicBoolean clientConnected = new AtomicBoolean(true);
+    /**
+     * Runs the messages that change the model one after the other, so that the board deltas are applied in order.
+     */
+    private final SerialExecutor updates;
 
     /**
      Constructs a new {@code ClientSocket} instance.
@@ -43,25 +71,78 @@ public class ClientSocket extends Network {
     public ClientSocket() throws RemoteException {
         super();
         this.socket = null;
+        this.updates = new SerialExecutor(executorService);
+    }
+
+    /**
+     Constructs a new {@code ClientSocket} instance for a client with its own view.
+     @param view the view updated by the network
+     @param timer the timer that checks the connection, it can be shared by many networks
+     @param disconnected what to do when the connection is lost
+     @throws RemoteException if a remote communication error occurs
+     */
+    public ClientSocket(View view, Timer timer, Runnable disconnected) throws RemoteException {
+        super(view, timer, disconnected);
+        this.socket = null;
+        this.updates = new SerialExecutor(executorService);
     }
 
     /**
      Initializes the socket connection and starts listening for incoming messages from the server.
+     The client always offers the framed transport; if the server answers with its object-stream header
+     it falls back to the legacy object stream. A framed server offers its wire formats and the client picks
+     the most compact one. If the server offers the compression, the client accepts it unless {@link Client.ClientApp#COMPRESSION} is off.
      */
     @Override
     public void init() {
         try {
             this.socket = new Socket(IP_SERVER, SOCKET_PORT);
-            this.out = new ObjectOutputStream(socket.getOutputStream());
-            this.in = new ObjectInputStream(socket.getInputStream());
-            System.out.println("Connected to server");
+            BufferedOutputStream rawOut = new BufferedOutputStream(socket.getOutputStream());
+            this.out = new ObjectOutputStream(rawOut);
+            rawOut.write(Frame.CLIENT_PREAMBLE);
+            rawOut.flush();
+
+            BufferedInputStream rawIn = new BufferedInputStream(socket.getInputStream());
+            DataInputStream dataIn = new DataInputStream(rawIn);
+            rawIn.mark(Frame.HEADER_SIZE);
+            if (dataIn.readInt() == Frame.SERVER_MAGIC) {
+                byte offered = dataIn.readByte();
+                WireFormat format = WireFormat.choose(offered);
+                this.codec = format.newCodec();
+                boolean compression = COMPRESSION && (offered & Frame.COMPRESSION) != 0;
+                if (compression) this.compressor = new FrameCompressor(format);
+                this.frameOut = new DataOutputStream(rawOut);
+                this.frameOut.writeByte(compression ? format.getId() | Frame.COMPRESSION : format.getId());
+                this.frameOut.flush();
+            } else {
+                rawIn.reset();
+                this.in = new ObjectInputStream(rawIn);
+            }
+            if (isApplication()) System.out.println("Connected to server");
             while(clientConnected.get()){
-                Object ob;
-                ob = in.readObject();
-                executorService.execute(()->deserialize(ob));
+                Object ob = (this.frameOut != null) ? codec.decode(Frame.read(dataIn, this.compressor)) : in.readObject();
+                received();
+                if (ob instanceof UpdateMessage || ob instanceof AllGameMessage) updates.execute(()->deserialize(ob));
+                else executorService.execute(()->deserialize(ob));
             }
         } catch (IOException | ClassNotFoundException e) {
-            quit(404);
+            clientConnected.set(false);
+            disconnected();
+        } finally {
+            if (this.compressor != null) this.compressor.close();
+        }
+    }
+
+    /**
+     Closes the connection without logging out, the reader of the incoming messages stops.
+     */
+    @Override
+    public synchronized void close() {
+        super.close();
+        clientConnected.set(false);
+        try {
+            if (this.socket != null) this.socket.close();
+        } catch (IOException ignored) {
         }
     }
 
@@ -70,8 +151,10 @@ public class ClientSocket extends Network {
      @param message the incoming server message
      */
     private void deserialize(Object message) {
-        if (message instanceof ServerMessage serverMessage) {
-            serverMessage.execute(view);
+        if (message instanceof PongMessage pong) {
+            pong.execute(this);
+        } else if (message instanceof ServerMessage serverMessage) {
+            serverMessage.execute(getView());
         } else System.out.println("Message not recognized");
     }
 
@@ -125,6 +208,18 @@ public class ClientSocket extends Network {
         sendMessage(clientMessage);
     }
 
+    /**
+     * Asks the server for the whole board.
+     *
+     * @param playerID the ID of the player
+     * @throws RemoteException if a remote communication error occurs
+     */
+    @Override
+    public synchronized void requestBoard(String playerID) throws RemoteException {
+        ClientMessage clientMessage = new RequestBoardMessage(playerID);
+        sendMessage(clientMessage);
+    }
+
     @Override
     public synchronized void setGameController(GameCommand gameController) throws RemoteException {
         //never called
@@ -142,6 +237,34 @@ public class ClientSocket extends Network {
         sendMessage(clientMessage);
     }
 
+    /**
+     * Puts the player in the quick-play queue of the server.
+     *
+     * @param playerID      the ID of the player
+     * @param preferredSize the size of the table the player prefers, 0 for any size
+     * @param remoteView    the remote view of the player
+     * @param client        the remote client of the player
+     * @throws RemoteException if a remote communication error occurs
+     */
+    @Override
+    public synchronized void quickPlay(String playerID, int preferredSize, RemoteView remoteView, RemoteClient client) throws RemoteException {
+        ClientMessage clientMessage = new QuickPlayMessage(playerID, preferredSize);
+        sendMessage(clientMessage);
+    }
+
+    /**
+     * Sends a request to the server to get a page of the lobby information.
+     *
+     * @param remote the remote view to update with the lobby information
+     * @param query  the page to get and its filters
+     * @throws RemoteException if a remote communication error occurs
+     */
+    @Override
+    public synchronized void getLobbyInfo(RemoteView remote, LobbyQuery query) throws RemoteException {
+        ClientMessage clientMessage = new GetLobbiesInfoMessage(query);
+        sendMessage(clientMessage);
+    }
+
     /**
      * Sets the size of the lobby.
      *
@@ -160,13 +283,14 @@ public class ClientSocket extends Network {
      * Logs a player into the lobby.
      * @param playerID    the ID of the player
      * @param lobbyID     the ID of the lobby
+     * @param lastSequence the sequence of the last update received, {@link #NO_SEQUENCE} if none
      * @param remoteView  the remote view associated with the player
      * @param network     the remote client network interface
      * @throws RemoteException if a remote communication error occurs
      */
     @Override
-    public synchronized void login(String playerID, String lobbyID, RemoteView remoteView, RemoteClient network) throws RemoteException {
-        ClientMessage clientMessage = new AddPlayerMessage(playerID, lobbyID);
+    public synchronized void login(String playerID, String lobbyID, long lastSequence, RemoteView remoteView, RemoteClient network) throws RemoteException {
+        ClientMessage clientMessage = new AddPlayerMessage(playerID, lobbyID, lastSequence);
         sendMessage(clientMessage);
     }
 
@@ -194,21 +318,28 @@ public class ClientSocket extends Network {
     public synchronized void logOut(String playerID, String lobbyID) throws RemoteException {
         ClientMessage clientMessage = new LogOutMessage(playerID, lobbyID);
         sendMessage(clientMessage);
-        quit(404);
+        disconnected();
     }
 
     /**
-     * Sends a client message to the server.
+     * Sends a client message to the server, every message keeps the connection alive.
      * @param clientMessage the client message to send
      */
     private synchronized void sendMessage(ClientMessage clientMessage) {
         try {
+            if (this.frameOut != null) {
+                Frame.write(this.frameOut, this.codec.encode(clientMessage), this.compressor);
+                this.frameOut.flush();
+                sent();
+                return;
+            }
             this.out.writeObject(clientMessage);
             this.out.flush();
             this.out.reset();
+            sent();
         } catch (IOException e) {
             clientConnected.set(false);
-            quit(404);
+            disconnected();
         }
     }
 }
\ No newline at end of file
@@ -1,22 +1,34 @@
 package Client.Network;
 
+import Interface.BatchedScout;
 import Interface.Client.RemoteClient;
+import Interface.Client.RemoteView;
 import Interface.Server.GameCommand;
 import Interface.Server.LobbyInterface;
 import Interface.Scout;
 import Utils.ChatMessage;
+import Utils.MockObjects.MockBatch;
 import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
 import Utils.MockObjects.MockCommonGoal;
 import Utils.MockObjects.MockPlayer;
+import Utils.TimeoutSocketFactory;
+import Client.ClientApp;
+import Client.View.View;
+import Client.Network.Scouts.BatchScout;
+import Client.Network.Scouts.BoardDeltaScout;
 import Client.Network.Scouts.BoardScout;
 import Client.Network.Scouts.ChatScout;
 import Client.Network.Scouts.CommonGoalScout;
 import Client.Network.Scouts.PlayerScout;
 
 
+import java.rmi.NoSuchObjectException;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import static Client.ClientApp.*;
 
@@ -26,26 +38,89 @@ import static Client.ClientApp.*;
  game commands, lobby interface, remote client, and scout.
  It provides methods for initializing the network connection, starting ping/pong communication, updating objects,
  and handling timeouts.
+ Every message exchanged with the server proves the connection is alive, so the client pings only when the connection
+ has been quiet for a while; how long depends on the round-trip time measured with the previous pings.
+ A network made for a client other than the application, like a bot of a load generator, has its own view and its own
+ handler of a lost connection, so many of them can run in the same process.
  */
 @SuppressWarnings("rawtypes")
-public abstract class Network extends UnicastRemoteObject implements GameCommand, LobbyInterface, RemoteClient, Scout {
+public abstract class Network extends UnicastRemoteObject implements GameCommand, LobbyInterface, RemoteClient, BatchedScout<Object> {
+
+    /**
+     The time the server waits for a message before logging the player out, and the client waits for a pong, in milliseconds.
+     */
+    public static final long TIMEOUT = 10000;
+    /**
+     The time between two checks of the connection, in milliseconds.
+     */
+    public static final long CHECK = 500;
+    /**
+     The part of the timeout kept free for the checks of the client and of the server, in milliseconds.
+     */
+    private static final long MARGIN = 2000;
 
     protected HashMap<Class<?>, Scout> scouts;
     protected Timer timer;
+    /**
+     The view of the client, null for the view of the application.
+     */
+    private final View clientView;
+    /**
+     What to do when the connection is lost, skipped once the network is closed on purpose.
+     It doesn't refer to the network, so a subclass can hand it to its helpers while it's being built.
+     */
+    protected final Runnable lost;
+    private final AtomicBoolean closed;
+    private TimerTask check;
+    private volatile String pingPlayer;
+    private volatile String pingLobby;
+    private volatile long lastSent;
+    private volatile long lastReceived;
+    /**
+     The time the pending ping was sent, 0 if no ping is waiting for its pong.
+     */
+    private volatile long pingSent;
+    /**
+     The smoothed round-trip time and its variation, in milliseconds.
+     */
+    private long rtt, rttVariation;
 
     /**
      Constructs a new {@code Network} object, add all the scout and create a new timer.
+     It updates the view of the application and quits the application when the connection is lost.
      @throws RemoteException if a remote communication error occurs
      */
     @SuppressWarnings("BlockingMethodInNonBlockingContext")
     public Network() throws RemoteException {
-        super();
+        this(null, new Timer(), () -> quit(404));
+    }
+
+    /**
+     Constructs a new {@code Network} object for a client with its own view.
+     It's exported with the sockets of the clients, so a call of the server to it times out.
+     @param view the view updated by the network, null for the view of the application
+     @param timer the timer that checks the connection, it can be shared by many networks
+     @param disconnected what to do when the connection is lost
+     @throws RemoteException if a remote communication error occurs
+     */
+    protected Network(View view, Timer timer, Runnable disconnected) throws RemoteException {
+        super(0, TimeoutSocketFactory.CLIENT, null);
+        this.clientView = view;
+        AtomicBoolean closed = new AtomicBoolean();
+        this.closed = closed;
+        this.lost = () -> {
+            if (!closed.get()) disconnected.run();
+        };
+        // as getView(), asked at every update: the view of the application can be set after the network
+        Supplier<View> views = (view != null) ? () -> view : () -> ClientApp.view;
         this.scouts = new HashMap<>();
-        scouts.put(MockBoard.class, new BoardScout());
-        scouts.put(ChatMessage.class, new ChatScout());
-        scouts.put(MockPlayer.class, new PlayerScout());
-        scouts.put(MockCommonGoal.class, new CommonGoalScout());
-        this.timer = new Timer();
+        scouts.put(MockBoard.class, new BoardScout(views));
+        scouts.put(MockBoardDelta.class, new BoardDeltaScout(views));
+        scouts.put(ChatMessage.class, new ChatScout(views));
+        scouts.put(MockPlayer.class, new PlayerScout(views));
+        scouts.put(MockCommonGoal.class, new CommonGoalScout(views));
+        scouts.put(MockBatch.class, new BatchScout(scouts, views));
+        this.timer = timer;
     }
 
     /**
@@ -53,24 +128,148 @@ public abstract class Network extends UnicastRemoteObject implements GameCommand
      */
     public abstract void init();
 
+    /**
+     Returns the view updated by the network.
+     @return the view of the client
+     */
+    public View getView() {
+        return (this.clientView != null) ? this.clientView : ClientApp.view;
+    }
+
+    /**
+     Tells if the network belongs to the application, and not to a client with its own view.
+     @return true if the network updates the view of the application
+     */
+    protected boolean isApplication() {
+        return this.clientView == null;
+    }
+
+    /**
+     Handles a lost connection, unless the network was closed on purpose.
+     */
+    protected void disconnected() {
+        this.lost.run();
+    }
+
+    /**
+     Closes the network without logging out: the checks of the connection stop and the network is no longer exported.
+     The server notices that the player is gone when it stops receiving its messages.
+     */
+    public synchronized void close() {
+        this.closed.set(true);
+        if (this.check != null) this.check.cancel();
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException ignored) {
+        }
+    }
+
+    /**
+     Tells if the network was closed.
+     @return true if the network was closed
+     */
+    public boolean isClosed() {
+        return this.closed.get();
+    }
+
     /**
      Starts the ping/pong communication with the specified player and lobby.
+     The first ping is sent right away to measure the round-trip time, then the connection is checked periodically.
      @param playerID the ID of the player
      @param lobbyID the ID of the lobby
      */
-    public void startPing(String playerID, String lobbyID) {
-        try {
-            ping(playerID, lobbyID);
-        } catch (RemoteException e) {
-            throw new RuntimeException(e);
-        }
-        if (timer == null) timer = new Timer();
-        timer.schedule(new TimerTask() {
+    public synchronized void startPing(String playerID, String lobbyID) {
+        boolean started = this.pingPlayer != null;
+        this.pingPlayer = playerID;
+        this.pingLobby = lobbyID;
+        this.lastReceived = now();
+        sendPing();
+        if (started || this.closed.get()) return;
+        if (timer == null) timer = new Timer(true);
+        this.check = new TimerTask() {
             @Override
             public void run() {
-                quit(404);
+                checkConnection();
             }
-        }, 10000); //15-seconds timeout
+        };
+        timer.scheduleAtFixedRate(this.check, CHECK, CHECK);
+    }
+
+    /**
+     Records that a message was sent to the server, the server doesn't need a ping for a while.
+     */
+    protected void sent() {
+        this.lastSent = now();
+    }
+
+    /**
+     Records that a message was received from the server, the server is alive.
+     */
+    protected void received() {
+        this.lastReceived = now();
+    }
+
+    /**
+     Returns how long the connection can stay quiet before a ping is sent.
+     The slower the round trip, the earlier the ping, so that it reaches the server before the timeout.
+     @return the quiet period in milliseconds
+     */
+    protected synchronized long quietPeriod() {
+        return Math.max(TIMEOUT / 4, TIMEOUT - MARGIN - 2 * (rtt + 4 * rttVariation));
+    }
+
+    /**
+     Sends a ping if the connection has been quiet, in either direction, for longer than the quiet period,
+     and gives up the connection if the last ping wasn't answered in time and nothing else was received.
+     */
+    private void checkConnection() {
+        long now = now();
+        long pending = this.pingSent;
+        if (pending != 0) {
+            if (now - Math.max(pending, this.lastReceived) >= TIMEOUT) disconnected();
+            return;
+        }
+        long quiet = quietPeriod();
+        if (now - this.lastSent >= quiet || now - this.lastReceived >= quiet) sendPing();
+    }
+
+    private void sendPing() {
+        this.pingSent = Math.max(now(), 1);
+        try {
+            ping(this.pingPlayer, this.pingLobby);
+            sent();
+        } catch (RemoteException e) {
+            disconnected();
+        }
+    }
+
+    private synchronized void measured(long sample) {
+        if (rtt == 0) {
+            rtt = sample;
+            rttVariation = sample / 2;
+            return;
+        }
+        rttVariation = (3 * rttVariation + Math.abs(rtt - sample)) / 4;
+        rtt = (7 * rtt + sample) / 8;
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    /**
+     Logs a player into the lobby. If the player logs again into the game it was playing,
+     it sends the sequence of the last update received, so the server sends only the missed updates.
+     @param playerID the ID of the player
+     @param lobbyID the ID of the lobby
+     @param remoteView the remote view associated with the player
+     @param client the remote client network interface
+     @throws RemoteException if a remote communication error occurs
+     */
+    @Override
+    public void login(String playerID, String lobbyID, RemoteView remoteView, RemoteClient client) throws RemoteException {
+        boolean rejoining = view != null && playerID.equals(localPlayer) && lobbyID.equals(ClientApp.lobbyID);
+        login(playerID, lobbyID, rejoining ? view.getSequence() : NO_SEQUENCE, remoteView, client);
     }
 
     /**
@@ -80,32 +279,37 @@ public abstract class Network extends UnicastRemoteObject implements GameCommand
      */
     @Override
     public void update(Object objects) throws RemoteException {
+        received();
         if (scouts.containsKey(objects.getClass())) {
             scouts.get(objects.getClass()).update(objects);
         } else {
-            view.outcomeException(new RuntimeException("Scout-handler not found"));
+            getView().outcomeException(new RuntimeException("Scout-handler not found"));
         }
     }
 
+    /**
+     Updates the objects received from the server with a single call, handing them to their scouts in order.
+     @param updates the objects to be updated
+     @throws RemoteException if a remote communication error occurs
+     */
+    @Override
+    public void updateBatch(List<?> updates) throws RemoteException {
+        for (Object objects : updates) update(objects);
+    }
+
     /**
      Receives a pong message from the server to confirm the connection.
-     Cancels the timer for timeout and schedules a new ping request.
+     It measures the round-trip time of the ping, the next one is sent when the connection gets quiet again.
      @param playerID the ID of the player
      @param lobbyID the ID of the lobby
      @throws RemoteException if a remote communication error occurs
      */
-    @SuppressWarnings("BlockingMethodInNonBlockingContext")
     @Override
     public void pong(String playerID, String lobbyID) throws RemoteException {
-        if (timer != null) timer.cancel();
-        timer = null;
-        executorService.execute(() -> {
-            try {
-                Thread.sleep(7000);
-                startPing(playerID, lobbyID);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        });
+        received();
+        long pending = this.pingSent;
+        if (pending == 0) return;
+        this.pingSent = 0;
+        measured(now() - pending);
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package Client.Network;
 
+import Client.View.View;
+
 import java.rmi.RemoteException;
+import java.util.Timer;
 
 
 /**
@@ -24,4 +27,23 @@ public class NetworkFactory {
         }
         return null;
     }
+
+    /**
+     Creates an instance of the network for a client with its own view, based on the specified network type.
+     @param network the network type ("RMI" or "SOCKET")
+     @param view the view updated by the network
+     @param timer the timer that checks the connection, it can be shared by many networks
+     @param disconnected what to do when the connection is lost
+     @return an instance of the network
+     @throws RemoteException if a remote communication error occurs
+     */
+    public static Network instanceNetwork(String network, View view, Timer timer, Runnable disconnected) throws RemoteException {
+        if (network.equalsIgnoreCase("RMI")) {
+            return new ClientRMI(view, timer, disconnected);
+        }
+        else if (network.equalsIgnoreCase("SOCKET")) {
+            return new ClientSocket(view, timer, disconnected);
+        }
+        return null;
+    }
 }
@@ -0,0 +1,46 @@
+package Client.Network.Scouts;
+
+import Client.View.View;
+import Interface.Scout;
+import Utils.MockObjects.MockBatch;
+
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The BatchScout class implements the Scout interface for observing the updates produced by a single command.
+ * It hands every update of the batch, in order, to the scout of its type.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class BatchScout implements Scout<MockBatch> {
+    private final Map<Class<?>, Scout> scouts;
+    private final Supplier<View> view;
+
+    /**
+     * Constructs a BatchScout that dispatches the updates to the given scouts.
+     *
+     * @param scouts the scouts of each type of update
+     * @param view   the view that records the sequence of the batch
+     */
+    public BatchScout(Map<Class<?>, Scout> scouts, Supplier<View> view) {
+        this.scouts = scouts;
+        this.view = view;
+    }
+
+    /**
+     * Updates the client with every update of the batch.
+     *
+     * @param objects the batch of updates
+     * @throws RemoteException if a scout for an update is missing
+     */
+    @Override
+    public void update(MockBatch objects) throws RemoteException {
+        for (Object update : objects.getUpdates()) {
+            Scout scout = this.scouts.get(update.getClass());
+            if (scout == null) throw new RemoteException("Scout not found");
+            scout.update(update);
+        }
+        if (objects.getSequence() > 0) view.get().updateSequence(objects.getSequence());
+    }
+}
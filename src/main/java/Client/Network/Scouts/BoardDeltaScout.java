@@ -0,0 +1,36 @@
+package Client.Network.Scouts;
+
+import Client.View.View;
+import Interface.Scout;
+import Utils.MockObjects.MockBoardDelta;
+
+import java.rmi.RemoteException;
+import java.util.function.Supplier;
+
+/**
+ * The BoardDeltaScout class implements the Scout interface for observing the cells of the game board that changed.
+ * It updates the view by applying the changed cells to the board it already has.
+ */
+public class BoardDeltaScout implements Scout<MockBoardDelta> {
+    private final Supplier<View> view;
+
+    /**
+     * Constructs a BoardDeltaScout that updates the given view.
+     *
+     * @param view the view to update, asked at every update
+     */
+    public BoardDeltaScout(Supplier<View> view) {
+        this.view = view;
+    }
+
+    /**
+     * Applies the changed cells to the board of the view.
+     *
+     * @param objects the changed cells of the board
+     * @throws RemoteException if a remote exception occurs during the update
+     */
+    @Override
+    public void update(MockBoardDelta objects) throws RemoteException {
+        view.get().updateBoard(objects);
+    }
+}
@@ -1,16 +1,27 @@
 package Client.Network.Scouts;
 
+import Client.View.View;
 import Interface.Scout;
-import static Client.ClientApp.view;
 import Utils.MockObjects.MockBoard;
 
 import java.rmi.RemoteException;
+import java.util.function.Supplier;
 
 /**
  * The BoardScout class implements the Scout interface for observing changes related to the game board.
  * It updates the view with the changes by invoking the appropriate method to update the board.
  */
 public class BoardScout implements Scout<MockBoard> {
+    private final Supplier<View> view;
+
+    /**
+     * Constructs a BoardScout that updates the given view.
+     *
+     * @param view the view to update, asked at every update
+     */
+    public BoardScout(Supplier<View> view) {
+        this.view = view;
+    }
 
     /**
      * Updates the view with the game board object.
@@ -20,6 +31,6 @@ public class BoardScout implements Scout<MockBoard> {
      */
     @Override
     public void update(MockBoard objects) throws RemoteException {
-        view.updateBoard(objects);
+        view.get().updateBoard(objects);
     }
 }
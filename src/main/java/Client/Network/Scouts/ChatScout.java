@@ -1,14 +1,26 @@
 package Client.Network.Scouts;
 
-import static Client.ClientApp.view;
+import Client.View.View;
 import Interface.Scout;
 import Utils.ChatMessage;
 
+import java.util.function.Supplier;
+
 /**
  * The ChatScout class implements the Scout interface for observing changes related to chat messages.
  * It updates the view with the changes by invoking the appropriate method to update the chat.
  */
 public class ChatScout implements Scout<ChatMessage>{
+    private final Supplier<View> view;
+
+    /**
+     * Constructs a ChatScout that updates the given view.
+     *
+     * @param view the view to update, asked at every update
+     */
+    public ChatScout(Supplier<View> view) {
+        this.view = view;
+    }
 
     /**
      * Updates the view with the chat message object.
@@ -17,6 +29,6 @@ public class ChatScout implements Scout<ChatMessage>{
      */
     @Override
     public void update(ChatMessage object) {
-        view.updateChat(object);
+        view.get().updateChat(object);
     }
 }
@@ -1,16 +1,27 @@
 package Client.Network.Scouts;
 
+import Client.View.View;
 import Interface.Scout;
 import Utils.MockObjects.MockCommonGoal;
-import static Client.ClientApp.view;
 
 import java.rmi.RemoteException;
+import java.util.function.Supplier;
 
 /**
  * The CommonGoalScout class implements the Scout interface for observing changes related to common goals.
  * It updates the client with the changes by invoking the appropriate method to update the common goal.
  */
 public class CommonGoalScout implements Scout<MockCommonGoal> {
+    private final Supplier<View> view;
+
+    /**
+     * Constructs a CommonGoalScout that updates the given view.
+     *
+     * @param view the view to update, asked at every update
+     */
+    public CommonGoalScout(Supplier<View> view) {
+        this.view = view;
+    }
 
     /**
      * Updates the view with the changes in the common goal.
@@ -20,6 +31,6 @@ public class CommonGoalScout implements Scout<MockCommonGoal> {
      */
     @Override
     public void update(MockCommonGoal objects) throws RemoteException {
-        view.updateCommonGoal(objects);
+        view.get().updateCommonGoal(objects);
     }
 }
@@ -1,16 +1,27 @@
 package Client.Network.Scouts;
 
+import Client.View.View;
 import Interface.Scout;
 import Utils.MockObjects.MockPlayer;
-import static Client.ClientApp.view;
 
 import java.rmi.RemoteException;
+import java.util.function.Supplier;
 
 /**
  * The PlayerScout class implements the Scout interface for observing changes related to player objects.
  * It updates the client with the changes by invoking the appropriate method to update the player.
  */
 public class PlayerScout implements Scout<MockPlayer> {
+    private final Supplier<View> view;
+
+    /**
+     * Constructs a PlayerScout that updates the given view.
+     *
+     * @param view the view to update, asked at every update
+     */
+    public PlayerScout(Supplier<View> view) {
+        this.view = view;
+    }
 
     /**
      * Updates the client with the changes in the player object.
@@ -20,6 +31,6 @@ public class PlayerScout implements Scout<MockPlayer> {
      */
     @Override
     public void update(MockPlayer objects) throws RemoteException {
-        view.updatePlayer(objects);
+        view.get().updatePlayer(objects);
     }
 }
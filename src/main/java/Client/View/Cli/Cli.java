@@ -9,6 +9,7 @@ import Enumeration.GameWarning;
 import Enumeration.TurnPhase;
 import Utils.Cell;
 import Utils.ChatMessage;
+import Utils.LobbyQuery;
 import Utils.MockObjects.MockBoard;
 import Utils.MockObjects.MockCommonGoal;
 import Utils.MockObjects.MockModel;
@@ -37,6 +38,10 @@ public class Cli extends View {
     private List<Tile> selectedTiles;
     private final Scanner scanner = new Scanner(System.in);
     private static final String TAB = "   ";
+    /**
+     * The page of lobbies and games shown to the player.
+     */
+    private LobbyQuery lobbyQuery = LobbyQuery.FIRST_PAGE;
 
     /**
      * Constructs a new Cli object.
@@ -160,14 +165,25 @@ public class Cli extends View {
     /**
      * Asks the player to enter the lobby ID and their nickname to join the lobby.
      * If the lobby ID is not found, a new lobby will be instantiated.
+     * It returns at once: the prompt runs on its own thread, so the call of the server doesn't wait for the player.
      *
      * @param lobbyInfo the list of lobby information containing lobby and game details
-     * @throws RemoteException if a remote communication error occurs
      */
     @Override
-    public void askPlayerInfo(List<Map<String, String>> lobbyInfo) throws RemoteException {
-        String inputLobby;
+    public void askPlayerInfo(List<Map<String, String>> lobbyInfo) {
+        executorService.execute(() -> {
+            try {
+                promptPlayerInfo(lobbyInfo);
+            } catch (RemoteException e) {
+                printError("ERROR: " + e.getMessage());
+            }
+        });
+    }
+
+    private void promptPlayerInfo(List<Map<String, String>> lobbyInfo) throws RemoteException {
+        String inputLobby = null;
         String inputName;
+        int quickSize = -1;
 
         if (lobbyInfo != null) {
             System.out.println("Here you can find the lobbies or games with the players logged. Write an ID for the lobby/game; if it doesn't match with others, a new lobby will be instantiated.");
@@ -175,13 +191,32 @@ public class Cli extends View {
                 System.out.println("LobbyID: " + object + TAB + "Waiting Room: " + lobbyInfo.get(0).get(object));
             for (String object : lobbyInfo.get(1).keySet())
                 System.out.println("GameID: " + object + TAB + "Players Online: " + lobbyInfo.get(1).get(object));
+            if (lobbyInfo.size() > 2)
+                System.out.println("Lobbies: " + lobbyInfo.get(2).get(LobbyQuery.LOBBIES) + TAB + "Games: " + lobbyInfo.get(2).get(LobbyQuery.GAMES)
+                        + TAB + "Write ':more' for the next page, ':open' for the lobbies with a free seat, ':quick' to be seated at a new game");
         } else System.out.println("There are no lobby or games: create a new one");
+        LobbyQuery next = this.lobbyQuery.next(lobbyInfo);
 
 
         while (true) {
             System.out.print(CliColor.BOLD + "\nInsert a lobby ID: " + CliColor.RESET);
             String input = scanner.nextLine();
-            if (!input.isBlank()) {
+            if (input.equals(":more") && next != null) {
+                this.lobbyQuery = next;
+                network.getLobbyInfo(this, next);
+                return;
+            } else if (input.equals(":open")) {
+                this.lobbyQuery = LobbyQuery.open(1);
+                network.getLobbyInfo(this, this.lobbyQuery);
+                return;
+            } else if (input.equals(":more")) {
+                this.lobbyQuery = LobbyQuery.FIRST_PAGE;
+                network.getLobbyInfo(this, this.lobbyQuery);
+                return;
+            } else if (input.equals(":quick")) {
+                quickSize = askQuickSize();
+                break;
+            } else if (!input.isBlank()) {
                 inputLobby = input;
                 break;
             } else printError("ERROR: you type something wrong, lobby can't be empty");
@@ -196,17 +231,47 @@ public class Cli extends View {
             } else printError("ERROR: you type something wrong, nickname can't be empty");
         }
 
-        network.login(inputName, inputLobby, this, network);
+        if (inputLobby == null) network.quickPlay(inputName, quickSize, this, network);
+        else network.login(inputName, inputLobby, this, network);
+    }
+
+    /**
+     * Asks the player the size of the table to be seated at by the quick play.
+     *
+     * @return the size of the table, 0 for any size
+     */
+    private int askQuickSize() {
+        while (true) {
+            System.out.print(CliColor.BOLD + "Insert the numbers of players (2, 3, 4 or 'any'): " + CliColor.RESET);
+            String input = scanner.nextLine().trim();
+            if (input.equalsIgnoreCase("any")) return 0;
+            try {
+                int size = Integer.parseInt(input);
+                if (size >= 2 && size <= 4) return size;
+                printError("ERROR: the game can start only with 2, 3 or 4 players.");
+            } catch (NumberFormatException exception) {
+                printError("ERROR: insert a number or 'any'");
+            }
+        }
     }
 
     /**
      * Asks the player to enter the number of players for the lobby size.
      * The player must enter a number between 2 and 4 (inclusive).
-     *
-     * @throws RemoteException if a remote communication error occurs
+     * It returns at once: the prompt runs on its own thread and the answer goes back with {@code setLobbySize}.
      */
     @Override
-    public void askLobbySize() throws RemoteException {
+    public void askLobbySize() {
+        executorService.execute(() -> {
+            try {
+                promptLobbySize();
+            } catch (RemoteException e) {
+                printError("ERROR: " + e.getMessage());
+            }
+        });
+    }
+
+    private void promptLobbySize() throws RemoteException {
         int playerNumber;
         String input;
 
@@ -499,6 +564,7 @@ public class Cli extends View {
     @Override
     public void allGame(MockModel mockModel) throws RemoteException {
         this.mockModel = mockModel;
+        updateSequence(mockModel.getSequence());
         this.controller = new LightController();
         if (mockModel.getChat() != null) fixChat();
         setLocalFirst();
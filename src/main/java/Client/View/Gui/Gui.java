@@ -174,6 +174,7 @@ public class Gui extends View {
     @Override
     public void allGame(MockModel mockModel) throws RemoteException {
         this.mockModel = mockModel;
+        updateSequence(mockModel.getSequence());
         if(!mockModel.getChat().isEmpty()) {
             fixChat();
             guiApplication.refreshChat(mockModel.getChat());
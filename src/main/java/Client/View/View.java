@@ -3,26 +3,40 @@ package Client.View;
 import Interface.Client.RemoteView;
 import Utils.ChatMessage;
 import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
 import Utils.MockObjects.MockCommonGoal;
 import Utils.MockObjects.MockModel;
 import Utils.MockObjects.MockPlayer;
+import Utils.TimeoutSocketFactory;
 
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 
+import static Client.ClientApp.localPlayer;
+import static Client.ClientApp.network;
+import static Interface.Server.LobbyInterface.NO_SEQUENCE;
+
 /**
  * Abstract class representing a view in the game.
  */
 public abstract class View extends UnicastRemoteObject implements RemoteView {
     protected MockModel mockModel;
+    /**
+     * Tells if the whole board was asked to the server and hasn't been received yet.
+     */
+    private boolean boardRequested;
+    /**
+     * The sequence of the last game update received, sent back to the server when the player rejoins.
+     */
+    private long sequence = NO_SEQUENCE;
 
     /**
-     * Constructs a new View object.
+     * Constructs a new View object, exported with the sockets of the clients, so a call of the server to it times out.
      *
      * @throws RemoteException If an exception occurs during remote communication.
      */
     public View() throws RemoteException {
-        super();
+        super(0, TimeoutSocketFactory.CLIENT, null);
     }
 
     /**
@@ -32,6 +46,37 @@ public abstract class View extends UnicastRemoteObject implements RemoteView {
      */
     public abstract void updateBoard(MockBoard mockBoard);
 
+    /**
+     * Applies the changed cells to the board of the view, and shows the updated board.
+     * If the board missed a version the delta is dropped and the whole board is asked to the server.
+     *
+     * @param delta The changed cells of the board.
+     */
+    public synchronized void updateBoard(MockBoardDelta delta) {
+        MockBoard mockBoard = (mockModel != null) ? mockModel.getMockBoard() : null;
+        if (mockBoard != null && mockBoard.apply(delta)) {
+            boardRequested = false;
+            updateBoard(mockBoard);
+            return;
+        }
+        if (boardRequested) return;
+        boardRequested = true;
+        try {
+            requestBoard();
+        } catch (RemoteException e) {
+            boardRequested = false;
+        }
+    }
+
+    /**
+     * Asks the server for the whole board, through the network of the view.
+     *
+     * @throws RemoteException If an exception occurs during remote communication.
+     */
+    protected void requestBoard() throws RemoteException {
+        network.requestBoard(localPlayer);
+    }
+
     /**
      * Updates the common goal in the view with the provided mock common goal.
      *
@@ -53,6 +98,24 @@ public abstract class View extends UnicastRemoteObject implements RemoteView {
      */
     public abstract void updateChat(ChatMessage message);
 
+    /**
+     * Records the sequence of a game update received from the server.
+     *
+     * @param sequence The sequence of the update.
+     */
+    public synchronized void updateSequence(long sequence) {
+        this.sequence = Math.max(this.sequence, sequence);
+    }
+
+    /**
+     * Retrieves the sequence of the last game update received.
+     *
+     * @return The sequence, {@link Interface.Server.LobbyInterface#NO_SEQUENCE} if no update was received.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
     /**
      * Retrieves the mock model associated with the view.
      *
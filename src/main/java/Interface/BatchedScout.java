@@ -0,0 +1,21 @@
+package Interface;
+
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * The BatchedScout interface represents a remote scout that can receive many updates with a single remote call.
+ * The server sends it the updates that piled up while its previous call was running, instead of one call per update.
+ *
+ * @param <O> the type of the objects to be updated.
+ */
+public interface BatchedScout<O> extends Scout<O> {
+
+    /**
+     * Updates the remote observers with the specified objects, in order.
+     *
+     * @param updates the objects to be updated, each one as it would be passed to {@link #update(Object)}.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    void updateBatch(List<?> updates) throws RemoteException;
+}
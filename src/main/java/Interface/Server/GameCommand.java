@@ -10,7 +10,7 @@ import Utils.Coordinates;
 /**
  * The GameCommand interface represents a remote interface for player commands.
  * It defines methods for selecting tiles, inserting tiles, writing chat messages,
- * and adding a scout to the game.
+ * adding a scout to the game and asking for the whole board.
  */
 public interface GameCommand extends Remote {
 
@@ -51,4 +51,13 @@ public interface GameCommand extends Remote {
      * @throws RemoteException if a remote communication error occurs.
      */
     void addScout(String playerID, Scout scout) throws RemoteException;
+
+    /**
+     * Asks for the whole board, sent to the scout of the player.
+     * It's used when the board of the player can't apply a delta because it missed some version.
+     *
+     * @param playerID the ID of the player.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    void requestBoard(String playerID) throws RemoteException;
 }
\ No newline at end of file
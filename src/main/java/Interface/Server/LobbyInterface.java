@@ -2,6 +2,7 @@ package Interface.Server;
 
 import Interface.Client.RemoteClient;
 import Interface.Client.RemoteView;
+import Utils.LobbyQuery;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
@@ -12,6 +13,10 @@ import java.rmi.RemoteException;
  * logging in/out of a lobby, and pinging players.
  */
 public interface LobbyInterface extends Remote {
+    /**
+     * The sequence sent by a client that has never seen an update of the game.
+     */
+    long NO_SEQUENCE = -1;
 
     /**
      * Retrieves lobby information and sends it to the remote view.
@@ -21,6 +26,15 @@ public interface LobbyInterface extends Remote {
      */
     void getLobbyInfo(RemoteView remote) throws RemoteException;
 
+    /**
+     * Retrieves a page of the lobby information and sends it to the remote view.
+     *
+     * @param remote the remote view to receive the lobby information.
+     * @param query the page to retrieve and its filters, null for the first page.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    void getLobbyInfo(RemoteView remote, LobbyQuery query) throws RemoteException;
+
     /**
      * Sets the lobby size for the specified lobby.
      *
@@ -42,6 +56,32 @@ public interface LobbyInterface extends Remote {
      */
     void login(String playerID, String lobbyID, RemoteView remoteView, RemoteClient network) throws RemoteException;
 
+    /**
+     * Logs a player into a lobby, resuming the game it was playing.
+     * If the updates after the given sequence are still available the player receives only those,
+     * otherwise it receives the whole game.
+     *
+     * @param playerID the ID of the player to log in.
+     * @param lobbyID the ID of the lobby to log into.
+     * @param lastSequence the sequence of the last update of the game received by the player, {@link #NO_SEQUENCE} if none.
+     * @param remoteView the remote view associated with the player.
+     * @param network the remote client associated with the player.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    void login(String playerID, String lobbyID, long lastSequence, RemoteView remoteView, RemoteClient network) throws RemoteException;
+
+    /**
+     * Puts a player in the quick-play queue, instead of a lobby: the server seats it at a new game with other queued players.
+     * The player logs into the queue first, and into its game once seated.
+     *
+     * @param playerID the ID of the player to queue.
+     * @param preferredSize the size of the table the player prefers, between 2 and 4, or 0 for any size.
+     * @param remoteView the remote view associated with the player.
+     * @param network the remote client associated with the player.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    void quickPlay(String playerID, int preferredSize, RemoteView remoteView, RemoteClient network) throws RemoteException;
+
     /**
      * Sends a ping message to the specified player in the lobby.
      *
@@ -0,0 +1,30 @@
+package Interface.Server;
+
+import Utils.BackendLoad;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * The RouterInterface interface represents the remote interface of a router, used by the backends behind it.
+ * The backends report their load periodically, and the router answers with the name of their shard.
+ */
+public interface RouterInterface extends Remote {
+    /**
+     * Reports the load of a backend.
+     *
+     * @param load the load of the backend, with its address.
+     * @return the name of the shard of the backend, null if the router doesn't know its address.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    String report(BackendLoad load) throws RemoteException;
+
+    /**
+     * Retrieves the last load reported by each backend that is up.
+     *
+     * @return the loads of the backends that are up.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    List<BackendLoad> getLoads() throws RemoteException;
+}
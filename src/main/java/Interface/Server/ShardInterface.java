@@ -0,0 +1,28 @@
+package Interface.Server;
+
+import Utils.LobbyQuery;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ShardInterface interface represents the remote interface of a backend used by the router in front of it,
+ * besides the lobby operations it forwards.
+ */
+public interface ShardInterface extends Remote {
+    /**
+     * The separator between an ID and the name of the shard that made it: the router sends such an ID to that shard.
+     */
+    String SEPARATOR = "@";
+
+    /**
+     * Retrieves a page of the lobbies and games of the backend.
+     *
+     * @param query the page to retrieve and its filters.
+     * @return the page, as the lobby information sent to the clients; null if there are no lobbies nor games.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    List<Map<String, String>> getLobbyInfo(LobbyQuery query) throws RemoteException;
+}
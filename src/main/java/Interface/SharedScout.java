@@ -0,0 +1,18 @@
+package Interface;
+
+import Messages.Wire.SharedMessage;
+
+/**
+ * The SharedScout interface represents a scout living in the server process that can receive
+ * a broadcast update already encoded for all its recipients, instead of encoding it again.
+ * It's not a remote interface: the scouts reached through RMI keep receiving the objects.
+ */
+public interface SharedScout {
+
+    /**
+     * Sends the shared update to the client.
+     *
+     * @param message the update, encoded once for every recipient.
+     */
+    void updateShared(SharedMessage message);
+}
@@ -13,6 +13,7 @@ import java.util.List;
  * It is sent by a client to the server to perform the tile insertion operation.
  */
 public class InsertTilesMessage extends ClientMessage {
+    private static final long serialVersionUID = -2733309974172699630L;
     private final List<Integer> sorted;
     private final int column;
 
@@ -42,4 +43,22 @@ public class InsertTilesMessage extends ClientMessage {
             ServerApp.logger.severe(e.toString());
         }
     }
+
+    /**
+     * Returns the order in which the selected tiles are inserted.
+     *
+     * @return the sorting indexes.
+     */
+    public List<Integer> getSorted() {
+        return sorted;
+    }
+
+    /**
+     * Returns the column of the shelf where the tiles are inserted.
+     *
+     * @return the column index.
+     */
+    public int getColumn() {
+        return column;
+    }
 }
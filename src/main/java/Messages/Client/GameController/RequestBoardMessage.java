@@ -0,0 +1,41 @@
+package Messages.Client.GameController;
+
+import Interface.Server.GameCommand;
+import Messages.ClientMessage;
+import Server.Network.Client.SocketHandler;
+import Server.ServerApp;
+
+import java.rmi.RemoteException;
+
+/**
+ * Represents a client message used to ask for the whole board.
+ * It is sent by a client whose board missed a version and can't apply the board deltas anymore.
+ */
+public class RequestBoardMessage extends ClientMessage {
+    private static final long serialVersionUID = 6692054361933918278L;
+
+    /**
+     * Constructs a RequestBoardMessage with the specified player ID.
+     *
+     * @param playerID the ID of the player asking for the board.
+     */
+    public RequestBoardMessage(String playerID) {
+        this.playerID = playerID;
+    }
+
+    /**
+     * Executes the client message by invoking the appropriate method on the game controller to resend the board.
+     *
+     * @param socketHandler the SocketHandler used for communication with the server.
+     */
+    @Override
+    public void execute(SocketHandler socketHandler) {
+        GameCommand gameController = socketHandler.getGameController();
+        if (gameController == null) return;
+        try {
+            gameController.requestBoard(this.playerID);
+        } catch (RemoteException e) {
+            ServerApp.logger.severe(e.getMessage());
+        }
+    }
+}
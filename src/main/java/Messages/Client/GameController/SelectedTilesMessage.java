@@ -14,6 +14,7 @@ import java.util.List;
  * It is sent by a client to the server to notify the selected tiles.
  */
 public class SelectedTilesMessage extends ClientMessage {
+    private static final long serialVersionUID = -6619281955349427798L;
     private final List<Coordinates> coordinates;
 
     /**
@@ -40,4 +41,13 @@ public class SelectedTilesMessage extends ClientMessage {
             ServerApp.logger.severe(e.getMessage());
         }
     }
+
+    /**
+     * Returns the coordinates of the selected tiles.
+     *
+     * @return the list of coordinates.
+     */
+    public List<Coordinates> getCoordinates() {
+        return coordinates;
+    }
 }
@@ -12,6 +12,7 @@ import java.rmi.RemoteException;
  * It is sent by a client to the server to deliver the chat message.
  */
 public class WriteChatMessage extends ClientMessage {
+    private static final long serialVersionUID = -5641183146593888739L;
     private final String message;
     private final String to;
 
@@ -41,4 +42,22 @@ public class WriteChatMessage extends ClientMessage {
             ServerApp.logger.severe(e.toString());
         }
     }
+
+    /**
+     * Returns the content of the chat message.
+     *
+     * @return the chat message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the ID of the recipient of the chat message.
+     *
+     * @return the recipient, null if the message is for everyone.
+     */
+    public String getTo() {
+        return to;
+    }
 }
@@ -1,6 +1,7 @@
 package Messages.Client.Lobby;
 
 
+import Interface.Server.LobbyInterface;
 import Messages.ClientMessage;
 import Server.Network.Client.SocketHandler;
 import Server.ServerApp;
@@ -12,7 +13,13 @@ import java.rmi.RemoteException;
  * It is sent by a client to join a specific lobby identified by the lobby ID.
  */
 public class AddPlayerMessage extends ClientMessage {
+    private static final long serialVersionUID = 7606270119051475481L;
     private final String lobbyID;
+    /**
+     * The sequence of the last update received, boxed so that it's null in the message of an old client,
+     * whose class has no such field: Java serialization would read a missing long as 0, a valid sequence.
+     */
+    private final Long lastSequence;
 
     /**
      * Constructs an AddPlayerMessage with the specified player ID and lobby ID.
@@ -21,8 +28,20 @@ public class AddPlayerMessage extends ClientMessage {
      * @param lobbyID  the ID of the lobby to join.
      */
     public AddPlayerMessage(String playerID, String lobbyID) {
+        this(playerID, lobbyID, LobbyInterface.NO_SEQUENCE);
+    }
+
+    /**
+     * Constructs an AddPlayerMessage for a player resuming its game.
+     *
+     * @param playerID     the ID of the player to be added.
+     * @param lobbyID      the ID of the lobby to join.
+     * @param lastSequence the sequence of the last update of the game received by the player.
+     */
+    public AddPlayerMessage(String playerID, String lobbyID, long lastSequence) {
         this.playerID = playerID;
         this.lobbyID = lobbyID;
+        this.lastSequence = lastSequence;
     }
 
     /**
@@ -32,9 +51,27 @@ public class AddPlayerMessage extends ClientMessage {
      */
     public void execute(SocketHandler socketHandler){
         try {
-            ServerApp.lobby.login(this.playerID,this.lobbyID, socketHandler, socketHandler);
+            ServerApp.front.login(this.playerID,this.lobbyID, getLastSequence(), socketHandler, socketHandler);
         } catch (RemoteException e) {
             ServerApp.logger.severe(e.toString());
         }
     }
+
+    /**
+     * Returns the ID of the lobby to join.
+     *
+     * @return the lobby ID.
+     */
+    public String getLobbyID() {
+        return lobbyID;
+    }
+
+    /**
+     * Returns the sequence of the last update of the game received by the player.
+     *
+     * @return the sequence, {@link LobbyInterface#NO_SEQUENCE} if the player has none.
+     */
+    public long getLastSequence() {
+        return lastSequence != null ? lastSequence : LobbyInterface.NO_SEQUENCE;
+    }
 }
@@ -3,14 +3,33 @@ package Messages.Client.Lobby;
 import Messages.ClientMessage;
 import Server.Network.Client.SocketHandler;
 import Server.ServerApp;
+import Utils.LobbyQuery;
 
 import java.rmi.RemoteException;
 
 /**
  * Represents a client message used to request information about available lobbies.
- * It is sent by a client to retrieve the information about all the lobbies on the server.
+ * It is sent by a client to retrieve a page of the lobbies and games on the server.
  */
 public class GetLobbiesInfoMessage extends ClientMessage {
+    private static final long serialVersionUID = -1926635175980534439L;
+    private final LobbyQuery query;
+
+    /**
+     * Constructs a GetLobbiesInfoMessage asking for the first page.
+     */
+    public GetLobbiesInfoMessage() {
+        this(null);
+    }
+
+    /**
+     * Constructs a GetLobbiesInfoMessage asking for the given page.
+     *
+     * @param query the page to retrieve and its filters, null for the first page.
+     */
+    public GetLobbiesInfoMessage(LobbyQuery query) {
+        this.query = query;
+    }
 
     /**
      * Executes the client message by invoking the appropriate method on the server to retrieve the lobby information.
@@ -20,9 +39,18 @@ public class GetLobbiesInfoMessage extends ClientMessage {
     @Override
     public void execute(SocketHandler socket) {
         try {
-            ServerApp.lobby.getLobbyInfo(socket);
+            ServerApp.front.getLobbyInfo(socket, this.query);
         } catch (RemoteException e) {
             ServerApp.logger.severe(e.getMessage());
         }
     }
+
+    /**
+     * Returns the page to retrieve.
+     *
+     * @return the query, null for the first page.
+     */
+    public LobbyQuery getQuery() {
+        return query;
+    }
 }
@@ -11,6 +11,7 @@ import java.rmi.RemoteException;
  * It is sent by a client to specify the desired size for a specific lobby.
  */
 public class LobbySizeMessage extends ClientMessage {
+    private static final long serialVersionUID = -8424887737820732516L;
     private final String lobbyID;
     private final int lobbySize;
 
@@ -35,9 +36,27 @@ public class LobbySizeMessage extends ClientMessage {
     @Override
     public void execute(SocketHandler socket) {
         try {
-            ServerApp.lobby.setLobbySize(this.playerID, this.lobbyID, this.lobbySize);
+            ServerApp.front.setLobbySize(this.playerID, this.lobbyID, this.lobbySize);
         } catch (RemoteException e) {
             ServerApp.logger.severe(e.toString());
         }
     }
+
+    /**
+     * Returns the ID of the lobby.
+     *
+     * @return the lobby ID.
+     */
+    public String getLobbyID() {
+        return lobbyID;
+    }
+
+    /**
+     * Returns the requested size of the lobby.
+     *
+     * @return the lobby size.
+     */
+    public int getLobbySize() {
+        return lobbySize;
+    }
 }
@@ -11,6 +11,7 @@ import java.rmi.RemoteException;
  * It is sent by a client to request logging out from a specific lobby.
  */
 public class LogOutMessage extends ClientMessage {
+    private static final long serialVersionUID = 5148375257842314559L;
     private final String lobbyID;
 
     /**
@@ -31,9 +32,18 @@ public class LogOutMessage extends ClientMessage {
     @Override
     public void execute(SocketHandler socket) {
         try {
-            ServerApp.lobby.logOut(playerID, lobbyID);
+            ServerApp.front.logOut(playerID, lobbyID);
         } catch (RemoteException e) {
             ServerApp.logger.severe(e.toString());
         }
     }
+
+    /**
+     * Returns the ID of the lobby to log out from.
+     *
+     * @return the lobby ID.
+     */
+    public String getLobbyID() {
+        return lobbyID;
+    }
 }
@@ -11,6 +11,7 @@ import java.rmi.RemoteException;
  * It is sent by a client to check the connection status with the lobby.
  */
 public class PingMessage extends ClientMessage {
+    private static final long serialVersionUID = -7123845094082412618L;
     private final String lobbyID;
 
     /**
@@ -31,9 +32,18 @@ public class PingMessage extends ClientMessage {
      */
     public void execute(SocketHandler socketHandler){
         try {
-            ServerApp.lobby.ping(this.playerID,this.lobbyID);
+            ServerApp.front.ping(this.playerID,this.lobbyID);
         } catch (RemoteException e) {
             ServerApp.logger.severe(e.toString());
         }
     }
+
+    /**
+     * Returns the ID of the lobby of the player.
+     *
+     * @return the lobby ID.
+     */
+    public String getLobbyID() {
+        return lobbyID;
+    }
 }
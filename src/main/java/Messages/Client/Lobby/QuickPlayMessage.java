@@ -0,0 +1,50 @@
+package Messages.Client.Lobby;
+
+import Messages.ClientMessage;
+import Server.Network.Client.SocketHandler;
+import Server.ServerApp;
+
+import java.rmi.RemoteException;
+
+/**
+ * Represents a client message used to join the quick-play queue.
+ * It is sent by a client that wants to be seated at a new game instead of choosing a lobby.
+ */
+public class QuickPlayMessage extends ClientMessage {
+    private static final long serialVersionUID = 4670700361416524934L;
+    private final int preferredSize;
+
+    /**
+     * Constructs a QuickPlayMessage with the specified player ID and preferred table size.
+     *
+     * @param playerID      the ID of the player joining the queue.
+     * @param preferredSize the size of the table the player prefers, between 2 and 4, or 0 for any size.
+     */
+    public QuickPlayMessage(String playerID, int preferredSize) {
+        this.playerID = playerID;
+        this.preferredSize = preferredSize;
+    }
+
+    /**
+     * Executes the client message by invoking the appropriate method on the server to queue the player.
+     *
+     * @param socket the SocketHandler used for communication with the server.
+     */
+    @Override
+    public void execute(SocketHandler socket) {
+        try {
+            ServerApp.front.quickPlay(this.playerID, this.preferredSize, socket, socket);
+        } catch (RemoteException e) {
+            ServerApp.logger.severe(e.toString());
+        }
+    }
+
+    /**
+     * Returns the size of the table the player prefers.
+     *
+     * @return the preferred size, 0 for any size.
+     */
+    public int getPreferredSize() {
+        return preferredSize;
+    }
+}
@@ -9,6 +9,7 @@ import java.io.Serializable;
  * Subclasses of ClientMessage define specific types of client messages.
  */
 public abstract class ClientMessage implements Serializable {
+    private static final long serialVersionUID = -5941641693745235701L;
     protected String playerID;
 
     /**
@@ -17,4 +18,13 @@ public abstract class ClientMessage implements Serializable {
      * @param socket the socket handler on which the client message should be executed.
      */
     public abstract void execute(SocketHandler socket);
+
+    /**
+     * Returns the ID of the player who sent the message.
+     *
+     * @return the player ID.
+     */
+    public String getPlayerID() {
+        return playerID;
+    }
 }
@@ -1,5 +1,6 @@
 package Messages.Server.Network;
 
+import Client.Network.Network;
 import Client.View.View;
 import Messages.ServerMessage;
 
@@ -11,6 +12,7 @@ import static Client.ClientApp.network;
  * This message is used to acknowledge a Ping message sent by the client.
  */
 public class PongMessage extends ServerMessage {
+    private static final long serialVersionUID = 1881940294461860957L;
     private final String playerID;
     private final String lobbyID;
 
@@ -34,10 +36,38 @@ public class PongMessage extends ServerMessage {
      */
     @Override
     public void execute(View view) {
+        execute(network);
+    }
+
+    /**
+     * Executes the server message on the given network, the one that received the Pong response.
+     *
+     * @param network the network of the client.
+     * @throws RuntimeException if a RemoteException occurs during the execution.
+     */
+    public void execute(Network network) {
         try {
             network.pong(playerID, lobbyID);
         } catch (RemoteException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the ID of the pinged player.
+     *
+     * @return the player ID.
+     */
+    public String getPlayerID() {
+        return playerID;
+    }
+
+    /**
+     * Returns the ID of the lobby of the player.
+     *
+     * @return the lobby ID.
+     */
+    public String getLobbyID() {
+        return lobbyID;
+    }
 }
@@ -3,19 +3,25 @@ package Messages.Server.Network;
 import Client.View.View;
 import Messages.ServerMessage;
 import Utils.ChatMessage;
+import Utils.MockObjects.MockBatch;
 import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
 import Utils.MockObjects.MockCommonGoal;
 import Utils.MockObjects.MockPlayer;
 
 /**
  * Represents a server message that updates the client's view with new information.
- * This message can update the board, common goal, player, or chat messages in the client's view.
+ * This message can update the board (whole or as a delta), common goal, player, or chat messages in the client's view,
+ * or carry a batch of these updates produced by a single command.
  */
 public class UpdateMessage extends ServerMessage{
+    private static final long serialVersionUID = 7970247734090058449L;
     private final MockBoard board;
+    private final MockBoardDelta boardDelta;
     private final MockCommonGoal commonGoal;
     private final MockPlayer player;
     private final ChatMessage message;
+    private final MockBatch batch;
 
     /**
      * Constructs an UpdateMessage to update the board in the client's view.
@@ -24,9 +30,25 @@ public class UpdateMessage extends ServerMessage{
      */
     public UpdateMessage(MockBoard board) {
         this.board = board;
+        this.boardDelta = null;
         this.commonGoal = null;
         this.player = null;
         this.message = null;
+        this.batch = null;
+    }
+
+    /**
+     * Constructs an UpdateMessage to apply the changed cells to the board in the client's view.
+     *
+     * @param boardDelta the changed cells of the board.
+     */
+    public UpdateMessage(MockBoardDelta boardDelta) {
+        this.board = null;
+        this.boardDelta = boardDelta;
+        this.commonGoal = null;
+        this.player = null;
+        this.message = null;
+        this.batch = null;
     }
 
     /**
@@ -36,9 +58,11 @@ public class UpdateMessage extends ServerMessage{
      */
     public UpdateMessage(MockPlayer player) {
         this.board = null;
+        this.boardDelta = null;
         this.commonGoal = null;
         this.player = player;
         this.message = null;
+        this.batch = null;
     }
 
 
@@ -49,9 +73,11 @@ public class UpdateMessage extends ServerMessage{
      */
     public UpdateMessage(MockCommonGoal commonGoal) {
         this.board = null;
+        this.boardDelta = null;
         this.commonGoal = commonGoal;
         this.player = null;
         this.message = null;
+        this.batch = null;
     }
 
     /**
@@ -61,9 +87,44 @@ public class UpdateMessage extends ServerMessage{
      */
     public UpdateMessage(ChatMessage message) {
         this.board = null;
+        this.boardDelta = null;
         this.commonGoal = null;
         this.player = null;
         this.message = message;
+        this.batch = null;
+    }
+
+    /**
+     * Constructs an UpdateMessage to apply a batch of updates to the client's view.
+     *
+     * @param batch the updates produced by a single command.
+     */
+    public UpdateMessage(MockBatch batch) {
+        this.board = null;
+        this.boardDelta = null;
+        this.commonGoal = null;
+        this.player = null;
+        this.message = null;
+        this.batch = batch;
+    }
+
+    /**
+     * Constructs the UpdateMessage that carries the given update.
+     *
+     * @param update a board, a board delta, a common goal, a player, a chat message or a batch.
+     * @return the message carrying the update.
+     * @throws IllegalArgumentException if the update is of an unknown type.
+     */
+    public static UpdateMessage of(Object update) {
+        return switch (update) {
+            case MockBoard mockBoard -> new UpdateMessage(mockBoard);
+            case MockBoardDelta mockBoardDelta -> new UpdateMessage(mockBoardDelta);
+            case MockCommonGoal mockCommonGoal -> new UpdateMessage(mockCommonGoal);
+            case MockPlayer mockPlayer -> new UpdateMessage(mockPlayer);
+            case ChatMessage chatMessage -> new UpdateMessage(chatMessage);
+            case MockBatch mockBatch -> new UpdateMessage(mockBatch);
+            case null, default -> throw new IllegalArgumentException("Unknown object type");
+        };
     }
 
     /**
@@ -77,6 +138,9 @@ public class UpdateMessage extends ServerMessage{
         if(this.board != null) {
             view.updateBoard(this.board);
         }
+        if(this.boardDelta != null) {
+            view.updateBoard(this.boardDelta);
+        }
         if(this.commonGoal != null) {
             view.updateCommonGoal(this.commonGoal);
         }
@@ -86,5 +150,72 @@ public class UpdateMessage extends ServerMessage{
         if(this.message != null) {
             view.updateChat(this.message);
         }
+        if(this.batch != null) {
+            for (Object update : this.batch.getUpdates()) {
+                switch (update) {
+                    case MockBoard mockBoard -> view.updateBoard(mockBoard);
+                    case MockBoardDelta mockBoardDelta -> view.updateBoard(mockBoardDelta);
+                    case MockCommonGoal mockCommonGoal -> view.updateCommonGoal(mockCommonGoal);
+                    case MockPlayer mockPlayer -> view.updatePlayer(mockPlayer);
+                    case ChatMessage chatMessage -> view.updateChat(chatMessage);
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the updated board.
+     *
+     * @return the board, null if the message doesn't update it.
+     */
+    public MockBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the changed cells of the board.
+     *
+     * @return the board delta, null if the message doesn't carry one.
+     */
+    public MockBoardDelta getBoardDelta() {
+        return boardDelta;
+    }
+
+    /**
+     * Returns the updated common goal.
+     *
+     * @return the common goal, null if the message doesn't update it.
+     */
+    public MockCommonGoal getCommonGoal() {
+        return commonGoal;
+    }
+
+    /**
+     * Returns the updated player.
+     *
+     * @return the player, null if the message doesn't update it.
+     */
+    public MockPlayer getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns the new chat message.
+     *
+     * @return the chat message, null if the message doesn't carry one.
+     */
+    public ChatMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the batch of updates.
+     *
+     * @return the batch, null if the message doesn't carry one.
+     */
+    public MockBatch getBatch() {
+        return batch;
     }
 }
@@ -11,6 +11,7 @@ import java.rmi.RemoteException;
  * This message is used to update the client's view with the complete game state.
  */
 public class AllGameMessage extends ServerMessage {
+    private static final long serialVersionUID = 2087943400797346608L;
     private final MockModel mockModel;
 
     /**
@@ -36,4 +37,13 @@ public class AllGameMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the whole game.
+     *
+     * @return the mock model.
+     */
+    public MockModel getMockModel() {
+        return mockModel;
+    }
 }
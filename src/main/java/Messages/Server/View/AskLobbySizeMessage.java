@@ -10,6 +10,7 @@ import java.rmi.RemoteException;
  * This message is used to prompt the client to input the desired lobby size.
  */
 public class AskLobbySizeMessage extends ServerMessage {
+    private static final long serialVersionUID = 3020075850653065134L;
 
 
     /**
@@ -12,6 +12,7 @@ import java.util.Map;
  * This message is used to provide the client with information about the players in the lobby.
  */
 public class AskPlayerInfoMessage extends ServerMessage {
+    private static final long serialVersionUID = -8411270634223788014L;
     private final List<Map<String, String>> lobbyInfo;
 
     /**
@@ -38,4 +39,13 @@ public class AskPlayerInfoMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the information about the lobbies and the games.
+     *
+     * @return the lobby information.
+     */
+    public List<Map<String, String>> getLobbyInfo() {
+        return lobbyInfo;
+    }
 }
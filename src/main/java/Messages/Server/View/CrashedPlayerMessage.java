@@ -10,6 +10,7 @@ import java.rmi.RemoteException;
  * This message is used to notify the client's view about the crashed player.
  */
 public class CrashedPlayerMessage extends ServerMessage {
+    private static final long serialVersionUID = 7671203762605488327L;
     private final String crashedPlayer;
 
     /**
@@ -36,4 +37,13 @@ public class CrashedPlayerMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the ID of the crashed player.
+     *
+     * @return the player ID.
+     */
+    public String getCrashedPlayer() {
+        return crashedPlayer;
+    }
 }
@@ -12,6 +12,7 @@ import java.util.List;
  * This message is used to notify the client's view about the end of the game and the ranking results.
  */
 public class EndGameMessage extends ServerMessage {
+    private static final long serialVersionUID = -1147715016814264373L;
     private final List<Rank> rank;
 
     /**
@@ -38,4 +39,13 @@ public class EndGameMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the final ranking.
+     *
+     * @return the list of ranks.
+     */
+    public List<Rank> getRank() {
+        return rank;
+    }
 }
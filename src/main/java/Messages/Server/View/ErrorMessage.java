@@ -10,6 +10,7 @@ import java.rmi.RemoteException;
  * This message is used to notify the client's view about the occurrence of an error.
  */
 public class ErrorMessage extends ServerMessage {
+    private static final long serialVersionUID = 1577431008111230895L;
     private final Exception error;
 
     /**
@@ -36,4 +37,13 @@ public class ErrorMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the error to show.
+     *
+     * @return the exception.
+     */
+    public Exception getError() {
+        return error;
+    }
 }
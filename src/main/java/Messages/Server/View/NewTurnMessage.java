@@ -10,6 +10,7 @@ import java.rmi.RemoteException;
  * This message is used to notify the client's view about the current player's turn.
  */
 public class NewTurnMessage extends ServerMessage {
+    private static final long serialVersionUID = 6256979673554365390L;
     private final String currentPlayer;
 
     /**
@@ -36,4 +37,13 @@ public class NewTurnMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the ID of the player of the new turn.
+     *
+     * @return the player ID.
+     */
+    public String getCurrentPlayer() {
+        return currentPlayer;
+    }
 }
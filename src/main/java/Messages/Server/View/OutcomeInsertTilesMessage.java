@@ -10,6 +10,7 @@ import java.rmi.RemoteException;
  * This message is used to notify the client's view about the result of inserting tiles into a column.
  */
 public class OutcomeInsertTilesMessage extends ServerMessage {
+    private static final long serialVersionUID = 7930518191992346510L;
     private final boolean outcome;
 
     /**
@@ -35,4 +36,13 @@ public class OutcomeInsertTilesMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the outcome of the insertion.
+     *
+     * @return true if the tiles were inserted.
+     */
+    public boolean getOutcome() {
+        return outcome;
+    }
 }
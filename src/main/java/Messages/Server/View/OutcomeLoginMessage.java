@@ -10,6 +10,7 @@ import java.rmi.RemoteException;
  * This message is used to notify the client's view about the result of the login operation.
  */
 public class OutcomeLoginMessage extends ServerMessage {
+    private static final long serialVersionUID = -5472183142758418646L;
     private final String playerID;
     private final String lobbyID;
 
@@ -39,4 +40,22 @@ public class OutcomeLoginMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the ID of the player who attempted to log in.
+     *
+     * @return the player ID.
+     */
+    public String getPlayerID() {
+        return playerID;
+    }
+
+    /**
+     * Returns the ID of the lobby where the player attempted to log in.
+     *
+     * @return the lobby ID.
+     */
+    public String getLobbyID() {
+        return lobbyID;
+    }
 }
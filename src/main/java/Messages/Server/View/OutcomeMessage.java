@@ -11,6 +11,7 @@ import java.rmi.RemoteException;
  * This message is used to notify the client's view about the outcome or warning.
  */
 public class OutcomeMessage extends ServerMessage {
+    private static final long serialVersionUID = -9003350126287152094L;
     private final GameWarning warning;
 
     /**
@@ -37,4 +38,13 @@ public class OutcomeMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the warning to show.
+     *
+     * @return the game warning.
+     */
+    public GameWarning getWarning() {
+        return warning;
+    }
 }
@@ -12,6 +12,7 @@ import java.util.List;
  * This message is used to notify the client's view about the of selected tiles and choose the order.
  */
 public class OutcomeSelectTilesMessage extends ServerMessage {
+    private static final long serialVersionUID = -7658171859433097201L;
     private final List<Tile> tiles;
 
     /**
@@ -37,4 +38,13 @@ public class OutcomeSelectTilesMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the selected tiles.
+     *
+     * @return the list of tiles.
+     */
+    public List<Tile> getTiles() {
+        return tiles;
+    }
 }
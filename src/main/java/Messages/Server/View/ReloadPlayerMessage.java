@@ -10,6 +10,7 @@ import java.rmi.RemoteException;
  * This message is used to notify the client's view to reload a specific player's information.
  */
 public class ReloadPlayerMessage extends ServerMessage {
+    private static final long serialVersionUID = 1462055720481144548L;
     private final String reloadPlayer;
 
     /**
@@ -36,4 +37,13 @@ public class ReloadPlayerMessage extends ServerMessage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the ID of the reconnected player.
+     *
+     * @return the player ID.
+     */
+    public String getReloadPlayer() {
+        return reloadPlayer;
+    }
 }
@@ -9,6 +9,7 @@ import java.io.Serializable;
  * Subclasses of ServerMessage define specific types of server messages.
  */
 public abstract class ServerMessage implements Serializable {
+    private static final long serialVersionUID = 7944011465258694908L;
 
     /**
      * Executes the server message on the specified view.
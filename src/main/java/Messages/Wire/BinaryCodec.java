@@ -0,0 +1,841 @@
+package Messages.Wire;
+
+import Enumeration.Color;
+import Enumeration.GameWarning;
+import Enumeration.TurnPhase;
+import Messages.Client.GameController.InsertTilesMessage;
+import Messages.Client.GameController.RequestBoardMessage;
+import Messages.Client.GameController.SelectedTilesMessage;
+import Messages.Client.GameController.WriteChatMessage;
+import Messages.Client.Lobby.*;
+import Messages.Server.Network.PongMessage;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.*;
+import Utils.*;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockCommonGoal;
+import Utils.MockObjects.MockModel;
+import Utils.MockObjects.MockPlayer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The BinaryCodec class encodes the messages in a compact hand-rolled format instead of Java serialization,
+ * so no class descriptor is ever sent.
+ * <p>
+ * A payload is a one-byte message type followed by the fields of the message:
+ * <ul>
+ *     <li>integers are varints (zig-zag when they can be negative), lengths are varints too, 0 meaning null;</li>
+ *     <li>a tile is a byte: 0 no tile, 1 empty tile, 2 + ordinal of the color;</li>
+ *     <li>a cell is a tile byte with the status in the high bit;</li>
+ *     <li>a coordinate is a byte with x and y packed in the two nibbles;</li>
+ *     <li>the identifiers (player and lobby IDs, goal descriptions, lobby info) are sent in full the first time
+ *     and then as an integer handle, the handles live as long as the connection.</li>
+ * </ul>
+ * Because of the handles, one instance must encode the messages of one direction of one connection
+ * in the same order they are written, and decode them in the same order they are read.
+ * An instance created without handles always sends the identifiers in full: its payloads don't depend
+ * on the connection, so they can be shared between connections (see {@link SharedMessage}).
+ */
+public class BinaryCodec implements MessageCodec {
+    private static final byte INSERT_TILES = 0x01;
+    private static final byte SELECTED_TILES = 0x02;
+    private static final byte WRITE_CHAT = 0x03;
+    private static final byte ADD_PLAYER = 0x04;
+    private static final byte GET_LOBBIES_INFO = 0x05;
+    private static final byte LOBBY_SIZE = 0x06;
+    private static final byte LOG_OUT = 0x07;
+    private static final byte PING = 0x08;
+    private static final byte REQUEST_BOARD = 0x09;
+    private static final byte QUICK_PLAY = 0x0A;
+
+    private static final byte PONG = 0x20;
+    private static final byte UPDATE = 0x21;
+
+    private static final byte ALL_GAME = 0x30;
+    private static final byte ASK_LOBBY_SIZE = 0x31;
+    private static final byte ASK_PLAYER_INFO = 0x32;
+    private static final byte CRASHED_PLAYER = 0x33;
+    private static final byte END_GAME = 0x34;
+    private static final byte ERROR = 0x35;
+    private static final byte NEW_TURN = 0x36;
+    private static final byte OUTCOME_INSERT_TILES = 0x37;
+    private static final byte OUTCOME_LOGIN = 0x38;
+    private static final byte OUTCOME = 0x39;
+    private static final byte OUTCOME_SELECT_TILES = 0x3A;
+    private static final byte RELOAD_PLAYER = 0x3B;
+
+    /**
+     * The kinds of object carried by an {@link UpdateMessage}.
+     */
+    private static final byte UPDATE_BOARD = 0;
+    private static final byte UPDATE_PLAYER = 1;
+    private static final byte UPDATE_COMMON_GOAL = 2;
+    private static final byte UPDATE_CHAT = 3;
+    private static final byte UPDATE_BOARD_DELTA = 4;
+    private static final byte UPDATE_BATCH = 5;
+
+    /**
+     * The string tags: null, a string sent in full and not remembered, a string sent in full and remembered,
+     * everything above is a handle.
+     */
+    private static final int NULL_STRING = 0;
+    private static final int LITERAL = 1;
+    private static final int NEW_HANDLE = 2;
+    private static final int FIRST_HANDLE = 3;
+    /**
+     * The maximum number of handles per direction, after that the strings are sent in full.
+     */
+    private static final int MAX_HANDLES = 4096;
+    /**
+     * The byte that escapes a coordinate that doesn't fit in two nibbles.
+     */
+    private static final int WIDE_COORDINATES = 0xFF;
+    private static final int NULL_CELL = 0xFF;
+    private static final int CELL_STATUS = 0x80;
+    private static final int NULL_ENUM = 0xFF;
+    /**
+     * The decoded tiles, indexed by their code: tiles are immutable so they can be shared.
+     */
+    private static final Tile[] TILES = new Tile[Color.values().length + 2];
+
+    static {
+        TILES[1] = new Tile(null);
+        for (Color color : Color.values())
+            TILES[color.ordinal() + 2] = new Tile(color);
+    }
+
+    private final Map<String, Integer> encodeHandles = new HashMap<>();
+    /**
+     * The handles given by the message being encoded, they're remembered only if the whole message is encoded:
+     * the decoder never sees a message that failed, so it never learns them.
+     */
+    private final Map<String, Integer> newHandles = new HashMap<>();
+    private final List<String> decodeHandles = new ArrayList<>();
+    /**
+     * Tells if the encoder remembers the identifiers, the decoder always understands the handles.
+     */
+    private final boolean handles;
+
+    /**
+     * Creates the codec of a connection, it sends the identifiers as handles.
+     */
+    public BinaryCodec() {
+        this(true);
+    }
+
+    /**
+     * Creates a codec.
+     *
+     * @param handles false to always send the identifiers in full, so the encoder is stateless
+     */
+    public BinaryCodec(boolean handles) {
+        this.handles = handles;
+    }
+
+    @Override
+    public byte[] encode(Serializable message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        this.newHandles.clear();
+        switch (message) {
+            case InsertTilesMessage m -> {
+                out.writeByte(INSERT_TILES);
+                writeId(out, m.getPlayerID());
+                writeIntegers(out, m.getSorted());
+                writeInt(out, m.getColumn());
+            }
+            case SelectedTilesMessage m -> {
+                out.writeByte(SELECTED_TILES);
+                writeId(out, m.getPlayerID());
+                writeCoordinates(out, m.getCoordinates());
+            }
+            case WriteChatMessage m -> {
+                out.writeByte(WRITE_CHAT);
+                writeId(out, m.getPlayerID());
+                writeString(out, m.getMessage());
+                writeId(out, m.getTo());
+            }
+            case AddPlayerMessage m -> {
+                out.writeByte(ADD_PLAYER);
+                writeId(out, m.getPlayerID());
+                writeId(out, m.getLobbyID());
+                writeVarLong(out, m.getLastSequence() + 1);
+            }
+            case GetLobbiesInfoMessage m -> {
+                out.writeByte(GET_LOBBIES_INFO);
+                writeQuery(out, m.getQuery());
+            }
+            case LobbySizeMessage m -> {
+                out.writeByte(LOBBY_SIZE);
+                writeId(out, m.getPlayerID());
+                writeId(out, m.getLobbyID());
+                writeInt(out, m.getLobbySize());
+            }
+            case QuickPlayMessage m -> {
+                out.writeByte(QUICK_PLAY);
+                writeId(out, m.getPlayerID());
+                writeInt(out, m.getPreferredSize());
+            }
+            case LogOutMessage m -> {
+                out.writeByte(LOG_OUT);
+                writeId(out, m.getPlayerID());
+                writeId(out, m.getLobbyID());
+            }
+            case PingMessage m -> {
+                out.writeByte(PING);
+                writeId(out, m.getPlayerID());
+                writeId(out, m.getLobbyID());
+            }
+            case RequestBoardMessage m -> {
+                out.writeByte(REQUEST_BOARD);
+                writeId(out, m.getPlayerID());
+            }
+            case PongMessage m -> {
+                out.writeByte(PONG);
+                writeId(out, m.getPlayerID());
+                writeId(out, m.getLobbyID());
+            }
+            case UpdateMessage m -> {
+                out.writeByte(UPDATE);
+                writeUpdate(out, m);
+            }
+            case AllGameMessage m -> {
+                out.writeByte(ALL_GAME);
+                writeModel(out, m.getMockModel());
+            }
+            case AskLobbySizeMessage ignored -> out.writeByte(ASK_LOBBY_SIZE);
+            case AskPlayerInfoMessage m -> {
+                out.writeByte(ASK_PLAYER_INFO);
+                writeLobbyInfo(out, m.getLobbyInfo());
+            }
+            case CrashedPlayerMessage m -> {
+                out.writeByte(CRASHED_PLAYER);
+                writeId(out, m.getCrashedPlayer());
+            }
+            case EndGameMessage m -> {
+                out.writeByte(END_GAME);
+                writeRanks(out, m.getRank());
+            }
+            case ErrorMessage m -> {
+                out.writeByte(ERROR);
+                writeString(out, m.getError() != null ? m.getError().getMessage() : null);
+            }
+            case NewTurnMessage m -> {
+                out.writeByte(NEW_TURN);
+                writeId(out, m.getCurrentPlayer());
+            }
+            case OutcomeInsertTilesMessage m -> {
+                out.writeByte(OUTCOME_INSERT_TILES);
+                out.writeBoolean(m.getOutcome());
+            }
+            case OutcomeLoginMessage m -> {
+                out.writeByte(OUTCOME_LOGIN);
+                writeId(out, m.getPlayerID());
+                writeId(out, m.getLobbyID());
+            }
+            case OutcomeMessage m -> {
+                out.writeByte(OUTCOME);
+                writeEnum(out, m.getWarning());
+            }
+            case OutcomeSelectTilesMessage m -> {
+                out.writeByte(OUTCOME_SELECT_TILES);
+                writeTiles(out, m.getTiles());
+            }
+            case ReloadPlayerMessage m -> {
+                out.writeByte(RELOAD_PLAYER);
+                writeId(out, m.getReloadPlayer());
+            }
+            case null, default -> throw new NotSerializableException(message == null ? "null" : message.getClass().getName());
+        }
+        this.encodeHandles.putAll(this.newHandles);
+        this.newHandles.clear();
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] payload) throws IOException {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(payload);
+        DataInputStream in = new DataInputStream(bytes);
+        byte type = in.readByte();
+        Object message = switch (type) {
+            case INSERT_TILES -> new InsertTilesMessage(readId(in), readIntegers(in), readInt(in));
+            case SELECTED_TILES -> new SelectedTilesMessage(readId(in), readCoordinates(in));
+            case WRITE_CHAT -> new WriteChatMessage(readId(in), readString(in), readId(in));
+            case ADD_PLAYER -> new AddPlayerMessage(readId(in), readId(in), readVarLong(in) - 1);
+            case GET_LOBBIES_INFO -> new GetLobbiesInfoMessage(readQuery(in));
+            case LOBBY_SIZE -> new LobbySizeMessage(readId(in), readId(in), readInt(in));
+            case QUICK_PLAY -> new QuickPlayMessage(readId(in), readInt(in));
+            case LOG_OUT -> new LogOutMessage(readId(in), readId(in));
+            case PING -> new PingMessage(readId(in), readId(in));
+            case REQUEST_BOARD -> new RequestBoardMessage(readId(in));
+            case PONG -> new PongMessage(readId(in), readId(in));
+            case UPDATE -> readUpdate(in);
+            case ALL_GAME -> new AllGameMessage(readModel(in));
+            case ASK_LOBBY_SIZE -> new AskLobbySizeMessage();
+            case ASK_PLAYER_INFO -> new AskPlayerInfoMessage(readLobbyInfo(in));
+            case CRASHED_PLAYER -> new CrashedPlayerMessage(readId(in));
+            case END_GAME -> new EndGameMessage(readRanks(in));
+            case ERROR -> new ErrorMessage(new Exception(readString(in)));
+            case NEW_TURN -> new NewTurnMessage(readId(in));
+            case OUTCOME_INSERT_TILES -> new OutcomeInsertTilesMessage(in.readBoolean());
+            case OUTCOME_LOGIN -> new OutcomeLoginMessage(readId(in), readId(in));
+            case OUTCOME -> new OutcomeMessage(readEnum(in, GameWarning.values()));
+            case OUTCOME_SELECT_TILES -> new OutcomeSelectTilesMessage(readTiles(in));
+            case RELOAD_PLAYER -> new ReloadPlayerMessage(readId(in));
+            default -> throw new StreamCorruptedException("Unknown message type: " + type);
+        };
+        if (bytes.available() > 0)
+            throw new StreamCorruptedException(bytes.available() + " bytes left after message type " + type);
+        return message;
+    }
+
+    // ---- game objects ----
+
+    private void writeUpdate(DataOutputStream out, UpdateMessage message) throws IOException {
+        if (message.getBoard() != null) writeUpdate(out, message.getBoard());
+        else if (message.getBoardDelta() != null) writeUpdate(out, message.getBoardDelta());
+        else if (message.getPlayer() != null) writeUpdate(out, message.getPlayer());
+        else if (message.getCommonGoal() != null) writeUpdate(out, message.getCommonGoal());
+        else if (message.getMessage() != null) writeUpdate(out, message.getMessage());
+        else if (message.getBatch() != null) {
+            out.writeByte(UPDATE_BATCH);
+            writeVarLong(out, message.getBatch().getSequence());
+            List<Object> updates = message.getBatch().getUpdates();
+            writeLength(out, updates);
+            for (Object update : updates) writeUpdate(out, update);
+        } else throw new NotSerializableException("Empty UpdateMessage");
+    }
+
+    private void writeUpdate(DataOutputStream out, Object update) throws IOException {
+        switch (update) {
+            case MockBoard board -> {
+                out.writeByte(UPDATE_BOARD);
+                writeBoard(out, board);
+            }
+            case MockBoardDelta delta -> {
+                out.writeByte(UPDATE_BOARD_DELTA);
+                writeBoardDelta(out, delta);
+            }
+            case MockPlayer player -> {
+                out.writeByte(UPDATE_PLAYER);
+                writePlayer(out, player);
+            }
+            case MockCommonGoal commonGoal -> {
+                out.writeByte(UPDATE_COMMON_GOAL);
+                writeCommonGoal(out, commonGoal);
+            }
+            case ChatMessage chat -> {
+                out.writeByte(UPDATE_CHAT);
+                writeChat(out, chat);
+            }
+            case null, default -> throw new NotSerializableException("Unknown update: " + update);
+        }
+    }
+
+    private UpdateMessage readUpdate(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == UPDATE_BATCH) {
+            long sequence = readVarLong(in);
+            int size = readLength(in);
+            if (size < 0) throw new StreamCorruptedException("Null update batch");
+            List<Object> updates = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) updates.add(readUpdate(in, in.readByte()));
+            return new UpdateMessage(new MockBatch(updates, sequence));
+        }
+        return switch (readUpdate(in, kind)) {
+            case MockBoard board -> new UpdateMessage(board);
+            case MockBoardDelta delta -> new UpdateMessage(delta);
+            case MockPlayer player -> new UpdateMessage(player);
+            case MockCommonGoal commonGoal -> new UpdateMessage(commonGoal);
+            case ChatMessage chat -> new UpdateMessage(chat);
+            default -> throw new StreamCorruptedException("Unknown update kind: " + kind);
+        };
+    }
+
+    private Object readUpdate(DataInputStream in, byte kind) throws IOException {
+        return switch (kind) {
+            case UPDATE_BOARD -> readBoard(in);
+            case UPDATE_BOARD_DELTA -> readBoardDelta(in);
+            case UPDATE_PLAYER -> readPlayer(in);
+            case UPDATE_COMMON_GOAL -> readCommonGoal(in);
+            case UPDATE_CHAT -> readChat(in);
+            default -> throw new StreamCorruptedException("Unknown update kind: " + kind);
+        };
+    }
+
+    private void writeModel(DataOutputStream out, MockModel model) throws IOException {
+        out.writeBoolean(model != null);
+        if (model == null) return;
+        out.writeBoolean(model.getMockBoard() != null);
+        if (model.getMockBoard() != null) writeBoard(out, model.getMockBoard());
+        List<MockPlayer> players = model.getMockPlayers();
+        writeLength(out, players);
+        if (players != null) {
+            for (MockPlayer player : players) writePlayer(out, player);
+        }
+        List<MockCommonGoal> commonGoals = model.getMockCommonGoal();
+        writeLength(out, commonGoals);
+        if (commonGoals != null) {
+            for (MockCommonGoal commonGoal : commonGoals) writeCommonGoal(out, commonGoal);
+        }
+        Stack<ChatMessage> chat = model.getChat();
+        writeLength(out, chat);
+        if (chat != null) {
+            for (ChatMessage message : chat) writeChat(out, message);
+        }
+        writeId(out, model.getCurrentPlayer());
+        writeEnum(out, model.getTurnPhase());
+        writeVarLong(out, model.getSequence());
+    }
+
+    private MockModel readModel(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) return null;
+        MockModel model = new MockModel();
+        if (in.readBoolean()) model.setMockBoard(readBoard(in));
+        int players = readLength(in);
+        for (int i = 0; i < players; i++) model.addMockPlayer(readPlayer(in));
+        int commonGoals = readLength(in);
+        for (int i = 0; i < commonGoals; i++) model.addMockCommonGoal(readCommonGoal(in));
+        int messages = readLength(in);
+        if (messages >= 0) {
+            Stack<ChatMessage> chat = new Stack<>();
+            for (int i = 0; i < messages; i++) chat.add(readChat(in));
+            model.setChat(chat);
+        }
+        model.setCurrentPlayer(readId(in));
+        model.setTurnPhase(readEnum(in, TurnPhase.values()));
+        model.setSequence(readVarLong(in));
+        return model;
+    }
+
+    private void writeBoard(DataOutputStream out, MockBoard board) throws IOException {
+        out.writeBoolean(board.isLastRound());
+        writeVarInt(out, board.getVersion());
+        Cell[][] cells = board.getBoard();
+        writeLength(out, cells);
+        if (cells == null) return;
+        for (Cell[] row : cells) {
+            writeLength(out, row);
+            if (row == null) continue;
+            for (Cell cell : row) writeCell(out, cell);
+        }
+    }
+
+    private MockBoard readBoard(DataInputStream in) throws IOException {
+        MockBoard board = new MockBoard();
+        board.setLastRound(in.readBoolean());
+        board.setVersion(readVarInt(in));
+        int rows = readLength(in);
+        if (rows < 0) return board;
+        Cell[][] cells = new Cell[rows][];
+        for (int i = 0; i < rows; i++) {
+            int columns = readLength(in);
+            if (columns < 0) continue;
+            cells[i] = new Cell[columns];
+            for (int j = 0; j < columns; j++) cells[i][j] = readCell(in);
+        }
+        board.setBoard(cells);
+        return board;
+    }
+
+    private void writeBoardDelta(DataOutputStream out, MockBoardDelta delta) throws IOException {
+        writeVarInt(out, delta.getBaseVersion());
+        writeVarInt(out, delta.getVersion());
+        writeLength(out, delta.getCoordinates());
+        for (int i = 0; i < delta.getCoordinates().size(); i++) {
+            writeCoordinate(out, delta.getCoordinates().get(i));
+            writeCell(out, delta.getCells().get(i));
+        }
+    }
+
+    private MockBoardDelta readBoardDelta(DataInputStream in) throws IOException {
+        MockBoardDelta delta = new MockBoardDelta();
+        delta.setBaseVersion(readVarInt(in));
+        delta.setVersion(readVarInt(in));
+        int size = readLength(in);
+        for (int i = 0; i < size; i++) delta.addCell(readCoordinate(in), readCell(in));
+        return delta;
+    }
+
+    private static void writeCell(DataOutputStream out, Cell cell) throws IOException {
+        if (cell == null) out.writeByte(NULL_CELL);
+        else out.writeByte((cell.getStatus() ? CELL_STATUS : 0) | tileCode(cell.getTile()));
+    }
+
+    private static Cell readCell(DataInputStream in) throws IOException {
+        int code = in.readUnsignedByte();
+        if (code == NULL_CELL) return null;
+        Cell cell = new Cell();
+        cell.setStatus((code & CELL_STATUS) != 0);
+        cell.setTile(tile(code & ~CELL_STATUS));
+        return cell;
+    }
+
+    private void writePlayer(DataOutputStream out, MockPlayer player) throws IOException {
+        writeId(out, player.getPlayerID());
+        writeTileMatrix(out, player.getPersonalGoal());
+        writeTileMatrix(out, player.getShelf());
+        writeInt(out, player.getScore());
+        out.writeBoolean(player.isOnline());
+    }
+
+    private MockPlayer readPlayer(DataInputStream in) throws IOException {
+        MockPlayer player = new MockPlayer();
+        player.setPlayerID(readId(in));
+        player.setPersonalGoal(readTileMatrix(in));
+        player.setShelf(readTileMatrix(in));
+        player.setScore(readInt(in));
+        player.setOnline(in.readBoolean());
+        return player;
+    }
+
+    private void writeCommonGoal(DataOutputStream out, MockCommonGoal commonGoal) throws IOException {
+        writeInt(out, commonGoal.getEnumeration());
+        writeId(out, commonGoal.getDescription());
+        writeIntegers(out, commonGoal.getScoringToken());
+    }
+
+    private MockCommonGoal readCommonGoal(DataInputStream in) throws IOException {
+        MockCommonGoal commonGoal = new MockCommonGoal();
+        commonGoal.setEnumeration(readInt(in));
+        commonGoal.setDescription(readId(in));
+        List<Integer> tokens = readIntegers(in);
+        if (tokens != null) {
+            Stack<Integer> scoringToken = new Stack<>();
+            scoringToken.addAll(tokens);
+            commonGoal.setScoringToken(scoringToken);
+        }
+        return commonGoal;
+    }
+
+    private void writeChat(DataOutputStream out, ChatMessage message) throws IOException {
+        writeId(out, message.from());
+        writeString(out, message.message());
+        writeId(out, message.to());
+    }
+
+    private ChatMessage readChat(DataInputStream in) throws IOException {
+        return new ChatMessage(readId(in), readString(in), readId(in));
+    }
+
+    private void writeLobbyInfo(DataOutputStream out, List<Map<String, String>> lobbyInfo) throws IOException {
+        writeLength(out, lobbyInfo);
+        if (lobbyInfo == null) return;
+        for (Map<String, String> info : lobbyInfo) {
+            writeLength(out, info == null ? null : info.keySet());
+            if (info == null) continue;
+            for (Map.Entry<String, String> entry : info.entrySet()) {
+                writeId(out, entry.getKey());
+                writeId(out, entry.getValue());
+            }
+        }
+    }
+
+    private List<Map<String, String>> readLobbyInfo(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        if (size < 0) return null;
+        List<Map<String, String>> lobbyInfo = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int entries = readLength(in);
+            if (entries < 0) {
+                lobbyInfo.add(null);
+                continue;
+            }
+            // the lobbies and games of a page are sorted
+            Map<String, String> info = new LinkedHashMap<>();
+            for (int j = 0; j < entries; j++) info.put(readId(in), readId(in));
+            lobbyInfo.add(info);
+        }
+        return lobbyInfo;
+    }
+
+    /**
+     * Writes the query of a page of lobbies, nothing for the first page: so it's the same message sent by the older clients.
+     */
+    private void writeQuery(DataOutputStream out, LobbyQuery query) throws IOException {
+        if (query == null) return;
+        writeId(out, query.after());
+        out.writeBoolean(query.inGames());
+        writeInt(out, query.limit());
+        writeInt(out, query.openSeats());
+        writeInt(out, query.lobbySize());
+    }
+
+    private LobbyQuery readQuery(DataInputStream in) throws IOException {
+        if (in.available() == 0) return null;
+        return new LobbyQuery(readId(in), in.readBoolean(), readInt(in), readInt(in), readInt(in));
+    }
+
+    private void writeRanks(DataOutputStream out, List<Rank> ranks) throws IOException {
+        writeLength(out, ranks);
+        if (ranks == null) return;
+        for (Rank rank : ranks) {
+            writeId(out, rank.getPlayerID());
+            writeInt(out, rank.getTotalScore());
+            writeInt(out, rank.getPersonalScore());
+            writeInt(out, rank.getPatternScore());
+            writeInt(out, rank.getSharedScore());
+        }
+    }
+
+    private List<Rank> readRanks(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        if (size < 0) return null;
+        List<Rank> ranks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            ranks.add(new Rank(readId(in), readInt(in), readInt(in), readInt(in), readInt(in)));
+        return ranks;
+    }
+
+    // ---- tiles and coordinates ----
+
+    private static int tileCode(Tile tile) {
+        if (tile == null) return 0;
+        if (tile.color() == null) return 1;
+        return tile.color().ordinal() + 2;
+    }
+
+    private static Tile tile(int code) throws StreamCorruptedException {
+        if (code < 0 || code >= TILES.length) throw new StreamCorruptedException("Invalid tile: " + code);
+        return TILES[code];
+    }
+
+    private void writeTiles(DataOutputStream out, List<Tile> tiles) throws IOException {
+        writeLength(out, tiles);
+        if (tiles == null) return;
+        for (Tile tile : tiles) out.writeByte(tileCode(tile));
+    }
+
+    private List<Tile> readTiles(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        if (size < 0) return null;
+        List<Tile> tiles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) tiles.add(tile(in.readUnsignedByte()));
+        return tiles;
+    }
+
+    private void writeTileMatrix(DataOutputStream out, Tile[][] matrix) throws IOException {
+        writeLength(out, matrix);
+        if (matrix == null) return;
+        for (Tile[] row : matrix) {
+            writeLength(out, row);
+            if (row == null) continue;
+            for (Tile tile : row) out.writeByte(tileCode(tile));
+        }
+    }
+
+    private Tile[][] readTileMatrix(DataInputStream in) throws IOException {
+        int rows = readLength(in);
+        if (rows < 0) return null;
+        Tile[][] matrix = new Tile[rows][];
+        for (int i = 0; i < rows; i++) {
+            int columns = readLength(in);
+            if (columns < 0) continue;
+            matrix[i] = new Tile[columns];
+            for (int j = 0; j < columns; j++) matrix[i][j] = tile(in.readUnsignedByte());
+        }
+        return matrix;
+    }
+
+    private void writeCoordinates(DataOutputStream out, List<Coordinates> coordinates) throws IOException {
+        writeLength(out, coordinates);
+        if (coordinates == null) return;
+        for (Coordinates coordinate : coordinates) writeCoordinate(out, coordinate);
+    }
+
+    private List<Coordinates> readCoordinates(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        if (size < 0) return null;
+        List<Coordinates> coordinates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) coordinates.add(readCoordinate(in));
+        return coordinates;
+    }
+
+    private static void writeCoordinate(DataOutputStream out, Coordinates coordinate) throws IOException {
+        int x = coordinate.x();
+        int y = coordinate.y();
+        int packed = x << 4 | y;
+        if (x >= 0 && x < 16 && y >= 0 && y < 16 && packed != WIDE_COORDINATES) {
+            out.writeByte(packed);
+        } else {
+            out.writeByte(WIDE_COORDINATES);
+            writeInt(out, x);
+            writeInt(out, y);
+        }
+    }
+
+    private static Coordinates readCoordinate(DataInputStream in) throws IOException {
+        int packed = in.readUnsignedByte();
+        if (packed == WIDE_COORDINATES) return new Coordinates(readInt(in), readInt(in));
+        return new Coordinates(packed >>> 4, packed & 0x0F);
+    }
+
+    // ---- primitives ----
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? NULL_ENUM : value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream in, E[] values) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal == NULL_ENUM) return null;
+        if (ordinal >= values.length) throw new StreamCorruptedException("Invalid ordinal: " + ordinal);
+        return values[ordinal];
+    }
+
+    private static void writeIntegers(DataOutputStream out, Collection<Integer> values) throws IOException {
+        writeLength(out, values);
+        if (values == null) return;
+        for (Integer value : values) writeInt(out, value);
+    }
+
+    private static List<Integer> readIntegers(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        if (size < 0) return null;
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) values.add(readInt(in));
+        return values;
+    }
+
+    private static void writeLength(DataOutputStream out, Object collection) throws IOException {
+        int length;
+        if (collection == null) length = -1;
+        else if (collection instanceof Collection<?> c) length = c.size();
+        else length = java.lang.reflect.Array.getLength(collection);
+        writeVarInt(out, length + 1);
+    }
+
+    /**
+     * Reads a length written by {@link #writeLength(DataOutputStream, Object)}.
+     *
+     * @return the length, -1 for null
+     */
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < -1 || length > Frame.MAX_FRAME) throw new StreamCorruptedException("Invalid length: " + length);
+        return length;
+    }
+
+    private static void writeInt(DataOutputStream out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static int readInt(DataInputStream in) throws IOException {
+        int zigZag = readVarInt(in);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new StreamCorruptedException("Varint too long");
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new StreamCorruptedException("Varlong too long");
+    }
+
+    /**
+     * Writes a string that is likely to be sent again on the connection, as a handle if it was already sent.
+     */
+    private void writeId(DataOutputStream out, String id) throws IOException {
+        if (id == null) {
+            writeVarInt(out, NULL_STRING);
+            return;
+        }
+        Integer handle = handles ? encodeHandles.getOrDefault(id, newHandles.get(id)) : null;
+        if (handle != null) {
+            writeVarInt(out, FIRST_HANDLE + handle);
+        } else if (handles && encodeHandles.size() + newHandles.size() < MAX_HANDLES) {
+            newHandles.put(id, encodeHandles.size() + newHandles.size());
+            writeVarInt(out, NEW_HANDLE);
+            writeUtf(out, id);
+        } else {
+            writeVarInt(out, LITERAL);
+            writeUtf(out, id);
+        }
+    }
+
+    private String readId(DataInputStream in) throws IOException {
+        int tag = readVarInt(in);
+        switch (tag) {
+            case NULL_STRING:
+                return null;
+            case LITERAL:
+                return readUtf(in);
+            case NEW_HANDLE:
+                if (decodeHandles.size() >= MAX_HANDLES) throw new StreamCorruptedException("Too many handles");
+                String id = readUtf(in);
+                decodeHandles.add(id);
+                return id;
+            default:
+                int handle = tag - FIRST_HANDLE;
+                if (handle < 0 || handle >= decodeHandles.size()) throw new StreamCorruptedException("Unknown handle: " + handle);
+                return decodeHandles.get(handle);
+        }
+    }
+
+    /**
+     * Writes a string that is not worth remembering, like the text of a chat message.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, NULL_STRING);
+            return;
+        }
+        writeVarInt(out, LITERAL);
+        writeUtf(out, value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int tag = readVarInt(in);
+        if (tag == NULL_STRING) return null;
+        if (tag != LITERAL) throw new StreamCorruptedException("Expected a literal string, found tag " + tag);
+        return readUtf(in);
+    }
+
+    private static void writeUtf(DataOutputStream out, String value) throws IOException {
+        byte[] utf = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf.length);
+        out.write(utf);
+    }
+
+    private static String readUtf(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > Frame.MAX_FRAME) throw new StreamCorruptedException("Invalid string length: " + length);
+        byte[] utf = new byte[length];
+        in.readFully(utf);
+        return new String(utf, StandardCharsets.UTF_8);
+    }
+}
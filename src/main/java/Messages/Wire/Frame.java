@@ -0,0 +1,171 @@
+package Messages.Wire;
+
+import java.io.*;
+
+/**
+ * The Frame class defines the length-prefixed framing used by the non-blocking socket transport.
+ * A frame is a 4-byte big-endian length followed by the payload, which is a self-contained serialized message.
+ * <p>
+ * The handshake is designed to stay compatible with the legacy object-stream transport:
+ * the client writes the usual object-stream header followed by a {@link #CLIENT_PREAMBLE} byte,
+ * which a legacy server reads as a harmless stream reset. A framed server answers with {@link #SERVER_MAGIC},
+ * a legacy server answers with its own object-stream header, so the client knows which mode to use.
+ * <p>
+ * The magic is followed by the mask of the {@link WireFormat}s the server supports, and the client answers
+ * with the id of the format it chose before sending any frame. The {@link #COMPRESSION} bit can be added to both:
+ * the server offers compression if it was started with it, the client accepts it unless it turned it off, and from then on the big payloads may be sent compressed
+ * by a {@link FrameCompressor}, with the {@link #COMPRESSED} bit set in their length prefix.
+ */
+public final class Frame {
+    /**
+     * The byte a framed client sends right after the object-stream header (a TC_RESET for a legacy server).
+     */
+    public static final byte CLIENT_PREAMBLE = ObjectStreamConstants.TC_RESET;
+    /**
+     * The object-stream header every client sends first (magic and version).
+     */
+    public static final int STREAM_HEADER = (ObjectStreamConstants.STREAM_MAGIC << 16) | ObjectStreamConstants.STREAM_VERSION;
+    /**
+     * The value a framed server sends to accept the framed mode ("MSH1").
+     */
+    public static final int SERVER_MAGIC = 0x4D534831;
+    /**
+     * The size of the length prefix.
+     */
+    public static final int HEADER_SIZE = 4;
+    /**
+     * The biggest payload accepted, anything bigger is treated as a corrupted stream.
+     */
+    public static final int MAX_FRAME = 16 * 1024 * 1024;
+    /**
+     * The bit of the handshake masks that offers (and accepts) the compression of the payloads.
+     */
+    public static final byte COMPRESSION = (byte) 0x80;
+    /**
+     * The bit of the length prefix telling that the payload is compressed.
+     */
+    public static final int COMPRESSED = 0x80000000;
+
+    private Frame() {
+    }
+
+    /**
+     * Serializes the message into a standalone payload.
+     *
+     * @param message the message to serialize
+     * @return the serialized bytes
+     * @throws IOException if the message can't be serialized
+     */
+    public static byte[] encode(Serializable message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes a payload produced by {@link #encode(Serializable)}.
+     *
+     * @param payload the serialized bytes
+     * @return the message
+     * @throws IOException            if the payload is corrupted
+     * @throws ClassNotFoundException if the message class is unknown
+     */
+    public static Object decode(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return in.readObject();
+        }
+    }
+
+    /**
+     * Writes a frame on a blocking stream, without flushing it.
+     *
+     * @param out     the stream to write on
+     * @param payload the payload of the frame
+     * @throws IOException if the stream is closed
+     */
+    public static void write(DataOutputStream out, byte[] payload) throws IOException {
+        write(out, payload, null);
+    }
+
+    /**
+     * Writes a frame on a blocking stream, compressing the payload when it's worth it, without flushing it.
+     *
+     * @param out        the stream to write on
+     * @param payload    the payload of the frame
+     * @param compressor the compressor of the connection, null if the compression wasn't negotiated
+     * @throws IOException if the stream is closed
+     */
+    public static void write(DataOutputStream out, byte[] payload, FrameCompressor compressor) throws IOException {
+        byte[] compressed = (compressor != null) ? compressor.compress(payload) : null;
+        if (compressed != null) {
+            out.writeInt(compressed.length | COMPRESSED);
+            out.write(compressed);
+            return;
+        }
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    /**
+     * Reads a frame from a blocking stream.
+     *
+     * @param in the stream to read from
+     * @return the payload of the frame
+     * @throws IOException if the stream is closed or the frame is corrupted
+     */
+    public static byte[] read(DataInputStream in) throws IOException {
+        return read(in, null);
+    }
+
+    /**
+     * Reads a frame from a blocking stream, decompressing the payload if needed.
+     *
+     * @param in         the stream to read from
+     * @param compressor the compressor of the connection, null if the compression wasn't negotiated
+     * @return the payload of the frame
+     * @throws IOException if the stream is closed or the frame is corrupted
+     */
+    public static byte[] read(DataInputStream in, FrameCompressor compressor) throws IOException {
+        int prefix = in.readInt();
+        int length = length(prefix);
+        checkLength(length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        if (!isCompressed(prefix)) return payload;
+        if (compressor == null) throw new StreamCorruptedException("Compressed frame on an uncompressed connection");
+        return compressor.decompress(payload);
+    }
+
+    /**
+     * Tells if a length prefix announces a compressed payload.
+     *
+     * @param prefix the length prefix read from the wire
+     * @return true if the payload is compressed
+     */
+    public static boolean isCompressed(int prefix) {
+        return (prefix & COMPRESSED) != 0;
+    }
+
+    /**
+     * Returns the length of the payload announced by a length prefix.
+     *
+     * @param prefix the length prefix read from the wire
+     * @return the length of the payload
+     */
+    public static int length(int prefix) {
+        return prefix & ~COMPRESSED;
+    }
+
+    /**
+     * Checks that a length prefix is acceptable.
+     *
+     * @param length the length read from the wire
+     * @throws StreamCorruptedException if the length is negative or too big
+     */
+    public static void checkLength(int length) throws StreamCorruptedException {
+        if (length < 0 || length > MAX_FRAME)
+            throw new StreamCorruptedException("Invalid frame length: " + length);
+    }
+}
@@ -0,0 +1,237 @@
+package Messages.Wire;
+
+import Enumeration.Color;
+import Enumeration.TurnPhase;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.AllGameMessage;
+import Messages.Server.View.EndGameMessage;
+import Utils.Cell;
+import Utils.ChatMessage;
+import Utils.Rank;
+import Utils.Tile;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockCommonGoal;
+import Utils.MockObjects.MockModel;
+import Utils.MockObjects.MockPlayer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The FrameCompressor class compresses the big frame payloads of a connection with Deflate.
+ * Both ends prime the compressor with the same preset dictionary, the encoding of a sample game
+ * in the wire format of the connection, so even the first snapshot of a connection finds the class descriptors,
+ * the field names and the typical tile sequences already in the window.
+ * <p>
+ * Every payload is compressed on its own, so the frames can be decoded independently;
+ * the payloads below {@link #THRESHOLD} and the ones that don't shrink are sent as they are.
+ * The native Deflater and Inflater are created on the first payload that needs them, most connections
+ * only send small frames and never do, and they are released by {@link #close()} when the connection ends.
+ * An instance belongs to a single connection, its reader, its sender and its closing don't overlap.
+ */
+public class FrameCompressor {
+    /**
+     * The smallest payload worth compressing.
+     */
+    public static final int THRESHOLD = 256;
+    /**
+     * The Deflate window, the dictionary can't be bigger.
+     */
+    private static final int WINDOW = 32 * 1024;
+    private static final Map<WireFormat, byte[]> DICTIONARIES = new EnumMap<>(WireFormat.class);
+
+    private final byte[] dictionary;
+    private final int level;
+    /**
+     * The Deflater of the sent payloads, null until the first payload worth compressing.
+     */
+    private Deflater deflater;
+    /**
+     * The Inflater of the received payloads, null until the first compressed frame.
+     */
+    private Inflater inflater;
+    private final byte[] buffer;
+    private boolean closed;
+
+    /**
+     * Creates the compressor of a connection.
+     *
+     * @param format the wire format of the connection, it selects the dictionary
+     */
+    public FrameCompressor(WireFormat format) {
+        this(format, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates the compressor of a connection with the given compression level.
+     *
+     * @param format the wire format of the connection, it selects the dictionary
+     * @param level  the Deflate level, from 1 (fastest) to 9 (smallest)
+     */
+    public FrameCompressor(WireFormat format, int level) {
+        this.dictionary = dictionary(format);
+        this.level = level;
+        this.buffer = new byte[8 * 1024];
+    }
+
+    /**
+     * Compresses a payload.
+     *
+     * @param payload the payload produced by the codec
+     * @return the compressed payload, null if the payload is too small, doesn't shrink or the compressor is closed
+     */
+    public synchronized byte[] compress(byte[] payload) {
+        if (payload.length < THRESHOLD || this.closed) return null;
+        if (this.deflater == null) this.deflater = new Deflater(this.level);
+        this.deflater.reset();
+        this.deflater.setDictionary(this.dictionary);
+        this.deflater.setInput(payload);
+        this.deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+        while (!this.deflater.finished()) {
+            int n = this.deflater.deflate(this.buffer);
+            out.write(this.buffer, 0, n);
+            if (out.size() >= payload.length) return null;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses a payload produced by {@link #compress(byte[])} on the other end.
+     *
+     * @param compressed the compressed payload
+     * @return the original payload
+     * @throws StreamCorruptedException if the payload is corrupted, too big, uses another dictionary or the compressor is closed
+     */
+    public synchronized byte[] decompress(byte[] compressed) throws StreamCorruptedException {
+        if (this.closed) throw new StreamCorruptedException("Compressed frame after the connection was closed");
+        if (this.inflater == null) this.inflater = new Inflater();
+        this.inflater.reset();
+        this.inflater.setInput(compressed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+        try {
+            while (!this.inflater.finished()) {
+                int n = this.inflater.inflate(this.buffer);
+                if (n == 0 && this.inflater.needsDictionary()) {
+                    this.inflater.setDictionary(this.dictionary);
+                    continue;
+                }
+                if (n == 0 && this.inflater.needsInput())
+                    throw new StreamCorruptedException("Truncated compressed frame");
+                out.write(this.buffer, 0, n);
+                if (out.size() > Frame.MAX_FRAME)
+                    throw new StreamCorruptedException("Compressed frame bigger than " + Frame.MAX_FRAME);
+            }
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw new StreamCorruptedException("Invalid compressed frame: " + e.getMessage());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Releases the native memory of the Deflater and the Inflater, the compressor can't be used anymore.
+     */
+    public synchronized void close() {
+        this.closed = true;
+        if (this.deflater != null) this.deflater.end();
+        if (this.inflater != null) this.inflater.end();
+        this.deflater = null;
+        this.inflater = null;
+    }
+
+    /**
+     * Tells if the native Deflater or Inflater were created.
+     *
+     * @return true if the compressor holds native memory
+     */
+    synchronized boolean isAllocated() {
+        return this.deflater != null || this.inflater != null;
+    }
+
+    /**
+     * Returns the preset dictionary of a wire format, built once from the sample game.
+     *
+     * @param format the wire format
+     * @return the dictionary
+     */
+    static synchronized byte[] dictionary(WireFormat format) {
+        return DICTIONARIES.computeIfAbsent(format, FrameCompressor::buildDictionary);
+    }
+
+    /**
+     * Encodes the sample messages with a fresh codec, the most frequent ones last
+     * so they sit closest to the data. Everything is fixed, both ends build the same bytes.
+     */
+    private static byte[] buildDictionary(WireFormat format) {
+        MessageCodec codec = format.newCodec();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(WINDOW);
+        try {
+            for (Serializable message : sample()) out.write(codec.encode(message));
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't build the dictionary of " + format, e);
+        }
+        byte[] bytes = out.toByteArray();
+        return bytes.length <= WINDOW ? bytes : Arrays.copyOfRange(bytes, bytes.length - WINDOW, bytes.length);
+    }
+
+    private static List<Serializable> sample() {
+        Color[] colors = Color.values();
+        Cell[][] cells = new Cell[9][9];
+        for (int i = 0; i < 9; i++)
+            for (int j = 0; j < 9; j++) {
+                if (Math.abs(i - 4) + Math.abs(j - 4) > 5) continue;
+                cells[i][j] = new Cell();
+                cells[i][j].setTile(new Tile(colors[(i * 9 + j) % colors.length]));
+                cells[i][j].setStatus((i + j) % 2 == 0);
+            }
+        MockBoard board = new MockBoard();
+        board.setBoard(cells);
+
+        MockModel model = new MockModel();
+        model.setMockBoard(board);
+        model.setChat(new Stack<>());
+        List<MockPlayer> players = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            Tile[][] shelf = new Tile[6][5];
+            Tile[][] personalGoal = new Tile[6][5];
+            for (int i = 0; i < 6; i++)
+                for (int j = 0; j < 5; j++) {
+                    if (i >= 6 - (j + p) % 6) shelf[i][j] = new Tile(colors[(i + j + p) % colors.length]);
+                    if ((i * 5 + j + p) % 5 == 0) personalGoal[i][j] = new Tile(colors[(i + p) % colors.length]);
+                }
+            MockPlayer player = new MockPlayer();
+            player.setPlayerID("player" + p);
+            player.setShelf(shelf);
+            player.setPersonalGoal(personalGoal);
+            player.setScore(p * 4);
+            model.addMockPlayer(player);
+            players.add(player);
+            model.addMessage(new ChatMessage("player" + p, "hi, good luck everyone!", null));
+            model.addMessage(new ChatMessage("player" + p, "nice move", "player" + (p + 1) % 4));
+        }
+        for (int c = 0; c < 2; c++) {
+            MockCommonGoal commonGoal = new MockCommonGoal();
+            commonGoal.setEnumeration(c);
+            commonGoal.setDescription("Two groups each containing at least 4 tiles of the same type.");
+            Stack<Integer> tokens = new Stack<>();
+            tokens.addAll(List.of(2, 4, 6, 8));
+            commonGoal.setScoringToken(tokens);
+            model.addMockCommonGoal(commonGoal);
+        }
+        model.setCurrentPlayer("player0");
+        model.setTurnPhase(TurnPhase.PICKING);
+
+        List<Serializable> sample = new ArrayList<>();
+        sample.add(new EndGameMessage(List.of(new Rank("player0", 40, 12, 16, 12), new Rank("player1", 31, 6, 17, 8))));
+        sample.add(new AllGameMessage(model));
+        sample.add(new UpdateMessage(board));
+        sample.add(new UpdateMessage(players.get(0)));
+        return sample;
+    }
+}
@@ -0,0 +1,20 @@
+package Messages.Wire;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * The JavaCodec class encodes every message with Java serialization, a fresh object stream per frame.
+ * It's stateless and understands any serializable message.
+ */
+public class JavaCodec implements MessageCodec {
+    @Override
+    public byte[] encode(Serializable message) throws IOException {
+        return Frame.encode(message);
+    }
+
+    @Override
+    public Object decode(byte[] payload) throws IOException, ClassNotFoundException {
+        return Frame.decode(payload);
+    }
+}
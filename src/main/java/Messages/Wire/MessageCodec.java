@@ -0,0 +1,30 @@
+package Messages.Wire;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * The MessageCodec interface represents the way the messages are turned into frame payloads and back.
+ * A codec belongs to a single connection and may keep state across the messages of the connection,
+ * so the messages must be encoded (and decoded) one at a time, in the order they travel on the wire.
+ */
+public interface MessageCodec {
+    /**
+     * Encodes a message into a frame payload.
+     *
+     * @param message the message to encode
+     * @return the payload
+     * @throws IOException if the message can't be encoded
+     */
+    byte[] encode(Serializable message) throws IOException;
+
+    /**
+     * Decodes a frame payload into a message.
+     *
+     * @param payload the payload of the frame
+     * @return the message
+     * @throws IOException            if the payload is corrupted
+     * @throws ClassNotFoundException if the message class is unknown
+     */
+    Object decode(byte[] payload) throws IOException, ClassNotFoundException;
+}
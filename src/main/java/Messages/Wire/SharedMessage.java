@@ -0,0 +1,92 @@
+package Messages.Wire;
+
+import Messages.ServerMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The SharedMessage class represents a message broadcast to many connections, encoded only once.
+ * The frame of each wire format (compressed or not) is built by the first connection that needs it,
+ * with a codec that doesn't depend on the connection, and then the same read-only bytes are written
+ * on every connection of that format.
+ * <p>
+ * The message must not change after it's shared, it's encoded lazily.
+ */
+public final class SharedMessage {
+    /**
+     * The stateless codec of each wire format, shared by every thread.
+     */
+    private static final MessageCodec[] CODECS = new MessageCodec[WireFormat.values().length];
+    /**
+     * The compressors of the calling thread, one per wire format: a compressor can't be used by two threads at once.
+     */
+    private static final ThreadLocal<FrameCompressor[]> COMPRESSORS =
+            ThreadLocal.withInitial(() -> new FrameCompressor[WireFormat.values().length]);
+
+    static {
+        for (WireFormat format : WireFormat.values())
+            CODECS[format.ordinal()] = format.newSharedCodec();
+    }
+
+    private final ServerMessage message;
+    /**
+     * The frames built so far: the plain frame of a format at twice its ordinal, the compressed one right after.
+     */
+    private final ByteBuffer[] frames;
+
+    /**
+     * Creates a shared message.
+     *
+     * @param message the message to broadcast
+     */
+    public SharedMessage(ServerMessage message) {
+        this.message = message;
+        this.frames = new ByteBuffer[WireFormat.values().length * 2];
+    }
+
+    /**
+     * Returns the message, for the connections that don't use frames.
+     *
+     * @return the message
+     */
+    public ServerMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the frame of the message for a connection, the length prefix included.
+     * The buffer is a read-only view with its own position, so every connection can write it at its own pace.
+     *
+     * @param format     the wire format of the connection
+     * @param compressed true if the connection accepted the compression
+     * @return the frame ready to be written
+     * @throws IOException if the message can't be encoded
+     */
+    public ByteBuffer frame(WireFormat format, boolean compressed) throws IOException {
+        int slot = format.ordinal() * 2 + (compressed ? 1 : 0);
+        ByteBuffer frame;
+        synchronized (this) {
+            frame = this.frames[slot];
+            if (frame == null) {
+                frame = encode(format, compressed);
+                this.frames[slot] = frame;
+            }
+        }
+        return frame.duplicate();
+    }
+
+    private ByteBuffer encode(WireFormat format, boolean compressed) throws IOException {
+        byte[] payload = CODECS[format.ordinal()].encode(this.message);
+        byte[] deflated = null;
+        if (compressed) {
+            FrameCompressor[] compressors = COMPRESSORS.get();
+            if (compressors[format.ordinal()] == null) compressors[format.ordinal()] = new FrameCompressor(format);
+            deflated = compressors[format.ordinal()].compress(payload);
+        }
+        if (deflated != null) payload = deflated;
+        ByteBuffer frame = ByteBuffer.allocate(Frame.HEADER_SIZE + payload.length);
+        frame.putInt(deflated != null ? payload.length | Frame.COMPRESSED : payload.length).put(payload).flip();
+        return frame.asReadOnlyBuffer();
+    }
+}
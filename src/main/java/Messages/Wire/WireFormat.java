@@ -0,0 +1,89 @@
+package Messages.Wire;
+
+import java.io.StreamCorruptedException;
+
+/**
+ * An enumeration representing the payload formats of the framed transport.
+ * The server offers a mask of the formats it supports right after {@link Frame#SERVER_MAGIC},
+ * the client answers with the id of the format it chose, and the connection uses it in both directions.
+ */
+public enum WireFormat {
+    /**
+     * Java serialization, see {@link JavaCodec}.
+     */
+    JAVA((byte) 0x01),
+    /**
+     * The compact binary format, see {@link BinaryCodec}.
+     */
+    BINARY((byte) 0x02);
+
+    /**
+     * The mask of the formats supported by this build.
+     */
+    public static final byte SUPPORTED = (byte) (JAVA.id | BINARY.id);
+
+    private final byte id;
+
+    WireFormat(byte id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the id of the format, a single bit so that the ids can be combined into a mask.
+     *
+     * @return the id of the format
+     */
+    public byte getId() {
+        return id;
+    }
+
+    /**
+     * Creates the codec of the format, a new instance per connection.
+     *
+     * @return the codec
+     */
+    public MessageCodec newCodec() {
+        return switch (this) {
+            case JAVA -> new JavaCodec();
+            case BINARY -> new BinaryCodec();
+        };
+    }
+
+    /**
+     * Creates a codec whose payloads don't depend on the connection, so the same bytes can be written
+     * on every connection of the format. Its encoder is stateless and can be used by many threads.
+     *
+     * @return the shared codec
+     */
+    public MessageCodec newSharedCodec() {
+        return switch (this) {
+            case JAVA -> new JavaCodec();
+            case BINARY -> new BinaryCodec(false);
+        };
+    }
+
+    /**
+     * Returns the format with the given id.
+     *
+     * @param id the id received from the client, the option bits (see {@link Frame#COMPRESSION}) are ignored
+     * @return the format
+     * @throws StreamCorruptedException if the id is unknown or not supported
+     */
+    public static WireFormat fromId(byte id) throws StreamCorruptedException {
+        id &= (byte) ~Frame.COMPRESSION;
+        for (WireFormat format : values()) {
+            if (format.id == id && (SUPPORTED & id) != 0) return format;
+        }
+        throw new StreamCorruptedException("Unsupported wire format: " + id);
+    }
+
+    /**
+     * Chooses the best format among the offered ones.
+     *
+     * @param offered the mask of the formats offered by the server
+     * @return the binary format if offered, Java serialization otherwise
+     */
+    public static WireFormat choose(byte offered) {
+        return (offered & BINARY.id & SUPPORTED) != 0 ? BINARY : JAVA;
+    }
+}
@@ -0,0 +1,265 @@
+package Server.Archive;
+
+import Server.Model.Move;
+import Utils.Coordinates;
+import Utils.Tile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static Server.Archive.GameArchive.*;
+
+/**
+ * The ArchiveReader class scans the {@link GameArchive} through memory mappings of the file, never copying it
+ * on the heap: the games are visited in place by a single {@link Entry}, that reads the fields it's asked for
+ * and decodes the whole game only if asked to.
+ * <p>
+ * The file is mapped in windows of up to {@link #WINDOW} bytes, a window ends at the last whole game it holds,
+ * so the archive can be larger than a single mapping.
+ */
+public class ArchiveReader implements Closeable {
+    /**
+     * The largest part of the file mapped at once, in bytes.
+     */
+    public static final long WINDOW = 1L << 30;
+
+    /**
+     * The average total score of the players of the finished games with a pair of common goals.
+     *
+     * @param commonGoals the enumerations of the common goals, the lower first
+     * @param games       the number of games
+     * @param average     the average total score of their players
+     */
+    public record CommonGoalsScore(List<Integer> commonGoals, long games, double average) {
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+
+    /**
+     * Opens an archive.
+     *
+     * @param file the file of the archive
+     * @throws IOException if the file can't be read or it's not an archive
+     */
+    public ArchiveReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        MappedByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(FILE_HEADER, this.channel.size()));
+        if (header.limit() < FILE_HEADER || header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+            this.channel.close();
+            throw new IOException(file + " is not an archive of version " + VERSION);
+        }
+    }
+
+    /**
+     * Visits every game of the archive, in the order they were written.
+     * The entry is the same for all the games, it must not be kept after the visit.
+     *
+     * @param visitor the visitor of the games
+     * @return the end of the last whole game in the file, where a torn game would start
+     * @throws IOException if the file can't be mapped
+     */
+    public long scan(Consumer<Entry> visitor) throws IOException {
+        long size = this.channel.size();
+        long position = FILE_HEADER;
+        Entry entry = new Entry();
+        while (position < size) {
+            MappedByteBuffer window = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+            entry.buffer = window;
+            int offset = 0;
+            while (offset + 2 <= window.limit()) {
+                int length = window.getShort(offset) & 0xFFFF;
+                if (length < SHELVES || offset + length > window.limit()) break;
+                entry.offset = offset;
+                visitor.accept(entry);
+                offset += length;
+            }
+            // the game left is torn if the window reaches the end of the file, otherwise it starts the next window
+            if (offset == 0 || position + window.limit() == size) return position + offset;
+            position += offset;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the average total score of the players of the finished games, by pair of common goals.
+     *
+     * @return the scores, by pair of common goals
+     * @throws IOException if the file can't be mapped
+     */
+    public List<CommonGoalsScore> scoreByCommonGoals() throws IOException {
+        long[] games = new long[256 * 256];
+        long[] players = new long[256 * 256];
+        long[] scores = new long[256 * 256];
+        scan(game -> {
+            if (game.outcome() != GameSummary.Outcome.FINISHED) return;
+            int first = game.commonGoal(0);
+            int second = game.commonGoal(1);
+            int pair = Math.min(first, second) << 8 | Math.max(first, second);
+            games[pair]++;
+            for (int i = 0; i < game.players(); i++) scores[pair] += game.totalScore(i);
+            players[pair] += game.players();
+        });
+        List<CommonGoalsScore> result = new ArrayList<>();
+        for (int pair = 0; pair < games.length; pair++)
+            if (games[pair] > 0)
+                result.add(new CommonGoalsScore(List.of(pair >> 8, pair & 0xFF), games[pair], (double) scores[pair] / players[pair]));
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return this.file.toString();
+    }
+
+    /**
+     * A game of the archive, read in place.
+     */
+    public static class Entry {
+        private MappedByteBuffer buffer;
+        private int offset;
+
+        private Entry() {
+        }
+
+        /**
+         * Returns how the game ended.
+         *
+         * @return the outcome
+         */
+        public GameSummary.Outcome outcome() {
+            return GameSummary.Outcome.values()[this.buffer.get(this.offset + OUTCOME)];
+        }
+
+        /**
+         * Returns the number of players of the game.
+         *
+         * @return the number of players
+         */
+        public int players() {
+            return this.buffer.get(this.offset + PLAYERS);
+        }
+
+        /**
+         * Returns when the game ended.
+         *
+         * @return the end time, in milliseconds since the epoch
+         */
+        public long endedAt() {
+            return this.buffer.getLong(this.offset + ENDED_AT);
+        }
+
+        /**
+         * Returns a common goal of the game.
+         *
+         * @param index 0 or 1
+         * @return the enumeration of the common goal
+         */
+        public int commonGoal(int index) {
+            return this.buffer.get(this.offset + COMMON_GOALS + index) & 0xFF;
+        }
+
+        /**
+         * Returns the personal goal of a player.
+         *
+         * @param player the index of the player, in the order of the turns
+         * @return the index of the personal goal in the settings, 255 if unknown
+         */
+        public int personalGoal(int player) {
+            return this.buffer.get(this.offset + PERSONAL_GOALS + player) & 0xFF;
+        }
+
+        /**
+         * Returns the total score of a player.
+         *
+         * @param player the index of the player, in the order of the turns
+         * @return the total score
+         */
+        public int totalScore(int player) {
+            return this.buffer.get(this.offset + TOTAL_SCORES + player) & 0xFF;
+        }
+
+        /**
+         * Decodes the whole game.
+         *
+         * @return the summary of the game
+         */
+        public GameSummary summary() {
+            int players = players();
+            int[] commonGoals = {commonGoal(0), commonGoal(1)};
+            int[] personalGoals = new int[players];
+            int[][] scores = new int[players][];
+            List<Tile[][]> shelves = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                personalGoals[i] = this.buffer.get(this.offset + PERSONAL_GOALS + i);
+                scores[i] = new int[]{totalScore(i), this.buffer.get(this.offset + PERSONAL_SCORES + i) & 0xFF,
+                        this.buffer.get(this.offset + PATTERN_SCORES + i) & 0xFF, this.buffer.get(this.offset + SHARED_SCORES + i) & 0xFF};
+                shelves.add(unpack(this.offset + SHELVES + i * SHELF_BYTES, SHELF_ROWS, SHELF_COLUMNS));
+            }
+            Tile[][] board = unpack(this.offset + BOARD, BOARD_SIZE, BOARD_SIZE);
+
+            int position = this.offset + SHELVES + players * SHELF_BYTES;
+            String gameID = string(position);
+            position += 1 + (this.buffer.get(position) & 0xFF);
+            List<String> playerIDs = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                playerIDs.add(string(position));
+                position += 1 + (this.buffer.get(position) & 0xFF);
+            }
+            int count = this.buffer.getShort(position) & 0xFFFF;
+            position += 2;
+            List<Move> moves = new ArrayList<>(count);
+            for (int m = 0; m < count; m++) {
+                int head = this.buffer.get(position) & 0xFF;
+                int order = this.buffer.get(position + 1) & 0xFF;
+                int tiles = head >> 3 & 3;
+                List<Coordinates> coordinates = new ArrayList<>(tiles);
+                List<Integer> sort = new ArrayList<>(tiles);
+                for (int k = 0; k < tiles; k++) {
+                    int packed = this.buffer.get(position + 2 + k) & 0xFF;
+                    coordinates.add(new Coordinates(packed >> 4, packed & 0xF));
+                    sort.add((order >> (2 * k) & 3) + 1);
+                }
+                moves.add(new Move(playerIDs.get(head >> 5), coordinates, sort, head & 7));
+                position += 2 + tiles;
+            }
+            return new GameSummary(gameID, outcome(), endedAt(), playerIDs, commonGoals, personalGoals, scores, board, shelves, moves);
+        }
+
+        private String string(int position) {
+            byte[] bytes = new byte[this.buffer.get(position) & 0xFF];
+            this.buffer.get(position + 1, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private Tile[][] unpack(int position, int rows, int columns) {
+            Tile[][] grid = new Tile[rows][columns];
+            int bits = 0;
+            int pending = 0;
+            for (int row = 0; row < rows; row++)
+                for (int column = 0; column < columns; column++) {
+                    if (pending < 3) {
+                        bits |= (this.buffer.get(position++) & 0xFF) << pending;
+                        pending += 8;
+                    }
+                    grid[row][column] = GameArchive.tile(bits & 7);
+                    bits >>>= 3;
+                    pending -= 3;
+                }
+            return grid;
+        }
+    }
+}
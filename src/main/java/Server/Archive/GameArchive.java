@@ -0,0 +1,232 @@
+package Server.Archive;
+
+import Enumeration.Color;
+import Server.Model.Move;
+import Utils.Coordinates;
+import Utils.Tile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static Server.ServerApp.logger;
+
+/**
+ * The GameArchive class is the append-only archive of the finished games, read back by the {@link ArchiveReader}.
+ * <p>
+ * The file starts with a magic number and a version, then the games follow one after the other.
+ * A game starts with a fixed part, so the queries read the outcome, the goals and the scores at fixed offsets:
+ * <pre>
+ *   0 length of the game, unsigned short     12 the two common goals
+ *   2 outcome                                14 the personal goals of the four players, 255 if none
+ *   3 number of players                      18 total, personal, pattern and shared scores, 4 bytes each
+ *   4 end time, epoch milliseconds           34 the board as 9x9, 3 bits a cell
+ *                                            65 the shelves of the players, 3 bits a cell, 12 bytes each
+ * </pre>
+ * The variable part follows: the game ID and the player IDs, in UTF-8 with their length in a byte, and the moves,
+ * their number in an unsigned short. A move is a byte with the player, the number of tiles and the column,
+ * a byte with the order of the tiles, and a byte for the coordinates of every tile.
+ * A tile is 0 if there's none, 1 if it's an empty tile and 2 plus the ordinal of its color otherwise.
+ * <p>
+ * The games are written as they end, with no force: a crash of the machine can lose the last ones,
+ * and a game torn by the crash is cut away when the archive is opened again.
+ */
+public class GameArchive implements Closeable {
+    static final int MAGIC = 0x4D534841;
+    static final short VERSION = 1;
+    static final int FILE_HEADER = 8;
+
+    static final int OUTCOME = 2;
+    static final int PLAYERS = 3;
+    static final int ENDED_AT = 4;
+    static final int COMMON_GOALS = 12;
+    static final int PERSONAL_GOALS = 14;
+    static final int TOTAL_SCORES = 18;
+    static final int PERSONAL_SCORES = 22;
+    static final int PATTERN_SCORES = 26;
+    static final int SHARED_SCORES = 30;
+    static final int BOARD = 34;
+    static final int SHELVES = 65;
+
+    static final int BOARD_SIZE = 9;
+    static final int SHELF_ROWS = 6;
+    static final int SHELF_COLUMNS = 5;
+    static final int BOARD_BYTES = (BOARD_SIZE * BOARD_SIZE * 3 + 7) / 8;
+    static final int SHELF_BYTES = (SHELF_ROWS * SHELF_COLUMNS * 3 + 7) / 8;
+    static final int MAX_PLAYERS = 4;
+    static final int MAX_LENGTH = 0xFFFF;
+
+    private final Path file;
+    private final FileChannel channel;
+    private long games;
+
+    /**
+     * Opens the archive, creating it if it doesn't exist; new games are appended at its end.
+     *
+     * @param file the file of the archive
+     * @throws IOException if the file can't be opened or it's not an archive
+     */
+    public GameArchive(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (this.channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).putInt(MAGIC).putShort(VERSION).putShort((short) 0).flip();
+            while (header.hasRemaining()) this.channel.write(header);
+        } else {
+            long end;
+            try (ArchiveReader reader = new ArchiveReader(file)) {
+                end = reader.scan(game -> this.games++);
+            }
+            if (end < this.channel.size()) {
+                logger.severe("Archive: torn game cut at " + end + " of " + file);
+                this.channel.truncate(end);
+            }
+        }
+        this.channel.position(this.channel.size());
+    }
+
+    /**
+     * Appends a finished game.
+     *
+     * @param game the summary of the game
+     */
+    public void append(GameSummary game) {
+        ByteBuffer record;
+        try {
+            record = encode(game);
+        } catch (IllegalArgumentException e) {
+            logger.severe("Archive: game " + game.gameID() + " not archived: " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            try {
+                while (record.hasRemaining()) this.channel.write(record);
+                this.games++;
+            } catch (IOException e) {
+                logger.severe("Archive: game " + game.gameID() + " not archived: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Encodes a game as it's written in the archive.
+     *
+     * @param game the summary of the game
+     * @return the game, ready to be written
+     * @throws IllegalArgumentException if the game doesn't fit the format
+     */
+    static ByteBuffer encode(GameSummary game) throws IllegalArgumentException {
+        int players = game.players().size();
+        if (players > MAX_PLAYERS) throw new IllegalArgumentException(players + " players");
+        List<byte[]> ids = new ArrayList<>();
+        ids.add(game.gameID().getBytes(StandardCharsets.UTF_8));
+        for (String player : game.players()) ids.add(player.getBytes(StandardCharsets.UTF_8));
+        int length = SHELVES + players * SHELF_BYTES + 2;
+        for (byte[] id : ids) {
+            if (id.length > 255) throw new IllegalArgumentException("ID longer than 255 bytes");
+            length += 1 + id.length;
+        }
+        for (Move move : game.moves()) length += 2 + move.coordinates().size();
+        if (length > MAX_LENGTH) throw new IllegalArgumentException("longer than " + MAX_LENGTH + " bytes");
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putShort(0, (short) length);
+        buffer.put(OUTCOME, (byte) game.outcome().ordinal());
+        buffer.put(PLAYERS, (byte) players);
+        buffer.putLong(ENDED_AT, game.endedAt());
+        for (int i = 0; i < 2; i++)
+            buffer.put(COMMON_GOALS + i, (byte) (i < game.commonGoals().length ? game.commonGoals()[i] : -1));
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            buffer.put(PERSONAL_GOALS + i, (byte) (i < players ? game.personalGoals()[i] : -1));
+            int[] scores = i < players ? game.scores()[i] : new int[4];
+            buffer.put(TOTAL_SCORES + i, score(scores[0]));
+            buffer.put(PERSONAL_SCORES + i, score(scores[1]));
+            buffer.put(PATTERN_SCORES + i, score(scores[2]));
+            buffer.put(SHARED_SCORES + i, score(scores[3]));
+        }
+        pack(buffer, BOARD, game.board(), BOARD_SIZE, BOARD_SIZE);
+        for (int i = 0; i < players; i++)
+            pack(buffer, SHELVES + i * SHELF_BYTES, game.shelves().get(i), SHELF_ROWS, SHELF_COLUMNS);
+
+        buffer.position(SHELVES + players * SHELF_BYTES);
+        for (byte[] id : ids) buffer.put((byte) id.length).put(id);
+        buffer.putShort((short) game.moves().size());
+        for (Move move : game.moves()) {
+            int player = game.players().indexOf(move.playerID());
+            buffer.put((byte) (Math.max(0, player) << 5 | move.coordinates().size() << 3 | move.column()));
+            int sort = 0;
+            for (int k = 0; k < move.sort().size(); k++) sort |= (move.sort().get(k) - 1) << (2 * k);
+            buffer.put((byte) sort);
+            for (Coordinates coordinates : move.coordinates())
+                buffer.put((byte) (coordinates.x() << 4 | coordinates.y()));
+        }
+        return buffer.flip();
+    }
+
+    private static byte score(int score) {
+        return (byte) Math.max(0, Math.min(255, score));
+    }
+
+    /**
+     * Packs the codes of the tiles of a grid, 3 bits each, row after row; a smaller grid fills the top left corner.
+     */
+    private static void pack(ByteBuffer buffer, int offset, Tile[][] grid, int rows, int columns) {
+        int bits = 0;
+        int pending = 0;
+        for (int row = 0; row < rows; row++)
+            for (int column = 0; column < columns; column++) {
+                if (grid != null && row < grid.length && column < grid[row].length)
+                    bits |= code(grid[row][column]) << pending;
+                pending += 3;
+                if (pending >= 8) {
+                    buffer.put(offset++, (byte) bits);
+                    bits >>>= 8;
+                    pending -= 8;
+                }
+            }
+        if (pending > 0) buffer.put(offset, (byte) bits);
+    }
+
+    static int code(Tile tile) {
+        if (tile == null) return 0;
+        return tile.color() == null ? 1 : tile.color().ordinal() + 2;
+    }
+
+    static Tile tile(int code) {
+        if (code == 0) return null;
+        return new Tile(code == 1 ? null : Color.values()[code - 2]);
+    }
+
+    /**
+     * Returns the file of the archive.
+     *
+     * @return the path of the file
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * Returns the number of games in the archive.
+     *
+     * @return the number of games
+     */
+    public synchronized long getGames() {
+        return this.games;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            logger.severe("Archive: " + e.getMessage());
+        }
+    }
+}
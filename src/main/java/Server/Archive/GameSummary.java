@@ -0,0 +1,87 @@
+package Server.Archive;
+
+import Server.Model.GameModel;
+import Server.Model.LivingRoom.CommonGoal.CommonGoal;
+import Server.Model.Move;
+import Server.Model.Player.Player;
+import Utils.Cell;
+import Utils.Tile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What the {@link GameArchive} keeps of a finished game.
+ *
+ * @param gameID        the ID of the game
+ * @param outcome       how the game ended
+ * @param endedAt       when the game ended, in milliseconds since the epoch
+ * @param players       the IDs of the players, in the order of their turns
+ * @param commonGoals   the enumerations of the two common goals
+ * @param personalGoals the indexes of the personal goals of the players in the settings, -1 if unknown
+ * @param scores        the scores of the players: total, personal, pattern and shared
+ * @param board         the tiles left on the board, null where there's no tile
+ * @param shelves       the shelves of the players
+ * @param moves         the moves of the game, in the order they were played
+ */
+public record GameSummary(String gameID, Outcome outcome, long endedAt, List<String> players, int[] commonGoals,
+                          int[] personalGoals, int[][] scores, Tile[][] board, List<Tile[][]> shelves, List<Move> moves) {
+
+    /**
+     * How a game ended.
+     */
+    public enum Outcome {
+        /**
+         * The game was played to the end, the scores are final.
+         */
+        FINISHED,
+        /**
+         * The last player online won waiting for the others, the scores are the ones when it ended.
+         */
+        FORFEIT,
+        /**
+         * All the players left the game.
+         */
+        ABANDONED
+    }
+
+    /**
+     * Returns the summary of a game that just ended.
+     *
+     * @param model   the model of the game
+     * @param outcome how the game ended
+     * @return the summary
+     */
+    public static GameSummary of(GameModel model, Outcome outcome) {
+        List<Player> players = model.getPlayers();
+        List<String> playerIDs = new ArrayList<>();
+        int[] personalGoals = new int[players.size()];
+        int[][] scores = new int[players.size()][];
+        List<Tile[][]> shelves = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            playerIDs.add(player.getPlayerID());
+            personalGoals[i] = player.getPersonalGoal().getId();
+            scores[i] = new int[]{player.getTotalScore(), player.getPersonalScore(), player.getPatternScore(), player.getSharedScore()};
+            Tile[][] shelf = player.getMyShelf().getMyShelf();
+            Tile[][] copy = new Tile[shelf.length][];
+            for (int row = 0; row < shelf.length; row++) copy[row] = shelf[row].clone();
+            shelves.add(copy);
+        }
+
+        List<CommonGoal> commonGoals = model.getCommonGoals();
+        int[] enumerations = new int[commonGoals.size()];
+        for (int i = 0; i < commonGoals.size(); i++) enumerations[i] = commonGoals.get(i).getEnumeration();
+
+        Cell[][] cells = model.getBoard().getBoard();
+        Tile[][] board = new Tile[cells.length][];
+        for (int x = 0; x < cells.length; x++) {
+            board[x] = new Tile[cells[x].length];
+            for (int y = 0; y < cells[x].length; y++)
+                if (cells[x][y].getStatus()) board[x][y] = cells[x][y].getTile();
+        }
+
+        return new GameSummary(model.getLobbyID(), outcome, System.currentTimeMillis(), playerIDs, enumerations,
+                personalGoals, scores, board, shelves, model.getMoves());
+    }
+}
@@ -13,26 +13,32 @@ import Exception.PlayerException;
 import Exception.ChatException;
 import Exception.GamePhaseException;
 import Exception.Player.NotYourTurnException;
+import Interface.Client.RemoteClient;
+import Interface.Client.RemoteView;
 import Interface.Scout;
 import Interface.Server.GameCommand;
+import Server.Archive.GameSummary;
 import Server.Controller.Phase.EndedMatch;
 import Server.Controller.Phase.LastRoundState;
 import Server.Controller.Phase.NormalState;
 import Server.Controller.Phase.PhaseController;
+import Server.Journal.JournalRecord;
 import Server.Model.*;
 import Server.Model.LivingRoom.CommonGoal.CommonGoal;
 import Server.Model.Player.Player;
 import Server.Network.Client.ClientHandler;
+import Server.Network.Client.RemoteDispatcher.RemoteCall;
 import Utils.Coordinates;
 import Utils.MockObjects.MockFactory;
 import Utils.Rank;
+import Utils.SerialExecutor;
+import Utils.Tile;
 
 import java.io.*;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.*;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 
@@ -42,8 +48,29 @@ import static Server.ServerApp.*;
  * The GameController class represents the controller for a game.
  * It manages the game model, players, phases, and turns progression.
  * This class implements the GameCommand interface and is Serializable.
+ * <p>
+ * The state of a game is only touched by its mailbox: the commands of the players, the disconnections,
+ * the rejoins and the timers are queued on it and run one at a time, in the order they arrived, so no lock is needed.
+ * The mailboxes of all the games share the small fixed pool of {@link Server.ServerApp#gameService},
+ * a game borrows a thread only while it has events to run.
+ * <p>
+ * With a {@link Server.ServerApp#journal}, the mailbox writes there every event it accepts, from the seed of the game on:
+ * after a crash of the server, {@link #recover(List)} replays them, with the players and the lobby left out,
+ * and the game waits for its players to rejoin.
  */
 public class GameController extends UnicastRemoteObject implements GameCommand, Serializable {
+    /**
+     * The time the last player online waits for the others to rejoin before winning, in milliseconds.
+     */
+    public static final long WAIT_TIMEOUT = 60000;
+    /**
+     * The thread that posts the expired timers of all the games to their mailboxes.
+     */
+    private static final ScheduledExecutorService timers = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
     /**
      * The gameID attribute represents the ID of the game.
      */
@@ -54,6 +81,7 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
     private final GameModel gameModel;
     /**
      * The players HashMap contains the players of the gameModel.
+     * Its keys are fixed when the game starts, only the handlers change, so the lobby can read it from its own thread.
      */
     private final HashMap<String, ClientHandler> players;
     /**
@@ -71,9 +99,25 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
     /**
      * The wait attribute represents the timer used to wait for players to rejoin the game
      */
-    private Timer wait;
+    private ScheduledFuture<?> wait;
+    /**
+     * The number of wait timers started, it tells a timer that fired from the one that replaced it.
+     */
+    private int waitRound = 0;
+    /**
+     * The mailbox that runs the events of the game one at a time.
+     */
+    private final transient SerialExecutor mailbox;
 
     private boolean isWaiting = false;
+    /**
+     * True while the game is rebuilt from the journal: nothing is sent and no timer is started.
+     */
+    private boolean replaying;
+    /**
+     * True once the game is removed from the lobby.
+     */
+    private boolean over = false;
 
 
     /**
@@ -82,30 +126,141 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
      * @param lobbyID the lobby ID that the gameController is associated with.
      * @param players A HashMap of players participating in the game, where the key is the player ID and the value is the corresponding ClientHandler.
      */
-    @SuppressWarnings("BlockingMethodInNonBlockingContext")
     public GameController(String lobbyID, HashMap<String, ClientHandler> players) throws RemoteException {
+        this(lobbyID, players, shuffle(players.keySet()), new Random().nextLong(), false);
+    }
+
+    /**
+     * Constructs a new GameController instance, whose turns and random choices are given.
+     *
+     * @param lobbyID   the lobby ID that the gameController is associated with.
+     * @param players   the players of the game and their ClientHandlers.
+     * @param playerIDs the IDs of the players, in the order of their turns.
+     * @param seed      the seed of the random choices of the game.
+     * @param replaying true if the game is rebuilt from the journal.
+     */
+    @SuppressWarnings("BlockingMethodInNonBlockingContext")
+    private GameController(String lobbyID, HashMap<String, ClientHandler> players, List<String> playerIDs, long seed, boolean replaying) throws RemoteException {
         super();
         this.gameID = lobbyID;
         this.players = players;
-        List<String> playerIDs = new ArrayList<>(players.keySet());
-        Collections.shuffle(playerIDs);
-        this.gameModel = new GameModel(lobbyID, playerIDs);
+        this.replaying = replaying;
+        this.gameModel = new GameModel(lobbyID, playerIDs, new Random(seed));
         this.currentPlayer = new CurrentPlayer(this.gameModel.getCurrentPlayer());
         this.turnPhase = TurnPhase.PICKING;
         this.phaseController = new NormalState(this.gameModel.getCurrentPlayer(), this.gameModel.getPlayers());
+        this.mailbox = new SerialExecutor(gameService);
+        record(new JournalRecord.Start(lobbyID, seed, playerIDs));
+    }
+
+    private static List<String> shuffle(Collection<String> players) {
+        List<String> playerIDs = new ArrayList<>(players);
+        Collections.shuffle(playerIDs);
+        return playerIDs;
+    }
+
+    /**
+     * Rebuilds a game from its records in the journal, replaying them in order, and puts it back as after a restart:
+     * the players are offline, the turn of the current player is completed, and the game waits for them to rejoin.
+     * The game isn't known by the lobby yet, it must be added to it.
+     *
+     * @param records the records of the game, from its start
+     * @return the game, null if it ended
+     * @throws RemoteException if the game can't be exported
+     */
+    public static GameController recover(List<JournalRecord> records) throws RemoteException {
+        JournalRecord.Start start = (JournalRecord.Start) records.get(0);
+        HashMap<String, ClientHandler> players = new HashMap<>();
+        for (String playerID : start.players()) players.put(playerID, new ClientHandler(playerID, start.gameID(), null));
+
+        GameController game = new GameController(start.gameID(), players, start.players(), start.seed(), true);
+        for (JournalRecord record : records.subList(1, records.size())) game.replay(record);
+        game.replaying = false;
+        if (game.over) {
+            // its end was lost with the server, and record() drops the events of a game that's over
+            if (journal != null) journal.append(new JournalRecord.End(game.gameID));
+            return null;
+        }
+        game.restart();
+        return game.over ? null : game;
+    }
+
+    private void replay(JournalRecord record) {
+        switch (record) {
+            case JournalRecord.Select r -> doSelectTiles(r.playerID(), r.coordinates());
+            case JournalRecord.Insert r -> doInsertTiles(r.playerID(), r.sort(), r.column());
+            case JournalRecord.Chat r -> doWriteChat(r.playerID(), r.message(), r.to());
+            case JournalRecord.Leave r -> doLogOut(r.playerID());
+            case JournalRecord.Rejoin r -> doRejoin(r.playerID(), 0, new ClientHandler(r.playerID(), this.gameID, null), null, new CompletableFuture<>());
+            case JournalRecord.Expire ignored -> expire();
+            case JournalRecord.Restart ignored -> restart();
+            case JournalRecord.Start ignored -> logger.severe("Game " + this.gameID + " started twice in the journal");
+            case JournalRecord.End ignored -> this.over = true;
+        }
+    }
+
+    /**
+     * The server restarted and lost the connections of all the players: the turn of the current player is completed
+     * as if it left, and the game waits for the players, that rejoin as usual, until the timer of the last player.
+     */
+    private void restart() {
+        record(new JournalRecord.Restart(this.gameID));
+        if (this.turnPhase == TurnPhase.INSERTING) {
+            Talent talent = this.gameModel.getTalent();
+            talent.begin();
+            try {
+                this.gameModel.completeTurn(this.currentPlayer.getTiles());
+                endTurn();
+            } finally {
+                talent.commit();
+            }
+        }
+        for (Player player : this.gameModel.getPlayers()) {
+            player.setOnline(false);
+            this.players.put(player.getPlayerID(), null);
+        }
+        if (this.turnPhase == TurnPhase.ENDED || this.over) return;
+
+        this.isWaiting = true;
+        this.turnPhase = TurnPhase.WAITING;
+        startWait();
+    }
+
+    /**
+     * Queues an event of the game on its mailbox, it will run after every event queued before it.
+     *
+     * @param event the event to run
+     */
+    public void execute(Runnable event) {
+        this.mailbox.execute(() -> {
+            try {
+                event.run();
+            } catch (RuntimeException e) {
+                logger.severe("Game " + this.gameID + ": " + e);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of events waiting in the mailbox of the game.
+     *
+     * @return the number of queued events
+     */
+    public int pending() {
+        return this.mailbox.pending();
     }
 
     private void endTurn() {
         checkCommonGoals(this.gameModel.getCommonGoals());
-        this.gameModel.getTalent().onEvent(MockFactory.getMock(this.currentPlayer.getCurrentPlayer()));
+        this.gameModel.publish(MockFactory.getMock(this.currentPlayer.getCurrentPlayer()));
         try {
             this.gameModel.checkRefill();
         } catch (CantRefillBoardException e) {
-            executorService.execute(() -> {
-                lobby.endGame(this);
-                sendLeaderBoard(EndedMatch.doRank(this.gameModel.getPlayers()));
-                this.turnPhase = TurnPhase.ENDED;
-            });
+            List<Rank> leaderBoard = EndedMatch.doRank(this.gameModel.getPlayers());
+            ended(GameSummary.Outcome.FINISHED);
+            sendLeaderBoard(leaderBoard);
+            this.turnPhase = TurnPhase.ENDED;
+            return;
         }
 
         if (activePlayers().size() == 1) {
@@ -137,22 +292,15 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
         try {
             nextPlayer();
         } catch (EndGameException e) {
-            executorService.execute(() -> {
-                this.phaseController = null;
-                sendLeaderBoard(EndedMatch.doRank(this.gameModel.getPlayers()));
-                lobby.endGame(this);
-                this.turnPhase = TurnPhase.ENDED;
-            });
+            this.phaseController = null;
+            sendLeaderBoard(EndedMatch.doRank(this.gameModel.getPlayers()));
+            ended(GameSummary.Outcome.FINISHED);
+            this.turnPhase = TurnPhase.ENDED;
             return;
         }
+        String current = this.gameModel.getCurrentPlayer().getPlayerID();
         for (ClientHandler client : activePlayers()) {
-            executorService.execute(() -> {
-                try {
-                    client.remoteView().newTurn(this.gameModel.getCurrentPlayer().getPlayerID());
-                } catch (RemoteException e) {
-                    logger.severe(e.getMessage());
-                }
-            });
+            send(client, view -> view.newTurn(current));
         }
     }
 
@@ -160,7 +308,7 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
         for (CommonGoal common : commonGoals)
             if (!common.getAccomplished().contains(this.currentPlayer.getCurrentPlayer().getPlayerID())) try {
                 common.check(this.currentPlayer.getCurrentPlayer());
-                this.gameModel.getTalent().onEvent(MockFactory.getMock(common));
+                this.gameModel.publish(MockFactory.getMock(common));
             } catch (NullPlayerException e) {
                 logger.severe(e.getMessage());
             }
@@ -185,6 +333,11 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
      */
     @Override
     public void selectTiles(String playerID, List<Coordinates> coordinates) throws RemoteException {
+        lobby.alive(playerID, this.gameID);
+        execute(() -> doSelectTiles(playerID, coordinates));
+    }
+
+    private void doSelectTiles(String playerID, List<Coordinates> coordinates) {
         try {
             if (ableTo(playerID) != TurnPhase.PICKING) {
                 sendException(new RuntimeException(this.turnPhase.toString()), this.players.get(playerID));
@@ -195,18 +348,18 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
             return;
         }
 
+        Talent talent = this.gameModel.getTalent();
+        talent.begin();
         try {
             currentPlayer.setTiles(this.gameModel.selectTiles(coordinates));
             this.turnPhase = TurnPhase.INSERTING;
-            executorService.execute(() -> {
-                try {
-                    this.players.get(playerID).remoteView().outcomeSelectTiles(currentPlayer.getTiles());
-                } catch (RemoteException e) {
-                    logger.severe(e.getMessage());
-                }
-            });
+            record(new JournalRecord.Select(this.gameID, playerID, coordinates));
+            List<Tile> tiles = currentPlayer.getTiles();
+            send(this.players.get(playerID), view -> view.outcomeSelectTiles(tiles));
         } catch (NoValidMoveException | NullTileException e) {
             sendException(e, this.players.get(playerID));
+        } finally {
+            talent.commit();
         }
     }
 
@@ -220,6 +373,11 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
      */
     @Override
     public void insertTiles(String playerID, List<Integer> sort, int column) throws RemoteException {
+        lobby.alive(playerID, this.gameID);
+        execute(() -> doInsertTiles(playerID, sort, column));
+    }
+
+    private void doInsertTiles(String playerID, List<Integer> sort, int column) {
         try {
             if (ableTo(playerID) != TurnPhase.INSERTING) {
                 sendException(new RuntimeException(this.turnPhase.toString()), this.players.get(playerID));
@@ -230,16 +388,18 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
             return;
         }
 
+        Talent talent = this.gameModel.getTalent();
+        talent.begin();
         try {
             this.gameModel.insertTiles(sort, currentPlayer.getTiles(), column);
-            this.players.get(playerID).remoteView().outcomeInsertTiles(true);
+            record(new JournalRecord.Insert(this.gameID, playerID, sort, column));
+            send(this.players.get(playerID), view -> view.outcomeInsertTiles(true));
             endTurn();
         } catch (PlayerException e) {
             sendException(e, this.players.get(playerID));
             return;
-        } catch (IOException e) {
-            logger.severe(e.toString());
-            return;
+        } finally {
+            talent.commit();
         }
 
         if (this.turnPhase == TurnPhase.ENDED) return;
@@ -260,68 +420,123 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
      * @throws RemoteException If a remote communication error occurs.
      */
     @Override
-    public synchronized void writeChat(String playerID, String message, String to) throws RemoteException {
+    public void writeChat(String playerID, String message, String to) throws RemoteException {
+        lobby.alive(playerID, this.gameID);
+        execute(() -> doWriteChat(playerID, message, to));
+    }
+
+    private void doWriteChat(String playerID, String message, String to) {
         if (this.turnPhase == TurnPhase.ENDED) {
             sendException(new RuntimeException("The game has ended"), this.players.get(playerID));
             return;
         }
         try {
             this.gameModel.writeChat(playerID, message, to);
+            record(new JournalRecord.Chat(this.gameID, playerID, message, to));
         } catch (ChatException e) {
-            this.players.get(playerID).remoteView().outcomeException(e);
+            send(this.players.get(playerID), view -> view.outcomeException(e));
         }
     }
 
 
     /**
      * Adds a subscriber (Scout) to the game, allowing them to receive updates on the game state.
+     * A player resuming the game first receives the updates it missed.
      *
      * @param scout The Scout object to be added as a subscriber.
      * @throws RemoteException If a remote communication error occurs.
      */
     @SuppressWarnings("rawtypes")
     @Override
-    public synchronized void addScout(String playerID, Scout scout) throws RemoteException {
-        Talent talent = gameModel.getTalent();
-        talent.addScout(playerID, scout);
+    public void addScout(String playerID, Scout scout) throws RemoteException {
+        execute(() -> gameModel.addScout(playerID, scout));
+    }
+
+    /**
+     * Sends the whole board to the scout of a player, whose board is out of sync.
+     *
+     * @param playerID The ID of the player asking for the board.
+     * @throws RemoteException If a remote communication error occurs.
+     */
+    @Override
+    public void requestBoard(String playerID) throws RemoteException {
+        lobby.alive(playerID, this.gameID);
+        execute(() -> gameModel.getTalent().onEvent(playerID, gameModel.snapshot().model().getMockBoard()));
     }
 
     /**
-     * Rejoin a player in the game after disconnecting.
+     * Rejoins a player in the game after disconnecting, on the mailbox of the game.
+     * The player receives the game, or the updates it missed since the given sequence, and then the controller,
+     * so its scout is added once it has the game.
      *
-     * @param playerID The ID of the player to be reloaded.
-     * @param client   The ClientHandler object associated with the player.
+     * @param playerID     The ID of the player to be reloaded.
+     * @param lastSequence The sequence of the last update received by the player.
+     * @param client       The ClientHandler object associated with the player.
+     * @param network      The remote client of the player, that receives the controller.
+     * @return The future completed by the mailbox, true if the player rejoined, false if it's not in the game or already playing.
      */
-    public void rejoin(String playerID, ClientHandler client) {
+    public CompletableFuture<Boolean> rejoin(String playerID, long lastSequence, ClientHandler client, RemoteClient network) {
+        CompletableFuture<Boolean> rejoined = new CompletableFuture<>();
+        execute(() -> doRejoin(playerID, lastSequence, client, network, rejoined));
+        return rejoined;
+    }
+
+    private void doRejoin(String playerID, long lastSequence, ClientHandler client, RemoteClient network, CompletableFuture<Boolean> rejoined) {
+        if (!this.players.containsKey(playerID)) {
+            sendException(new RuntimeException("Player is not in the game"), client);
+            rejoined.complete(false);
+            return;
+        }
+        if (this.players.get(playerID) != null) {
+            sendException(new RuntimeException("Player is already playing"), client);
+            rejoined.complete(false);
+            return;
+        }
         try {
             Player player = this.gameModel.getPlayer(playerID);
             player.setOnline(true);
+            record(new JournalRecord.Rejoin(this.gameID, playerID));
         } catch (PlayerNotFoundException e) {
             logger.severe(e.toString());
             sendException(e, client);
+            rejoined.complete(false);
             return;
         }
+        rejoined.complete(true);
 
+        // the game goes on once another player is online, a player alone keeps waiting for the others
+        boolean resumed = !activePlayers().isEmpty();
         for (ClientHandler clientHandler : activePlayers()) {
-            executorService.execute(() -> {
-                try {
-                    clientHandler.remoteView().reloadPlayer(playerID);
-                } catch (RemoteException e) {
-                    logger.severe(e.getMessage());
-                }
-            });
+            send(clientHandler, view -> view.reloadPlayer(playerID));
         }
-        sendMessage(GameWarning.STOP_TIMER);
+        if (resumed) sendMessage(GameWarning.STOP_TIMER);
 
         this.players.put(playerID, client);
+        updated();
 
-
-        if (wait != null) {
-            wait.cancel();
+        if (resumed && wait != null) {
+            wait.cancel(false);
             wait = null;
         }
 
-        if (isWaiting) {
+        if (!this.replaying) {
+            send(client, view -> view.outcomeLogin(playerID, this.gameID));
+            GameSnapshot snapshot = this.gameModel.resume(playerID, lastSequence);
+            String current = this.gameModel.getCurrentPlayer().getPlayerID();
+            // the scout is added once the player has the game, the updates it missed follow
+            send(client, view -> {
+                if (snapshot != null) view.allGame(snapshot.model());
+                else view.newTurn(current);
+            }).thenRun(() -> dispatcher.call(network, remote -> remote.setGameController(this)));
+            logger.info(this.gameID + " re-registered player: " + playerID + (snapshot == null ? ", catching up after update " + lastSequence : ""));
+        }
+
+        if (!resumed) {
+            // the first player back after a restart: the timer of the last player keeps running
+            if (this.turnPhase == TurnPhase.ENDED) return;
+            send(client, view -> view.outcomeMessage(GameWarning.START_TIMER));
+            if (wait == null) startWait();
+        } else if (isWaiting) {
             isWaiting = false;
             newTurn();
         }
@@ -334,39 +549,51 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
      * @param playerID The ID of the player to be logged out.
      */
     public void logOut(String playerID) {
+        execute(() -> doLogOut(playerID));
+    }
+
+    private void doLogOut(String playerID) {
         // Set the player's status to logged out
         try {
             Player player = this.gameModel.getPlayer(playerID);
+            // already logged out, e.g. by its connection before the ping timeout
+            if (!player.isOnline()) return;
             this.gameModel.getTalent().removeScout(playerID);
             player.setOnline(false);
+            record(new JournalRecord.Leave(this.gameID, playerID));
         } catch (PlayerNotFoundException e) {
             logger.severe(e.getMessage());
             return;
         }
 
         if (currentPlayer.getCurrentPlayer().getPlayerID().equals(playerID) && this.turnPhase == TurnPhase.INSERTING) {
-            this.gameModel.completeTurn(this.currentPlayer.getTiles());
-            endTurn();
+            Talent talent = this.gameModel.getTalent();
+            talent.begin();
+            try {
+                this.gameModel.completeTurn(this.currentPlayer.getTiles());
+                endTurn();
+            } finally {
+                talent.commit();
+            }
         }
 
         // Notify other active players about the player being logged out
         this.players.put(playerID, null);
+        updated();
         int numActivePlayers = activePlayers().size();
 
         for (ClientHandler client : activePlayers()) {
-            try {
-                client.remoteView().crashedPlayer(playerID);
-            } catch (RemoteException e) {
-                logger.severe(e.getMessage());
-            }
+            send(client, view -> view.crashedPlayer(playerID));
         }
+        if (this.turnPhase == TurnPhase.ENDED) return;
 
 
         // No active players remaining, end the game
         if (numActivePlayers == 0) {
             this.phaseController = null;
-            lobby.endGame(this);
-            if (wait != null) wait.cancel();
+            ended(GameSummary.Outcome.ABANDONED);
+            if (wait != null) wait.cancel(false);
+            wait = null;
             return;
         }
 
@@ -378,17 +605,31 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
         // Only one active player remaining, start a timer to declare them the winner
         if (numActivePlayers == 1) {
             sendMessage(GameWarning.START_TIMER);
-            this.wait = new Timer();
-            this.wait.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    sendMessage(GameWarning.WON);
-                    lobby.endGame(GameController.this);
-                }
-            }, 60000); // 60 seconds
+            startWait();
         }
     }
 
+    private void startWait() {
+        // the replay doesn't wait, the journal tells if the timer expired
+        if (this.replaying) return;
+        int round = ++this.waitRound;
+        this.wait = timers.schedule(() -> execute(() -> waitExpired(round)), WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    private void waitExpired(int round) {
+        // a timer cancelled after it fired, or replaced by a newer one
+        if (this.wait == null || round != this.waitRound) return;
+        this.wait = null;
+        expire();
+    }
+
+    private void expire() {
+        record(new JournalRecord.Expire(this.gameID));
+        sendMessage(GameWarning.WON);
+        ended(GameSummary.Outcome.FORFEIT);
+        this.turnPhase = TurnPhase.ENDED;
+    }
+
 
     private TurnPhase ableTo(String playerID) throws NotYourTurnException {
         if (this.turnPhase == TurnPhase.ENDED) return null;
@@ -424,37 +665,43 @@ public class GameController extends UnicastRemoteObject implements GameCommand,
         return this.players.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
     }
 
+    /**
+     * Writes an accepted event of the game in the journal, if there's one, the game isn't replaying it and didn't end.
+     */
+    private void record(JournalRecord record) {
+        if (journal != null && !this.replaying && !this.over) journal.append(record);
+    }
+
+    private void ended(GameSummary.Outcome outcome) {
+        record(new JournalRecord.End(this.gameID));
+        this.over = true;
+        if (this.replaying) return;
+        if (archive != null) archive.append(GameSummary.of(this.gameModel, outcome));
+        lobby.endGame(this);
+    }
+
+    private void updated() {
+        if (!this.replaying) lobby.updateGame(this);
+    }
+
+    private CompletableFuture<Void> send(ClientHandler client, RemoteCall<? super RemoteView> call) {
+        if (this.replaying) return CompletableFuture.completedFuture(null);
+        return dispatcher.call(client.remoteView(), call);
+    }
+
     private void sendException(Exception e, ClientHandler client) {
-        executorService.execute(() -> {
-            try {
-                client.remoteView().outcomeException(e);
-            } catch (RemoteException ex) {
-                logger.severe(ex.getMessage());
-            }
-        });
+        send(client, view -> view.outcomeException(e));
     }
 
     private void sendMessage(GameWarning warning) {
         for (ClientHandler client : activePlayers())
-            executorService.execute(() -> {
-                try {
-                    client.remoteView().outcomeMessage(warning);
-                } catch (RemoteException e) {
-                    logger.severe(e.getMessage());
-                }
-            });
+            send(client, view -> view.outcomeMessage(warning));
     }
 
     private void sendLeaderBoard(List<Rank> leaderBoard) {
         for (ClientHandler client : activePlayers()) {
             List<Rank> clone = cloneLeaderBoard(leaderBoard);
-            executorService.execute(() -> {
-                try {
-                    client.remoteView().endGame(clone);
-                } catch (RemoteException e) {
-                    logger.severe(e.getMessage());
-                }
-            });
+            send(client, view -> view.endGame(clone));
         }
     }
 
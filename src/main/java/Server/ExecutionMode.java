@@ -0,0 +1,105 @@
+package Server;
+
+import Utils.BoundedExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An enumeration representing how the server runs its blocking work:
+ * the socket handlers, that block on the client stream for the whole connection,
+ * and the short tasks, like the remote-view calls and the scout fan-out.
+ * In both modes the mailboxes of the games run on a fixed pool of {@link #GAME_THREADS} platform threads.
+ */
+public enum ExecutionMode {
+    /**
+     * The connection handlers and the short tasks share a cached pool of platform threads,
+     * the calls to the clients run on a fixed pool of {@link #DISPATCH_THREADS} platform threads.
+     */
+    CACHED,
+    /**
+     * The connection handlers, the short tasks and the calls to the clients run on virtual threads,
+     * the short tasks and the calls are each limited to {@link #MAX_CONCURRENT_TASKS} at a time.
+     */
+    VIRTUAL;
+
+    /**
+     * The maximum number of short tasks running at the same time in the virtual mode,
+     * it bounds the number of outbound calls in flight during a burst.
+     */
+    public static final int MAX_CONCURRENT_TASKS = 1024;
+    /**
+     * The number of platform threads calling the clients in the cached mode.
+     */
+    public static final int DISPATCH_THREADS = Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+    /**
+     * The number of threads running the mailboxes of the games, the games don't block so one per core is enough.
+     */
+    public static final int GAME_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Returns the mode with the given command-line name.
+     *
+     * @param name "cached" or "virtual"
+     * @return the execution mode
+     * @throws IllegalArgumentException if the name is not valid
+     */
+    public static ExecutionMode fromString(String name) throws IllegalArgumentException {
+        return ExecutionMode.valueOf(name.toUpperCase());
+    }
+
+    /**
+     * Creates the executor for the long-lived connection handlers.
+     *
+     * @param tasks the executor for the short tasks, shared in the cached mode
+     * @return the executor for the connection handlers
+     */
+    public ExecutorService connectionExecutor(ExecutorService tasks) {
+        return switch (this) {
+            case CACHED -> tasks;
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("connection-", 0).factory());
+        };
+    }
+
+    /**
+     * Creates the bounded executor for the calls to the clients, see {@link Server.Network.Client.RemoteDispatcher}.
+     *
+     * @return the executor for the calls to the clients
+     */
+    public ExecutorService dispatchExecutor() {
+        return switch (this) {
+            case CACHED -> Executors.newFixedThreadPool(DISPATCH_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "dispatch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            case VIRTUAL -> new BoundedExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dispatch-", 0).factory()), MAX_CONCURRENT_TASKS);
+        };
+    }
+
+    /**
+     * Creates the fixed pool shared by the mailboxes of the games, see {@link Server.Controller.GameController}.
+     * It's the same in both modes: the events of a game never block, they only need a core.
+     *
+     * @return the executor for the events of the games
+     */
+    public ExecutorService gameExecutor() {
+        return Executors.newFixedThreadPool(GAME_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "game");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the executor for the short tasks.
+     *
+     * @return the executor for the short tasks
+     */
+    public ExecutorService taskExecutor() {
+        return switch (this) {
+            case CACHED -> Executors.newCachedThreadPool();
+            case VIRTUAL -> new BoundedExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-", 0).factory()), MAX_CONCURRENT_TASKS);
+        };
+    }
+}
@@ -0,0 +1,218 @@
+package Server.Journal;
+
+import Utils.Coordinates;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A record of the {@link MoveJournal}: an event accepted by the mailbox of a game, that changed its state.
+ * Replayed in order from the {@link Start} of a game, the records rebuild the game as it was.
+ * <p>
+ * A record is written as a one-byte type, the ID of its game and the fields of the record;
+ * the IDs are written in modified UTF-8, the chat messages, that can be longer than the 64 KB it allows,
+ * as UTF-8 bytes with their length first, and the lists with their size first.
+ */
+public sealed interface JournalRecord {
+    byte START = 1;
+    byte SELECT = 2;
+    byte INSERT = 3;
+    byte CHAT = 4;
+    byte LEAVE = 5;
+    byte REJOIN = 6;
+    byte EXPIRE = 7;
+    byte RESTART = 8;
+    byte END = 9;
+
+    /**
+     * Returns the ID of the game of the record.
+     *
+     * @return the ID of the game
+     */
+    String gameID();
+
+    /**
+     * A game started: the seed of its random choices and its players, in the order of their turns.
+     */
+    record Start(String gameID, long seed, List<String> players) implements JournalRecord {
+    }
+
+    /**
+     * The current player selected the tiles at the given coordinates.
+     */
+    record Select(String gameID, String playerID, List<Coordinates> coordinates) implements JournalRecord {
+    }
+
+    /**
+     * The current player inserted its tiles, in the given order, in a column of its shelf.
+     */
+    record Insert(String gameID, String playerID, List<Integer> sort, int column) implements JournalRecord {
+    }
+
+    /**
+     * A player wrote a chat message, to another player or to all of them if the recipient is null.
+     */
+    record Chat(String gameID, String playerID, String message, String to) implements JournalRecord {
+    }
+
+    /**
+     * A player left the game, its connection was lost.
+     */
+    record Leave(String gameID, String playerID) implements JournalRecord {
+    }
+
+    /**
+     * A player rejoined the game.
+     */
+    record Rejoin(String gameID, String playerID) implements JournalRecord {
+    }
+
+    /**
+     * The last player online waited for the others until the end of the timer.
+     */
+    record Expire(String gameID) implements JournalRecord {
+    }
+
+    /**
+     * The server restarted: the game was recovered with all its players offline.
+     */
+    record Restart(String gameID) implements JournalRecord {
+    }
+
+    /**
+     * The game ended, its records aren't needed any more.
+     */
+    record End(String gameID) implements JournalRecord {
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @param record the record
+     * @param out    the output
+     * @throws IOException if the output can't be written
+     */
+    static void write(JournalRecord record, DataOutput out) throws IOException {
+        switch (record) {
+            case Start r -> {
+                out.writeByte(START);
+                out.writeUTF(r.gameID());
+                out.writeLong(r.seed());
+                out.writeByte(r.players().size());
+                for (String player : r.players()) out.writeUTF(player);
+            }
+            case Select r -> {
+                out.writeByte(SELECT);
+                out.writeUTF(r.gameID());
+                out.writeUTF(r.playerID());
+                out.writeByte(r.coordinates().size());
+                for (Coordinates coordinates : r.coordinates()) {
+                    out.writeByte(coordinates.x());
+                    out.writeByte(coordinates.y());
+                }
+            }
+            case Insert r -> {
+                out.writeByte(INSERT);
+                out.writeUTF(r.gameID());
+                out.writeUTF(r.playerID());
+                out.writeByte(r.sort().size());
+                for (int index : r.sort()) out.writeByte(index);
+                out.writeByte(r.column());
+            }
+            case Chat r -> {
+                out.writeByte(CHAT);
+                out.writeUTF(r.gameID());
+                out.writeUTF(r.playerID());
+                writeText(r.message(), out);
+                out.writeBoolean(r.to() != null);
+                if (r.to() != null) out.writeUTF(r.to());
+            }
+            case Leave r -> {
+                out.writeByte(LEAVE);
+                out.writeUTF(r.gameID());
+                out.writeUTF(r.playerID());
+            }
+            case Rejoin r -> {
+                out.writeByte(REJOIN);
+                out.writeUTF(r.gameID());
+                out.writeUTF(r.playerID());
+            }
+            case Expire r -> {
+                out.writeByte(EXPIRE);
+                out.writeUTF(r.gameID());
+            }
+            case Restart r -> {
+                out.writeByte(RESTART);
+                out.writeUTF(r.gameID());
+            }
+            case End r -> {
+                out.writeByte(END);
+                out.writeUTF(r.gameID());
+            }
+        }
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param in the input
+     * @return the record
+     * @throws IOException if the input can't be read or it's not a record
+     */
+    static JournalRecord read(DataInput in) throws IOException {
+        byte type = in.readByte();
+        String gameID = in.readUTF();
+        return switch (type) {
+            case START -> {
+                long seed = in.readLong();
+                int size = in.readByte();
+                List<String> players = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) players.add(in.readUTF());
+                yield new Start(gameID, seed, players);
+            }
+            case SELECT -> {
+                String playerID = in.readUTF();
+                int size = in.readByte();
+                List<Coordinates> coordinates = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) coordinates.add(new Coordinates(in.readByte(), in.readByte()));
+                yield new Select(gameID, playerID, coordinates);
+            }
+            case INSERT -> {
+                String playerID = in.readUTF();
+                int size = in.readByte();
+                List<Integer> sort = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) sort.add((int) in.readByte());
+                yield new Insert(gameID, playerID, sort, in.readByte());
+            }
+            case CHAT -> {
+                String playerID = in.readUTF();
+                String message = readText(in);
+                yield new Chat(gameID, playerID, message, in.readBoolean() ? in.readUTF() : null);
+            }
+            case LEAVE -> new Leave(gameID, in.readUTF());
+            case REJOIN -> new Rejoin(gameID, in.readUTF());
+            case EXPIRE -> new Expire(gameID);
+            case RESTART -> new Restart(gameID);
+            case END -> new End(gameID);
+            default -> throw new IOException("Unknown record type " + type);
+        };
+    }
+
+    private static void writeText(String text, DataOutput out) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Negative text length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,337 @@
+package Server.Journal;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static Server.ServerApp.logger;
+
+/**
+ * The MoveJournal class is the append-only journal of the games: the mailboxes of the games append the events they
+ * accept, and after a crash of the server the journal gives back the records of the games that didn't end.
+ * <p>
+ * The journal is a sequence of segment files of {@link #SEGMENT_SIZE} bytes, mapped in memory: appending a record
+ * copies it in the mapping of the last segment, so it's in the page cache and survives a crash of the server at once.
+ * The records are forced to the disk by a committer thread every {@link #COMMIT_INTERVAL}, all the records appended
+ * in the meantime with a single force, so the players never wait for the disk; a crash of the whole machine loses
+ * at most the records of the last interval.
+ * <p>
+ * A record is framed by its length and its CRC32C, the length written last: the reader stops at a zero length,
+ * the end of the records, or at a torn record. A segment is deleted once all the games with records in it ended.
+ */
+public class MoveJournal implements Closeable {
+    /**
+     * The size of a segment file, in bytes.
+     */
+    public static final int SEGMENT_SIZE = 16 << 20;
+    /**
+     * The time between two forces of the appended records, in milliseconds.
+     */
+    public static final long COMMIT_INTERVAL = 20;
+    /**
+     * The length and the checksum of a record.
+     */
+    private static final int HEADER = 8;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    /**
+     * A segment file with records of games still running.
+     */
+    private static class Segment {
+        private final Path path;
+        private final Set<String> games;
+
+        private Segment(Path path) {
+            this.path = path;
+            this.games = new HashSet<>();
+        }
+    }
+
+    /**
+     * A range of a segment appended and not forced yet.
+     */
+    private record Dirty(MappedByteBuffer buffer, int from, int to) {
+    }
+
+    private final Path directory;
+    private final Map<String, List<JournalRecord>> recovered;
+    private final ScheduledExecutorService committer;
+
+    private final Map<Integer, Segment> segments;
+    /**
+     * The segments with records of every running game.
+     */
+    private final Map<String, Set<Integer>> segmentsOf;
+    /**
+     * The ends of the segments left since the last commit, they're forced by the next one.
+     */
+    private final List<Dirty> rolled;
+    private int number;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private int committed;
+    private boolean closed;
+
+    private long records;
+    private long bytes;
+    private long commits;
+    private long committedRecords;
+    private long pendingRecords;
+
+    /**
+     * Opens the journal in a directory, reading the records of the games that didn't end, and starts its committer.
+     * The new records are appended to a new segment.
+     *
+     * @param directory the directory of the segments, created if it doesn't exist
+     * @throws IOException if the directory or the segments can't be read or written
+     */
+    public MoveJournal(Path directory) throws IOException {
+        this.directory = directory;
+        this.segments = new HashMap<>();
+        this.segmentsOf = new HashMap<>();
+        this.rolled = new ArrayList<>();
+        this.recovered = new LinkedHashMap<>();
+        Files.createDirectories(directory);
+        read();
+        roll();
+        this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.committer.scheduleWithFixedDelay(this::commit, COMMIT_INTERVAL, COMMIT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the records of the games that didn't end when the journal was opened, by game in the order they started.
+     *
+     * @return the records of every game, from its start
+     */
+    public Map<String, List<JournalRecord>> getRecovered() {
+        return this.recovered;
+    }
+
+    /**
+     * Appends a record, it's forced to the disk by the next commit.
+     * The records of a game must be appended by its mailbox, in the order they happened.
+     *
+     * @param record the record
+     */
+    public void append(JournalRecord record) {
+        byte[] body;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+            JournalRecord.write(record, new DataOutputStream(out));
+            body = out.toByteArray();
+        } catch (IOException e) {
+            logger.severe("Journal: record of " + record.gameID() + " not written: " + e.getMessage());
+            return;
+        }
+        if (HEADER + body.length > SEGMENT_SIZE) {
+            logger.severe("Journal: record of " + record.gameID() + " not written: " + body.length + " bytes, larger than a segment");
+            return;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        int checksum = (int) crc.getValue();
+
+        synchronized (this) {
+            if (this.closed) return;
+            try {
+                if (this.position + HEADER + body.length > SEGMENT_SIZE) roll();
+            } catch (IOException e) {
+                logger.severe("Journal: segment " + (this.number + 1) + " not created: " + e.getMessage());
+                return;
+            }
+            this.buffer.put(this.position + HEADER, body);
+            this.buffer.putInt(this.position + 4, checksum);
+            // the length last, the record is there once it's not zero
+            this.buffer.putInt(this.position, body.length);
+            this.position += HEADER + body.length;
+            this.records++;
+            this.bytes += HEADER + body.length;
+            this.pendingRecords++;
+            track(record, this.number);
+        }
+    }
+
+    /**
+     * Forces the records appended since the last commit, with a single force for each segment they are in.
+     */
+    private void commit() {
+        List<Dirty> dirty;
+        long batch;
+        synchronized (this) {
+            if (this.position == this.committed && this.rolled.isEmpty()) return;
+            dirty = new ArrayList<>(this.rolled);
+            this.rolled.clear();
+            if (this.position > this.committed) dirty.add(new Dirty(this.buffer, this.committed, this.position));
+            this.committed = this.position;
+            batch = this.pendingRecords;
+            this.pendingRecords = 0;
+        }
+        try {
+            for (Dirty range : dirty) range.buffer().force(range.from(), range.to() - range.from());
+        } catch (UncheckedIOException e) {
+            logger.severe("Journal: commit failed: " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            this.commits++;
+            this.committedRecords += batch;
+        }
+    }
+
+    /**
+     * Starts a new segment, the end of the last one is forced by the next commit.
+     */
+    private void roll() throws IOException {
+        if (this.buffer != null) {
+            if (this.position > this.committed) this.rolled.add(new Dirty(this.buffer, this.committed, this.position));
+            this.channel.close();
+            Segment last = this.segments.get(this.number);
+            if (last != null && last.games.isEmpty()) delete(this.number);
+        }
+        this.number++;
+        Path path = this.directory.resolve(name(this.number));
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        this.position = 0;
+        this.committed = 0;
+        this.segments.put(this.number, new Segment(path));
+    }
+
+    /**
+     * Keeps a segment while the game of a record is running, and lets the segments of a game go when it ends.
+     */
+    private void track(JournalRecord record, int segment) {
+        String gameID = record.gameID();
+        if (record instanceof JournalRecord.End) {
+            Set<Integer> numbers = this.segmentsOf.remove(gameID);
+            if (numbers == null) return;
+            for (int number : numbers) {
+                Segment other = this.segments.get(number);
+                other.games.remove(gameID);
+                if (other.games.isEmpty() && number != this.number) delete(number);
+            }
+            return;
+        }
+        if (this.segmentsOf.computeIfAbsent(gameID, id -> new HashSet<>()).add(segment))
+            this.segments.get(segment).games.add(gameID);
+    }
+
+    private void delete(int number) {
+        Segment segment = this.segments.remove(number);
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            logger.severe("Journal: segment " + segment.path + " not deleted: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the segments in the directory, keeping the records of the games that didn't end.
+     */
+    private void read() throws IOException {
+        List<Integer> numbers;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            numbers = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted().toList();
+        }
+        for (int number : numbers) {
+            Path path = this.directory.resolve(name(number));
+            this.segments.put(number, new Segment(path));
+            this.number = number;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                readSegment(path, buffer, number);
+            }
+        }
+
+        // a game whose start is lost can't be rebuilt
+        this.recovered.values().removeIf(records -> {
+            if (records.get(0) instanceof JournalRecord.Start) return false;
+            logger.severe("Journal: game " + records.get(0).gameID() + " without its start, dropped");
+            track(new JournalRecord.End(records.get(0).gameID()), this.number);
+            return true;
+        });
+        for (int number : numbers)
+            if (this.segments.containsKey(number) && this.segments.get(number).games.isEmpty()) delete(number);
+    }
+
+    private void readSegment(Path path, MappedByteBuffer buffer, int number) {
+        int position = 0;
+        CRC32C crc = new CRC32C();
+        while (position + HEADER <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length == 0) return;
+            if (length < 0 || position + HEADER + length > buffer.limit()) {
+                logger.severe("Journal: torn record at " + position + " of " + path);
+                return;
+            }
+            byte[] body = new byte[length];
+            buffer.get(position + HEADER, body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                logger.severe("Journal: corrupted record at " + position + " of " + path);
+                return;
+            }
+            JournalRecord record;
+            try {
+                record = JournalRecord.read(new DataInputStream(new ByteArrayInputStream(body)));
+            } catch (IOException e) {
+                logger.severe("Journal: unreadable record at " + position + " of " + path + ": " + e.getMessage());
+                return;
+            }
+            if (record instanceof JournalRecord.End) this.recovered.remove(record.gameID());
+            else this.recovered.computeIfAbsent(record.gameID(), id -> new ArrayList<>()).add(record);
+            track(record, number);
+            position += HEADER + length;
+            this.records++;
+            this.bytes += HEADER + length;
+        }
+    }
+
+    private static String name(int number) {
+        return PREFIX + String.format("%08d", number) + SUFFIX;
+    }
+
+    /**
+     * Forces the last records and stops the committer, the records appended later are dropped.
+     */
+    @Override
+    public void close() {
+        this.committer.shutdownNow();
+        synchronized (this) {
+            if (this.closed) return;
+            this.closed = true;
+        }
+        commit();
+        try {
+            synchronized (this) {
+                this.channel.close();
+            }
+        } catch (IOException e) {
+            logger.severe("Journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return this.records + " records, " + this.bytes / 1024 + " KB in " + this.segments.size() + " segments, "
+                + this.segmentsOf.size() + " running games, " + this.commits + " commits of "
+                + (this.commits == 0 ? 0 : this.committedRecords / this.commits) + " records on average";
+    }
+}
@@ -15,8 +15,15 @@ import Utils.ChatMessage;
 import Utils.ChatRoom;
 import Server.Model.Player.PersonalGoal;
 import Server.Model.Player.Player;
+import Interface.Scout;
 import Utils.Coordinates;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockCommonGoal;
 import Utils.MockObjects.MockFactory;
+import Utils.MockObjects.MockModel;
+import Utils.MockObjects.MockPlayer;
 import Utils.Tile;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
@@ -28,6 +35,15 @@ import java.util.*;
 
 /**
  * Represents the game model, contain information about the game state, players, board, and chat.
+ * <p>
+ * Every change sent to the scouts moves the game to the next version. The model keeps an immutable mock
+ * of each part of the game, replaced only when that part changes, and builds from them a single
+ * {@link GameSnapshot} per version, shared by all the readers.
+ * The version is also the sequence number of the updates sent to the scouts,
+ * so a player resuming the game can receive only the updates it missed.
+ * <p>
+ * The model isn't thread safe: it's only touched by the mailbox of its {@link Server.Controller.GameController},
+ * which runs one event at a time and hands the model from one event to the next.
  */
 public class GameModel {
     /**
@@ -64,6 +80,38 @@ public class GameModel {
      * the chat room for the players to communicate with each other
      */
     private final ChatRoom chatRoom;
+    /**
+     * the version of the game, it grows at every change sent to the scouts
+     */
+    private long version;
+    /**
+     * the board at the current version, its rows are shared with the previous versions
+     */
+    private MockBoard boardSnapshot;
+    /**
+     * the players at the current version, in the order of the game
+     */
+    private final LinkedHashMap<String, MockPlayer> playerSnapshots;
+    /**
+     * the common goals at the current version, by enumeration
+     */
+    private final LinkedHashMap<Integer, MockCommonGoal> commonGoalSnapshots;
+    /**
+     * the chat at the current version, null if it changed since the last snapshot
+     */
+    private Stack<ChatMessage> chatSnapshot;
+    /**
+     * the last snapshot built, it's reused until the version or the current player changes
+     */
+    private GameSnapshot snapshot;
+    /**
+     * the moves of the game, in the order they were played
+     */
+    private final List<Move> moves;
+    /**
+     * the coordinates of the tiles selected by the current player, null if it didn't select them
+     */
+    private List<Coordinates> selection;
 
 
     /**
@@ -76,15 +124,28 @@ public class GameModel {
      * @param players the list of players' name to be added to the game
      */
     public GameModel(String lobbyID, List<String> players) {
+        this(lobbyID, players, new Random());
+    }
+
+    /**
+     * Creates a new instance of GameModel class whose random choices, the tiles in the bag, the personal goals
+     * and the common goals, are made by the given random generator: the same seed gives the same game.
+     *
+     * @param lobbyID the unique identifier of the game
+     * @param players the list of players' name to be added to the game
+     * @param random  the random generator of the game
+     */
+    public GameModel(String lobbyID, List<String> players, Random random) {
         this.lobbyID = lobbyID;
         this.firstPlayer = players.get(0);
 
-        this.bag = new Bag();
+        this.bag = new Bag(random);
         this.chatRoom = new ChatRoom();
         this.talent = new Talent();
 
         this.players = new ArrayList<>();
         this.commonGoals = new ArrayList<>();
+        this.moves = new ArrayList<>();
 
         //creating board
         JsonObject board_json = decoBoard(players.size());
@@ -92,15 +153,25 @@ public class GameModel {
 
         //creating Players
         JsonArray array = decoPersonal();
-        Random random = new Random();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < array.size(); i++) ids.add(i);
         for (String tmp : players) {
-            PersonalGoal pGoal = new PersonalGoal(array.remove(random.nextInt(array.size())).getAsJsonObject());
+            int index = random.nextInt(array.size());
+            PersonalGoal pGoal = new PersonalGoal(array.remove(index).getAsJsonObject(), ids.remove(index));
             this.players.add(new Player(tmp, pGoal));
         }
         this.currentPlayer = this.players.get(0);
 
         //creating 2 commonGoal
-        generateCommonGoal(players.size());
+        generateCommonGoal(players.size(), random);
+
+        this.boardSnapshot = MockFactory.getMock(this.board);
+        this.playerSnapshots = new LinkedHashMap<>();
+        for (Player player : this.players)
+            this.playerSnapshots.put(player.getPlayerID(), MockFactory.getMock(player));
+        this.commonGoalSnapshots = new LinkedHashMap<>();
+        for (CommonGoal commonGoal : this.commonGoals)
+            this.commonGoalSnapshots.put(commonGoal.getEnumeration(), MockFactory.getMock(commonGoal));
     }
 
     private JsonObject decoBoard(int players) {
@@ -118,7 +189,7 @@ public class GameModel {
         return gson.fromJson(reader, JsonArray.class);
     }
 
-    private void generateCommonGoal(int players) {
+    private void generateCommonGoal(int players, Random random) {
         Gson gson = new Gson();
         JsonReader reader;
         reader = new JsonReader(new InputStreamReader(Objects.requireNonNull(ClassLoader.getSystemResourceAsStream("settings/commonGoal.json"))));
@@ -126,7 +197,6 @@ public class GameModel {
         JsonArray array = json.get("commonGoal").getAsJsonArray();
         json = json.get("scoringToken").getAsJsonObject();
         List<Integer> scoringToken = getAsList(json.get(Integer.toString(players)).getAsJsonArray());
-        Random random = new Random();
         for(int i =0; i<2; i++)
             this.commonGoals.add(CommonGoalFactory.getCommonGoal(scoringToken, array.remove(random.nextInt(array.size())).getAsJsonObject()));
     }
@@ -153,17 +223,19 @@ public class GameModel {
             throw new NoValidMoveException("Too many tiles selected");
         this.board.convalidateMove(coordinates);
         List<Tile> tiles = this.board.getTiles(coordinates);
-        talent.onEvent(MockFactory.getMock(this.board));
+        this.selection = List.copyOf(coordinates);
+        publish(MockFactory.getDelta(this.board));
         return tiles;
     }
 
     /**
-     * This method checks if the refill of the board is needed.
+     * This method checks if the refill of the board is needed, the refilled cells are sent to the scouts as a delta.
      * @throws CantRefillBoardException when the bag han not enough tiles to refill the board.
      */
     public void checkRefill() throws CantRefillBoardException {
         this.board.checkRefill(this.bag);
-        talent.onEvent(MockFactory.getMock(this.board));
+        MockBoardDelta delta = MockFactory.getDelta(this.board);
+        if (delta != null) publish(delta);
     }
 
     /**
@@ -183,7 +255,8 @@ public class GameModel {
             tiles.add(tiles.get(integer - 1));
         tiles.subList(0, sort.size()).clear();
         this.currentPlayer.insert(column , tiles);
-        talent.onEvent(MockFactory.getMock(this.currentPlayer));
+        played(List.copyOf(sort), column);
+        publish(MockFactory.getMock(this.currentPlayer));
     }
 
     /**
@@ -198,10 +271,108 @@ public class GameModel {
         ChatMessage chatMessage = new ChatMessage(from, message, to);
         this.chatRoom.addMessage(chatMessage);
         if (to == null){
-            talent.onEvent(chatMessage);
+            publish(chatMessage);
             return;
         }
-        talent.onEvent(new ArrayList<>(Arrays.asList(from, to)), chatMessage);
+        changed(chatMessage);
+        talent.onEvent(this.version, new ArrayList<>(Arrays.asList(from, to)), chatMessage);
+    }
+
+    /**
+     * Sends a change of the game to all the scouts and moves the game to the next version.
+     * The update becomes part of the next snapshots, so it must not be modified afterwards.
+     *
+     * @param update the mock of the changed board cells, player or common goal, or the new chat message
+     */
+    public void publish(Object update) {
+        changed(update);
+        this.talent.onEvent(this.version, update);
+    }
+
+    /**
+     * Prepares a player to join or resume the game, before its scout is added.
+     * If the player has seen the game up to a sequence whose following updates are still kept,
+     * its scout will receive only those; otherwise the player needs the returned snapshot,
+     * and its scout will receive the updates sent after it.
+     *
+     * @param playerID     the player joining the game
+     * @param lastSequence the sequence of the last update received by the player, negative if none
+     * @return the snapshot to send to the player, null if it can catch up with the updates
+     */
+    public GameSnapshot resume(String playerID, long lastSequence) {
+        if (lastSequence >= 0 && lastSequence <= this.version && this.talent.canReplay(lastSequence)) {
+            this.talent.resume(playerID, lastSequence);
+            return null;
+        }
+        GameSnapshot snapshot = snapshot();
+        this.talent.resume(playerID, snapshot.version());
+        return snapshot;
+    }
+
+    /**
+     * Adds the scout of a player, that receives first the updates it missed since {@link #resume(String, long)}.
+     * If too many updates were sent in between, the scout receives the current board, players and common goals.
+     *
+     * @param playerID the player
+     * @param scout    the scout of the player
+     */
+    @SuppressWarnings("rawtypes")
+    public void addScout(String playerID, Scout scout) {
+        if (this.talent.addScout(playerID, scout)) return;
+        GameSnapshot snapshot = snapshot();
+        List<Object> parts = new ArrayList<>();
+        parts.add(snapshot.model().getMockBoard());
+        parts.addAll(snapshot.model().getMockPlayers());
+        parts.addAll(snapshot.model().getMockCommonGoal());
+        this.talent.onEvent(playerID, new MockBatch(parts, snapshot.version()));
+    }
+
+    /**
+     * Moves the game to the next version, replacing the part of the snapshot changed by the update.
+     */
+    private void changed(Object update) {
+        switch (update) {
+            case MockBoardDelta delta -> this.boardSnapshot = (delta.getBaseVersion() == this.boardSnapshot.getVersion())
+                    ? this.boardSnapshot.next(delta) : MockFactory.getMock(this.board);
+            case MockPlayer player -> this.playerSnapshots.put(player.getPlayerID(), player);
+            case MockCommonGoal commonGoal -> this.commonGoalSnapshots.put(commonGoal.getEnumeration(), commonGoal);
+            case ChatMessage ignored -> this.chatSnapshot = null;
+            default -> {
+            }
+        }
+        this.version++;
+    }
+
+    /**
+     * Returns the snapshot of the current version of the game, built at most once per version.
+     * It only assembles the immutable mocks of the parts of the game, so it never reads a part while it's changing.
+     *
+     * @return the snapshot of the game
+     */
+    public GameSnapshot snapshot() {
+        if (this.snapshot != null && this.snapshot.version() == this.version) return this.snapshot;
+        if (this.chatSnapshot == null) {
+            this.chatSnapshot = new Stack<>();
+            this.chatSnapshot.addAll(this.chatRoom.getFlow());
+        }
+        MockModel model = new MockModel();
+        model.setMockBoard(this.boardSnapshot);
+        this.commonGoalSnapshots.values().forEach(model::addMockCommonGoal);
+        this.playerSnapshots.values().forEach(model::addMockPlayer);
+        model.setChat(this.chatSnapshot);
+        model.setCurrentPlayer(this.currentPlayer.getPlayerID());
+        model.setSequence(this.version);
+        this.snapshot = new GameSnapshot(this.version, model);
+        return this.snapshot;
+    }
+
+    /**
+     * Returns the version of the game.
+     *
+     * @return the version, it grows at every change sent to the scouts
+     */
+    public long getVersion() {
+        return this.version;
     }
 
     /**
@@ -218,12 +389,14 @@ public class GameModel {
     }
 
     /**
-     * Sets the current player.
+     * Sets the current player. The new turn isn't an update of the scouts, it's sent to the players apart,
+     * so the version doesn't change: only the next snapshot is built again.
      *
      * @param currentPlayer the current player
      */
     public void setCurrentPlayer(Player currentPlayer) {
         this.currentPlayer = currentPlayer;
+        this.snapshot = null;
     }
 
     /**
@@ -278,13 +451,30 @@ public class GameModel {
      * @param tiles the tiles to insert
      */
     public void completeTurn(List<Tile> tiles) {
+        List<Integer> sort = new ArrayList<>();
+        for (int i = 1; i <= tiles.size(); i++) sort.add(i);
         for(int i = 0; i < 5; i++)
             try{
                 this.currentPlayer.insert(i, tiles);
+                played(sort, i);
                 break;
             } catch (PlayerException ignored) {
             }
-        this.talent.onEvent(MockFactory.getMock(this.currentPlayer));
+        publish(MockFactory.getMock(this.currentPlayer));
+    }
+
+    private void played(List<Integer> sort, int column) {
+        this.moves.add(new Move(this.currentPlayer.getPlayerID(), this.selection != null ? this.selection : List.of(), sort, column));
+        this.selection = null;
+    }
+
+    /**
+     * Returns the moves of the game, in the order they were played.
+     *
+     * @return a copy of the moves
+     */
+    public List<Move> getMoves() {
+        return new ArrayList<>(this.moves);
     }
 
     /**
@@ -0,0 +1,15 @@
+package Server.Model;
+
+import Utils.MockObjects.MockModel;
+
+/**
+ * Represents the state of a game at a given version, built once and shared by all its readers:
+ * the players starting or rejoining the game, the boards resent to a client and the administration queries.
+ * Consecutive snapshots share the parts of the game that didn't change, so the mock model
+ * and everything it contains must never be modified.
+ *
+ * @param version the version of the game, see {@link GameModel#getVersion()}
+ * @param model   the state of the game
+ */
+public record GameSnapshot(long version, MockModel model) {
+}
@@ -27,12 +27,20 @@ public class Bag {
      * Constructor of the class.
      */
     public Bag() {
+        this(new Random());
+    }
+
+    /**
+     * Constructor of the class, the tiles are shuffled with the given random generator.
+     * @param random the random generator, the same seed gives the same bag.
+     */
+    public Bag(Random random) {
         Tile[] array = new Tile[CAPACITY];
         int offset=0;
         // generate tiles, 22 for color
         generateTile(array,offset);
         // shuffle
-        shuffleArray(array);
+        shuffleArray(array, random);
         this.bag = new ArrayBlockingQueue<>(CAPACITY);
         Collections.addAll(bag, array);
     }
@@ -64,9 +72,17 @@ public class Bag {
      * @param array bag transformed in array to shuffle.
      */
     public static void shuffleArray(Tile[] array){
+        shuffleArray(array, new Random());
+    }
+
+    /**
+     * Method to shuffle the tiles in the bag with the given random generator.
+     * @param array bag transformed in array to shuffle.
+     * @param random the random generator.
+     */
+    public static void shuffleArray(Tile[] array, Random random){
         int index;
         Tile tmp;
-        Random random = new Random();
         for(int i = array.length-1;i>0;i--){
             index = random.nextInt(i+1);
             tmp = array[index];
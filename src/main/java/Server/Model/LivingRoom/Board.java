@@ -13,6 +13,7 @@ import org.jetbrains.annotations.TestOnly;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.IntStream;
@@ -33,6 +34,14 @@ public class Board {
      * The number of tiles taken from the board.
      */
     private final List<Coordinates> tilesTaken;
+    /**
+     * The cells changed since the last call to {@link #drainChanges()}.
+     */
+    private final LinkedHashSet<Coordinates> changed;
+    /**
+     * The version of the board, incremented every time the changes are drained.
+     */
+    private int version;
 
     @TestOnly
     public int tilesTakenNumber;
@@ -51,6 +60,8 @@ public class Board {
         this.matrix_size = board_json.get("matrix.size").getAsInt();
         this.board = new Cell[matrix_size][matrix_size];
         this.tilesTaken = new ArrayList<>();
+        this.changed = new LinkedHashSet<>();
+        this.version = 0;
         for (int i = 0; i < matrix_size; i++) {
             for (int j = 0; j < matrix_size; j++) {
                 this.board[i][j] = new Cell();
@@ -154,6 +165,7 @@ public class Board {
             if (board[x][y].getTile() == null) throw new NullTileException(new Coordinates(x, y));
             tiles.add(board[x][y].removeTile());
             tilesTaken.add(new Coordinates(x, y));
+            changed.add(new Coordinates(x, y));
         }
         return tiles;
     }
@@ -167,6 +179,7 @@ public class Board {
         ArrayList<Tile> toDeploy = bag.draw(tilesTaken.size());
         for (Coordinates(int x, int y) : tilesTaken) {
             board[x][y].setTile(toDeploy.remove(0));
+            changed.add(new Coordinates(x, y));
         }
     }
 
@@ -210,6 +223,30 @@ public class Board {
         return board;
     }
 
+    /**
+     * It returns the version of the board, the one of the last drained changes.
+     *
+     * @return the version of the board.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * It returns the cells changed since the last call and moves the board to the next version,
+     * the version doesn't change if no cell changed.
+     *
+     * @return the coordinates of the changed cells, in the order they changed.
+     */
+    public List<Coordinates> drainChanges() {
+        List<Coordinates> drained = new ArrayList<>(changed);
+        if (!drained.isEmpty()) {
+            changed.clear();
+            version++;
+        }
+        return drained;
+    }
+
     @TestOnly
     public boolean equals(Cell[][] board){
         for(int i = 0; i < this.matrix_size; i++){
@@ -0,0 +1,16 @@
+package Server.Model;
+
+import Utils.Coordinates;
+
+import java.util.List;
+
+/**
+ * A move of a game: the tiles a player took from the board and how it put them in its shelf.
+ *
+ * @param playerID    the ID of the player
+ * @param coordinates the coordinates of the tiles taken from the board
+ * @param sort        the order the tiles were inserted in, from 1
+ * @param column      the column of the shelf
+ */
+public record Move(String playerID, List<Coordinates> coordinates, List<Integer> sort, int column) {
+}
@@ -16,6 +16,10 @@ public class PersonalGoal {
      * The 2D array representing the personal goal.
      */
     private final Tile[][] personalGoal;
+    /**
+     * The index of the personal goal in the settings, -1 if it's unknown.
+     */
+    private final int id;
 
     /**
      * Constructs a PersonalGoal object based on the provided JSON object.
@@ -23,6 +27,17 @@ public class PersonalGoal {
      * @param json the JSON object containing personal goal information
      */
     public PersonalGoal(JsonObject json) {
+        this(json, -1);
+    }
+
+    /**
+     * Constructs a PersonalGoal object based on the provided JSON object, found at the given index of the settings.
+     *
+     * @param json the JSON object containing personal goal information
+     * @param id   the index of the personal goal in the settings
+     */
+    public PersonalGoal(JsonObject json, int id) {
+        this.id = id;
         personalGoal = new Tile[6][5];
         Coordinates cd;
         for(Color tmp : Color.values()){
@@ -70,4 +85,13 @@ public class PersonalGoal {
     public Tile[][] getPersonalGoal() {
         return personalGoal;
     }
+
+    /**
+     * Returns the index of the personal goal in the settings.
+     *
+     * @return the index, -1 if it's unknown
+     */
+    public int getId() {
+        return id;
+    }
 }
@@ -1,41 +1,183 @@
 package Server.Model;
 
+import Interface.BatchedScout;
 import Interface.Scout;
+import Interface.SharedScout;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Wire.SharedMessage;
 import Utils.ChatMessage;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockCommonGoal;
+import Utils.MockObjects.MockPlayer;
 
 import java.rmi.RemoteException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.stream.Collectors;
 
-import static Server.ServerApp.executorService;
-import static Server.ServerApp.logger;
+import static Server.ServerApp.dispatcher;
 
 /**
  * The Talent class represents a collection of scouts that can receive updates.
  * It allows adding and removing scouts and notifying them of events by invoking the update method.
+ * The updates of a scout are delivered one after the other, in the order of the events.
+ * <p>
+ * While a command is running (between {@link #begin()} and {@link #commit()}) the events are not delivered:
+ * they are collected per scout, the superseded ones are dropped, and each scout receives a single
+ * {@link MockBatch} when the command finishes.
+ * <p>
+ * An update that reaches more than one scout is a broadcast: the scouts living in the server process
+ * ({@link SharedScout}) receive it encoded once for all of them, the remote ones receive the object.
+ * The updates of a remote {@link BatchedScout} that pile up while a call to it is running are sent
+ * together with the next call.
+ * <p>
+ * The changes of the game carry the sequence number of the game (see {@link GameModel#getVersion()}):
+ * they are delivered inside a {@link MockBatch} holding the sequence of its newest update, and the last
+ * {@link #HISTORY} of them are kept, so a player resuming the game receives only the updates it missed.
  */
 public class Talent {
+    /**
+     * The number of sequenced updates kept for the players resuming the game.
+     */
+    public static final int HISTORY = 256;
+
     /**
      * The list of scouts that are looking to this talent.
      */
     private final HashMap<String, Scout> scouts;
+    /**
+     * The updates of each scout collected during the running command.
+     */
+    private final LinkedHashMap<String, List<Object>> pending;
+    /**
+     * The sequence of the newest update collected for each scout during the running command.
+     */
+    private final HashMap<String, Long> pendingSequences;
+    /**
+     * The number of nested commands running, the events are delivered immediately when it's zero.
+     */
+    private int commands;
+    /**
+     * The deltas merged during the running command, by the newer delta, so the scouts
+     * that received the same deltas end up with the same merged one.
+     */
+    private final IdentityHashMap<MockBoardDelta, Merge> merges;
+    /**
+     * The last sequenced updates, the oldest first.
+     */
+    private final ArrayDeque<Sent> history;
+    /**
+     * The sequence of the newest update dropped from the history: the updates after it can be replayed.
+     */
+    private long floor;
+    /**
+     * The sequence already seen by each player resuming the game, until its scout is added.
+     */
+    private final HashMap<String, Long> resumes;
+    /**
+     * The updates waiting for the next call to each batched scout, the call is already queued on the dispatcher.
+     */
+    private final HashMap<String, List<Object>> outboxes;
+
+    /**
+     * Two consecutive deltas merged into one.
+     */
+    private record Merge(MockBoardDelta previous, MockBoardDelta merged) {
+    }
+
+    /**
+     * A sequenced update and the scouts it was sent to, null if it was sent to all of them.
+     */
+    private record Sent(long sequence, List<String> recipients, Object update) {
+    }
 
     /**
      * Constructs a new Talent object with an empty list of scouts.
      */
     public Talent(){
         this.scouts = new HashMap<>();
+        this.pending = new LinkedHashMap<>();
+        this.pendingSequences = new HashMap<>();
+        this.commands = 0;
+        this.merges = new IdentityHashMap<>();
+        this.history = new ArrayDeque<>();
+        this.floor = 0;
+        this.resumes = new HashMap<>();
+        this.outboxes = new HashMap<>();
+    }
+
+    /**
+     * Starts collecting the events of a command, the commands can be nested.
+     */
+    public synchronized void begin() {
+        this.commands++;
+    }
+
+    /**
+     * Ends the command started by the matching {@link #begin()}.
+     * When the outermost command ends, each scout receives the updates collected for it:
+     * alone if there is only one and it's not sequenced, as a {@link MockBatch} otherwise.
+     * The scouts that collected the very same updates share the batch, and it's broadcast to them.
+     */
+    public synchronized void commit() {
+        if (this.commands == 0 || --this.commands > 0) return;
+        List<List<Object>> groups = new ArrayList<>();
+        Map<List<Object>, List<String>> recipients = new IdentityHashMap<>();
+        for (Map.Entry<String, List<Object>> entry : this.pending.entrySet()) {
+            List<Object> updates = entry.getValue();
+            if (updates.isEmpty()) continue;
+            long sequence = this.pendingSequences.getOrDefault(entry.getKey(), 0L);
+            List<Object> group = groups.stream()
+                    .filter(other -> sameUpdates(other, updates) && this.pendingSequences.getOrDefault(recipients.get(other).get(0), 0L) == sequence)
+                    .findFirst().orElse(null);
+            if (group == null) {
+                groups.add(updates);
+                recipients.put(updates, new ArrayList<>());
+                group = updates;
+            }
+            recipients.get(group).add(entry.getKey());
+        }
+        for (List<Object> group : groups) {
+            long sequence = this.pendingSequences.getOrDefault(recipients.get(group).get(0), 0L);
+            if (sequence > 0) broadcast(recipients.get(group), new MockBatch(group, sequence));
+            else broadcast(recipients.get(group), group.size() == 1 ? group.get(0) : new MockBatch(group));
+        }
+        this.pending.clear();
+        this.pendingSequences.clear();
+        this.merges.clear();
     }
 
     /**
      * Adds a scout to the list of scouts.
+     * If the player is resuming the game (see {@link #resume(String, long)}), the scout first receives
+     * in a single batch the updates sent after the sequence the player has already seen.
      *
      * @param scout the scout to be added
+     * @return false if the updates the player missed aren't in the history any more, so it needs the whole game
      */
-    public void addScout(String playerID, Scout scout){
+    public synchronized boolean addScout(String playerID, Scout scout){
         this.scouts.put(playerID, scout);
+        this.outboxes.remove(playerID);
+        Long seen = this.resumes.remove(playerID);
+        if (seen == null) return true;
+        if (seen < this.floor) return false;
+        List<Object> missed = new ArrayList<>();
+        long last = seen;
+        for (Sent sent : this.history) {
+            if (sent.sequence() <= seen || (sent.recipients() != null && !sent.recipients().contains(playerID))) continue;
+            coalesce(missed, sent.update());
+            last = sent.sequence();
+        }
+        if (this.commands == 0) this.merges.clear();
+        if (!missed.isEmpty()) deliver(playerID, new MockBatch(missed, last), null);
+        return true;
     }
 
     /**
@@ -43,47 +185,193 @@ public class Talent {
      *
      * @param playerID the scout to be removed
      */
-    public void removeScout(String playerID){
+    public synchronized void removeScout(String playerID){
         this.scouts.put(playerID, null);
+        this.outboxes.remove(playerID);
+    }
+
+    /**
+     * Records the sequence a player resuming the game has already seen,
+     * the updates after it are sent to its scout when it's added.
+     *
+     * @param playerID the player resuming the game
+     * @param sequence the sequence of the last update the player received
+     */
+    public synchronized void resume(String playerID, long sequence) {
+        this.resumes.put(playerID, sequence);
+    }
+
+    /**
+     * Tells if the updates sent after a sequence are still in the history.
+     *
+     * @param sequence the sequence of the last update a player received
+     * @return true if the player can resume from the sequence
+     */
+    public synchronized boolean canReplay(long sequence) {
+        return sequence >= this.floor;
     }
 
     /**
      * Notifies all scouts in the list of an event by invoking their update method with the specified object.
-     * Each scout is executed in a separate thread using the executor service.
+     * Each scout is updated through the dispatcher, after the previous updates of the same scout.
      *
      * @param O the object representing the event
      */
-    public void onEvent(Object O){
-        for(Scout scout : activeScout()) {
-            executorService.execute(()-> {
-                try {
-                    scout.update(O);
-                } catch (RemoteException e) {
-                    logger.severe(e.getMessage());
-                }
-            });
-        }
+    public synchronized void onEvent(Object O){
+        onEvent(0, O);
+    }
+
+    /**
+     * Notifies all scouts of a change of the game, and keeps it in the history.
+     *
+     * @param sequence the sequence of the change, 0 if it's not part of the game sequence
+     * @param O        the object representing the event
+     */
+    public synchronized void onEvent(long sequence, Object O) {
+        if (sequence > 0) record(sequence, null, O);
+        if (this.commands > 0) {
+            for (String playerID : activeScout()) collect(playerID, sequence, O);
+        } else broadcast(activeScout(), sequence > 0 ? new MockBatch(List.of(O), sequence) : O);
     }
 
-    private List<Scout> activeScout(){
-        return this.scouts.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+    /**
+     * Notifies a single scout of an event, for example to resend a full object.
+     *
+     * @param playerID the scout to be notified
+     * @param O        the object representing the event
+     */
+    public synchronized void onEvent(String playerID, Object O) {
+        if (this.scouts.get(playerID) == null) return;
+        if (this.commands > 0) collect(playerID, 0, O);
+        else deliver(playerID, O, null);
     }
 
     /**
      * Notifies all scouts in the list when there is a direct message to them.
+     * @param sequence the sequence of the message
      * @param toUpdate the list of scouts to be notified
      * @param chatMessage the message to be sent
      */
-    public void onEvent(List<String> toUpdate, ChatMessage chatMessage) {
-        for(String scout : toUpdate) {
-            if (this.scouts.get(scout) == null) continue;
-            executorService.execute(()-> {
-                try {
-                    this.scouts.get(scout).update(chatMessage);
-                } catch (RemoteException e) {
-                    logger.severe(e.getMessage());
+    public synchronized void onEvent(long sequence, List<String> toUpdate, ChatMessage chatMessage) {
+        record(sequence, List.copyOf(toUpdate), chatMessage);
+        for(String playerID : toUpdate) {
+            if (this.scouts.get(playerID) == null) continue;
+            if (this.commands > 0) collect(playerID, sequence, chatMessage);
+            else deliver(playerID, new MockBatch(List.of(chatMessage), sequence), null);
+        }
+    }
+
+    private void record(long sequence, List<String> recipients, Object O) {
+        this.history.add(new Sent(sequence, recipients, O));
+        if (this.history.size() > HISTORY) this.floor = this.history.poll().sequence();
+    }
+
+    private void collect(String playerID, long sequence, Object O) {
+        coalesce(this.pending.computeIfAbsent(playerID, id -> new ArrayList<>()), O);
+        if (sequence > 0) this.pendingSequences.merge(playerID, sequence, Math::max);
+    }
+
+    /**
+     * Delivers the same update to many scouts. If more than one of them lives in the server process,
+     * the update is wrapped once in a {@link SharedMessage}, so it's encoded once for all of them.
+     *
+     * @param playerIDs the scouts to be notified
+     * @param O         the object representing the event
+     */
+    private void broadcast(List<String> playerIDs, Object O) {
+        long local = playerIDs.stream().filter(playerID -> this.scouts.get(playerID) instanceof SharedScout).count();
+        SharedMessage shared = local > 1 ? new SharedMessage(UpdateMessage.of(O)) : null;
+        for (String playerID : playerIDs) deliver(playerID, O, shared);
+    }
+
+    private void deliver(String playerID, Object O, SharedMessage shared) {
+        Scout scout = this.scouts.get(playerID);
+        if (scout == null) return;
+        if (scout instanceof BatchedScout && !(scout instanceof SharedScout)) {
+            List<Object> outbox = this.outboxes.get(playerID);
+            if (outbox != null) {
+                outbox.add(O);
+                return;
+            }
+            this.outboxes.put(playerID, new ArrayList<>(List.of(O)));
+            dispatcher.call(scout, target -> flush(playerID));
+            return;
+        }
+        dispatcher.call(scout, target -> {
+            if (shared != null && target instanceof SharedScout sharedScout) sharedScout.updateShared(shared);
+            else target.update(O);
+        });
+    }
+
+    /**
+     * Sends to a batched scout the updates waiting in its outbox: a single update as it is, more of them with one call.
+     *
+     * @param playerID the scout to be notified
+     * @throws RemoteException if a remote communication error occurs
+     */
+    private void flush(String playerID) throws RemoteException {
+        List<Object> updates;
+        Scout scout;
+        synchronized (this) {
+            updates = this.outboxes.remove(playerID);
+            scout = this.scouts.get(playerID);
+        }
+        if (updates == null || scout == null) return;
+        if (updates.size() == 1) scout.update(updates.get(0));
+        else ((BatchedScout<?>) scout).updateBatch(updates);
+    }
+
+    /**
+     * Adds the update to the ones collected for a scout, dropping the updates it supersedes:
+     * a board replaces the previous boards and deltas, a delta is merged with the previous delta,
+     * a player or a common goal replaces the previous version of the same player or common goal.
+     * The chat messages are never dropped.
+     *
+     * @param updates the updates collected for the scout
+     * @param O       the new update
+     */
+    private void coalesce(List<Object> updates, Object O) {
+        switch (O) {
+            case MockBoard ignored -> updates.removeIf(update -> update instanceof MockBoard || update instanceof MockBoardDelta);
+            case MockBoardDelta delta -> {
+                for (int i = updates.size() - 1; i >= 0; i--) {
+                    if (updates.get(i) instanceof MockBoardDelta previous && previous.getVersion() == delta.getBaseVersion()) {
+                        updates.set(i, merge(previous, delta));
+                        return;
+                    }
+                    if (updates.get(i) instanceof MockBoard || updates.get(i) instanceof MockBoardDelta) break;
                 }
-            });
+            }
+            case MockPlayer player -> updates.removeIf(player::equals);
+            case MockCommonGoal commonGoal -> updates.removeIf(commonGoal::equals);
+            default -> {
+            }
         }
+        updates.add(O);
+    }
+
+    /**
+     * Merges two deltas, reusing the delta merged for another scout from the same two deltas.
+     */
+    private MockBoardDelta merge(MockBoardDelta previous, MockBoardDelta delta) {
+        Merge merge = this.merges.get(delta);
+        if (merge != null && merge.previous() == previous) return merge.merged();
+        MockBoardDelta merged = MockBoardDelta.merge(previous, delta);
+        this.merges.put(delta, new Merge(previous, merged));
+        return merged;
+    }
+
+    /**
+     * Tells if two scouts collected the very same update objects, in the same order.
+     */
+    private static boolean sameUpdates(List<Object> first, List<Object> second) {
+        if (first.size() != second.size()) return false;
+        for (int i = 0; i < first.size(); i++)
+            if (first.get(i) != second.get(i)) return false;
+        return true;
+    }
+
+    private List<String> activeScout(){
+        return this.scouts.keySet().stream().filter(playerID -> this.scouts.get(playerID) != null).collect(Collectors.toList());
     }
 }
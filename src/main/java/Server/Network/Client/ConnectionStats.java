@@ -0,0 +1,161 @@
+package Server.Network.Client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The ConnectionStats class collects the statistics of the outbound queue of a socket connection:
+ * how many messages are waiting for the writer, how long they wait, how many the overflow policy discarded,
+ * and how many messages the writer sends with a single flush.
+ */
+public class ConnectionStats {
+    /**
+     * The upper bounds of the batch-size buckets, the last bucket holds everything bigger.
+     */
+    private static final int[] BUCKETS = {1, 2, 4, 8, 16, 32, 64};
+
+    private final AtomicInteger queueDepth;
+    private final AtomicInteger maxQueueDepth;
+    private final AtomicLongArray batches;
+    private final AtomicLong discarded;
+    private final AtomicLong lastLag;
+    private final AtomicLong maxLag;
+
+    /**
+     * Creates the statistics of a new connection.
+     */
+    public ConnectionStats() {
+        this.queueDepth = new AtomicInteger();
+        this.maxQueueDepth = new AtomicInteger();
+        this.batches = new AtomicLongArray(BUCKETS.length + 1);
+        this.discarded = new AtomicLong();
+        this.lastLag = new AtomicLong();
+        this.maxLag = new AtomicLong();
+    }
+
+    /**
+     * Records a message added to the outbound queue.
+     */
+    public void enqueued() {
+        int depth = this.queueDepth.incrementAndGet();
+        this.maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * Records a batch of messages taken from the outbound queue and written with a single flush.
+     *
+     * @param size the number of messages of the batch
+     */
+    public void batchWritten(int size) {
+        this.queueDepth.addAndGet(-size);
+        this.batches.incrementAndGet(bucket(size));
+    }
+
+    /**
+     * Records the messages dropped from the outbound queue, because the connection is closed.
+     *
+     * @param size the number of dropped messages
+     */
+    public void dropped(int size) {
+        this.queueDepth.addAndGet(-size);
+    }
+
+    /**
+     * Records the messages discarded by the overflow policy.
+     *
+     * @param size the number of discarded messages
+     */
+    public void discarded(int size) {
+        if (size == 0) return;
+        this.queueDepth.addAndGet(-size);
+        this.discarded.addAndGet(size);
+    }
+
+    /**
+     * Records how long a message waited in the queue before the writer took it.
+     *
+     * @param nanos the waiting time in nanoseconds
+     */
+    public void waited(long nanos) {
+        this.lastLag.set(nanos);
+        this.maxLag.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns the number of messages discarded by the overflow policy.
+     *
+     * @return the discarded messages
+     */
+    public long getDiscarded() {
+        return this.discarded.get();
+    }
+
+    /**
+     * Returns how long the last message taken by the writer waited in the queue.
+     *
+     * @return the lag in milliseconds
+     */
+    public long getLag() {
+        return this.lastLag.get() / 1_000_000;
+    }
+
+    /**
+     * Returns the longest time a message waited in the queue.
+     *
+     * @return the maximum lag in milliseconds
+     */
+    public long getMaxLag() {
+        return this.maxLag.get() / 1_000_000;
+    }
+
+    /**
+     * Returns the number of messages waiting for the writer.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    /**
+     * Returns the highest queue depth seen on the connection.
+     *
+     * @return the maximum queue depth
+     */
+    public int getMaxQueueDepth() {
+        return this.maxQueueDepth.get();
+    }
+
+    /**
+     * Returns the distribution of the batch sizes: the i-th element counts the batches
+     * bigger than the previous bound and not bigger than 1, 2, 4, 8, 16, 32, 64; the last one the bigger batches.
+     *
+     * @return the number of batches per bucket
+     */
+    public long[] getBatchHistogram() {
+        long[] histogram = new long[this.batches.length()];
+        for (int i = 0; i < histogram.length; i++)
+            histogram[i] = this.batches.get(i);
+        return histogram;
+    }
+
+    private static int bucket(int size) {
+        for (int i = 0; i < BUCKETS.length; i++)
+            if (size <= BUCKETS[i]) return i;
+        return BUCKETS.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("queue ").append(getQueueDepth()).append(" (max ").append(getMaxQueueDepth()).append("), lag ")
+                .append(getLag()).append(" ms (max ").append(getMaxLag()).append(" ms), discarded ").append(getDiscarded()).append(", batches");
+        long[] histogram = getBatchHistogram();
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] == 0) continue;
+            sb.append(' ').append(i < BUCKETS.length ? "<=" + BUCKETS[i] : ">" + BUCKETS[BUCKETS.length - 1]).append(':').append(histogram[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,385 @@
+package Server.Network.Client;
+
+import Messages.ServerMessage;
+import Messages.Wire.Frame;
+import Messages.Wire.FrameCompressor;
+import Messages.Wire.MessageCodec;
+import Messages.Wire.WireFormat;
+import Server.Network.Servers.SelectorLoop;
+import Server.ServerApp;
+import Utils.SerialExecutor;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import static Server.ServerApp.executorService;
+import static Server.ServerApp.logger;
+
+/**
+ * This class represents the handler of a socket connection served by a {@link SelectorLoop}.
+ * The reads and the writes are non-blocking and framed (see {@link Frame}), the payload format is negotiated
+ * during the handshake (see {@link WireFormat}), and the decoded messages are executed
+ * in order on the shared executor, so no thread is parked on the connection while the client is idle.
+ * The outbound messages wait in the outbound buffer and are encoded by the loop only when the socket
+ * can take them, so a slow client makes the buffer fill up (and its overflow policy kick in)
+ * instead of piling up encoded frames. The inbound side is bounded the same way: when too many decoded messages
+ * wait to be executed the loop stops reading the connection, and the client is slowed down by the socket.
+ * <p>
+ * Every method but {@link #send(ServerMessage)} and {@link #logOut()} must be called by the owning loop.
+ */
+public class NioSocketHandler extends SocketHandler {
+    /**
+     * The size of the handshake sent by a framed client: the object-stream header and the preamble.
+     */
+    private static final int HANDSHAKE_SIZE = 5;
+    /**
+     * The initial size of the read buffer, it grows when a bigger frame arrives.
+     */
+    private static final int READ_BUFFER = 16 * 1024;
+    /**
+     * The maximum number of messages encoded for a single gathering write.
+     */
+    private static final int MAX_BATCH = 64;
+    /**
+     * The encoded bytes waiting for the socket above which the loop stops encoding new messages.
+     */
+    private static final int WRITE_LIMIT = 256 * 1024;
+    /**
+     * The received messages waiting to be executed above which the loop stops reading the connection.
+     */
+    private static final int READ_LIMIT = 64;
+
+    private final SocketChannel channel;
+    private final SelectorLoop loop;
+    private SelectionKey key;
+    private ByteBuffer in;
+    /**
+     * The frames the loop is writing, owned by the loop thread.
+     */
+    private final ArrayDeque<ByteBuffer> writing;
+    /**
+     * Tells if the loop was already asked to flush this connection.
+     */
+    private final AtomicBoolean writeRequested;
+    /**
+     * Runs the received messages one after the other.
+     */
+    private final SerialExecutor inbound;
+    /**
+     * The received messages not executed yet.
+     */
+    private final AtomicInteger queued;
+    /**
+     * Tells if the loop stopped reading the connection because too many messages are waiting.
+     */
+    private final AtomicBoolean paused;
+    /**
+     * Tells if the loop has frames or messages to write, owned by the loop thread.
+     */
+    private boolean flushing;
+    private final long acceptedAt;
+    /**
+     * When the object-stream header was received, 0 until then.
+     */
+    private long headerAt;
+    private boolean framed;
+    /**
+     * Tells if the client sent something else than the preamble after the object-stream header.
+     */
+    private boolean legacy;
+    /**
+     * The codec chosen by the client, null until the handshake is completed.
+     */
+    private volatile MessageCodec codec;
+    /**
+     * The wire format chosen by the client, it selects the shared frames of the broadcasts.
+     */
+    private volatile WireFormat format;
+    /**
+     * The compressor of the big payloads, null if the client didn't accept the compression.
+     */
+    private volatile FrameCompressor compressor;
+
+    /**
+     * Creates the handler for an accepted channel.
+     *
+     * @param channel the accepted channel, already in non-blocking mode
+     * @param loop    the loop that owns the channel
+     */
+    public NioSocketHandler(SocketChannel channel, SelectorLoop loop) {
+        super();
+        this.channel = channel;
+        this.loop = loop;
+        this.in = ByteBuffer.allocate(READ_BUFFER);
+        this.writing = new ArrayDeque<>();
+        this.writeRequested = new AtomicBoolean(false);
+        this.inbound = new SerialExecutor(executorService);
+        this.queued = new AtomicInteger();
+        this.paused = new AtomicBoolean(false);
+        this.acceptedAt = System.nanoTime();
+        this.framed = false;
+    }
+
+    /**
+     * Binds the handler to the key returned by the registration of its channel.
+     *
+     * @param key the selection key of the channel
+     */
+    public void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Reads what is available on the channel and dispatches the complete frames.
+     *
+     * @throws IOException if the channel is closed or the stream is corrupted
+     */
+    public void onReadable() throws IOException {
+        if (this.channel.read(this.in) < 0) throw new IOException("Connection closed by " + describe());
+        this.in.flip();
+        if (!this.framed) handshake();
+        if (this.framed && this.codec == null) negotiate();
+        if (this.codec != null) readFrames();
+        this.in.compact();
+    }
+
+    private void handshake() throws IOException {
+        if (this.in.remaining() < Frame.HEADER_SIZE) return;
+        if (this.headerAt == 0) {
+            if (this.in.getInt(this.in.position()) != Frame.STREAM_HEADER)
+                throw new StreamCorruptedException("Invalid handshake from " + describe());
+            this.headerAt = System.nanoTime();
+        }
+        if (this.in.remaining() < HANDSHAKE_SIZE) return;
+        if (this.in.get(this.in.position() + Frame.HEADER_SIZE) != Frame.CLIENT_PREAMBLE) {
+            this.legacy = true;
+            return;
+        }
+        this.in.position(this.in.position() + HANDSHAKE_SIZE);
+        this.framed = true;
+        byte offered = ServerApp.compression ? (byte) (WireFormat.SUPPORTED | Frame.COMPRESSION) : WireFormat.SUPPORTED;
+        ByteBuffer magic = ByteBuffer.allocate(Frame.HEADER_SIZE + 1).putInt(Frame.SERVER_MAGIC).put(offered).flip();
+        this.writing.add(magic);
+        requestWrite();
+    }
+
+    private void negotiate() throws IOException {
+        if (!this.in.hasRemaining()) return;
+        byte chosen = this.in.get();
+        WireFormat format = WireFormat.fromId(chosen);
+        if ((chosen & Frame.COMPRESSION) != 0 && !ServerApp.compression)
+            throw new StreamCorruptedException("Compression accepted but not offered to " + describe());
+        if ((chosen & Frame.COMPRESSION) != 0) this.compressor = new FrameCompressor(format);
+        this.format = format;
+        this.codec = format.newCodec();
+        logger.info("Framed client connected with the " + format + " wire format" + (this.compressor != null ? ", compressed" : ""));
+        greet();
+    }
+
+    private void readFrames() throws IOException {
+        while (this.in.remaining() >= Frame.HEADER_SIZE) {
+            if (this.queued.get() >= READ_LIMIT && pause()) return;
+            int prefix = this.in.getInt(this.in.position());
+            int length = Frame.length(prefix);
+            Frame.checkLength(length);
+            if (this.in.remaining() < Frame.HEADER_SIZE + length) {
+                if (this.in.capacity() < Frame.HEADER_SIZE + length) grow(Frame.HEADER_SIZE + length);
+                return;
+            }
+            this.in.position(this.in.position() + Frame.HEADER_SIZE);
+            byte[] payload = new byte[length];
+            this.in.get(payload);
+            boolean compressed = Frame.isCompressed(prefix);
+            this.queued.incrementAndGet();
+            this.inbound.execute(() -> {
+                try {
+                    dispatch(payload, compressed);
+                } finally {
+                    if (this.queued.decrementAndGet() < READ_LIMIT && this.paused.compareAndSet(true, false))
+                        this.loop.requestRead(this);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops reading the connection until the waiting messages are executed.
+     *
+     * @return false if the messages were executed in the meantime and the reading can go on
+     */
+    private boolean pause() {
+        this.paused.set(true);
+        if (this.queued.get() < READ_LIMIT && this.paused.compareAndSet(true, false)) return false;
+        updateInterest();
+        return true;
+    }
+
+    /**
+     * Reads again the connection paused by too many waiting messages, starting from the frames already received.
+     *
+     * @throws IOException if the stream is corrupted
+     */
+    public void onResumed() throws IOException {
+        this.in.flip();
+        try {
+            readFrames();
+        } finally {
+            this.in.compact();
+        }
+        updateInterest();
+    }
+
+    private void updateInterest() {
+        if (this.key == null || !this.key.isValid()) return;
+        this.key.interestOps((this.paused.get() ? 0 : SelectionKey.OP_READ) | (this.flushing ? SelectionKey.OP_WRITE : 0));
+    }
+
+    private void grow(int size) {
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(size, this.in.capacity() * 2));
+        bigger.put(this.in);
+        bigger.flip();
+        this.in = bigger;
+    }
+
+    private void dispatch(byte[] payload, boolean compressed) {
+        try {
+            if (compressed && this.compressor == null)
+                throw new StreamCorruptedException("Compressed frame from " + describe() + " without compression");
+            deserialize(this.codec.decode(compressed ? this.compressor.decompress(payload) : payload));
+        } catch (IOException | ClassNotFoundException e) {
+            logger.log(Level.SEVERE, e.getMessage());
+            logOut();
+        }
+    }
+
+    /**
+     * Encodes the queued messages while the pending frames are below {@link #WRITE_LIMIT},
+     * and writes as many pending frames as the socket accepts, in a single gathering write.
+     * Asks the loop for a write notification if something is left.
+     *
+     * @throws IOException if the channel is closed
+     */
+    public void onWritable() throws IOException {
+        this.writeRequested.set(false);
+        if (this.codec != null) {
+            long pending = 0;
+            for (ByteBuffer frame : this.writing) pending += frame.remaining();
+            int batch = 0;
+            OutboundBuffer.Entry entry;
+            while (batch < MAX_BATCH && pending < WRITE_LIMIT && (entry = this.outbound.poll()) != null) {
+                batch++;
+                ByteBuffer frame = encode(entry);
+                if (frame == null) continue;
+                this.writing.add(frame);
+                pending += frame.remaining();
+            }
+            if (batch > 0) this.stats.batchWritten(batch);
+        }
+        if (!this.writing.isEmpty())
+            this.channel.write(this.writing.toArray(new ByteBuffer[0]));
+        while (!this.writing.isEmpty() && !this.writing.peek().hasRemaining())
+            this.writing.poll();
+
+        this.flushing = !this.writing.isEmpty() || (this.codec != null && !this.outbound.isEmpty());
+        updateInterest();
+    }
+
+    /**
+     * Tells if the client is a legacy one, that sends only the object-stream header and waits for the header
+     * of the server before sending anything else. A framed client sends the header and the preamble together,
+     * so a client is legacy if the preamble doesn't follow the header within the grace time,
+     * if something else follows it, or if the handshake isn't completed in time.
+     *
+     * @param timeout the handshake timeout in nanoseconds
+     * @param grace   how long the preamble may arrive after the header, in nanoseconds
+     * @return true if the client is a legacy one
+     */
+    public boolean isLegacy(long timeout, long grace) {
+        if (this.framed) return false;
+        long now = System.nanoTime();
+        return this.legacy || (this.headerAt != 0 && now - this.headerAt > grace) || now - this.acceptedAt > timeout;
+    }
+
+    /**
+     * Tells if the handshake is completed.
+     *
+     * @return true if the connection is framed
+     */
+    public boolean isFramed() {
+        return this.framed;
+    }
+
+    /**
+     * Returns the bytes received and not yet consumed, used to hand the connection to a legacy handler.
+     *
+     * @return the unread bytes
+     */
+    public byte[] unread() {
+        this.in.flip();
+        byte[] unread = new byte[this.in.remaining()];
+        this.in.get(unread);
+        this.in.clear();
+        return unread;
+    }
+
+    /**
+     * Returns the channel of the connection.
+     *
+     * @return the socket channel
+     */
+    public SocketChannel getChannel() {
+        return this.channel;
+    }
+
+    @Override
+    protected void requestWrite() {
+        if (this.writeRequested.compareAndSet(false, true))
+            this.loop.requestWrite(this);
+    }
+
+    /**
+     * Encodes a message into a frame, compressed if the compression was negotiated and it's worth it.
+     * A broadcast isn't encoded again: the frame encoded once for every connection of the same format is reused.
+     *
+     * @param entry the queued message to encode
+     * @return the frame ready to be written, null if the message can't be encoded
+     */
+    private ByteBuffer encode(OutboundBuffer.Entry entry) {
+        try {
+            if (entry.shared() != null) return entry.shared().frame(this.format, this.compressor != null);
+            ServerMessage message = entry.message();
+            byte[] payload = this.codec.encode(message);
+            byte[] compressed = (this.compressor != null) ? this.compressor.compress(payload) : null;
+            if (compressed != null) payload = compressed;
+            ByteBuffer frame = ByteBuffer.allocate(Frame.HEADER_SIZE + payload.length);
+            frame.putInt(compressed != null ? payload.length | Frame.COMPRESSED : payload.length).put(payload).flip();
+            return frame;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Logs out the client by closing the channel, the loop drops the key on its next iteration.
+     */
+    @Override
+    public void logOut() {
+        unregister();
+        this.stats.dropped(this.outbound.clear());
+        if (this.compressor != null) this.compressor.close();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+package Server.Network.Client;
+
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.AllGameMessage;
+import Messages.ServerMessage;
+import Messages.Wire.SharedMessage;
+import Utils.ChatMessage;
+import Utils.MockObjects.*;
+
+import java.util.*;
+
+/**
+ * The OutboundBuffer class holds the messages of a connection waiting for the writer.
+ * It's bounded: when a message doesn't fit, the {@link OverflowPolicy} of the connection tries to make room,
+ * and if it can't the connection has to be closed.
+ * The buffer keeps the time every message was queued, to measure how far the client lags behind.
+ */
+public class OutboundBuffer {
+    private final ArrayDeque<Entry> queue;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final ConnectionStats stats;
+
+    /**
+     * A queued message, the frames shared with the other recipients if it's a broadcast, and the time it was queued at.
+     * The overflow policy rebuilds the messages it changes, the rebuilt ones aren't shared any more
+     * but keep the sequence of the game update.
+     */
+    public record Entry(ServerMessage message, SharedMessage shared, long queuedAt) {
+        private Entry(ServerMessage message, long queuedAt) {
+            this(message, null, queuedAt);
+        }
+    }
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param capacity the maximum number of queued messages
+     * @param policy   what to do when the buffer is full
+     * @param stats    the statistics of the connection
+     */
+    public OutboundBuffer(int capacity, OverflowPolicy policy, ConnectionStats stats) {
+        this.queue = new ArrayDeque<>();
+        this.capacity = capacity;
+        this.policy = policy;
+        this.stats = stats;
+    }
+
+    /**
+     * Queues a message, applying the overflow policy if the buffer is full.
+     *
+     * @param message the message to queue
+     * @return false if the buffer is still full, then the client can't keep up and must be disconnected
+     */
+    public boolean offer(ServerMessage message) {
+        return offer(message, null);
+    }
+
+    /**
+     * Queues a broadcast message, applying the overflow policy if the buffer is full.
+     *
+     * @param message the message to queue
+     * @param shared  the frames of the message shared with the other recipients, null if it's not a broadcast
+     * @return false if the buffer is still full, then the client can't keep up and must be disconnected
+     */
+    public synchronized boolean offer(ServerMessage message, SharedMessage shared) {
+        this.queue.add(new Entry(message, shared, System.nanoTime()));
+        this.stats.enqueued();
+        if (this.queue.size() <= this.capacity) return true;
+        int before = this.queue.size();
+        switch (this.policy) {
+            case COALESCE -> coalesce();
+            case DROP_CHAT -> dropChat();
+            case DISCONNECT -> {
+            }
+        }
+        this.stats.discarded(before - this.queue.size());
+        return this.queue.size() <= this.capacity;
+    }
+
+    /**
+     * Takes the oldest message.
+     *
+     * @return the entry of the message, null if the buffer is empty
+     */
+    public synchronized Entry poll() {
+        Entry entry = this.queue.poll();
+        if (entry == null) return null;
+        this.stats.waited(System.nanoTime() - entry.queuedAt());
+        return entry;
+    }
+
+    /**
+     * Tells if there is no message waiting.
+     *
+     * @return true if the buffer is empty
+     */
+    public synchronized boolean isEmpty() {
+        return this.queue.isEmpty();
+    }
+
+    /**
+     * Drops every queued message, because the connection is closed.
+     *
+     * @return the number of dropped messages
+     */
+    public synchronized int clear() {
+        int size = this.queue.size();
+        this.queue.clear();
+        return size;
+    }
+
+    /**
+     * Returns how long the oldest message has been waiting.
+     *
+     * @return the age of the oldest message in milliseconds, 0 if the buffer is empty
+     */
+    public synchronized long oldestAge() {
+        Entry oldest = this.queue.peek();
+        return oldest == null ? 0 : (System.nanoTime() - oldest.queuedAt()) / 1_000_000;
+    }
+
+    /**
+     * Drops the updates superseded by a newer queued one, walking from the newest message to the oldest.
+     * A whole game supersedes every older update and chat message, a board the older boards and deltas,
+     * a player or a common goal the older versions of the same player or common goal.
+     * Two standalone deltas that follow each other are merged.
+     */
+    private void coalesce() {
+        boolean game = false, board = false;
+        Set<String> players = new HashSet<>();
+        Set<Integer> commonGoals = new HashSet<>();
+        // the newer standalone delta an older one can be merged into
+        Entry newerDelta = null;
+        List<Entry> kept = new ArrayList<>(this.queue.size());
+        for (Iterator<Entry> it = this.queue.descendingIterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (entry.message() instanceof AllGameMessage) {
+                if (game) continue;
+                game = true;
+                kept.add(entry);
+                continue;
+            }
+            if (!(entry.message() instanceof UpdateMessage update)) {
+                kept.add(entry);
+                continue;
+            }
+            if (game) continue;
+
+            List<Object> updates = updates(update);
+            List<Object> left = new ArrayList<>(updates.size());
+            for (int i = updates.size() - 1; i >= 0; i--) {
+                Object object = updates.get(i);
+                boolean keep = switch (object) {
+                    case MockBoard ignored -> {
+                        boolean newest = !board;
+                        board = true;
+                        yield newest;
+                    }
+                    case MockBoardDelta ignored -> !board;
+                    case MockPlayer player -> players.add(player.getPlayerID());
+                    case MockCommonGoal commonGoal -> commonGoals.add(commonGoal.getEnumeration());
+                    default -> true;
+                };
+                if (keep) left.add(0, object);
+            }
+            if (left.isEmpty()) continue;
+
+            if (left.size() == 1 && left.get(0) instanceof MockBoardDelta delta) {
+                UpdateMessage newer = (newerDelta != null) ? (UpdateMessage) newerDelta.message() : null;
+                if (newer != null && ((MockBoardDelta) updates(newer).get(0)).getBaseVersion() == delta.getVersion()) {
+                    MockBoardDelta merged = MockBoardDelta.merge(delta, (MockBoardDelta) updates(newer).get(0));
+                    kept.remove(newerDelta);
+                    newerDelta = new Entry(rebuild(List.of(merged), sequence(newer)), entry.queuedAt());
+                    kept.add(newerDelta);
+                    continue;
+                }
+                newerDelta = (left.size() == updates.size()) ? entry : new Entry(rebuild(left, sequence(update)), entry.queuedAt());
+                kept.add(newerDelta);
+                continue;
+            }
+            if (left.stream().anyMatch(object -> object instanceof MockBoardDelta)) newerDelta = null;
+            kept.add(left.size() == updates.size() ? entry : new Entry(rebuild(left, sequence(update)), entry.queuedAt()));
+        }
+        this.queue.clear();
+        for (int i = kept.size() - 1; i >= 0; i--) this.queue.add(kept.get(i));
+    }
+
+    /**
+     * Drops the queued chat messages, alone or inside a batch.
+     */
+    private void dropChat() {
+        List<Entry> kept = new ArrayList<>(this.queue.size());
+        for (Entry entry : this.queue) {
+            if (!(entry.message() instanceof UpdateMessage update)) {
+                kept.add(entry);
+                continue;
+            }
+            List<Object> updates = updates(update);
+            List<Object> left = updates.stream().filter(object -> !(object instanceof ChatMessage)).toList();
+            if (left.isEmpty()) continue;
+            kept.add(left.size() == updates.size() ? entry : new Entry(rebuild(left, sequence(update)), entry.queuedAt()));
+        }
+        this.queue.clear();
+        this.queue.addAll(kept);
+    }
+
+    private static List<Object> updates(UpdateMessage update) {
+        if (update.getBatch() != null) return update.getBatch().getUpdates();
+        if (update.getBoard() != null) return List.of(update.getBoard());
+        if (update.getBoardDelta() != null) return List.of(update.getBoardDelta());
+        if (update.getPlayer() != null) return List.of(update.getPlayer());
+        if (update.getCommonGoal() != null) return List.of(update.getCommonGoal());
+        if (update.getMessage() != null) return List.of(update.getMessage());
+        return List.of();
+    }
+
+    private static long sequence(UpdateMessage update) {
+        return update.getBatch() != null ? update.getBatch().getSequence() : 0;
+    }
+
+    private static UpdateMessage rebuild(List<Object> updates, long sequence) {
+        if (sequence > 0) return UpdateMessage.of(new MockBatch(updates, sequence));
+        return UpdateMessage.of(updates.size() > 1 ? new MockBatch(updates) : updates.get(0));
+    }
+}
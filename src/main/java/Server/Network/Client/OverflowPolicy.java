@@ -0,0 +1,33 @@
+package Server.Network.Client;
+
+/**
+ * An enumeration representing what a connection does when its outbound buffer is full,
+ * because the client doesn't read as fast as the game produces messages.
+ * Whatever the policy, the client is disconnected if the buffer is still full after applying it.
+ */
+public enum OverflowPolicy {
+    /**
+     * The queued state updates superseded by newer ones are dropped (older boards, players and common goals,
+     * everything before a whole game), and the consecutive board deltas are merged.
+     */
+    COALESCE,
+    /**
+     * The queued chat messages are dropped.
+     */
+    DROP_CHAT,
+    /**
+     * Nothing is dropped, the client is disconnected as soon as the buffer is full.
+     */
+    DISCONNECT;
+
+    /**
+     * Returns the policy with the given command-line name.
+     *
+     * @param name "coalesce", "drop_chat" or "disconnect"
+     * @return the overflow policy
+     * @throws IllegalArgumentException if the name is not valid
+     */
+    public static OverflowPolicy fromString(String name) throws IllegalArgumentException {
+        return OverflowPolicy.valueOf(name.toUpperCase());
+    }
+}
@@ -0,0 +1,308 @@
+package Server.Network.Client;
+
+import Utils.SerialExecutor;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import static Server.ServerApp.executorService;
+import static Server.ServerApp.logger;
+
+/**
+ * The RemoteDispatcher class makes the calls of the server to its clients (remote views, scouts, remote clients)
+ * without making the caller wait: every call returns a future, completed when the client has answered.
+ * <p>
+ * The calls to the same client run one after the other, in the order they were made, on a bounded pool shared
+ * by all the clients. A call that fails, or takes longer than the deadline, fails its future and gives the client
+ * a strike, and so does every further deadline the call stays stuck; a call answered in time clears the strikes.
+ * A client that collects too many strikes, or too many waiting calls, is unresponsive: it's evicted,
+ * its waiting and future calls fail at once without calling it and its player is logged out, so it can't stall a game.
+ * A call stuck on an evicted client keeps its thread only until the socket of the client times out,
+ * see {@link Utils.TimeoutSocketFactory}.
+ * <p>
+ * A prompt, a call that waits for the player to type an answer, has no deadline and its failure gives no strike:
+ * the player takes as long as it needs, and a client that really stopped answering is logged out by the heartbeat.
+ */
+public class RemoteDispatcher {
+    /**
+     * The time a client has to answer a call, in milliseconds.
+     */
+    public static final long DEADLINE = 5000;
+    /**
+     * The number of strikes that makes a client unresponsive.
+     */
+    public static final int MAX_STRIKES = 3;
+    /**
+     * The maximum number of calls waiting for the same client.
+     */
+    public static final int MAX_PENDING = 256;
+
+    /**
+     * A call to a client.
+     *
+     * @param <T> the type of the client
+     */
+    @FunctionalInterface
+    public interface RemoteCall<T> {
+        /**
+         * Calls the client.
+         *
+         * @param target the client
+         * @throws RemoteException if a remote communication error occurs
+         */
+        void run(T target) throws RemoteException;
+    }
+
+    /**
+     * The state of a client: its calls, its strikes and the player it belongs to, once known.
+     */
+    private static final class Target {
+        private final SerialExecutor lane;
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * The futures of the calls waiting in the lane, failed at once if the client is evicted.
+         */
+        private final Set<CompletableFuture<Void>> waiting = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger strikes = new AtomicInteger();
+        private volatile boolean evicted;
+        private volatile String playerID;
+        private volatile String lobbyID;
+
+        private Target(Executor executor) {
+            this.lane = new SerialExecutor(executor);
+        }
+    }
+
+    private final Executor executor;
+    private final ScheduledExecutorService watchdog;
+    private final long deadline;
+    private final int maxStrikes;
+    private final int maxPending;
+    private final BiConsumer<String, String> evict;
+    /**
+     * The clients, forgotten when nothing refers to them any more.
+     */
+    private final Map<Object, Target> targets;
+
+    private final LongAdder calls;
+    private final LongAdder failures;
+    private final LongAdder timeouts;
+    private final LongAdder evictions;
+
+    /**
+     * Creates a dispatcher with the default deadline and limits.
+     *
+     * @param executor the bounded executor that runs the calls
+     * @param evict    what to do with the player of an unresponsive client, given its ID and the ID of its lobby
+     */
+    public RemoteDispatcher(Executor executor, BiConsumer<String, String> evict) {
+        this(executor, DEADLINE, MAX_STRIKES, MAX_PENDING, evict);
+    }
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param executor   the bounded executor that runs the calls
+     * @param deadline   the time a client has to answer a call, in milliseconds
+     * @param maxStrikes the number of strikes that makes a client unresponsive
+     * @param maxPending the maximum number of calls waiting for the same client
+     * @param evict      what to do with the player of an unresponsive client, given its ID and the ID of its lobby
+     */
+    public RemoteDispatcher(Executor executor, long deadline, int maxStrikes, int maxPending, BiConsumer<String, String> evict) {
+        this.executor = executor;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dispatch-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deadline = deadline;
+        this.maxStrikes = maxStrikes;
+        this.maxPending = maxPending;
+        this.evict = evict;
+        this.targets = Collections.synchronizedMap(new WeakHashMap<>());
+        this.calls = new LongAdder();
+        this.failures = new LongAdder();
+        this.timeouts = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * Binds a client to its player, so the player is logged out if the client becomes unresponsive.
+     * A client binding again, because the player logged in again, gets a clean record.
+     *
+     * @param target   the client
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     */
+    public void watch(Remote target, String playerID, String lobbyID) {
+        Target state = target(target);
+        state.playerID = playerID;
+        state.lobbyID = lobbyID;
+        state.strikes.set(0);
+        state.evicted = false;
+    }
+
+    /**
+     * Calls a client after its previous calls, without waiting for the answer.
+     *
+     * @param target the client
+     * @param call   the call
+     * @param <T>    the type of the client
+     * @return the future completed when the client has answered, or failed if it didn't answer in time
+     */
+    public <T extends Remote> CompletableFuture<Void> call(T target, RemoteCall<? super T> call) {
+        return call(target, call, true);
+    }
+
+    /**
+     * Asks the player of a client for an answer, after the previous calls of the client, without waiting for it.
+     * The call has no deadline and doesn't count against the client if it fails.
+     *
+     * @param target the client
+     * @param call   the call that shows the prompt
+     * @param <T>    the type of the client
+     * @return the future completed when the client has answered, or failed if the call failed
+     */
+    public <T extends Remote> CompletableFuture<Void> prompt(T target, RemoteCall<? super T> call) {
+        return call(target, call, false);
+    }
+
+    private <T extends Remote> CompletableFuture<Void> call(T target, RemoteCall<? super T> call, boolean watched) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Target state = target(target);
+        if (state.evicted) {
+            future.completeExceptionally(new RemoteException("Unresponsive client"));
+            return future;
+        }
+        if (state.pending.incrementAndGet() > this.maxPending) {
+            state.pending.decrementAndGet();
+            evict(state, "too many calls waiting");
+            future.completeExceptionally(new RemoteException("Unresponsive client"));
+            return future;
+        }
+        state.waiting.add(future);
+        // an eviction that came in between has already failed the waiting calls
+        if (state.evicted) {
+            state.waiting.remove(future);
+            state.pending.decrementAndGet();
+            future.completeExceptionally(new RemoteException("Unresponsive client"));
+            return future;
+        }
+        this.calls.increment();
+        state.lane.execute(() -> run(target, state, call, future, watched));
+        return future;
+    }
+
+    private <T> void run(T target, Target state, RemoteCall<? super T> call, CompletableFuture<Void> future, boolean watched) {
+        state.pending.decrementAndGet();
+        state.waiting.remove(future);
+        if (state.evicted || future.isDone()) {
+            future.completeExceptionally(new RemoteException("Unresponsive client"));
+            return;
+        }
+        Watch watch = watched ? new Watch(state, future) : null;
+        try {
+            call.run(target);
+            if (future.complete(null)) state.strikes.set(0);
+        } catch (RemoteException | RuntimeException e) {
+            this.failures.increment();
+            if (future.completeExceptionally(e) && watched) strike(state, "failing: " + e.getMessage());
+        } finally {
+            if (watch != null) watch.cancel();
+        }
+    }
+
+    /**
+     * The timer of a running call: every deadline the call stays stuck it gives the client a strike,
+     * until the call returns or the client is evicted.
+     */
+    private final class Watch implements Runnable {
+        private final Target state;
+        private final CompletableFuture<Void> future;
+        private volatile ScheduledFuture<?> timer;
+        private volatile boolean finished;
+
+        private Watch(Target state, CompletableFuture<Void> future) {
+            this.state = state;
+            this.future = future;
+            this.timer = watchdog.schedule(this, deadline, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            if (this.finished || this.state.evicted) return;
+            if (this.future.completeExceptionally(new TimeoutException("No answer in " + deadline + " ms")))
+                timeouts.increment();
+            strike(this.state, "not answering");
+            if (!this.state.evicted) this.timer = watchdog.schedule(this, deadline, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancel() {
+            this.finished = true;
+            this.timer.cancel(false);
+        }
+    }
+
+    private void strike(Target state, String reason) {
+        if (state.strikes.incrementAndGet() >= this.maxStrikes) evict(state, reason);
+    }
+
+    private Target target(Object target) {
+        return this.targets.computeIfAbsent(target, key -> new Target(this.executor));
+    }
+
+    private void evict(Target state, String reason) {
+        synchronized (state) {
+            if (state.evicted) return;
+            state.evicted = true;
+        }
+        for (CompletableFuture<Void> future : state.waiting)
+            future.completeExceptionally(new RemoteException("Unresponsive client"));
+        state.waiting.clear();
+        this.evictions.increment();
+        String playerID = state.playerID, lobbyID = state.lobbyID;
+        logger.warning("Evicting the client of " + (playerID != null ? playerID : "an anonymous player") + ": " + reason);
+        if (playerID != null) executorService.execute(() -> this.evict.accept(playerID, lobbyID));
+    }
+
+    /**
+     * Returns the number of calls made.
+     *
+     * @return the number of calls
+     */
+    public long getCalls() {
+        return this.calls.sum();
+    }
+
+    /**
+     * Returns the number of calls that didn't answer in time.
+     *
+     * @return the number of timeouts
+     */
+    public long getTimeouts() {
+        return this.timeouts.sum();
+    }
+
+    /**
+     * Returns the number of clients evicted because they were unresponsive.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getCalls() + " calls, " + this.failures.sum() + " failed, " + getTimeouts() + " timed out, "
+                + getEvictions() + " clients evicted";
+    }
+}
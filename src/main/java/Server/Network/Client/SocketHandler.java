@@ -3,26 +3,27 @@ package Server.Network.Client;
 import Interface.Client.RemoteClient;
 import Interface.Client.RemoteView;
 import Interface.Scout;
+import Interface.SharedScout;
 import Interface.Server.GameCommand;
 import Messages.ClientMessage;
 import Messages.Server.Network.UpdateMessage;
 import Messages.Server.View.*;
 import Messages.Server.Network.PongMessage;
 import Messages.ServerMessage;
+import Messages.Wire.SharedMessage;
 import Server.ServerApp;
-import Utils.ChatMessage;
-import Utils.MockObjects.MockBoard;
-import Utils.MockObjects.MockCommonGoal;
 import Utils.MockObjects.MockModel;
-import Utils.MockObjects.MockPlayer;
 import Utils.Rank;
 import Utils.Tile;
 import Enumeration.GameWarning;
 
-import java.io.*;
-import java.net.Socket;
+import java.rmi.NoSuchObjectException;
+import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import static Server.ServerApp.executorService;
@@ -30,54 +31,139 @@ import static Server.ServerApp.logger;
 
 /**
  * This class represents the handler for each socket connection
- * It implements all the method that the server can call also on an RMI connection
+ * It implements all the method that the server can call also on an RMI connection,
+ * leaving to the subclasses how the messages are actually read from and written to the socket.
  */
-@SuppressWarnings({"rawtypes", "BlockingMethodInNonBlockingContext"})
-public class SocketHandler implements Runnable, RemoteView, RemoteClient, Scout {
-    private String playerID;
-    private final Socket socket;
-    @SuppressWarnings("FieldCanBeLocal")
-    private ObjectInputStream in;
-    private ObjectOutputStream out;
+@SuppressWarnings({"rawtypes"})
+public abstract class SocketHandler implements RemoteView, RemoteClient, Scout, SharedScout {
+    /**
+     * The open socket connections.
+     */
+    private static final Set<SocketHandler> connections = ConcurrentHashMap.newKeySet();
+    protected String playerID;
+    /**
+     * The lobby of the player, known after the login.
+     */
+    protected String lobbyID;
     private GameCommand controller;
+    /**
+     * The statistics of the outbound queue.
+     */
+    protected final ConnectionStats stats;
+    /**
+     * The messages waiting for the writer of the connection.
+     */
+    protected final OutboundBuffer outbound;
+    /**
+     * Tells if the connection was closed because the client couldn't keep up.
+     */
+    private final AtomicBoolean overflowed;
+    /**
+     * The stub of the connection, exported when a router passes it to a backend, null otherwise.
+     */
+    private Remote stub;
+    /**
+     * Tells if the connection was closed, it can't be exported any more.
+     */
+    private boolean closed;
 
     /**
-     * This constructor is used when the connection is a socket connection
-     * @param socket the socket to communicate with the client
+     * Creates a handler that is not yet bound to any game.
      */
-    public SocketHandler(Socket socket) {
+    protected SocketHandler() {
         this.controller = null;
-        this.socket = socket;
+        this.stats = new ConnectionStats();
+        this.outbound = new OutboundBuffer(ServerApp.outboundCapacity, ServerApp.overflowPolicy, this.stats);
+        this.overflowed = new AtomicBoolean(false);
     }
 
     /**
-     * Runs the SocketHandler thread.
-     * It sets up the input and output streams, and continuously listens for incoming messages from the client.
-     * When a message is received, it deserializes it and executes the corresponding action.
-     * If an IOException or ClassNotFoundException occurs, it throws a RuntimeException.
+     * Logs the outbound queue statistics of every open socket connection.
      */
-    @Override
-    public void run() {
-        try{
-            this.in = new ObjectInputStream(socket.getInputStream());
-            this.out = new ObjectOutputStream(socket.getOutputStream());
-            executorService.execute(()-> {
-                try {
-                    askPlayerInfo(ServerApp.lobby.getLobbyInfo());
-                } catch (RemoteException e) {
-                    ServerApp.logger.log(Level.SEVERE, e.getMessage());
-                }
-            });
-            //noinspection InfiniteLoopStatement
-            while (true) {
-                deserialize(in.readObject());
+    public static void printConnections() {
+        if (connections.isEmpty()) {
+            logger.info("No open socket connections");
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Open socket connections:\n");
+        for (SocketHandler connection : connections) {
+            sb.append("\t-\t").append(connection.describe()).append(": ").append(connection.stats)
+                    .append(", oldest queued ").append(connection.outbound.oldestAge()).append(" ms\n");
+        }
+        logger.info(sb.toString());
+    }
+
+    /**
+     * Removes the connection from the open ones, it must be called when the connection is closed.
+     */
+    protected void unregister() {
+        connections.remove(this);
+        synchronized (this) {
+            this.closed = true;
+            if (this.stub == null) return;
+            try {
+                UnicastRemoteObject.unexportObject(this, true);
+            } catch (NoSuchObjectException e) {
+                logger.severe(e.getMessage());
             }
-        } catch (IOException | ClassNotFoundException e) {
-            logger.severe(e.getMessage());
+            this.stub = null;
         }
     }
 
-    private void deserialize(Object message) {
+    /**
+     * Exports the connection, so the backend behind a router can call it with RMI.
+     * It's exported once, and unexported when it's closed.
+     *
+     * @return the stub of the connection
+     * @throws RemoteException if the connection can't be exported
+     */
+    public synchronized Remote export() throws RemoteException {
+        if (this.closed) throw new RemoteException(describe() + " is disconnected");
+        if (this.stub == null) this.stub = UnicastRemoteObject.exportObject(this, 0);
+        return this.stub;
+    }
+
+    /**
+     * Returns the name of the client, for the logs.
+     *
+     * @return the player ID, or a placeholder before the login
+     */
+    protected String describe() {
+        return this.playerID != null ? this.playerID : "anonymous client";
+    }
+
+    /**
+     * Returns the statistics of the outbound queue of the connection.
+     *
+     * @return the connection statistics
+     */
+    public ConnectionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Sends the lobby information to the client, it's the first message of every connection.
+     */
+    protected void greet() {
+        connections.add(this);
+        executorService.execute(()-> {
+            try {
+                ServerApp.front.getLobbyInfo(this);
+            } catch (RemoteException e) {
+                ServerApp.logger.log(Level.SEVERE, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Executes a message received from the client. Every message of a logged player keeps its session alive.
+     *
+     * @param message the deserialized message
+     */
+    protected void deserialize(Object message) {
+        String playerID = this.playerID, lobbyID = this.lobbyID;
+        // behind a router the game keeps the session alive on the backend
+        if (playerID != null && lobbyID != null && ServerApp.lobby != null) ServerApp.lobby.alive(playerID, lobbyID);
         if(message instanceof ClientMessage clientMessage){
             clientMessage.execute(this);
         } else logger.log(Level.SEVERE, "Message not recognized");
@@ -166,6 +252,7 @@ public class SocketHandler implements Runnable, RemoteView, RemoteClient, Scout
     @Override
     public void outcomeLogin(String localPlayer, String lobbyID) throws RemoteException {
         this.playerID = localPlayer;
+        this.lobbyID = lobbyID;
         ServerMessage message = new OutcomeLoginMessage(localPlayer, lobbyID);
         send(message);
     }
@@ -280,32 +367,49 @@ public class SocketHandler implements Runnable, RemoteView, RemoteClient, Scout
         });
     }
 
-    private synchronized void send(ServerMessage message) {
-        try {
-            this.out.writeObject(message);
-            this.out.flush();
-            this.out.reset();
-        } catch (IOException e) {
-            logOut();
-        }
+    /**
+     * Sends a message to the client: it's queued in the outbound buffer and written by the writer of the connection.
+     * If the buffer is full even after applying the overflow policy, the client is too slow:
+     * the connection is closed and the player is logged out of the game.
+     *
+     * @param message the message to send
+     */
+    protected void send(ServerMessage message) {
+        if (this.outbound.offer(message)) requestWrite();
+        else overflow();
     }
 
     /**
-     * Logs out the client by closing the socket connection.
-     * If an IOException occurs while closing the socket, it logs the error.
+     * Makes sure a writer is draining the outbound buffer.
      */
-    public void logOut() {
-        try {
-            socket.close();
-        } catch (IOException e) {
-            ServerApp.logger.log(Level.SEVERE, e.getMessage());
-        }
+    protected abstract void requestWrite();
+
+    private void overflow() {
+        if (!this.overflowed.compareAndSet(false, true)) return;
+        logger.severe(describe() + " can't keep up with the game (" + this.stats + "), disconnecting");
+        this.stats.dropped(this.outbound.clear());
+        logOut();
+        String playerID = this.playerID;
+        String lobbyID = this.lobbyID;
+        if (playerID == null || lobbyID == null) return;
+        executorService.execute(() -> {
+            try {
+                ServerApp.front.logOut(playerID, lobbyID);
+            } catch (RemoteException e) {
+                logger.severe(e.getMessage());
+            }
+        });
     }
 
+    /**
+     * Logs out the client by closing the connection.
+     */
+    public abstract void logOut();
+
     /**
      * Updates the client with the specified object.
      * Sends an UpdateMessage to the client based on the type of the object.
-     * If the object is of type MockBoard, MockPlayer, MockCommonGoal, or ChatMessage, it sends an UpdateMessage containing the object.
+     * If the object is of type MockBoard, MockBoardDelta, MockPlayer, MockCommonGoal, ChatMessage or MockBatch, it sends an UpdateMessage containing the object.
      * If the object is null or of an unknown type, it logs a severe-level message indicating the unknown object type.
      * If an exception occurs while sending the message, it logs the error.
      *
@@ -315,18 +419,24 @@ public class SocketHandler implements Runnable, RemoteView, RemoteClient, Scout
     @Override
     public void update(Object objects) throws RemoteException {
         try {
-            switch (objects) {
-                case MockBoard mockBoard -> send(new UpdateMessage(mockBoard));
-                case MockPlayer mockPlayer -> send(new UpdateMessage(mockPlayer));
-                case MockCommonGoal mockCommonGoal -> send(new UpdateMessage(mockCommonGoal));
-                case ChatMessage chatMessage -> send(new UpdateMessage(chatMessage));
-                case null, default -> ServerApp.logger.log(Level.SEVERE, "Unknown object type");
-            }
+            send(UpdateMessage.of(objects));
         } catch (Exception e) {
             ServerApp.logger.log(Level.SEVERE, e.getMessage());
         }
     }
 
+    /**
+     * Updates the client with a broadcast update.
+     * The framed connections write the bytes encoded once for every recipient, the legacy ones the message itself.
+     *
+     * @param message the update, encoded once for every recipient
+     */
+    @Override
+    public void updateShared(SharedMessage message) {
+        if (this.outbound.offer(message.getMessage(), message)) requestWrite();
+        else overflow();
+    }
+
     /**
      * Gets the game controller associated with the client.
      *
@@ -0,0 +1,221 @@
+package Server.Network.Client;
+
+import Interface.Server.GameCommand;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.AllGameMessage;
+import Messages.ServerMessage;
+import Server.ServerApp;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
+
+import java.io.*;
+import java.net.Socket;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+import static Server.ServerApp.connectionService;
+import static Server.ServerApp.executorService;
+import static Server.ServerApp.logger;
+
+/**
+ * This class represents the legacy, thread-per-connection socket handler.
+ * It blocks on the object stream of the client and writes every message with Java serialization.
+ * The messages to send are queued in the outbound buffer, and a single writer drains it,
+ * sending all the queued messages with one flush of the buffered stream.
+ * <p>
+ * A legacy client knows only the messages of the first release: the board deltas are turned back
+ * into whole boards, and the batches are split into one update message per update.
+ */
+@SuppressWarnings({"BlockingMethodInNonBlockingContext"})
+public class StreamSocketHandler extends SocketHandler implements Runnable {
+    private final Socket socket;
+    /**
+     * The bytes already consumed from the socket before the handler was created (e.g. while probing the handshake).
+     */
+    private final byte[] consumed;
+    @SuppressWarnings("FieldCanBeLocal")
+    private ObjectInputStream in;
+    private ObjectOutputStream out;
+    /**
+     * The size of the buffer of the output stream.
+     */
+    private static final int WRITE_BUFFER = 16 * 1024;
+    /**
+     * The maximum number of messages written with a single flush.
+     */
+    private static final int MAX_BATCH = 64;
+    /**
+     * Tells if a writer is draining the queue, there is at most one writer per connection.
+     */
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+    /**
+     * The last whole board written to the client, the base of the next board delta.
+     * It's shared with the game, so it's never modified: a delta gives a new board.
+     * Only the writer uses it.
+     */
+    private MockBoard board;
+    /**
+     * Tells if the whole board was asked to the game because a delta couldn't be applied.
+     */
+    private boolean boardRequested;
+
+    /**
+     * This constructor is used when the connection is a socket connection
+     * @param socket the socket to communicate with the client
+     */
+    public StreamSocketHandler(Socket socket) {
+        this(socket, new byte[0]);
+    }
+
+    /**
+     * This constructor is used when part of the stream was already read by someone else,
+     * those bytes are replayed before the ones still on the socket.
+     * @param socket   the socket to communicate with the client
+     * @param consumed the bytes already read from the socket
+     */
+    public StreamSocketHandler(Socket socket, byte[] consumed) {
+        super();
+        this.socket = socket;
+        this.consumed = consumed;
+    }
+
+    /**
+     * Runs the SocketHandler thread.
+     * It sets up the input and output streams, and continuously listens for incoming messages from the client.
+     * When a message is received, it deserializes it and executes the corresponding action.
+     * If an IOException or ClassNotFoundException occurs, it logs the error and closes the connection.
+     */
+    @Override
+    public void run() {
+        try{
+            this.in = new ObjectInputStream(new SequenceInputStream(new ByteArrayInputStream(consumed), socket.getInputStream()));
+            this.out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream(), WRITE_BUFFER));
+            this.out.flush();
+            greet();
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                deserialize(in.readObject());
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            logger.severe(e.getMessage());
+            logOut();
+        }
+    }
+
+    /**
+     * Starts a writer if none is draining the outbound buffer.
+     */
+    @Override
+    protected void requestWrite() {
+        if (this.writing.compareAndSet(false, true))
+            connectionService.execute(this::drain);
+    }
+
+    /**
+     * Writes the queued messages in batches, flushing once per batch, until the queue is empty.
+     * The stream is reset after every message, so a message never refers to an object sent before it.
+     */
+    private void drain() {
+        do {
+            int batch = 0;
+            try {
+                do {
+                    batch = 0;
+                    OutboundBuffer.Entry entry;
+                    while (batch < MAX_BATCH && (entry = this.outbound.poll()) != null) {
+                        batch++;
+                        for (ServerMessage message : downgrade(entry.message())) {
+                            this.out.writeObject(message);
+                            this.out.reset();
+                        }
+                    }
+                    if (batch > 0) {
+                        this.out.flush();
+                        this.stats.batchWritten(batch);
+                    }
+                } while (batch == MAX_BATCH);
+            } catch (IOException e) {
+                this.stats.dropped(batch + this.outbound.clear());
+                logOut();
+            } finally {
+                this.writing.set(false);
+            }
+        } while (!this.outbound.isEmpty() && !this.socket.isClosed() && this.writing.compareAndSet(false, true));
+    }
+
+    /**
+     * Turns a message into the messages a legacy client understands.
+     * A batch becomes one update message per update, a board delta becomes the whole board of its version;
+     * a delta that doesn't start from the last board written is dropped and the whole board is asked to the game.
+     *
+     * @param message the message to send
+     * @return the messages to write, in order
+     */
+    private List<ServerMessage> downgrade(ServerMessage message) {
+        List<ServerMessage> messages = new ArrayList<>();
+        switch (message) {
+            case AllGameMessage allGame -> {
+                if (allGame.getMockModel() != null) this.board = allGame.getMockModel().getMockBoard();
+                messages.add(message);
+            }
+            case UpdateMessage update -> downgrade(update, messages);
+            default -> messages.add(message);
+        }
+        return messages;
+    }
+
+    private void downgrade(UpdateMessage update, List<ServerMessage> messages) {
+        if (update.getBatch() != null) {
+            for (Object object : update.getBatch().getUpdates())
+                downgrade(UpdateMessage.of(object), messages);
+        } else if (update.getBoardDelta() != null) {
+            MockBoardDelta delta = update.getBoardDelta();
+            boolean known = this.board != null && this.board.getBoard() != null;
+            if (known && delta.getBaseVersion() == this.board.getVersion()) {
+                this.board = this.board.next(delta);
+                messages.add(new UpdateMessage(this.board));
+            } else if (!known || delta.getVersion() > this.board.getVersion()) requestBoard();
+        } else {
+            if (update.getBoard() != null) {
+                this.board = update.getBoard();
+                this.boardRequested = false;
+            }
+            messages.add(update);
+        }
+    }
+
+    /**
+     * Asks the game for the whole board, once until it arrives.
+     */
+    private void requestBoard() {
+        GameCommand controller = getGameController();
+        if (this.boardRequested || controller == null || this.playerID == null) return;
+        this.boardRequested = true;
+        String playerID = this.playerID;
+        executorService.execute(() -> {
+            try {
+                controller.requestBoard(playerID);
+            } catch (RemoteException e) {
+                logger.severe(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Logs out the client by closing the socket connection.
+     * If an IOException occurs while closing the socket, it logs the error.
+     */
+    @Override
+    public void logOut() {
+        unregister();
+        this.stats.dropped(this.outbound.clear());
+        try {
+            socket.close();
+        } catch (IOException e) {
+            ServerApp.logger.log(Level.SEVERE, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package Server.Network.Lobby;
+
+import Interface.Client.RemoteClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import static Server.ServerApp.dispatcher;
+import static Server.ServerApp.executorService;
+import static Server.ServerApp.logger;
+
+/**
+ * The Heartbeat class watches the players connected to the lobby, and logs out the ones that go silent.
+ * Any message received from a player proves it's alive, the clients ping only when the connection is quiet.
+ * <p>
+ * A message only writes the time it was received in the session of the player, without any lock.
+ * The sessions are kept in a hashed timing wheel turned by a single thread: every tick the thread looks
+ * at the sessions of the current slot, expires the ones silent for longer than the timeout and moves
+ * the others to the slot of their new deadline. So the cost of a ping doesn't depend on the number of players,
+ * and only one thread is needed however many players are connected.
+ */
+public class Heartbeat {
+    /**
+     * The time a player can stay silent before it's logged out, in milliseconds.
+     */
+    public static final long TIMEOUT = 10000;
+    /**
+     * The time between two turns of the wheel, in milliseconds.
+     */
+    public static final long TICK = 250;
+
+    private final long timeout;
+    private final long tick;
+    private final Map<Key, Session> sessions;
+    private final List<Queue<Session>> wheel;
+    private final ScheduledExecutorService sweeper;
+    private final AtomicInteger threads;
+    /**
+     * The start of the wheel, the ticks are counted from it.
+     */
+    private final long origin;
+    /**
+     * The last tick handled by the sweeper.
+     */
+    private volatile long current;
+    /**
+     * What to do with a player that stopped pinging, set once the owner of the heartbeat is built.
+     */
+    private volatile BiConsumer<String, String> expired;
+
+    private final LongAdder pings;
+    private final LongAdder pingNanos;
+    private final AtomicLong maxPingNanos;
+    private final LongAdder expirations;
+
+    private record Key(String playerID, String lobbyID) {
+    }
+
+    /**
+     * The session of a connected player.
+     */
+    private static final class Session {
+        private final Key key;
+        private final RemoteClient client;
+        private volatile long lastSeen;
+        private volatile boolean stopped;
+
+        private Session(Key key, RemoteClient client, long lastSeen) {
+            this.key = key;
+            this.client = client;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    /**
+     * Creates the heartbeat service of the lobby, with the default timeout.
+     */
+    public Heartbeat() {
+        this(TIMEOUT, TICK);
+    }
+
+    /**
+     * Creates a heartbeat service.
+     * The silent players are only forgotten until {@link #onExpired(BiConsumer)} says what to do with them.
+     *
+     * @param timeout the time a player can stay silent, in milliseconds
+     * @param tick    the time between two turns of the wheel, in milliseconds
+     */
+    public Heartbeat(long timeout, long tick) {
+        this.timeout = timeout;
+        this.tick = tick;
+        this.sessions = new ConcurrentHashMap<>();
+        // a deadline is never farther than the timeout, so it falls in the current turn of the wheel
+        int slots = (int) ((timeout + tick - 1) / tick) + 2;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) this.wheel.add(new ConcurrentLinkedQueue<>());
+        this.threads = new AtomicInteger();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                this.threads.incrementAndGet();
+                try {
+                    runnable.run();
+                } finally {
+                    this.threads.decrementAndGet();
+                }
+            }, "heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.origin = System.nanoTime();
+        this.current = 0;
+        this.pings = new LongAdder();
+        this.pingNanos = new LongAdder();
+        this.maxPingNanos = new AtomicLong();
+        this.expirations = new LongAdder();
+        this.sweeper.scheduleAtFixedRate(this::sweep, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets what to do with a player that stopped pinging.
+     *
+     * @param expired the action, given the ID of the player and the ID of its lobby
+     */
+    public void onExpired(BiConsumer<String, String> expired) {
+        this.expired = expired;
+    }
+
+    /**
+     * Starts watching a player, replacing its previous session if any.
+     *
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     * @param client   the remote client of the player
+     */
+    public void start(String playerID, String lobbyID, RemoteClient client) {
+        Key key = new Key(playerID, lobbyID);
+        Session session = new Session(key, client, now());
+        Session previous = this.sessions.put(key, session);
+        if (previous != null) previous.stopped = true;
+        schedule(session);
+    }
+
+    /**
+     * Records that a message of a player was received, so the player is alive.
+     *
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     */
+    public void touch(String playerID, String lobbyID) {
+        Session session = this.sessions.get(new Key(playerID, lobbyID));
+        if (session != null) session.lastSeen = now();
+    }
+
+    /**
+     * Records a ping of a player and answers it through the {@link Server.Network.Client.RemoteDispatcher}.
+     *
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     * @return false if the player isn't watched
+     */
+    public boolean received(String playerID, String lobbyID) {
+        long start = System.nanoTime();
+        Session session = this.sessions.get(new Key(playerID, lobbyID));
+        if (session == null) return false;
+        session.lastSeen = now();
+        dispatcher.call(session.client, client -> client.pong(playerID, lobbyID)).thenRun(() -> {
+            long nanos = System.nanoTime() - start;
+            this.pings.increment();
+            this.pingNanos.add(nanos);
+            this.maxPingNanos.accumulateAndGet(nanos, Math::max);
+        });
+        return true;
+    }
+
+    /**
+     * Stops watching a player.
+     *
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     */
+    public void stop(String playerID, String lobbyID) {
+        Session session = this.sessions.remove(new Key(playerID, lobbyID));
+        if (session != null) session.stopped = true;
+    }
+
+    /**
+     * Returns the remote client of a watched player.
+     *
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     * @return the remote client, null if the player isn't watched
+     */
+    public RemoteClient getClient(String playerID, String lobbyID) {
+        Session session = this.sessions.get(new Key(playerID, lobbyID));
+        return session == null ? null : session.client;
+    }
+
+    /**
+     * Stops the thread of the wheel, no player is logged out any more.
+     */
+    public void shutdown() {
+        this.sweeper.shutdownNow();
+    }
+
+    /**
+     * Returns the number of watched players.
+     *
+     * @return the number of sessions
+     */
+    public int getSessions() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Returns the number of threads used to expire the sessions.
+     *
+     * @return the number of live timer threads
+     */
+    public int getTimerThreads() {
+        return this.threads.get();
+    }
+
+    /**
+     * Returns the number of pings answered.
+     *
+     * @return the number of pings
+     */
+    public long getPings() {
+        return this.pings.sum();
+    }
+
+    /**
+     * Returns the average time from the arrival of a ping to its pong.
+     *
+     * @return the average latency in microseconds
+     */
+    public long getPingLatency() {
+        long pings = this.pings.sum();
+        return pings == 0 ? 0 : this.pingNanos.sum() / pings / 1000;
+    }
+
+    /**
+     * Returns the longest time from the arrival of a ping to its pong.
+     *
+     * @return the maximum latency in microseconds
+     */
+    public long getMaxPingLatency() {
+        return this.maxPingNanos.get() / 1000;
+    }
+
+    /**
+     * Returns the number of players logged out because they stopped pinging.
+     *
+     * @return the number of expired sessions
+     */
+    public long getExpirations() {
+        return this.expirations.sum();
+    }
+
+    private long now() {
+        return (System.nanoTime() - this.origin) / 1_000_000;
+    }
+
+    private void schedule(Session session) {
+        // never in the slot being swept, the sweeper would skip it for a whole turn
+        long deadline = Math.max((session.lastSeen + this.timeout + this.tick - 1) / this.tick, this.current + 1);
+        this.wheel.get((int) (deadline % this.wheel.size())).add(session);
+    }
+
+    /**
+     * Turns the wheel up to the current time, expiring the silent sessions of the passed slots.
+     */
+    private void sweep() {
+        try {
+            long now = now();
+            long target = now / this.tick;
+            while (this.current < target) {
+                long slot = this.current + 1;
+                Queue<Session> due = this.wheel.get((int) (slot % this.wheel.size()));
+                this.current = slot;
+                for (int size = due.size(); size > 0; size--) {
+                    Session session = due.poll();
+                    if (session == null) break;
+                    if (session.stopped) continue;
+                    if (now - session.lastSeen >= this.timeout) expire(session);
+                    else schedule(session);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.severe(e.getMessage());
+        }
+    }
+
+    private void expire(Session session) {
+        if (!this.sessions.remove(session.key, session)) return;
+        session.stopped = true;
+        this.expirations.increment();
+        BiConsumer<String, String> expired = this.expired;
+        if (expired != null) executorService.execute(() -> expired.accept(session.key.playerID(), session.key.lobbyID()));
+    }
+
+    @Override
+    public String toString() {
+        return getSessions() + " sessions, " + getTimerThreads() + " timer thread(s), " + getPings() + " pings answered in "
+                + getPingLatency() + " us on average (max " + getMaxPingLatency() + " us), " + getExpirations() + " expired";
+    }
+}
@@ -3,94 +3,164 @@ package Server.Network.Lobby;
 import Interface.Client.RemoteClient;
 import Interface.Server.LobbyInterface;
 import Interface.Client.RemoteView;
+import Interface.Server.ShardInterface;
 import Server.Controller.GameController;
+import Server.Journal.JournalRecord;
+import Server.Journal.MoveJournal;
+import Server.Model.GameSnapshot;
 import Server.Network.Client.ClientHandler;
 import Server.ServerApp;
-import Utils.MockObjects.MockFactory;
-import Utils.MockObjects.MockModel;
+import Utils.BackendLoad;
+import Utils.LobbyQuery;
 
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
-import static Server.ServerApp.executorService;
+import static Server.ServerApp.dispatcher;
 import static Server.ServerApp.logger;
 
 /**
  * The Lobby class represents the lobby system in the game server.
  * It manages player login, logout, lobby sizes, game initialization, and provides lobby information.
+ * <p>
+ * The lobbies and the games are kept in concurrent maps keyed by their ID, and there's no lock on the whole lobby:
+ * the operations on a lobby, or on the game it became, hold only the lock of its ID, taken from a fixed array of locks.
+ * So the players of different lobbies don't wait for each other, and a slow operation only blocks its own lobby.
+ * <p>
+ * Behind a router the lobby is a shard: the IDs it makes, of the quick-play queue and of its games, end with the name
+ * of the shard, so the router sends their players back to it.
  */
-public class Lobby extends UnicastRemoteObject implements LobbyInterface {
+public class Lobby extends UnicastRemoteObject implements LobbyInterface, ShardInterface {
+    /**
+     * The number of locks the lobby IDs are spread over, a power of two.
+     */
+    private static final int LOCKS = 64;
     /**
      * A mapping of lobby IDs to a mapping of player IDs to their respective client handlers.
+     * The players of a lobby are only changed holding the lock of its ID, they can be read without it.
      */
-    private final HashMap<String, HashMap<String, ClientHandler>> lobby;
+    private final Map<String, Map<String, ClientHandler>> lobby;
     /**
-     * A list of active games.
+     * A mapping of game IDs to the active games.
      */
-    private final List<GameController> games;
+    private final Map<String, GameController> games;
     /**
-     * A mapping of player-hashcode to their heartbeat timer.
+     * The sessions of the connected players, logged out when they stop pinging.
      */
-    private final HashMap<Integer, PingTimer> heartbeat;
+    private final Heartbeat heartbeat;
     /**
      * A mapping of lobby IDs to their respective lobby sizes.
      */
-    private final HashMap<String, Integer> lobbySize;
+    private final Map<String, Integer> lobbySize;
+    /**
+     * The index of the lobbies and games shown to the players, kept up to date by every change.
+     */
+    private final LobbyDirectory directory;
+    /**
+     * The quick-play queue, that seats the players at new games.
+     */
+    private final Matchmaker matchmaker;
+    /**
+     * The number of games started by the quick-play queue, it makes their IDs.
+     */
+    private final AtomicInteger matches;
+    /**
+     * The locks of the lobby IDs, an ID always gets the same lock.
+     */
+    private final Object[] locks;
+    /**
+     * The suffix of the IDs made by the lobby, the name of its shard behind a router, empty otherwise.
+     */
+    private volatile String shard;
 
     /**
      * Constructs a new instance of the Lobby class.
-     * Initializes the lobby, heartbeat, lobby size, and games.
+     * Initializes the lobby, heartbeat, lobby size, games, directory, quick-play queue and locks.
      *
      * @throws RemoteException if a communication error occurs during the remote method call
      */
     @SuppressWarnings("BlockingMethodInNonBlockingContext")
-    public Lobby() throws RemoteException {
+    private Lobby() throws RemoteException {
         super();
-        this.heartbeat = new HashMap<>();
-        this.lobby = new HashMap<>();
-        this.lobbySize = new HashMap<>();
-        this.games = new ArrayList<>();
+        this.heartbeat = new Heartbeat();
+        this.lobby = new ConcurrentHashMap<>();
+        this.lobbySize = new ConcurrentHashMap<>();
+        this.games = new ConcurrentHashMap<>();
+        this.directory = new LobbyDirectory();
+        this.matchmaker = new Matchmaker(this::startMatch);
+        this.matches = new AtomicInteger();
+        this.locks = new Object[LOCKS];
+        for (int i = 0; i < LOCKS; i++) this.locks[i] = new Object();
+        this.shard = "";
+    }
+
+    /**
+     * Creates a lobby, then tells its heartbeat to log out the silent players through it.
+     * The heartbeat is told only once the lobby is built, so it never calls a lobby half constructed.
+     *
+     * @return the new lobby
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    public static Lobby create() throws RemoteException {
+        Lobby lobby = new Lobby();
+        lobby.heartbeat.onExpired(lobby::expired);
+        return lobby;
+    }
+
+    private Object lockOf(String lobbyID) {
+        int hash = lobbyID.hashCode();
+        return this.locks[(hash ^ (hash >>> 16)) & (LOCKS - 1)];
     }
 
     /**
-     * Sends the lobby information to the specified remote view.
+     * Sends the first page of the lobby information to the specified remote view.
      *
      * @param remote the remote view to which the lobby information will be sent
      * @throws RemoteException if a communication error occurs during the remote method call
      */
     @Override
-    public synchronized void getLobbyInfo(RemoteView remote) throws RemoteException {
+    public void getLobbyInfo(RemoteView remote) throws RemoteException {
         askPlayerInfo(remote);
     }
 
     /**
-     * Retrieves the lobby information as a list of maps containing lobby and game details.
+     * Sends a page of the lobby information to the specified remote view.
      *
-     * @return a list of maps representing the lobby information. Each map contains lobby ID and player count, and game name and active player count.
+     * @param remote the remote view to which the lobby information will be sent
+     * @param query  the page to send and its filters
+     * @throws RemoteException if a communication error occurs during the remote method call
      */
-    public List<Map<String, String>> getLobbyInfo() {
-        if (!this.lobby.isEmpty() || !this.games.isEmpty()) {
-            List<Map<String, String>> lobbyInfo = new ArrayList<>();
-            Map<String, String> lobbies = new HashMap<>();
-            Map<String, String> games = new HashMap<>();
-            lobbyInfo.add(lobbies);
-            lobbyInfo.add(games);
-
-            // Retrieve lobby information
-            for (String lobbyID : this.lobby.keySet()) {
-                lobbies.put(lobbyID, this.lobby.get(lobbyID).size() + "/" + this.lobbySize.get(lobbyID));
-            }
+    @Override
+    public void getLobbyInfo(RemoteView remote, LobbyQuery query) throws RemoteException {
+        List<Map<String, String>> lobbyInfo = getLobbyInfo(query != null ? query : LobbyQuery.FIRST_PAGE);
+        dispatcher.prompt(remote, view -> view.askPlayerInfo(lobbyInfo));
+    }
 
-            // Retrieve game information
-            for (GameController game : this.games) {
-                games.put(game.getGameID(), game.activePlayers().size() + "/" + game.getPlayers().size());
-            }
+    /**
+     * Retrieves the first page of the lobby information, the one sent to a new connection.
+     *
+     * @return the lobby information, see {@link #getLobbyInfo(LobbyQuery)}
+     */
+    public List<Map<String, String>> getLobbyInfo() {
+        return getLobbyInfo(LobbyQuery.FIRST_PAGE);
+    }
 
-            return lobbyInfo;
-        } else return null;
+    /**
+     * Retrieves a page of the lobby information from the directory, without looking at the lobbies and games.
+     *
+     * @param query the page to retrieve and its filters
+     * @return a list of maps representing the lobby information: the lobby IDs and their player count, the game IDs
+     * and their active player count, and the description of the page; null if there are no lobbies nor games.
+     */
+    @Override
+    public List<Map<String, String>> getLobbyInfo(LobbyQuery query) {
+        return this.directory.page(query);
     }
 
     /**
@@ -102,38 +172,49 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
      * @param network  the remote client representing the player's network connection
      * @throws RemoteException if a communication error occurs during the remote method call
      */
-    public synchronized void login(String playerID, String lobbyID, RemoteView client, RemoteClient network) throws RemoteException {
-        GameController game = findGame(lobbyID);
-        if (game != null) rejoinGame(playerID, lobbyID, client, network, game);
-        else logInLobby(playerID, lobbyID, client, network);
-    }
-
-    public GameController findGame(String gameID) {
-        return this.games.stream().filter(game -> game.getGameID().equals(gameID)).findFirst().orElse(null);
+    public void login(String playerID, String lobbyID, RemoteView client, RemoteClient network) throws RemoteException {
+        login(playerID, lobbyID, NO_SEQUENCE, client, network);
     }
 
-    private void rejoinGame(String playerID, String lobbyID, RemoteView client, RemoteClient network, GameController gameController) {
-        if (!gameController.getPlayers().containsKey(playerID)) {
-            sendException(client, "Player is not in the game");
+    /**
+     * Handles the login process for a player, that resumes its game from the given sequence if it's still playing.
+     *
+     * @param playerID     the ID of the player logging in
+     * @param lobbyID      the ID of the lobby in which the player is logging in
+     * @param lastSequence the sequence of the last update of the game received by the player
+     * @param client       the remote view of the player
+     * @param network      the remote client representing the player's network connection
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    public void login(String playerID, String lobbyID, long lastSequence, RemoteView client, RemoteClient network) throws RemoteException {
+        if (isQueue(lobbyID)) {
+            sendException(client, "The lobby ID " + lobbyID + " is reserved to quick play");
             askPlayerInfo(client);
             return;
         }
-        if (gameController.getPlayers().get(playerID) != null) {
-            sendException(client, "Player is already playing");
-            askPlayerInfo(client);
-            return;
+        synchronized (lockOf(lobbyID)) {
+            GameController game = findGame(lobbyID);
+            if (game != null) rejoinGame(playerID, lobbyID, lastSequence, client, network, game);
+            else logInLobby(playerID, lobbyID, client, network);
         }
+    }
 
-        try {
-            gameController.rejoin(playerID, new ClientHandler(playerID, lobbyID, client));
-            client.outcomeLogin(playerID, lobbyID);
-            client.allGame(MockFactory.getMock(gameController.getGameModel()).clone());
-            startTimer(playerID, lobbyID, network);
-            network.setGameController(gameController);
-            logger.info(lobbyID + " re-registered player: " + playerID);
-        } catch (RemoteException e) {
-            logger.log(Level.SEVERE, e.getMessage());
-        }
+    /**
+     * Returns the active game with the given ID.
+     *
+     * @param gameID the ID of the game
+     * @return the game, null if there's no active game with that ID
+     */
+    public GameController findGame(String gameID) {
+        return this.games.get(gameID);
+    }
+
+    private void rejoinGame(String playerID, String lobbyID, long lastSequence, RemoteView client, RemoteClient network, GameController gameController) {
+        // the game checks the player on its mailbox, after the events queued before
+        gameController.rejoin(playerID, lastSequence, new ClientHandler(playerID, lobbyID, client), network).thenAccept(rejoined -> {
+            if (rejoined) startTimer(playerID, lobbyID, client, network);
+            else askPlayerInfo(client);
+        });
     }
 
     private void logInLobby(String playerID, String lobbyID, RemoteView client, RemoteClient network) throws RemoteException {
@@ -148,49 +229,94 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
         }
 
         this.lobby.get(lobbyID).put(playerID, new ClientHandler(playerID, lobbyID, client));
+        listLobby(lobbyID);
         logger.info(lobbyID + " registered new player: " + playerID);
-        executorService.execute(() -> {
-            try {
-                client.outcomeLogin(playerID, lobbyID);
-            } catch (RemoteException e) {
-                ServerApp.logger.severe(e.getMessage());
-            }
-        });
-        startTimer(playerID, lobbyID, network);
+        startTimer(playerID, lobbyID, client, network);
+        dispatcher.call(client, view -> view.outcomeLogin(playerID, lobbyID));
         startGame(lobbyID);
     }
 
     private void createLobby(String lobbyID, String playerID, RemoteView client, RemoteClient network) throws RemoteException {
-        this.lobby.put(lobbyID, new HashMap<>());
-        this.lobby.get(lobbyID).put(playerID, new ClientHandler(playerID, lobbyID, client));
-        executorService.execute(() -> {
-            try {
-                client.outcomeLogin(playerID, lobbyID);
-                logger.info(playerID + " created new lobby called: " + lobbyID);
-            } catch (RemoteException e) {
-                logger.severe(e.getMessage());
-            }
-        });
-        startTimer(playerID, lobbyID, network);
+        Map<String, ClientHandler> players = new ConcurrentHashMap<>();
+        players.put(playerID, new ClientHandler(playerID, lobbyID, client));
+        this.lobby.put(lobbyID, players);
+        listLobby(lobbyID);
+        startTimer(playerID, lobbyID, client, network);
+        dispatcher.call(client, view -> view.outcomeLogin(playerID, lobbyID))
+                .thenRun(() -> logger.info(playerID + " created new lobby called: " + lobbyID));
         firstPlayer(lobbyID, client);
     }
 
     private void firstPlayer(String lobbyID, RemoteView client) throws RemoteException {
-        if (this.lobbySize.get(lobbyID) == null) {
-            executorService.submit(() -> {
-                try {
-                    client.askLobbySize();
-                } catch (RemoteException e) {
-                    throw new RuntimeException(e);
+        if (this.lobbySize.get(lobbyID) == null) askLobbySize(client);
+    }
+
+    /**
+     * Puts a player in the quick-play queue, it will be seated at a new game with other queued players.
+     *
+     * @param playerID      the ID of the player
+     * @param preferredSize the size of the table the player prefers, between 2 and 4, or {@link Matchmaker#ANY}
+     * @param client        the remote view of the player
+     * @param network       the remote client representing the player's network connection
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void quickPlay(String playerID, int preferredSize, RemoteView client, RemoteClient network) throws RemoteException {
+        if (!Matchmaker.isValid(preferredSize)) {
+            sendException(client, "Table size must be between 2 and 4, or any");
+            askPlayerInfo(client);
+            return;
+        }
+        if (!this.matchmaker.enqueue(playerID, preferredSize, client, network)) {
+            sendException(client, "PlayerID already in the queue");
+            askPlayerInfo(client);
+            return;
+        }
+        String queueID = Matchmaker.QUEUE_ID + this.shard;
+        startTimer(playerID, queueID, client, network);
+        dispatcher.call(client, view -> view.outcomeLogin(playerID, queueID));
+        logger.info(playerID + " joined the quick-play queue for " + (preferredSize == Matchmaker.ANY ? "any table" : "a table of " + preferredSize));
+    }
+
+    /**
+     * Starts the game of a table formed by the matcher, under a new game ID.
+     */
+    private void startMatch(List<Matchmaker.Ticket> table) {
+        while (true) {
+            String gameID = "quick-" + this.matches.incrementAndGet() + this.shard;
+            synchronized (lockOf(gameID)) {
+                // a named lobby can already have the ID
+                if (this.lobby.containsKey(gameID) || this.games.containsKey(gameID)) continue;
+                HashMap<String, ClientHandler> players = new HashMap<>();
+                for (Matchmaker.Ticket ticket : table) {
+                    players.put(ticket.playerID(), new ClientHandler(ticket.playerID(), gameID, ticket.view()));
+                    deleteTimer(ticket.playerID(), Matchmaker.QUEUE_ID + this.shard);
+                    startTimer(ticket.playerID(), gameID, ticket.view(), ticket.network());
+                    dispatcher.call(ticket.view(), view -> view.outcomeLogin(ticket.playerID(), gameID));
+                }
+                if (launch(gameID, players) == null) {
+                    for (Matchmaker.Ticket ticket : table) {
+                        deleteTimer(ticket.playerID(), gameID);
+                        sendException(ticket.view(), "Error creating game");
+                        askPlayerInfo(ticket.view());
+                    }
                 }
-            });
+                return;
+            }
         }
     }
 
-    private void startTimer(String playerID, String lobbyID, RemoteClient client) {
-        int hash = Objects.hash(playerID, lobbyID);
-        this.heartbeat.put(hash, new PingTimer(playerID, lobbyID, client));
-        this.heartbeat.get(hash).start();
+    /**
+     * Tells if an ID is the one of the quick-play queue, of this lobby or of any shard.
+     */
+    private boolean isQueue(String lobbyID) {
+        return lobbyID.equals(Matchmaker.QUEUE_ID) || lobbyID.startsWith(Matchmaker.QUEUE_ID + SEPARATOR);
+    }
+
+    private void startTimer(String playerID, String lobbyID, RemoteView view, RemoteClient client) {
+        this.heartbeat.start(playerID, lobbyID, client);
+        dispatcher.watch(view, playerID, lobbyID);
+        dispatcher.watch(client, playerID, lobbyID);
     }
 
     /**
@@ -202,7 +328,13 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
      * @throws RemoteException if a communication error occurs during the remote method call
      */
     @Override
-    public synchronized void setLobbySize(String playerID, String lobbyID, int lobbySize) throws RemoteException {
+    public void setLobbySize(String playerID, String lobbyID, int lobbySize) throws RemoteException {
+        synchronized (lockOf(lobbyID)) {
+            resizeLobby(playerID, lobbyID, lobbySize);
+        }
+    }
+
+    private void resizeLobby(String playerID, String lobbyID, int lobbySize) {
         if (!this.lobby.containsKey(lobbyID)) {
             logger.severe("Lobby " + lobbyID + " does not exist");
             return;
@@ -223,6 +355,7 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
         }
 
         this.lobbySize.put(lobbyID, lobbySize);
+        listLobby(lobbyID);
         logger.info("Setting lobby-size to " + lobbySize + "\tfor lobby: " + lobbyID);
         startGame(lobbyID);
     }
@@ -232,32 +365,39 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
     }
 
     private void askLobbySize(RemoteView client) {
-        executorService.submit(() -> {
-            try {
-                client.askLobbySize();
-            } catch (RemoteException e) {
-                logger.log(Level.SEVERE, e.getMessage());
-            }
-        });
+        dispatcher.prompt(client, RemoteView::askLobbySize);
     }
 
     /**
      * Receives a ping message from the specified player in the given lobby, indicating that the player is still active.
+     * It doesn't lock the lobby, the heartbeat only records the time of the ping.
      *
      * @param playerID the ID of the player
      * @param lobbyID  the ID of the lobby
      * @throws RemoteException if a communication error occurs during the remote method call
      */
     @Override
-    public synchronized void ping(String playerID, String lobbyID) throws RemoteException {
-        int hash = Objects.hash(playerID, lobbyID);
-        executorService.execute(() -> {
-            try {
-                this.heartbeat.get(hash).receivedPing();
-            } catch (Exception e) {
-                ServerApp.logger.severe(e.getMessage());
-            }
-        });
+    public void ping(String playerID, String lobbyID) throws RemoteException {
+        if (!this.heartbeat.received(playerID, lobbyID))
+            logger.severe("Ping from " + playerID + " in " + lobbyID + " without a session");
+    }
+
+    /**
+     * Records that a message of the specified player was received, so it doesn't need to ping.
+     *
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     */
+    public void alive(String playerID, String lobbyID) {
+        this.heartbeat.touch(playerID, lobbyID);
+    }
+
+    private void expired(String playerID, String lobbyID) {
+        try {
+            logOut(playerID, lobbyID);
+        } catch (RemoteException e) {
+            logger.severe(e.getMessage());
+        }
     }
 
 
@@ -269,21 +409,36 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
      * @throws RemoteException if a communication error occurs during the remote method call
      */
     @Override
-    public synchronized void logOut(String playerID, String lobbyID) throws RemoteException {
+    public void logOut(String playerID, String lobbyID) throws RemoteException {
         ServerApp.logger.info("Logout for " + playerID + "\tin " + lobbyID);
+        synchronized (lockOf(lobbyID)) {
+            leave(playerID, lobbyID);
+        }
+    }
+
+    private void leave(String playerID, String lobbyID) {
+        if (isQueue(lobbyID)) {
+            deleteTimer(playerID, lobbyID);
+            // not in the queue any more if it was just seated, its game will log it out when it stops pinging
+            this.matchmaker.cancel(playerID);
+            return;
+        }
 
         GameController game = findGame(lobbyID);
         if (game != null) {
+            deleteTimer(playerID, lobbyID);
             game.logOut(playerID);
             return;
         }
 
         if (this.lobby.containsKey(lobbyID)) {
+            deleteTimer(playerID, lobbyID);
             this.lobby.get(lobbyID).remove(playerID);
             if (this.lobby.get(lobbyID).isEmpty()) {
                 this.lobby.remove(lobbyID);
                 this.lobbySize.remove(lobbyID);
-            }
+                this.directory.removeLobby(lobbyID);
+            } else listLobby(lobbyID);
             return;
         }
 
@@ -292,42 +447,77 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
     }
 
     private void deleteTimer(String playerID, String lobbyID) {
-        int hash = Objects.hash(playerID, lobbyID);
-        PingTimer interrupter = this.heartbeat.remove(hash);
-        if (interrupter != null) interrupter.interrupt();
+        this.heartbeat.stop(playerID, lobbyID);
     }
 
     private void startGame(String lobbyID) {
-        if (!(this.lobby.get(lobbyID).size() == this.lobbySize.get(lobbyID)) && !(this.lobby.get(lobbyID).size() == 4))
+        int players = this.lobby.get(lobbyID).size();
+        Integer lobbySize = this.lobbySize.get(lobbyID);
+        // without a size, the lobby starts only when it's full
+        if (players != (lobbySize != null ? lobbySize : 4) && players != 4)
             return;
 
+        if (launch(lobbyID, new HashMap<>(this.lobby.get(lobbyID))) == null) return;
+        this.directory.removeLobby(lobbyID);
+        this.lobby.remove(lobbyID);
+        this.lobbySize.remove(lobbyID);
+    }
+
+    /**
+     * Creates and starts a game, it must be called holding the lock of the game ID.
+     *
+     * @return the game, null if it couldn't be created
+     */
+    private GameController launch(String gameID, HashMap<String, ClientHandler> players) {
         GameController game;
         try {
-            game = new GameController(lobbyID, this.lobby.get(lobbyID));
+            game = new GameController(gameID, players);
         } catch (RemoteException e) {
             logger.severe("Error creating game");
-            return;
+            return null;
         }
 
-        this.games.add(game);
-        sendGame(game);
-        this.lobby.remove(lobbyID);
-        this.lobbySize.remove(lobbyID);
-        logger.info("Game started for lobby " + lobbyID + " with [" + game.activePlayers().stream().map(ClientHandler::playerID).collect(Collectors.joining(", ")) + "]");
+        this.games.put(gameID, game);
+        this.directory.putGame(gameID, game.activePlayers().size(), game.getPlayers().size());
+        game.execute(() -> sendGame(game));
+        logger.info("Game started for lobby " + gameID + " with [" + game.activePlayers().stream().map(ClientHandler::playerID).collect(Collectors.joining(", ")) + "]");
+        return game;
     }
 
     private void sendGame(GameController game) {
-        executorService.execute(() -> {
-            MockModel model = MockFactory.getMock(game.getGameModel());
-            for (ClientHandler client : game.activePlayers()) {
-                try {
-                    client.remoteView().allGame(model.clone());
-                    this.heartbeat.get(Objects.hash(client.playerID(), game.getGameID())).getClient().setGameController(game);
-                } catch (RemoteException e) {
-                    logger.severe("Error sending gameController to player");
-                }
+        for (ClientHandler client : game.activePlayers()) {
+            GameSnapshot snapshot = game.getGameModel().resume(client.playerID(), NO_SEQUENCE);
+            RemoteClient network = this.heartbeat.getClient(client.playerID(), game.getGameID());
+            CompletableFuture<Void> sent = dispatcher.call(client.remoteView(), view -> view.allGame(snapshot.model()));
+            // the session ended before the game started, the player will get the game when it logs in again
+            if (network != null) sent.thenRun(() -> dispatcher.call(network, remote -> remote.setGameController(game)));
+        }
+    }
+
+    /**
+     * Puts back the games that were running when the server stopped, rebuilt from the journal.
+     * Their players are offline, they rejoin the games by logging in as usual.
+     *
+     * @param journal the journal of the server, just opened
+     * @return the number of games put back
+     */
+    public int recover(MoveJournal journal) {
+        long start = System.nanoTime();
+        int recovered = 0;
+        for (List<JournalRecord> records : journal.getRecovered().values()) {
+            try {
+                GameController game = GameController.recover(records);
+                if (game == null) continue;
+                this.games.put(game.getGameID(), game);
+                this.directory.putGame(game.getGameID(), 0, game.getPlayers().size());
+                recovered++;
+            } catch (RemoteException | RuntimeException e) {
+                logger.severe("Game " + records.get(0).gameID() + " not recovered: " + e);
             }
-        });
+        }
+        logger.info("Recovered " + recovered + " games of " + journal.getRecovered().size() + " from the journal in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return recovered;
     }
 
     /**
@@ -335,6 +525,11 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
      */
     public void printLobbyStatus() {
         logger.log(Level.CONFIG, "------------------------------------------Lobby status------------------------------------------");
+        logger.info("Heartbeat: " + this.heartbeat);
+        logger.info("Remote calls: " + dispatcher);
+        logger.info("Directory: " + this.directory);
+        logger.info("Quick play: " + this.matchmaker);
+        if (ServerApp.journal != null) logger.info("Journal: " + ServerApp.journal);
         if (lobby.isEmpty() && games.isEmpty()) {
             logger.info("No active lobbies or games");
             return;
@@ -343,16 +538,19 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
         if (!lobby.isEmpty()) {
             sb.append("Active lobbies:\n");
             for (String lobbyID : lobby.keySet()) {
-                sb.append("\t-\t").append(lobbyID).append(" with ").append(lobby.get(lobbyID).size()).append(" players\n\t\t[");
-                sb.append(this.lobby.get(lobbyID).keySet()).append("]\n");
+                Map<String, ClientHandler> players = this.lobby.get(lobbyID);
+                if (players == null) continue;
+                sb.append("\t-\t").append(lobbyID).append(" with ").append(players.size()).append(" players\n\t\t[");
+                sb.append(players.keySet()).append("]\n");
             }
             logger.info(sb.toString());
         }
         if (!games.isEmpty()) {
             sb = new StringBuilder();
             sb.append("Active games:\n");
-            for (GameController game : games) {
-                sb.append("\t-\t").append(game.getGameID()).append(" with ").append(game.activePlayers().size()).append(" players\n\t\t[");
+            for (GameController game : games.values()) {
+                sb.append("\t-\t").append(game.getGameID()).append(" with ").append(game.activePlayers().size()).append(" players, ")
+                        .append(game.pending()).append(" events queued\n\t\t[");
                 sb.append(game.activePlayers().stream().map(ClientHandler::playerID).collect(Collectors.joining(", "))).append("]\n");
             }
             logger.info(sb.toString());
@@ -360,33 +558,60 @@ public class Lobby extends UnicastRemoteObject implements LobbyInterface {
     }
 
     /**
-     * It removes the ended game from the list of games
+     * It removes the ended game from the active games
      *
      * @param game the game that has ended
      */
     @SuppressWarnings("BlockingMethodInNonBlockingContext")
     public void endGame(GameController game) {
-        logger.info("Game " + game.getGameID() + " ended");
-        this.games.remove(game);
+        if (this.games.remove(game.getGameID(), game)) {
+            this.directory.removeGame(game.getGameID());
+            logger.info("Game " + game.getGameID() + " ended");
+        }
+    }
+
+    /**
+     * Updates the players online of a game in the directory, it's called by the mailbox of the game.
+     *
+     * @param game the game that lost or got back a player
+     */
+    public void updateGame(GameController game) {
+        if (this.games.get(game.getGameID()) == game)
+            this.directory.putGame(game.getGameID(), game.activePlayers().size(), game.getPlayers().size());
+    }
+
+    /**
+     * Sets the name of the shard of the lobby, given by the router it reports to.
+     * The quick-play queue and the games made from now on have IDs ending with it.
+     *
+     * @param shard the name of the shard
+     */
+    public void setShard(String shard) {
+        if (this.shard.equals(SEPARATOR + shard)) return;
+        this.shard = SEPARATOR + shard;
+        logger.info("Shard " + shard + " of the router");
+    }
+
+    /**
+     * Returns the load of the lobby, reported to the router.
+     *
+     * @param address the RMI address of the server
+     * @return the load of the lobby
+     */
+    public BackendLoad getLoad(String address) {
+        return new BackendLoad(address, this.heartbeat.getSessions(), this.directory.getLobbies(), this.directory.getGames(), this.matchmaker.getQueued());
+    }
+
+    private void listLobby(String lobbyID) {
+        this.directory.putLobby(lobbyID, this.lobby.get(lobbyID).size(), this.lobbySize.get(lobbyID));
     }
 
     private void sendException(RemoteView client, String message) {
-        executorService.execute(() -> {
-            try {
-                client.outcomeException(new RuntimeException(message));
-            } catch (RemoteException e) {
-                logger.log(Level.SEVERE, e.getMessage());
-            }
-        });
+        dispatcher.call(client, view -> view.outcomeException(new RuntimeException(message)));
     }
 
     private void askPlayerInfo(RemoteView client) {
-        executorService.execute(() -> {
-            try {
-                client.askPlayerInfo(getLobbyInfo());
-            } catch (RemoteException e) {
-                logger.log(Level.SEVERE, e.getMessage());
-            }
-        });
+        List<Map<String, String>> lobbyInfo = getLobbyInfo();
+        dispatcher.prompt(client, view -> view.askPlayerInfo(lobbyInfo));
     }
 }
\ No newline at end of file
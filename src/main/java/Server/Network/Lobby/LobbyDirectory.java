@@ -0,0 +1,170 @@
+package Server.Network.Lobby;
+
+import Utils.LobbyQuery;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * The LobbyDirectory class is the index of the lobbies and the games shown to the players that are logging in.
+ * It's updated when a lobby is created, joined, left or sized, and when a game starts, loses or gets back a player
+ * or ends, so a listing is formatted once per change instead of once per request.
+ * <p>
+ * The lobbies, and then the games, are sorted by ID: a page is read starting after the last entry of the previous one,
+ * so its cost depends on the size of the page and not on the number of lobbies and games on the server.
+ */
+public class LobbyDirectory {
+    /**
+     * The maximum number of entries in a page.
+     */
+    public static final int MAX_PAGE_SIZE = 50;
+    /**
+     * The number of players of a full lobby.
+     */
+    private static final int MAX_PLAYERS = 4;
+
+    /**
+     * A lobby or a game, with its information already formatted.
+     *
+     * @param players the players in the lobby, or the online players of the game
+     * @param size    the size of the lobby, or the players of the game, null if not chosen yet
+     * @param info    the information shown to the players
+     */
+    private record Listing(int players, Integer size, String info) {
+    }
+
+    private final ConcurrentNavigableMap<String, Listing> lobbies;
+    private final ConcurrentNavigableMap<String, Listing> games;
+    private final AtomicInteger lobbyCount;
+    private final AtomicInteger gameCount;
+
+    /**
+     * Creates an empty directory.
+     */
+    public LobbyDirectory() {
+        this.lobbies = new ConcurrentSkipListMap<>();
+        this.games = new ConcurrentSkipListMap<>();
+        this.lobbyCount = new AtomicInteger();
+        this.gameCount = new AtomicInteger();
+    }
+
+    /**
+     * Adds or updates a lobby. The changes of a lobby must not run concurrently.
+     *
+     * @param lobbyID the ID of the lobby
+     * @param players the number of players in the lobby
+     * @param size    the size of the lobby, null if not chosen yet
+     */
+    public void putLobby(String lobbyID, int players, Integer size) {
+        if (this.lobbies.put(lobbyID, new Listing(players, size, players + "/" + size)) == null)
+            this.lobbyCount.incrementAndGet();
+    }
+
+    /**
+     * Removes a lobby, because it's empty or its game started.
+     *
+     * @param lobbyID the ID of the lobby
+     */
+    public void removeLobby(String lobbyID) {
+        if (this.lobbies.remove(lobbyID) != null) this.lobbyCount.decrementAndGet();
+    }
+
+    /**
+     * Adds or updates a game. The changes of a game must not run concurrently.
+     *
+     * @param gameID  the ID of the game
+     * @param online  the number of players online
+     * @param players the number of players of the game
+     */
+    public void putGame(String gameID, int online, int players) {
+        if (this.games.put(gameID, new Listing(online, players, online + "/" + players)) == null)
+            this.gameCount.incrementAndGet();
+    }
+
+    /**
+     * Removes an ended game.
+     *
+     * @param gameID the ID of the game
+     */
+    public void removeGame(String gameID) {
+        if (this.games.remove(gameID) != null) this.gameCount.decrementAndGet();
+    }
+
+    /**
+     * Returns the number of lobbies waiting for players.
+     *
+     * @return the number of lobbies
+     */
+    public int getLobbies() {
+        return this.lobbyCount.get();
+    }
+
+    /**
+     * Returns the number of active games.
+     *
+     * @return the number of games
+     */
+    public int getGames() {
+        return this.gameCount.get();
+    }
+
+    /**
+     * Returns a page of the directory: the lobbies, the games, and the description of the page.
+     *
+     * @param query the page to read and its filters
+     * @return the page, null if there are no lobbies nor games
+     */
+    public List<Map<String, String>> page(LobbyQuery query) {
+        if (getLobbies() == 0 && getGames() == 0) return null;
+        int limit = Math.max(1, Math.min(query.limit(), MAX_PAGE_SIZE));
+        Map<String, String> lobbies = new LinkedHashMap<>();
+        Map<String, String> games = new LinkedHashMap<>();
+        Map<String, String> page = new HashMap<>();
+        page.put(LobbyQuery.LOBBIES, String.valueOf(getLobbies()));
+        page.put(LobbyQuery.GAMES, String.valueOf(getGames()));
+
+        String next = null;
+        if (!query.inGames())
+            next = fill(this.lobbies, query.after(), limit, lobbies, listing -> lobbyMatches(listing, query));
+        // a game has no free seats, only its players can join it again
+        if (next == null && query.openSeats() <= 0) {
+            next = fill(this.games, query.inGames() ? query.after() : null, limit - lobbies.size(), games,
+                    listing -> query.lobbySize() <= 0 || listing.size() == query.lobbySize());
+            if (next != null) page.put(LobbyQuery.NEXT_IN_GAMES, "true");
+        }
+        if (next != null) page.put(LobbyQuery.NEXT, next);
+        return new ArrayList<>(List.of(lobbies, games, page));
+    }
+
+    private boolean lobbyMatches(Listing listing, LobbyQuery query) {
+        int size = listing.size() != null ? listing.size() : MAX_PLAYERS;
+        if (query.openSeats() > 0 && size - listing.players() < query.openSeats()) return false;
+        if (query.lobbySize() <= 0) return true;
+        return listing.size() != null ? listing.size() == query.lobbySize() : listing.players() < query.lobbySize();
+    }
+
+    /**
+     * Copies the matching listings after the given ID into the page, up to the limit.
+     *
+     * @return the ID the next page starts after, empty to start from the first listing, null if there are no more matching listings
+     */
+    private String fill(NavigableMap<String, Listing> listings, String after, int limit, Map<String, String> page, Predicate<Listing> matches) {
+        NavigableMap<String, Listing> tail = after == null ? listings : listings.tailMap(after, false);
+        String last = after == null ? "" : after;
+        for (Map.Entry<String, Listing> entry : tail.entrySet()) {
+            if (!matches.test(entry.getValue())) continue;
+            if (page.size() == limit) return last;
+            page.put(entry.getKey(), entry.getValue().info());
+            last = entry.getKey();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return getLobbies() + " lobbies, " + getGames() + " games";
+    }
+}
@@ -0,0 +1,251 @@
+package Server.Network.Lobby;
+
+import Interface.Client.RemoteClient;
+import Interface.Client.RemoteView;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static Server.ServerApp.logger;
+
+/**
+ * The Matchmaker class is the quick-play queue: the players join it with the size of the table they prefer,
+ * or with any size, and a single matcher thread seats them at new games instead of making them pick a lobby.
+ * <p>
+ * Every tick the matcher forms all the tables it can, oldest players first: the players asking for a size
+ * are seated together, and the players accepting any size fill their tables or sit at full tables of their own.
+ * The waits are bounded: a player that waited for {@link #MAX_WAIT} accepts any size, and the players accepting
+ * any size that waited that long start a game with the ones in the queue, as long as there are two of them.
+ */
+public class Matchmaker {
+    /**
+     * The ID of the lobby of the players in the queue, used until they're seated.
+     */
+    public static final String QUEUE_ID = "quick-play";
+    /**
+     * The preferred size of a player accepting any table.
+     */
+    public static final int ANY = 0;
+    /**
+     * The time a player waits for its preferred size before accepting any table, in milliseconds.
+     */
+    public static final long MAX_WAIT = 15000;
+    /**
+     * The time between two rounds of the matcher, in milliseconds.
+     */
+    public static final long TICK = 250;
+    /**
+     * The number of waits kept for the percentiles.
+     */
+    private static final int SAMPLES = 1024;
+    private static final int MIN_PLAYERS = 2;
+    private static final int MAX_PLAYERS = 4;
+
+    /**
+     * A player in the queue.
+     *
+     * @param playerID   the ID of the player
+     * @param size       the size of the table the player prefers, {@link #ANY} for any size
+     * @param view       the remote view of the player
+     * @param network    the remote client of the player
+     * @param enqueuedAt when the player joined the queue, in nanoseconds
+     */
+    public record Ticket(String playerID, int size, RemoteView view, RemoteClient network, long enqueuedAt) {
+    }
+
+    private final long maxWait;
+    private final Consumer<List<Ticket>> match;
+    /**
+     * The players waiting for a table, by preferred size: the index is the size, 0 is any size.
+     */
+    private final List<Deque<Ticket>> queues;
+    private final Map<String, Ticket> tickets;
+    private final ScheduledExecutorService matcher;
+
+    private final long[] waits;
+    private long matchedPlayers;
+    private long matchedGames;
+
+    /**
+     * Creates the queue and starts its matcher, with the default maximum wait.
+     *
+     * @param match what to do with a table of players, it starts their game
+     */
+    public Matchmaker(Consumer<List<Ticket>> match) {
+        this(MAX_WAIT, TICK, match);
+    }
+
+    /**
+     * Creates the queue and starts its matcher.
+     *
+     * @param maxWait the time a player waits for its preferred size, in milliseconds
+     * @param tick    the time between two rounds of the matcher, in milliseconds
+     * @param match   what to do with a table of players, it starts their game
+     */
+    public Matchmaker(long maxWait, long tick, Consumer<List<Ticket>> match) {
+        this.maxWait = maxWait;
+        this.match = match;
+        this.queues = new ArrayList<>();
+        for (int size = 0; size <= MAX_PLAYERS; size++) this.queues.add(new ArrayDeque<>());
+        this.tickets = new HashMap<>();
+        this.waits = new long[SAMPLES];
+        this.matcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "matcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.matcher.scheduleWithFixedDelay(this::matchAll, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tells if a preferred size is valid.
+     *
+     * @param size the preferred size
+     * @return true if it's {@link #ANY} or between 2 and 4
+     */
+    public static boolean isValid(int size) {
+        return size == ANY || (size >= MIN_PLAYERS && size <= MAX_PLAYERS);
+    }
+
+    /**
+     * Puts a player in the queue.
+     *
+     * @param playerID the ID of the player
+     * @param size     the size of the table the player prefers, {@link #ANY} for any size
+     * @param view     the remote view of the player
+     * @param network  the remote client of the player
+     * @return false if the player is already in the queue
+     */
+    public synchronized boolean enqueue(String playerID, int size, RemoteView view, RemoteClient network) {
+        if (this.tickets.containsKey(playerID)) return false;
+        Ticket ticket = new Ticket(playerID, size, view, network, System.nanoTime());
+        this.tickets.put(playerID, ticket);
+        this.queues.get(size).add(ticket);
+        return true;
+    }
+
+    /**
+     * Takes a player out of the queue.
+     *
+     * @param playerID the ID of the player
+     * @return false if the player wasn't in the queue, because it was already seated
+     */
+    public synchronized boolean cancel(String playerID) {
+        Ticket ticket = this.tickets.remove(playerID);
+        if (ticket == null) return false;
+        for (Deque<Ticket> queue : this.queues) queue.remove(ticket);
+        return true;
+    }
+
+    /**
+     * Stops the matcher, the players in the queue aren't seated any more.
+     */
+    public void shutdown() {
+        this.matcher.shutdownNow();
+    }
+
+    /**
+     * Runs a round of the matcher: forms the tables and starts their games, outside the lock of the queue.
+     */
+    private void matchAll() {
+        try {
+            for (List<Ticket> table : formTables()) this.match.accept(table);
+        } catch (RuntimeException e) {
+            logger.severe(e.getMessage());
+        }
+    }
+
+    private synchronized List<List<Ticket>> formTables() {
+        long now = System.nanoTime();
+        List<List<Ticket>> tables = new ArrayList<>();
+        Deque<Ticket> any = this.queues.get(ANY);
+
+        // a player that waited too long for its size accepts any table
+        boolean relaxed = false;
+        for (int size = MIN_PLAYERS; size <= MAX_PLAYERS; size++) {
+            Deque<Ticket> queue = this.queues.get(size);
+            while (!queue.isEmpty() && waited(queue.peekFirst(), now) >= this.maxWait) {
+                any.addLast(queue.pollFirst());
+                relaxed = true;
+            }
+        }
+        if (relaxed) {
+            List<Ticket> sorted = new ArrayList<>(any);
+            sorted.sort(Comparator.comparingLong(Ticket::enqueuedAt));
+            any.clear();
+            any.addAll(sorted);
+        }
+
+        // the players asking for a size, the bigger tables first, filled with the players accepting any size
+        for (int size = MAX_PLAYERS; size >= MIN_PLAYERS; size--) {
+            Deque<Ticket> queue = this.queues.get(size);
+            while (!queue.isEmpty() && queue.size() + any.size() >= size) {
+                List<Ticket> table = new ArrayList<>(size);
+                while (table.size() < size && !queue.isEmpty()) table.add(queue.pollFirst());
+                while (table.size() < size) table.add(any.pollFirst());
+                tables.add(table);
+            }
+        }
+        // the players accepting any size, full tables, or smaller ones once the oldest has waited too long
+        while (any.size() >= MAX_PLAYERS || (any.size() >= MIN_PLAYERS && waited(any.peekFirst(), now) >= this.maxWait)) {
+            List<Ticket> table = new ArrayList<>();
+            while (table.size() < MAX_PLAYERS && !any.isEmpty()) table.add(any.pollFirst());
+            tables.add(table);
+        }
+
+        for (List<Ticket> table : tables) {
+            for (Ticket ticket : table) {
+                this.tickets.remove(ticket.playerID());
+                this.waits[(int) (this.matchedPlayers++ % SAMPLES)] = waited(ticket, now);
+            }
+            this.matchedGames++;
+        }
+        return tables;
+    }
+
+    private long waited(Ticket ticket, long now) {
+        return (now - ticket.enqueuedAt()) / 1_000_000;
+    }
+
+    /**
+     * Returns the number of players waiting in the queue.
+     *
+     * @return the number of queued players
+     */
+    public synchronized int getQueued() {
+        return this.tickets.size();
+    }
+
+    /**
+     * Returns the number of games started by the matcher.
+     *
+     * @return the number of games
+     */
+    public synchronized long getMatchedGames() {
+        return this.matchedGames;
+    }
+
+    /**
+     * Returns a percentile of the time the last seated players waited in the queue.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the wait in milliseconds, 0 if no player was seated
+     */
+    public synchronized long getWait(double percentile) {
+        int samples = (int) Math.min(this.matchedPlayers, SAMPLES);
+        if (samples == 0) return 0;
+        long[] sorted = Arrays.copyOf(this.waits, samples);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * samples) - 1;
+        return sorted[Math.max(0, Math.min(samples - 1, index))];
+    }
+
+    @Override
+    public synchronized String toString() {
+        return getQueued() + " players queued, " + this.matchedPlayers + " players seated at " + this.matchedGames + " games, wait p50 "
+                + getWait(50) + " ms, p90 " + getWait(90) + " ms, p99 " + getWait(99) + " ms, max " + getWait(100) + " ms";
+    }
+}
@@ -0,0 +1,71 @@
+package Server.Network.Router;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The HashRing class maps the lobby IDs to the backends with consistent hashing.
+ * Every backend is put on the ring at many points, its virtual nodes, and an ID belongs to the first
+ * backend found on the ring after the hash of the ID: adding or removing a backend moves only the IDs
+ * of the ring arcs it gains or loses, about one in the number of backends.
+ *
+ * @param <T> the type of the backends
+ */
+public class HashRing<T> {
+    /**
+     * The number of points of every backend on the ring, they even out the share of every backend.
+     */
+    public static final int VIRTUAL_NODES = 128;
+
+    private final NavigableMap<Long, T> ring;
+
+    /**
+     * Creates an empty ring.
+     */
+    public HashRing() {
+        this.ring = new TreeMap<>();
+    }
+
+    /**
+     * Puts a backend on the ring.
+     *
+     * @param name    the name of the backend, its points on the ring depend only on it
+     * @param backend the backend
+     */
+    public void add(String name, T backend) {
+        for (int node = 0; node < VIRTUAL_NODES; node++)
+            this.ring.put(hash(name + "#" + node), backend);
+    }
+
+    /**
+     * Returns the backend of an ID.
+     *
+     * @param key the ID
+     * @return the backend, null if the ring is empty
+     */
+    public T get(String key) {
+        if (this.ring.isEmpty()) return null;
+        Map.Entry<Long, T> entry = this.ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : this.ring.firstEntry()).getValue();
+    }
+
+    /**
+     * Hashes a string to a point of the ring: FNV-1a over its UTF-8 bytes, with the bits mixed by the
+     * finalizer of MurmurHash3, so close strings like the names of the virtual nodes land far apart.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,79 @@
+package Server.Network.Router;
+
+import Interface.Server.RouterInterface;
+import Server.Network.Lobby.Lobby;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static Server.ServerApp.logger;
+
+/**
+ * The LoadReporter class reports the load of a backend to the router in front of it, every {@link #INTERVAL}.
+ * The router answers with the name of the shard of the backend, that the lobby appends to the IDs it makes.
+ */
+public class LoadReporter {
+    /**
+     * The time between two reports, in milliseconds.
+     */
+    public static final long INTERVAL = 1000;
+
+    private final String host;
+    private final int port;
+    private final String address;
+    private final Lobby lobby;
+    private final ScheduledExecutorService timer;
+    /**
+     * The router, looked up again after a failure.
+     */
+    private RouterInterface router;
+    private boolean reachable;
+
+    /**
+     * Creates the reporter of a backend.
+     *
+     * @param router  the RMI address of the router, "host:port"
+     * @param address the RMI address of the backend, as the router knows it
+     * @param lobby   the lobby of the backend
+     * @throws IllegalArgumentException if the address of the router is not valid
+     */
+    public LoadReporter(String router, String address, Lobby lobby) throws IllegalArgumentException {
+        String[] hostPort = LobbyRouter.parseAddress(router);
+        this.host = hostPort[0];
+        this.port = Integer.parseInt(hostPort[1]);
+        this.address = address;
+        this.lobby = lobby;
+        this.reachable = true;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts reporting the load.
+     */
+    public void start() {
+        this.timer.scheduleWithFixedDelay(this::report, INTERVAL, INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private void report() {
+        try {
+            if (this.router == null)
+                this.router = (RouterInterface) LocateRegistry.getRegistry(this.host, this.port).lookup("Router");
+            String shard = this.router.report(this.lobby.getLoad(this.address));
+            if (shard != null) this.lobby.setShard(shard);
+            if (!this.reachable) logger.info("Router " + this.host + ":" + this.port + " reachable again");
+            this.reachable = true;
+        } catch (RemoteException | NotBoundException e) {
+            this.router = null;
+            if (this.reachable) logger.severe("Router " + this.host + ":" + this.port + " unreachable: " + e.getMessage());
+            this.reachable = false;
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package Server.Network.Router;
+
+import Interface.Client.RemoteClient;
+import Interface.Client.RemoteView;
+import Interface.Server.LobbyInterface;
+import Interface.Server.RouterInterface;
+import Interface.Server.ShardInterface;
+import Server.Network.Client.RemoteDispatcher.RemoteCall;
+import Server.Network.Client.SocketHandler;
+import Server.Network.Lobby.LobbyDirectory;
+import Server.Network.Lobby.Matchmaker;
+import Utils.BackendLoad;
+import Utils.LobbyQuery;
+import Utils.SerialExecutor;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.rmi.NotBoundException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import static Server.ServerApp.dispatcher;
+import static Server.ServerApp.executorService;
+import static Server.ServerApp.logger;
+
+/**
+ * The LobbyRouter class is the lobby of a server that runs in front of other servers, its backends.
+ * It holds no lobby nor game: every lobby ID belongs to one backend, found with consistent hashing on the ID,
+ * and the lobby operations of the clients are forwarded to it.
+ * <p>
+ * The clients are passed to the backend as remote objects, so the backend and its games call them directly:
+ * the RMI clients are already remote, the socket connections of the router are exported when they log in.
+ * The game commands go straight to the game on the backend, only the lobby operations pass through the router.
+ * <p>
+ * The backends report their load every second. The router answers with the name of their shard, that the backends
+ * append to the IDs they make (the quick-play queue and its games), so those IDs are sent back to them.
+ * The quick-play players go to the least loaded backend, and the lobby information merges the pages of all of them.
+ */
+public class LobbyRouter extends UnicastRemoteObject implements LobbyInterface, RouterInterface {
+    /**
+     * The time after which a backend that stopped reporting is down, in milliseconds.
+     */
+    public static final long DOWN_AFTER = 3 * LoadReporter.INTERVAL;
+    /**
+     * The number of ordered queues the forwarded operations are spread over, by lobby ID, a power of two.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * A server behind the router.
+     */
+    private static final class Backend {
+        private final String shard;
+        private final String host;
+        private final int port;
+        /**
+         * The lobby of the backend, looked up again after a failure.
+         */
+        private volatile Remote lobby;
+        private volatile BackendLoad load;
+        private volatile long reportedAt;
+        private final AtomicLong forwarded = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        private Backend(String shard, String host, int port) {
+            this.shard = shard;
+            this.host = host;
+            this.port = port;
+        }
+
+        private Remote lobby() throws RemoteException {
+            Remote lobby = this.lobby;
+            if (lobby != null) return lobby;
+            try {
+                lobby = LocateRegistry.getRegistry(this.host, this.port).lookup("Lobby");
+            } catch (NotBoundException e) {
+                throw new RemoteException("No lobby on " + address(), e);
+            }
+            this.lobby = lobby;
+            return lobby;
+        }
+
+        private void failed() {
+            this.lobby = null;
+            this.failures.incrementAndGet();
+        }
+
+        private boolean isUp(long now) {
+            return this.reportedAt > 0 && now - this.reportedAt <= DOWN_AFTER;
+        }
+
+        private String address() {
+            return this.host + ":" + this.port;
+        }
+
+        @Override
+        public String toString() {
+            return this.shard + " (" + address() + ")";
+        }
+    }
+
+    private final List<Backend> backends;
+    private final Map<String, Backend> shards;
+    private final Map<String, Backend> addresses;
+    private final HashRing<Backend> ring;
+    /**
+     * The queues of the forwarded operations: the operations on the same lobby ID are forwarded in order.
+     */
+    private final SerialExecutor[] stripes;
+
+    /**
+     * Creates a router in front of the given backends, named s0, s1... in order.
+     *
+     * @param backends the RMI addresses of the backends, "host:port"
+     * @throws RemoteException if the router can't be exported
+     * @throws IllegalArgumentException if an address is not valid
+     */
+    public LobbyRouter(List<String> backends) throws RemoteException, IllegalArgumentException {
+        super();
+        if (backends.isEmpty()) throw new IllegalArgumentException("No backends to route to");
+        this.backends = new ArrayList<>();
+        this.shards = new HashMap<>();
+        this.addresses = new HashMap<>();
+        this.ring = new HashRing<>();
+        for (String address : backends) {
+            String[] hostPort = parseAddress(address);
+            Backend backend = new Backend("s" + this.backends.size(), hostPort[0], Integer.parseInt(hostPort[1]));
+            if (this.addresses.putIfAbsent(backend.address(), backend) != null)
+                throw new IllegalArgumentException("Duplicated backend: " + address);
+            this.backends.add(backend);
+            this.shards.put(backend.shard, backend);
+            this.ring.add(backend.shard, backend);
+        }
+        this.stripes = new SerialExecutor[STRIPES];
+        for (int i = 0; i < STRIPES; i++) this.stripes[i] = new SerialExecutor(executorService);
+    }
+
+    /**
+     * Splits an RMI address, resolving the host to its IP address as the backends report it.
+     *
+     * @param address the address, "host:port"
+     * @return the IP address of the host and the port
+     * @throws IllegalArgumentException if the address is not valid
+     */
+    public static String[] parseAddress(String address) throws IllegalArgumentException {
+        String[] hostPort = address.trim().split(":");
+        if (hostPort.length != 2) throw new IllegalArgumentException("Invalid address: " + address);
+        int port = Integer.parseInt(hostPort[1]);
+        if (port < 1024 || port > 65535) throw new IllegalArgumentException("Invalid port: " + address);
+        try {
+            return new String[]{InetAddress.getByName(hostPort[0]).getHostAddress(), hostPort[1]};
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Unknown host: " + address);
+        }
+    }
+
+    /**
+     * Returns the backend of a lobby ID: the shard named at the end of the ID if there is one, the one on the ring otherwise.
+     */
+    private Backend route(String lobbyID) {
+        int separator = lobbyID.lastIndexOf(ShardInterface.SEPARATOR);
+        if (separator >= 0) {
+            Backend backend = this.shards.get(lobbyID.substring(separator + 1));
+            if (backend != null) return backend;
+        }
+        return this.ring.get(lobbyID);
+    }
+
+    private SerialExecutor stripeOf(String lobbyID) {
+        int hash = lobbyID.hashCode();
+        return this.stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Forwards an operation on a lobby to its backend, after the operations on the same lobby forwarded before it.
+     *
+     * @param lobbyID the ID of the lobby
+     * @param client  the client told when the backend can't be reached, null if none
+     * @param call    the operation
+     */
+    private void forward(String lobbyID, RemoteView client, RemoteCall<LobbyInterface> call) {
+        Backend backend = route(lobbyID);
+        stripeOf(lobbyID).execute(() -> forward(backend, client, call));
+    }
+
+    private void forward(Backend backend, RemoteView client, RemoteCall<LobbyInterface> call) {
+        try {
+            call.run((LobbyInterface) backend.lobby());
+            backend.forwarded.incrementAndGet();
+        } catch (RemoteException e) {
+            backend.failed();
+            logger.severe("Backend " + backend + " unreachable: " + e.getMessage());
+            if (client != null) {
+                sendException(client, "Server unavailable, try again later");
+                askPlayerInfo(client);
+            }
+        }
+    }
+
+    /**
+     * Returns the remote object of a client, to be passed to a backend: a socket connection of the router is exported.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Remote> T remote(T client) throws RemoteException {
+        return client instanceof SocketHandler connection ? (T) connection.export() : client;
+    }
+
+    /**
+     * Sends the first page of the lobbies and games of all the backends to the specified remote view.
+     *
+     * @param remote the remote view to which the lobby information will be sent
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void getLobbyInfo(RemoteView remote) throws RemoteException {
+        getLobbyInfo(remote, LobbyQuery.FIRST_PAGE);
+    }
+
+    /**
+     * Sends a page of the lobbies and games of all the backends to the specified remote view.
+     * The same page is read from every backend, and the pages are merged.
+     *
+     * @param remote the remote view to which the lobby information will be sent
+     * @param query  the page to send and its filters
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void getLobbyInfo(RemoteView remote, LobbyQuery query) throws RemoteException {
+        LobbyQuery page = query != null ? query : LobbyQuery.FIRST_PAGE;
+        executorService.execute(() -> {
+            List<Map<String, String>> lobbyInfo = getLobbyInfo(page);
+            dispatcher.prompt(remote, view -> view.askPlayerInfo(lobbyInfo));
+        });
+    }
+
+    /**
+     * Retrieves a page of the lobbies and games of all the backends, the unreachable ones are left out.
+     *
+     * @param query the page to retrieve and its filters
+     * @return the lobby information, null if there are no lobbies nor games
+     */
+    public List<Map<String, String>> getLobbyInfo(LobbyQuery query) {
+        List<List<Map<String, String>>> pages = new ArrayList<>();
+        for (Backend backend : this.backends) pages.add(page(backend, query));
+        return merge(pages, query.limit());
+    }
+
+    private List<Map<String, String>> page(Backend backend, LobbyQuery query) {
+        try {
+            return ((ShardInterface) backend.lobby()).getLobbyInfo(query);
+        } catch (RemoteException e) {
+            backend.failed();
+            logger.severe("Backend " + backend + " unreachable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Merges the same page read from many backends. Every backend returns its first entries after the same cursor,
+     * so the first entries of the merged ones, lobbies and then games sorted by ID, are the first of all the backends.
+     *
+     * @param pages the pages of the backends, null if a backend has no lobbies nor games
+     * @param limit the maximum number of entries in the page
+     * @return the merged page, null if no backend has lobbies nor games
+     */
+    static List<Map<String, String>> merge(List<List<Map<String, String>>> pages, int limit) {
+        TreeMap<String, String> lobbies = new TreeMap<>();
+        TreeMap<String, String> games = new TreeMap<>();
+        int lobbyCount = 0, gameCount = 0;
+        boolean found = false, more = false;
+        for (List<Map<String, String>> page : pages) {
+            if (page == null) continue;
+            found = true;
+            lobbies.putAll(page.get(0));
+            games.putAll(page.get(1));
+            lobbyCount += Integer.parseInt(page.get(2).get(LobbyQuery.LOBBIES));
+            gameCount += Integer.parseInt(page.get(2).get(LobbyQuery.GAMES));
+            more |= page.get(2).containsKey(LobbyQuery.NEXT);
+        }
+        if (!found) return null;
+
+        int size = Math.max(1, Math.min(limit, LobbyDirectory.MAX_PAGE_SIZE));
+        Map<String, String> pageLobbies = new LinkedHashMap<>();
+        Map<String, String> pageGames = new LinkedHashMap<>();
+        String last = null;
+        boolean lastInGames = false;
+        for (Map.Entry<String, String> entry : lobbies.entrySet()) {
+            if (pageLobbies.size() == size) {
+                more = true;
+                break;
+            }
+            pageLobbies.put(entry.getKey(), entry.getValue());
+            last = entry.getKey();
+        }
+        for (Map.Entry<String, String> entry : games.entrySet()) {
+            if (pageLobbies.size() + pageGames.size() == size) {
+                more = true;
+                break;
+            }
+            pageGames.put(entry.getKey(), entry.getValue());
+            last = entry.getKey();
+            lastInGames = true;
+        }
+
+        Map<String, String> description = new HashMap<>();
+        description.put(LobbyQuery.LOBBIES, String.valueOf(lobbyCount));
+        description.put(LobbyQuery.GAMES, String.valueOf(gameCount));
+        if (more && last != null) {
+            description.put(LobbyQuery.NEXT, last);
+            if (lastInGames) description.put(LobbyQuery.NEXT_IN_GAMES, "true");
+        }
+        return new ArrayList<>(List.of(pageLobbies, pageGames, description));
+    }
+
+    /**
+     * Forwards the lobby size to the backend of the lobby.
+     *
+     * @param playerID  the ID of the player setting the lobby size
+     * @param lobbyID   the ID of the lobby
+     * @param lobbySize the size to set for the lobby
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void setLobbySize(String playerID, String lobbyID, int lobbySize) throws RemoteException {
+        forward(lobbyID, null, lobby -> lobby.setLobbySize(playerID, lobbyID, lobbySize));
+    }
+
+    /**
+     * Forwards the login of a player to the backend of the lobby.
+     *
+     * @param playerID the ID of the player logging in
+     * @param lobbyID  the ID of the lobby
+     * @param client   the remote view of the player
+     * @param network  the remote client of the player
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void login(String playerID, String lobbyID, RemoteView client, RemoteClient network) throws RemoteException {
+        login(playerID, lobbyID, NO_SEQUENCE, client, network);
+    }
+
+    /**
+     * Forwards the login of a player to the backend of the lobby, that resumes its game if it's still playing.
+     *
+     * @param playerID     the ID of the player logging in
+     * @param lobbyID      the ID of the lobby
+     * @param lastSequence the sequence of the last update of the game received by the player
+     * @param client       the remote view of the player
+     * @param network      the remote client of the player
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void login(String playerID, String lobbyID, long lastSequence, RemoteView client, RemoteClient network) throws RemoteException {
+        RemoteView view = remote(client);
+        RemoteClient remote = remote(network);
+        forward(lobbyID, client, lobby -> lobby.login(playerID, lobbyID, lastSequence, view, remote));
+    }
+
+    /**
+     * Forwards the player to the quick-play queue of the least loaded backend, as it was in the last reports:
+     * the players arriving between two reports meet in the same queue.
+     *
+     * @param playerID      the ID of the player
+     * @param preferredSize the size of the table the player prefers
+     * @param client        the remote view of the player
+     * @param network       the remote client of the player
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void quickPlay(String playerID, int preferredSize, RemoteView client, RemoteClient network) throws RemoteException {
+        long now = System.currentTimeMillis();
+        Backend backend = this.backends.stream().filter(candidate -> candidate.isUp(now))
+                .min(Comparator.comparingInt(candidate -> candidate.load.sessions())).orElse(null);
+        if (backend == null) {
+            sendException(client, "Quick play is not available, try again later");
+            askPlayerInfo(client);
+            return;
+        }
+        RemoteView view = remote(client);
+        RemoteClient remote = remote(network);
+        stripeOf(Matchmaker.QUEUE_ID + ShardInterface.SEPARATOR + backend.shard)
+                .execute(() -> forward(backend, client, lobby -> lobby.quickPlay(playerID, preferredSize, view, remote)));
+    }
+
+    /**
+     * Forwards the ping of a player to the backend of its lobby.
+     *
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void ping(String playerID, String lobbyID) throws RemoteException {
+        forward(lobbyID, null, lobby -> lobby.ping(playerID, lobbyID));
+    }
+
+    /**
+     * Forwards the logout of a player to the backend of its lobby.
+     *
+     * @param playerID the ID of the player
+     * @param lobbyID  the ID of the lobby
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public void logOut(String playerID, String lobbyID) throws RemoteException {
+        forward(lobbyID, null, lobby -> lobby.logOut(playerID, lobbyID));
+    }
+
+    /**
+     * Records the load of a backend.
+     *
+     * @param load the load of the backend, with its address
+     * @return the name of the shard of the backend, null if it's not one of the backends of the router
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public String report(BackendLoad load) throws RemoteException {
+        Backend backend = this.addresses.get(load.address());
+        if (backend == null) {
+            logger.severe("Report from an unknown backend " + load.address());
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        boolean down = !backend.isUp(now);
+        backend.load = load;
+        backend.reportedAt = now;
+        if (down) logger.info("Backend " + backend + " is up");
+        return backend.shard;
+    }
+
+    /**
+     * Retrieves the last load reported by each backend that is up.
+     *
+     * @return the loads of the backends that are up
+     * @throws RemoteException if a communication error occurs during the remote method call
+     */
+    @Override
+    public List<BackendLoad> getLoads() throws RemoteException {
+        long now = System.currentTimeMillis();
+        return this.backends.stream().filter(backend -> backend.isUp(now)).map(backend -> backend.load).toList();
+    }
+
+    private void sendException(RemoteView client, String message) {
+        dispatcher.call(client, view -> view.outcomeException(new RuntimeException(message)));
+    }
+
+    private void askPlayerInfo(RemoteView client) {
+        try {
+            getLobbyInfo(client, LobbyQuery.FIRST_PAGE);
+        } catch (RemoteException e) {
+            logger.severe(e.getMessage());
+        }
+    }
+
+    /**
+     * It prints the status of the router and of its backends
+     */
+    public void printStatus() {
+        logger.log(Level.CONFIG, "------------------------------------------Router status------------------------------------------");
+        logger.info("Remote calls: " + dispatcher);
+        long now = System.currentTimeMillis();
+        int queued = 0;
+        for (SerialExecutor stripe : this.stripes) queued += stripe.pending();
+        StringBuilder sb = new StringBuilder("Backends, " + queued + " operations queued:\n");
+        for (Backend backend : this.backends) {
+            sb.append("\t-\t").append(backend).append(": ")
+                    .append(backend.isUp(now) ? backend.load : "down")
+                    .append(", ").append(backend.forwarded.get()).append(" forwarded, ")
+                    .append(backend.failures.get()).append(" failures\n");
+        }
+        logger.info(sb.toString());
+    }
+}
@@ -0,0 +1,56 @@
+package Server.Network.Servers;
+
+import Server.ServerApp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.logging.Level;
+
+import static Server.ServerApp.lock;
+
+/**
+ * The NioSocketServer class represents the server that listens for incoming socket connections
+ * and serves them with a small fixed set of {@link SelectorLoop}s instead of one thread per connection.
+ */
+public class NioSocketServer {
+    /**
+     * Starts the NIO Socket Server on the specified port.
+     *
+     * @param socketPort the port number to listen on
+     * @param loops      the number of I/O loops
+     */
+    public void start(int socketPort, int loops) {
+        lock.lock();
+        ServerApp.logger.info("Starting NIO SCK server on " + socketPort + " with " + loops + " I/O loops");
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(socketPort));
+            SelectorLoop[] selectorLoops = new SelectorLoop[loops];
+            for (int i = 0; i < loops; i++) {
+                selectorLoops[i] = new SelectorLoop();
+                Thread thread = new Thread(selectorLoops[i], "nio-loop-" + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            ServerApp.logger.info("NIO SCK server listening " + socketPort + " port");
+            lock.unlock();
+            int next = 0;
+            while (true) {
+                try {
+                    SocketChannel channel = serverChannel.accept();
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    selectorLoops[next].register(channel);
+                    next = (next + 1) % loops;
+                } catch (IOException e) {
+                    ServerApp.logger.log(Level.SEVERE, e.toString());
+                    System.exit(-1);
+                }
+            }
+        } catch (IOException e) {
+            ServerApp.logger.log(Level.SEVERE, e.toString());
+            System.exit(-7);
+        }
+    }
+}
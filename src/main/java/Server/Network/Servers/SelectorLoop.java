@@ -0,0 +1,209 @@
+package Server.Network.Servers;
+
+import Server.Network.Client.NioSocketHandler;
+import Server.Network.Client.StreamSocketHandler;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static Server.ServerApp.connectionService;
+import static Server.ServerApp.logger;
+
+/**
+ * The SelectorLoop class is one of the I/O loops of the {@link NioSocketServer}.
+ * It owns a selector and a share of the connections, and performs all their reads and writes on a single thread.
+ */
+public class SelectorLoop implements Runnable {
+    /**
+     * How long a client has to complete the framed handshake before it's treated as a legacy client.
+     */
+    private static final long HANDSHAKE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(1000);
+    /**
+     * How long the preamble of a framed client may arrive after the object-stream header,
+     * a legacy client sends the header alone and waits for the server.
+     */
+    private static final long HEADER_GRACE = TimeUnit.MILLISECONDS.toNanos(20);
+    private final Selector selector;
+    /**
+     * The channels accepted and not yet registered on the selector.
+     */
+    private final Queue<SocketChannel> accepted;
+    /**
+     * The connections that have frames to write.
+     */
+    private final Queue<NioSocketHandler> writable;
+    /**
+     * The paused connections whose waiting messages were executed.
+     */
+    private final Queue<NioSocketHandler> resumable;
+    /**
+     * The connections that have not completed the handshake, owned by the loop thread.
+     */
+    private final List<NioSocketHandler> handshaking;
+
+    /**
+     * Creates a new loop with its own selector.
+     *
+     * @throws IOException if the selector can't be opened
+     */
+    public SelectorLoop() throws IOException {
+        this.selector = Selector.open();
+        this.accepted = new ConcurrentLinkedQueue<>();
+        this.writable = new ConcurrentLinkedQueue<>();
+        this.resumable = new ConcurrentLinkedQueue<>();
+        this.handshaking = new ArrayList<>();
+    }
+
+    /**
+     * Hands an accepted channel to this loop.
+     *
+     * @param channel the accepted channel
+     */
+    public void register(SocketChannel channel) {
+        this.accepted.add(channel);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Asks the loop to flush the pending frames of a connection.
+     *
+     * @param handler the connection with frames to write
+     */
+    public void requestWrite(NioSocketHandler handler) {
+        this.writable.add(handler);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Asks the loop to read again a connection paused by too many waiting messages.
+     *
+     * @param handler the connection to read
+     */
+    public void requestRead(NioSocketHandler handler) {
+        this.resumable.add(handler);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Runs the loop until the thread is interrupted.
+     */
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                this.selector.select(TimeUnit.NANOSECONDS.toMillis(this.handshaking.isEmpty() ? HANDSHAKE_TIMEOUT / 4 : HEADER_GRACE));
+                registerAccepted();
+                flushRequested();
+                resumeRequested();
+                processSelected();
+                expireHandshakes();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, e.toString());
+            }
+        }
+    }
+
+    private void registerAccepted() {
+        SocketChannel channel;
+        while ((channel = this.accepted.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                NioSocketHandler handler = new NioSocketHandler(channel, this);
+                handler.attach(channel.register(this.selector, SelectionKey.OP_READ, handler));
+                this.handshaking.add(handler);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, e.toString());
+                close(channel);
+            }
+        }
+    }
+
+    private void flushRequested() {
+        NioSocketHandler handler;
+        while ((handler = this.writable.poll()) != null) {
+            if (!handler.getChannel().isOpen()) continue;
+            try {
+                handler.onWritable();
+            } catch (IOException e) {
+                handler.logOut();
+            }
+        }
+    }
+
+    private void resumeRequested() {
+        NioSocketHandler handler;
+        while ((handler = this.resumable.poll()) != null) {
+            if (!handler.getChannel().isOpen()) continue;
+            try {
+                handler.onResumed();
+            } catch (IOException e) {
+                logger.info(e.getMessage());
+                handler.logOut();
+            }
+        }
+    }
+
+    private void processSelected() {
+        Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            NioSocketHandler handler = (NioSocketHandler) key.attachment();
+            try {
+                if (key.isValid() && key.isReadable()) handler.onReadable();
+                if (key.isValid() && key.isWritable()) handler.onWritable();
+            } catch (IOException e) {
+                logger.info(e.getMessage());
+                key.cancel();
+                handler.logOut();
+            }
+        }
+    }
+
+    private void expireHandshakes() throws IOException {
+        Iterator<NioSocketHandler> iterator = this.handshaking.iterator();
+        while (iterator.hasNext()) {
+            NioSocketHandler handler = iterator.next();
+            if (handler.isFramed() || !handler.getChannel().isOpen()) {
+                iterator.remove();
+            } else if (handler.isLegacy(HANDSHAKE_TIMEOUT, HEADER_GRACE)) {
+                iterator.remove();
+                fallback(handler);
+            }
+        }
+    }
+
+    /**
+     * Moves a legacy client to a blocking {@link StreamSocketHandler}, replaying the bytes already read.
+     */
+    private void fallback(NioSocketHandler handler) throws IOException {
+        SocketChannel channel = handler.getChannel();
+        channel.keyFor(this.selector).cancel();
+        this.selector.selectNow();
+        try {
+            channel.configureBlocking(true);
+        } catch (IOException e) {
+            close(channel);
+            throw e;
+        }
+        connectionService.execute(new StreamSocketHandler(channel.socket(), handler.unread()));
+        logger.info("Legacy client moved to a stream handler");
+    }
+
+    private void close(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, e.toString());
+        }
+    }
+}
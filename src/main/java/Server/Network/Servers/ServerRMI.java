@@ -31,7 +31,8 @@ public class ServerRMI {
         System.setProperty("java.rmi.server.hostname", ipHost);
         ServerRMI.registry = LocateRegistry.createRegistry(rmiPort);
         try {
-            registry.bind("Lobby", lobby);
+            registry.bind("Lobby", front);
+            if (router != null) registry.bind("Router", router);
         } catch (Exception e) {
             logger.log(Level.SEVERE, e.getMessage());
             System.exit(-6);
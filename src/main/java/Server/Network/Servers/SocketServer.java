@@ -1,17 +1,18 @@
 package Server.Network.Servers;
 
-import Server.Network.Client.SocketHandler;
+import Server.Network.Client.StreamSocketHandler;
 import Server.ServerApp;
 
 import java.io.IOException;
 import java.net.*;
 import java.util.logging.Level;
 
-import static Server.ServerApp.executorService;
+import static Server.ServerApp.connectionService;
 import static Server.ServerApp.lock;
 
 /**
  * The SocketServer class represents the server that listens for incoming socket connections.
+ * It is the legacy transport: every connection is served by a blocking {@link StreamSocketHandler}.
  */
 public class SocketServer {
     /**
@@ -28,7 +29,7 @@ public class SocketServer {
             while (true) {
                 try {
                     @SuppressWarnings("BlockingMethodInNonBlockingContext") Socket socket = serverSocket.accept();
-                    executorService.execute(new SocketHandler(socket));
+                    connectionService.execute(new StreamSocketHandler(socket));
                 } catch (IOException e) {
                     ServerApp.logger.log(Level.SEVERE, e.toString());
                     System.exit(-1);
@@ -38,7 +39,7 @@ public class SocketServer {
             ServerApp.logger.log(Level.SEVERE, e.toString());
             System.exit(-7);
         } finally {
-            executorService.shutdown();
+            connectionService.shutdown();
         }
     }
 }
@@ -1,7 +1,17 @@
 package Server;
 
 
+import Server.Archive.ArchiveReader;
+import Server.Archive.GameArchive;
+import Server.Journal.MoveJournal;
+import Server.Network.Client.OverflowPolicy;
+import Server.Network.Client.RemoteDispatcher;
+import Server.Network.Client.SocketHandler;
+import Interface.Server.LobbyInterface;
 import Server.Network.Lobby.Lobby;
+import Server.Network.Router.LoadReporter;
+import Server.Network.Router.LobbyRouter;
+import Server.Network.Servers.NioSocketServer;
 import Server.Network.Servers.ServerRMI;
 import Server.Network.Servers.SocketServer;
 import Utils.NetworkSettings;
@@ -11,10 +21,11 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Formatter;
 import java.util.logging.LogRecord;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.rmi.RemoteException;
+import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.FileHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -26,6 +37,9 @@ import static Server.TXTFormatter.dateFormatter;
  * The ServerApp class represents the main entry point for the server application.
  * It initializes the logger, sets the server ports, initializes the lobby,
  * starts the RMI server and the socket server, and logs the server status.
+ * <p>
+ * Many servers can run behind a router: the router holds no lobby, it forwards the lobby operations of its clients
+ * to the backends, and every backend reports its load to the router.
  */
 public class ServerApp {
     /**
@@ -33,13 +47,37 @@ public class ServerApp {
      */
     public static Logger logger;
     /**
-     * The lobby instance for managing client connections and games.
+     * The lobby instance for managing client connections and games, null if the server is a router.
      */
     public static Lobby lobby;
     /**
-     * The executor service for managing threads.
+     * The router in front of the backends, null unless the server is a router.
+     */
+    public static LobbyRouter router;
+    /**
+     * The lobby the clients log into: the local lobby, or the router.
+     */
+    public static LobbyInterface front;
+    /**
+     * The executor service for the short tasks (remote-view calls, scout notifications, timers).
      */
     public static ExecutorService executorService;
+    /**
+     * The executor service for the blocking socket handlers, which live as long as their connection.
+     */
+    public static ExecutorService connectionService;
+    /**
+     * The fixed pool shared by the mailboxes of the games.
+     */
+    public static ExecutorService gameService;
+    /**
+     * The dispatcher of the calls to the clients, that evicts the unresponsive ones.
+     */
+    public static RemoteDispatcher dispatcher;
+    /**
+     * How the executor services run their tasks.
+     */
+    private static ExecutionMode executionMode = ExecutionMode.CACHED;
     /**
      * The ip address of the server.
      */
@@ -52,6 +90,46 @@ public class ServerApp {
      * The port number for the RMI server.
      */
     private static int rmiPort = 0;
+    /**
+     * Tells if the socket connections are served by the NIO selector loops instead of one thread per connection.
+     */
+    private static boolean nio = false;
+    /**
+     * The maximum number of messages waiting to be written on a socket connection.
+     */
+    public static int outboundCapacity = 256;
+    /**
+     * What a socket connection does when its outbound buffer is full.
+     */
+    public static OverflowPolicy overflowPolicy = OverflowPolicy.COALESCE;
+    /**
+     * Tells if the framed socket connections are offered the compression of the big payloads.
+     */
+    public static boolean compression = false;
+    /**
+     * The RMI addresses of the backends, if the server is a router.
+     */
+    private static List<String> backends = null;
+    /**
+     * The RMI address of the router the server reports to, if it's a backend.
+     */
+    private static String upstream = null;
+    /**
+     * The journal of the games, null if they aren't journaled.
+     */
+    public static MoveJournal journal;
+    /**
+     * The directory of the journal, null if the games aren't journaled.
+     */
+    private static Path journalDirectory = null;
+    /**
+     * The archive of the finished games, null if they aren't archived.
+     */
+    public static GameArchive archive;
+    /**
+     * The file of the archive, null if the games aren't archived.
+     */
+    private static Path archiveFile = null;
 
     public static final ReentrantLock lock = new ReentrantLock();
 
@@ -64,7 +142,7 @@ public class ServerApp {
         initLogger();
 
         if (args.length < 1) {
-            logger.severe("USAGE: java -jar --enable-preview MSH-SERVER-v1.01.jar <ipHost> [<-s><socketPort> <-r><rmiPort>]");
+            logger.severe("USAGE: java -jar --enable-preview MSH-SERVER-v1.01.jar <ipHost> [<-s><socketPort> <-r><rmiPort> <-t><legacy/nio> <-e><cached/virtual> <-q><outboundCapacity> <-b><coalesce/drop_chat/disconnect> <-z><on/off> <-k><backendHost:rmiPort,...> <-u><routerHost:rmiPort> <-j><journalDirectory> <-a><archiveFile>]");
             System.exit(-1);
         }
         ipHost = args[0];
@@ -74,8 +152,17 @@ public class ServerApp {
         }
         logger.info("SERVER STARTED ON: " + ipHost );
 
-        initLobby();
         setPort(args);
+        executorService = executionMode.taskExecutor();
+        connectionService = executionMode.connectionExecutor(executorService);
+        gameService = executionMode.gameExecutor();
+        dispatcher = new RemoteDispatcher(executionMode.dispatchExecutor(), ServerApp::evict);
+        initLobby();
+        initArchive();
+        initJournal();
+        logger.info("Execution mode: " + executionMode + ", " + ExecutionMode.GAME_THREADS + " game threads");
+        logger.info("Outbound buffers: " + outboundCapacity + " messages, " + overflowPolicy + " on overflow");
+        if (compression) logger.info("Compression offered to the framed socket clients");
 
         Thread rmiThread = new Thread(ServerApp::rmiServer);
         rmiThread.start();
@@ -83,18 +170,32 @@ public class ServerApp {
         Thread socketThread = new Thread(ServerApp::socketServer);
         socketThread.start();
 
+        if (upstream != null) {
+            new LoadReporter(upstream, ipHost + ":" + rmiPort, lobby).start();
+            logger.info("Backend reporting to the router " + upstream);
+        }
+
+        // the console lives as long as the server, it doesn't take a permit of the short tasks
+        Thread consoleThread = new Thread(ServerApp::console, "console");
+        consoleThread.setDaemon(true);
+        consoleThread.start();
+    }
+
+    private static void console() {
         Scanner scanner = new Scanner(System.in);
-        executorService = Executors.newCachedThreadPool();
-        executorService.execute(() -> {
-            while (true) {
-                String input = scanner.nextLine();
-                switch (input) {
-                    case "exit" -> System.exit(0);
-                    case "status" -> lobby.printLobbyStatus();
-                    default -> logger.fine("Unknown command");
+        while (scanner.hasNextLine()) {
+            String input = scanner.nextLine();
+            switch (input) {
+                case "exit" -> System.exit(0);
+                case "status" -> {
+                    if (router != null) router.printStatus();
+                    else lobby.printLobbyStatus();
                 }
+                case "connections" -> SocketHandler.printConnections();
+                case "archive" -> printArchive();
+                default -> logger.fine("Unknown command");
             }
-        });
+        }
     }
 
     private static boolean isValid() {
@@ -132,15 +233,70 @@ public class ServerApp {
         logger.info("MY SHELFIE SERVER LOG " + LocalDateTime.now().format(dateFormatter));
     }
 
-    private static void initLobby() {
+    private static void evict(String playerID, String lobbyID) {
         try {
-            lobby = new Lobby();
+            front.logOut(playerID, lobbyID);
         } catch (RemoteException e) {
+            logger.severe(e.getMessage());
+        }
+    }
+
+    private static void initLobby() {
+        try {
+            if (backends != null) {
+                router = new LobbyRouter(backends);
+                front = router;
+                logger.info("Router in front of " + backends.size() + " backends: " + String.join(", ", backends));
+            } else {
+                lobby = Lobby.create();
+                front = lobby;
+            }
+        } catch (RemoteException | IllegalArgumentException e) {
             logger.log(Level.SEVERE, e.toString());
             System.exit(-4);
         }
     }
 
+    private static void initArchive() {
+        if (archiveFile == null) return;
+        try {
+            archive = new GameArchive(archiveFile);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Archive not opened: " + e);
+            System.exit(-4);
+        }
+        logger.info("Archive in " + archiveFile.toAbsolutePath() + ", " + archive.getGames() + " games");
+    }
+
+    private static void printArchive() {
+        if (archive == null) {
+            logger.info("No archive");
+            return;
+        }
+        try (ArchiveReader reader = new ArchiveReader(archive.getFile())) {
+            StringBuilder sb = new StringBuilder("Average score by common goals, " + archive.getGames() + " games archived:\n");
+            for (ArchiveReader.CommonGoalsScore score : reader.scoreByCommonGoals())
+                sb.append("\t-\t").append(score.commonGoals()).append(": ").append(String.format("%.2f", score.average()))
+                        .append(" in ").append(score.games()).append(" games\n");
+            logger.info(sb.toString());
+        } catch (IOException e) {
+            logger.severe("Archive: " + e.getMessage());
+        }
+    }
+
+    private static void initJournal() {
+        if (journalDirectory == null) return;
+        try {
+            journal = new MoveJournal(journalDirectory);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Journal not opened: " + e);
+            System.exit(-4);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+        logger.info("Journal in " + journalDirectory.toAbsolutePath() + ", " + journal.getRecovered().size() + " games to recover");
+        lobby.recover(journal);
+    }
+
     private static void setPort(String[] args) {
         for (int i = 0; i < args.length; i++) {
             try {
@@ -150,13 +306,59 @@ public class ServerApp {
                 } else if (args[i].equals("-r")) {
                     i++;
                     rmiPort = ((Integer.parseInt(args[i]) >= 1024) && (Integer.parseInt(args[i]) <= 65535)) ? Integer.parseInt(args[i]) : 0;
+                } else if (args[i].equals("-t")) {
+                    i++;
+                    switch (args[i]) {
+                        case "legacy" -> nio = false;
+                        case "nio" -> nio = true;
+                        default -> throw new IllegalArgumentException("Unknown socket transport: " + args[i]);
+                    }
+                } else if (args[i].equals("-e")) {
+                    i++;
+                    executionMode = ExecutionMode.fromString(args[i]);
+                } else if (args[i].equals("-q")) {
+                    i++;
+                    outboundCapacity = Integer.parseInt(args[i]);
+                    if (outboundCapacity < 1) throw new IllegalArgumentException("Invalid outbound capacity: " + args[i]);
+                } else if (args[i].equals("-b")) {
+                    i++;
+                    overflowPolicy = OverflowPolicy.fromString(args[i]);
+                } else if (args[i].equals("-z")) {
+                    i++;
+                    switch (args[i]) {
+                        case "on" -> compression = true;
+                        case "off" -> compression = false;
+                        default -> throw new IllegalArgumentException("Unknown compression setting: " + args[i]);
+                    }
+                } else if (args[i].equals("-k")) {
+                    i++;
+                    backends = List.of(args[i].split(","));
+                } else if (args[i].equals("-u")) {
+                    i++;
+                    upstream = args[i];
+                    LobbyRouter.parseAddress(upstream);
+                } else if (args[i].equals("-j")) {
+                    i++;
+                    journalDirectory = Path.of(args[i]);
+                } else if (args[i].equals("-a")) {
+                    i++;
+                    archiveFile = Path.of(args[i]);
                 }
-            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
                 logger.log(Level.SEVERE, e.getMessage());
                 System.exit(-5);
             }
         }
 
+        if (backends != null && upstream != null) {
+            logger.severe("A router can't report to another router");
+            System.exit(-5);
+        }
+        if (backends != null && (journalDirectory != null || archiveFile != null)) {
+            logger.severe("A router has no games to journal or archive");
+            System.exit(-5);
+        }
+
         if (socketPort == 0) socketPort = NetworkSettings.socketFromJSON();
         if (rmiPort == 0) rmiPort = NetworkSettings.rmiFromJSON();
     }
@@ -171,7 +373,8 @@ public class ServerApp {
     }
 
     private static void socketServer() {
-        new SocketServer().start(socketPort);
+        if (nio) new NioSocketServer().start(socketPort, Runtime.getRuntime().availableProcessors());
+        else new SocketServer().start(socketPort);
     }
 }
 
@@ -0,0 +1,19 @@
+package Utils;
+
+import java.io.Serializable;
+
+/**
+ * Represents the load of a backend server, reported to the router in front of it.
+ *
+ * @param address  the RMI address of the backend, "host:port"
+ * @param sessions the players connected to the backend, in lobbies, games or the quick-play queue
+ * @param lobbies  the lobbies waiting for players
+ * @param games    the active games
+ * @param queued   the players waiting in the quick-play queue
+ */
+public record BackendLoad(String address, int sessions, int lobbies, int games, int queued) implements Serializable {
+    @Override
+    public String toString() {
+        return sessions + " sessions, " + lobbies + " lobbies, " + games + " games, " + queued + " queued";
+    }
+}
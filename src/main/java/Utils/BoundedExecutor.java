@@ -0,0 +1,93 @@
+package Utils;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BoundedExecutor class wraps an executor that starts a thread per task (typically virtual threads)
+ * and limits how many of the submitted tasks run at the same time.
+ * Submitting never blocks: the task waits for a permit on its own (cheap) thread.
+ * <p>
+ * The permits are meant for short tasks: a task that runs as long as the server, like a console or an accept loop,
+ * would hold its permit for good, so those run on their own threads.
+ */
+public class BoundedExecutor extends AbstractExecutorService {
+    /**
+     * The executor that runs the tasks.
+     */
+    private final ExecutorService executor;
+    /**
+     * The permits for the running tasks.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Creates a new BoundedExecutor.
+     *
+     * @param executor      the executor that runs the tasks
+     * @param maxConcurrent the maximum number of tasks running at the same time
+     */
+    public BoundedExecutor(ExecutorService executor, int maxConcurrent) {
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Runs the task as soon as a permit is available.
+     *
+     * @param task the task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        this.executor.execute(() -> {
+            try {
+                this.permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                this.permits.release();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of tasks that can still start without waiting.
+     *
+     * @return the available permits
+     */
+    public int availablePermits() {
+        return this.permits.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return this.executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.executor.awaitTermination(timeout, unit);
+    }
+}
@@ -7,6 +7,7 @@ import java.io.Serializable;
  * It implements the Serializable and Cloneable interfaces.
  */
 public class Cell implements Serializable, Cloneable {
+    private static final long serialVersionUID = 4790666398189012091L;
     private Tile tile;
     private boolean status;
 
@@ -0,0 +1,67 @@
+package Utils;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a request for a page of the lobbies and games of the server.
+ * The lobbies come first and then the games, each sorted by ID: a page starts after the last entry of the previous one.
+ * <p>
+ * The page is sent as the lobby information: the lobbies, the games and a map describing the page,
+ * with the total number of lobbies and games and, if there are more, where the next page starts.
+ *
+ * @param after     the ID the page starts after, null to start from the first entry of its kind
+ * @param inGames   true if the page starts among the games, false if among the lobbies
+ * @param limit     the maximum number of entries in the page
+ * @param openSeats the minimum number of free seats of the lobbies, 0 for any; games have none, so they're skipped
+ * @param lobbySize the size of the lobbies and games, 0 for any; a lobby without a size yet matches if its players fit
+ */
+public record LobbyQuery(String after, boolean inGames, int limit, int openSeats, int lobbySize) implements Serializable {
+    /**
+     * The number of entries sent to a new connection.
+     */
+    public static final int FIRST_PAGE_SIZE = 10;
+    /**
+     * The query of the first page, sent to a new connection.
+     */
+    public static final LobbyQuery FIRST_PAGE = new LobbyQuery(null, false, FIRST_PAGE_SIZE, 0, 0);
+    /**
+     * The key of the total number of lobbies in the description of a page.
+     */
+    public static final String LOBBIES = "lobbies";
+    /**
+     * The key of the total number of games in the description of a page.
+     */
+    public static final String GAMES = "games";
+    /**
+     * The key of the ID the next page starts after, in the description of a page.
+     */
+    public static final String NEXT = "next";
+    /**
+     * The key telling if the next page starts among the games, in the description of a page.
+     */
+    public static final String NEXT_IN_GAMES = "nextInGames";
+
+    /**
+     * It returns the query of the first page of the lobbies with at least the given free seats.
+     *
+     * @param openSeats the minimum number of free seats
+     * @return the query of the open lobbies
+     */
+    public static LobbyQuery open(int openSeats) {
+        return new LobbyQuery(null, false, FIRST_PAGE_SIZE, openSeats, 0);
+    }
+
+    /**
+     * It returns the query of the page after the given one, with the same filters.
+     *
+     * @param page the lobby information received for this query
+     * @return the query of the next page, null if this was the last one
+     */
+    public LobbyQuery next(List<Map<String, String>> page) {
+        if (page == null || page.size() < 3 || page.get(2) == null || page.get(2).get(NEXT) == null) return null;
+        String next = page.get(2).get(NEXT);
+        return new LobbyQuery(next.isEmpty() ? null : next, Boolean.parseBoolean(page.get(2).get(NEXT_IN_GAMES)), this.limit, this.openSeats, this.lobbySize);
+    }
+}
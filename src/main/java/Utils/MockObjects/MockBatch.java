@@ -0,0 +1,58 @@
+package Utils.MockObjects;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MockBatch class represents the updates produced by a single command, delivered to a scout all together.
+ * The updates are in the order they were raised and have to be applied in that order.
+ * A batch of changes of the game carries the sequence number of its newest update,
+ * the client sends it back when it resumes the game to receive only the updates it missed.
+ */
+public class MockBatch implements Serializable {
+    private static final long serialVersionUID = 1797020720662144646L;
+
+    /**
+     * The updates of the batch: boards, board deltas, players, common goals and chat messages.
+     */
+    private final List<Object> updates;
+    /**
+     * The sequence number of the newest update of the batch, 0 if the updates aren't part of the game sequence.
+     */
+    private final long sequence;
+
+    /**
+     * It creates a batch with the given updates.
+     * @param updates the updates of the batch.
+     */
+    public MockBatch(List<Object> updates) {
+        this(updates, 0);
+    }
+
+    /**
+     * It creates a batch with the given updates of the game.
+     * @param updates the updates of the batch.
+     * @param sequence the sequence number of the newest update.
+     */
+    public MockBatch(List<Object> updates, long sequence) {
+        this.updates = new ArrayList<>(updates);
+        this.sequence = sequence;
+    }
+
+    /**
+     * It returns the updates of the batch.
+     * @return the list of updates.
+     */
+    public List<Object> getUpdates() {
+        return updates;
+    }
+
+    /**
+     * It returns the sequence number of the newest update of the batch.
+     * @return the sequence number, 0 if the updates aren't part of the game sequence.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
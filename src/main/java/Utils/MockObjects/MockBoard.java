@@ -1,6 +1,7 @@
 package Utils.MockObjects;
 
 import Utils.Cell;
+import Utils.Coordinates;
 import java.io.Serializable;
 
 /**
@@ -8,6 +9,8 @@ import java.io.Serializable;
  * It implements the Serializable and Cloneable interfaces.
  */
 public class MockBoard implements Serializable, Cloneable{
+    private static final long serialVersionUID = -2448834704400115336L;
+
     /**
      * The board attribute represents the board of the game.
      */
@@ -16,6 +19,10 @@ public class MockBoard implements Serializable, Cloneable{
      * The lastRound tells if is the last round of the game.
      */
     private boolean lastRound;
+    /**
+     * The version of the board, see {@link MockBoardDelta}.
+     */
+    private int version;
 
     /**
      * It returns the board of the game.
@@ -50,7 +57,63 @@ public class MockBoard implements Serializable, Cloneable{
     }
 
     /**
-     * It returns a clone of the MockBoard object.
+     * It returns the version of the board.
+     * @return the version of the board.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * It sets the version of the board.
+     * @param version the version of the board.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * It applies a delta to the board.
+     * A delta older than the board is already included and it's ignored.
+     * @param delta the changed cells.
+     * @return false if the delta doesn't start from the version of the board, so a full board is needed.
+     */
+    public boolean apply(MockBoardDelta delta) {
+        if (delta.getVersion() <= version) return true;
+        if (board == null || delta.getBaseVersion() != version) return false;
+        for (int i = 0; i < delta.getCoordinates().size(); i++) {
+            Coordinates coordinates = delta.getCoordinates().get(i);
+            board[coordinates.x()][coordinates.y()] = delta.getCells().get(i);
+        }
+        version = delta.getVersion();
+        return true;
+    }
+
+    /**
+     * It returns the board of the next version, without changing this one.
+     * The rows not touched by the delta are shared with this board, so neither board must be modified afterwards.
+     * @param delta the changed cells, whose base version is the version of this board.
+     * @return the board after the delta.
+     */
+    public MockBoard next(MockBoardDelta delta) {
+        MockBoard next = new MockBoard();
+        next.board = board.clone();
+        boolean[] copied = new boolean[board.length];
+        for (int i = 0; i < delta.getCoordinates().size(); i++) {
+            Coordinates coordinates = delta.getCoordinates().get(i);
+            if (!copied[coordinates.x()]) {
+                next.board[coordinates.x()] = board[coordinates.x()].clone();
+                copied[coordinates.x()] = true;
+            }
+            next.board[coordinates.x()][coordinates.y()] = delta.getCells().get(i);
+        }
+        next.lastRound = lastRound;
+        next.version = delta.getVersion();
+        return next;
+    }
+
+    /**
+     * It returns a clone of the MockBoard object, the cells are copied too.
      * @return a clone of the MockBoard object.
      */
     @Override
@@ -58,7 +121,16 @@ public class MockBoard implements Serializable, Cloneable{
         try {
             MockBoard clone = (MockBoard) super.clone();
 
-            clone.board = board.clone();
+            clone.board = new Cell[board.length][];
+            for (int i = 0; i < board.length; i++) {
+                clone.board[i] = new Cell[board[i].length];
+                for (int j = 0; j < board[i].length; j++) {
+                    if (board[i][j] == null) continue;
+                    clone.board[i][j] = new Cell();
+                    clone.board[i][j].setStatus(board[i][j].getStatus());
+                    clone.board[i][j].setTile(board[i][j].getTile());
+                }
+            }
             clone.lastRound = lastRound;
 
             return clone;
@@ -0,0 +1,122 @@
+package Utils.MockObjects;
+
+import Utils.Cell;
+import Utils.Coordinates;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MockBoardDelta class represents the cells of the board changed between two versions:
+ * the removed tiles, the refilled tiles and the status flips.
+ * It can be applied only to a {@link MockBoard} at {@link #getBaseVersion()}.
+ */
+public class MockBoardDelta implements Serializable {
+    private static final long serialVersionUID = -9132764610286321796L;
+
+    /**
+     * The version of the board the delta applies to.
+     */
+    private int baseVersion;
+    /**
+     * The version of the board after the delta.
+     */
+    private int version;
+    /**
+     * The coordinates of the changed cells.
+     */
+    private final List<Coordinates> coordinates;
+    /**
+     * The new content of the changed cells, in the same order of the coordinates.
+     */
+    private final List<Cell> cells;
+
+    /**
+     * It creates an empty delta.
+     */
+    public MockBoardDelta() {
+        this.coordinates = new ArrayList<>();
+        this.cells = new ArrayList<>();
+    }
+
+    /**
+     * It returns the version the delta applies to.
+     * @return the base version.
+     */
+    public int getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * It sets the version the delta applies to.
+     * @param baseVersion the base version.
+     */
+    public void setBaseVersion(int baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    /**
+     * It returns the version of the board after the delta is applied.
+     * @return the version.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * It sets the version of the board after the delta is applied.
+     * @param version the version.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * It adds a changed cell to the delta.
+     * @param coordinates the coordinates of the cell.
+     * @param cell the new content of the cell.
+     */
+    public void addCell(Coordinates coordinates, Cell cell) {
+        this.coordinates.add(coordinates);
+        this.cells.add(cell);
+    }
+
+    /**
+     * It returns the coordinates of the changed cells.
+     * @return the list of coordinates.
+     */
+    public List<Coordinates> getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * It returns the new content of the changed cells.
+     * @return the list of cells.
+     */
+    public List<Cell> getCells() {
+        return cells;
+    }
+
+    /**
+     * It merges two consecutive deltas into a new one, the cells of the second delta win.
+     * The deltas are shared between the clients, so they are not modified.
+     * @param first the older delta.
+     * @param second the newer delta, whose base version is the version of the first one.
+     * @return the merged delta.
+     */
+    public static MockBoardDelta merge(MockBoardDelta first, MockBoardDelta second) {
+        Map<Coordinates, Cell> cells = new LinkedHashMap<>();
+        for (int i = 0; i < first.coordinates.size(); i++)
+            cells.put(first.coordinates.get(i), first.cells.get(i));
+        for (int i = 0; i < second.coordinates.size(); i++)
+            cells.put(second.coordinates.get(i), second.cells.get(i));
+        MockBoardDelta merged = new MockBoardDelta();
+        merged.setBaseVersion(first.baseVersion);
+        merged.setVersion(second.version);
+        cells.forEach(merged::addCell);
+        return merged;
+    }
+}
@@ -8,6 +8,8 @@ import java.util.Stack;
  * It implements the Serializable and Cloneable interfaces.
  */
 public class MockCommonGoal implements Serializable, Cloneable{
+    private static final long serialVersionUID = -4667424271820586825L;
+
     /**
      * The scoringToken attribute represents the scoring token available.
      */
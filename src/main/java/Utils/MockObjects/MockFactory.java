@@ -6,7 +6,10 @@ import Server.Model.LivingRoom.CommonGoal.CommonGoal;
 import Server.Model.Player.Player;
 import Utils.Cell;
 import Utils.ChatMessage;
+import Utils.Coordinates;
+import Utils.Tile;
 
+import java.util.List;
 import java.util.Stack;
 
 /**
@@ -35,11 +38,57 @@ public class MockFactory {
      */
     public static MockBoard getMock(Board board) {
         MockBoard mock = new MockBoard();
-        Cell[][] mockBoard = board.getBoard();
-        mock.setBoard(mockBoard.clone());
+        Cell[][] cells = board.getBoard();
+        Cell[][] mockBoard = new Cell[cells.length][];
+        for (int i = 0; i < cells.length; i++) {
+            mockBoard[i] = new Cell[cells[i].length];
+            for (int j = 0; j < cells[i].length; j++)
+                mockBoard[i][j] = copy(cells[i][j]);
+        }
+        mock.setBoard(mockBoard);
+        mock.setVersion(board.getVersion());
         return mock;
     }
 
+    /**
+     * It creates the delta of the board since the last one, moving the board to the next version.
+     * @param board the board to be mocked
+     * @return the delta of the board, null if no cell changed
+     */
+    public static MockBoardDelta getDelta(Board board) {
+        int baseVersion = board.getVersion();
+        List<Coordinates> changed = board.drainChanges();
+        if (changed.isEmpty()) return null;
+        MockBoardDelta delta = new MockBoardDelta();
+        delta.setBaseVersion(baseVersion);
+        delta.setVersion(board.getVersion());
+        for (Coordinates coordinates : changed)
+            delta.addCell(coordinates, copy(board.getBoard()[coordinates.x()][coordinates.y()]));
+        return delta;
+    }
+
+    /**
+     * It copies a cell, so that the mock doesn't change with the board.
+     */
+    private static Cell copy(Cell cell) {
+        Cell copy = new Cell();
+        copy.setStatus(cell.getStatus());
+        copy.setTile(cell.getTile());
+        return copy;
+    }
+
+    /**
+     * It copies a grid of tiles row by row, so that the mock doesn't change with the shelf.
+     * @param tiles the grid to be copied
+     * @return the copy of the grid
+     */
+    static Tile[][] copy(Tile[][] tiles) {
+        Tile[][] copy = new Tile[tiles.length][];
+        for (int i = 0; i < tiles.length; i++)
+            copy[i] = tiles[i].clone();
+        return copy;
+    }
+
     /**
      * It creates a mock object of the player.
      * @param player the player to be mocked
@@ -48,8 +97,8 @@ public class MockFactory {
     public static MockPlayer getMock(Player player) {
         MockPlayer mock = new MockPlayer();
         mock.setPlayerID(player.getPlayerID());
-        mock.setPersonalGoal(player.getPersonalGoal().getPersonalGoal().clone());
-        mock.setShelf(player.getMyShelf().getMyShelf().clone());
+        mock.setPersonalGoal(copy(player.getPersonalGoal().getPersonalGoal()));
+        mock.setShelf(copy(player.getMyShelf().getMyShelf()));
         mock.setScore(player.getSharedScore());
         return mock;
     }
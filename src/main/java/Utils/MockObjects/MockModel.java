@@ -12,6 +12,8 @@ import java.util.Stack;
  * It implements the Serializable and Cloneable interfaces.
  */
 public class MockModel implements Serializable, Cloneable {
+    private static final long serialVersionUID = 5869003808383352586L;
+
     /**
      * The MockBoard object.
      */
@@ -36,6 +38,10 @@ public class MockModel implements Serializable, Cloneable {
      * The current turn phase.
      */
     private TurnPhase turnPhase;
+    /**
+     * The sequence number of the newest update included in the model, see {@link MockBatch#getSequence()}.
+     */
+    private long sequence;
 
     /**
      * Sets the mock board.
@@ -178,6 +184,22 @@ public class MockModel implements Serializable, Cloneable {
         this.turnPhase = turnPhase;
     }
 
+    /**
+     * It returns the sequence number of the newest update included in the model.
+     * @return sequence The sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * It sets the sequence number of the newest update included in the model.
+     * @param sequence The sequence number.
+     */
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
     /**
      * Creates and returns a deep copy of the MockModel object.
      *
@@ -10,6 +10,8 @@ import java.io.Serializable;
  * It implements the Serializable and Cloneable interfaces.
  */
 public class MockPlayer implements Serializable, Cloneable {
+    private static final long serialVersionUID = -611200536039068063L;
+
     /**
      * The player's ID.
      */
@@ -106,8 +108,8 @@ public class MockPlayer implements Serializable, Cloneable {
             MockPlayer clone = (MockPlayer) super.clone();
 
             clone.playerID = playerID;
-            clone.personalGoal = personalGoal.clone();
-            clone.shelf = shelf.clone();
+            clone.personalGoal = MockFactory.copy(personalGoal);
+            clone.shelf = MockFactory.copy(shelf);
             clone.score = score;
 
             return clone;
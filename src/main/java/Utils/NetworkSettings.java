@@ -59,4 +59,17 @@ public class NetworkSettings {
         JsonObject json = gson.fromJson(reader, JsonObject.class);
         return json.get("socketPort").getAsInt();
     }
+
+    /**
+     * Retrieves from the JSON file if the client accepts the compression offered by the server.
+     *
+     * @return false if the compression is turned off, true if it's on or not set
+     */
+    public static boolean compressionFromJSON() {
+        Gson gson = new Gson();
+        JsonReader reader;
+        reader = new JsonReader(new InputStreamReader(Objects.requireNonNull(ClassLoader.getSystemResourceAsStream(serverSetting))));
+        JsonObject json = gson.fromJson(reader, JsonObject.class);
+        return !json.has("compression") || json.get("compression").getAsBoolean();
+    }
 }
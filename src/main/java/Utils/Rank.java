@@ -7,6 +7,7 @@ import java.io.Serializable;
  * It is implemented as a record, providing immutability and default implementations of equals(), hashCode(), and toString().
  */
 public class Rank implements Serializable, Cloneable {
+    private static final long serialVersionUID = -6057946382485250434L;
     private  String playerID;
     private  int totalScore;
     private  int personalScore;
@@ -29,6 +30,18 @@ public class Rank implements Serializable, Cloneable {
         return totalScore;
     }
 
+    public int getPersonalScore() {
+        return personalScore;
+    }
+
+    public int getPatternScore() {
+        return patternScore;
+    }
+
+    public int getSharedScore() {
+        return sharedScore;
+    }
+
     public void setPlayerID(String playerID) {
         this.playerID = playerID;
     }
@@ -0,0 +1,78 @@
+package Utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The SerialExecutor class runs the submitted tasks one at a time, in submission order,
+ * borrowing threads from a shared executor only while it has work to do.
+ * It is used to keep per-connection (or per-game) ordering without dedicating a thread to it.
+ */
+public class SerialExecutor implements Executor {
+    /**
+     * The maximum number of tasks run in a row before the thread is handed back to the shared executor.
+     */
+    private static final int MAX_RUN = 64;
+    /**
+     * The executor that provides the threads.
+     */
+    private final Executor executor;
+    /**
+     * The tasks waiting to be run.
+     */
+    private final Queue<Runnable> tasks;
+    /**
+     * Tells if a drain task is already scheduled on the shared executor.
+     */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Creates a new SerialExecutor on top of the given executor.
+     *
+     * @param executor the executor that provides the threads
+     */
+    public SerialExecutor(Executor executor) {
+        this.executor = executor;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Queues the task, it will run after every task submitted before it has completed.
+     *
+     * @param task the task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        this.tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Returns the number of tasks waiting to be run.
+     *
+     * @return the number of pending tasks
+     */
+    public int pending() {
+        return this.tasks.size();
+    }
+
+    private void schedule() {
+        if (!this.tasks.isEmpty() && this.scheduled.compareAndSet(false, true))
+            this.executor.execute(this::drain);
+    }
+
+    private void drain() {
+        try {
+            Runnable task;
+            int run = 0;
+            while (run++ < MAX_RUN && (task = this.tasks.poll()) != null)
+                task.run();
+        } finally {
+            this.scheduled.set(false);
+            schedule();
+        }
+    }
+}
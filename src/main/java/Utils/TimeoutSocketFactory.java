@@ -0,0 +1,29 @@
+package Utils;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+
+/**
+ * The TimeoutSocketFactory makes the sockets used to call the remote objects of a client, with a read timeout.
+ * The client exports its view and its network with it, so the factory travels in their stubs to the server,
+ * and a call of the server to a client that stopped answering gives its thread back after the timeout.
+ * The other remote calls of the server, to the router, the backends or the registry, keep the default sockets.
+ *
+ * @param timeout the time a call waits for the answer of the client, in milliseconds
+ */
+public record TimeoutSocketFactory(int timeout) implements RMIClientSocketFactory, Serializable {
+    /**
+     * The factory of the clients: three deadlines of the {@code RemoteDispatcher} of the server,
+     * the time it takes to evict a client that stopped answering.
+     */
+    public static final TimeoutSocketFactory CLIENT = new TimeoutSocketFactory(15000);
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        socket.setSoTimeout(this.timeout);
+        return socket;
+    }
+}
@@ -0,0 +1,154 @@
+package Client.Network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallPipelineTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Waits until the given number of calls of a kind reached the server, the latency is recorded after the call.
+     */
+    private static void awaitCount(CallPipeline pipeline, String name, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pipeline.getCount(name) < count && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(count, pipeline.getCount(name));
+    }
+
+    @Test
+    public void callsRunInTheOrderTheyWereMade() throws InterruptedException {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlapping = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(200);
+        CallPipeline pipeline = new CallPipeline(16, this.executor, e -> {});
+        for (int i = 0; i < 200; i++) {
+            int call = i;
+            pipeline.submit("selectTiles", () -> {
+                if (running.incrementAndGet() > 1) overlapping.incrementAndGet();
+                order.add(call);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, overlapping.get());
+        for (int i = 0; i < 200; i++) assertEquals(i, order.get(i));
+        awaitCount(pipeline, "selectTiles", 200);
+    }
+
+    @Test
+    public void callerWaitsWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CallPipeline pipeline = new CallPipeline(2, this.executor, e -> {});
+        pipeline.submit("login", () -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        pipeline.submit("writeChat", () -> {});
+        pipeline.submit("writeChat", () -> {});
+        assertEquals(2, pipeline.pending());
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        this.executor.execute(() -> {
+            pipeline.submit("writeChat", () -> {});
+            submitted.countDown();
+        });
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void waitingPingIsNotQueuedAgain() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger pings = new AtomicInteger();
+        CallPipeline pipeline = new CallPipeline(8, this.executor, e -> {});
+        pipeline.submit("login", () -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) pipeline.submitOnce("ping", pings::incrementAndGet);
+        assertEquals(1, pipeline.pending());
+        release.countDown();
+        awaitCount(pipeline, "ping", 1);
+        assertEquals(1, pings.get());
+        // once the ping was sent, the next one is queued
+        CountDownLatch sent = new CountDownLatch(1);
+        pipeline.submitOnce("ping", sent::countDown);
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void pingInterruptedBeforeItWasQueuedDoesntBlockTheNextOnes() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CallPipeline pipeline = new CallPipeline(1, this.executor, e -> {});
+        pipeline.submit("login", () -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        pipeline.submit("writeChat", () -> {});
+
+        // the queue is full, the ping waits for room and is interrupted
+        Thread.currentThread().interrupt();
+        pipeline.submitOnce("ping", () -> {});
+        assertTrue(Thread.interrupted());
+        release.countDown();
+        awaitCount(pipeline, "writeChat", 1);
+
+        CountDownLatch sent = new CountDownLatch(1);
+        pipeline.submitOnce("ping", sent::countDown);
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failedCallIsReportedAndTheNextOnesRun() throws InterruptedException {
+        List<RemoteException> failures = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        CallPipeline pipeline = new CallPipeline(4, this.executor, failures::add);
+        pipeline.submit("insertTiles", () -> {
+            throw new RemoteException("lost");
+        });
+        pipeline.submit("logOut", done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        awaitCount(pipeline, "logOut", 1);
+        assertEquals(1, failures.size());
+        assertEquals(List.of("insertTiles", "logOut"), List.copyOf(pipeline.getKinds()));
+        assertTrue(pipeline.getMaxLatency("insertTiles") >= pipeline.getLatency("insertTiles"));
+    }
+}
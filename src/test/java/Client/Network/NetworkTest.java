@@ -0,0 +1,254 @@
+package Client.Network;
+
+import Client.ClientApp;
+import Client.View.View;
+import Enumeration.GameWarning;
+import Messages.Server.Network.PongMessage;
+import Utils.ChatMessage;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockCommonGoal;
+import Utils.MockObjects.MockModel;
+import Utils.MockObjects.MockPlayer;
+import Utils.Rank;
+import Utils.Tile;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkTest {
+
+    /**
+     * A view without a screen, that keeps the updates it's shown.
+     */
+    private static class RecordingView extends View {
+        private final List<Object> updates = new ArrayList<>();
+
+        private RecordingView() throws RemoteException {
+            super();
+        }
+
+        @Override
+        public void updateBoard(MockBoard mockBoard) {
+            this.updates.add(mockBoard);
+        }
+
+        @Override
+        public void updateCommonGoal(MockCommonGoal mockCommonGoal) {
+            this.updates.add(mockCommonGoal);
+        }
+
+        @Override
+        public void updatePlayer(MockPlayer mockPlayer) {
+            this.updates.add(mockPlayer);
+        }
+
+        @Override
+        public void updateChat(ChatMessage message) {
+            this.updates.add(message);
+        }
+
+        @Override
+        public void newTurn(String currentPlayer) {
+        }
+
+        @Override
+        public void askLobbySize() {
+        }
+
+        @Override
+        public void outcomeSelectTiles(List<Tile> selectedTiles) {
+        }
+
+        @Override
+        public void outcomeInsertTiles(boolean success) {
+        }
+
+        @Override
+        public void outcomeException(Exception e) {
+            this.updates.add(e);
+        }
+
+        @Override
+        public void outcomeLogin(String localPlayer, String lobbyID) {
+        }
+
+        @Override
+        public void askPlayerInfo(List<Map<String, String>> lobbyInfo) {
+        }
+
+        @Override
+        public void allGame(MockModel mockModel) {
+        }
+
+        @Override
+        public void endGame(List<Rank> leaderboard) {
+        }
+
+        @Override
+        public void crashedPlayer(String crashedPlayer) {
+        }
+
+        @Override
+        public void reloadPlayer(String reloadPlayer) {
+        }
+
+        @Override
+        public void outcomeMessage(GameWarning warning) {
+        }
+    }
+
+    @BeforeAll
+    public static void setUp() {
+        if (ClientApp.executorService == null) ClientApp.executorService = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "client");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void unexport(View... views) throws NoSuchObjectException {
+        for (View view : views) UnicastRemoteObject.unexportObject(view, true);
+    }
+
+    @Test
+    public void applicationNetworkUpdatesTheViewOfTheApplication() throws RemoteException {
+        View previous = ClientApp.view;
+        RecordingView first = new RecordingView();
+        RecordingView second = new RecordingView();
+        ClientApp.view = first;
+        ClientRMI network = new ClientRMI();
+        try {
+            assertSame(first, network.getView());
+            ChatMessage chat = new ChatMessage("Alice", "hi", null);
+            network.update(chat);
+            assertEquals(List.of(chat), first.updates);
+
+            // the view of the application is asked at every update
+            ClientApp.view = second;
+            assertSame(second, network.getView());
+            network.update(new MockBatch(List.of(chat), 3));
+            assertEquals(List.of(chat), first.updates);
+            assertEquals(List.of(chat), second.updates);
+            assertEquals(3, second.getSequence());
+        } finally {
+            ClientApp.view = previous;
+            network.timer.cancel();
+            network.close();
+            unexport(first, second);
+        }
+    }
+
+    @Test
+    public void clientNetworkUpdatesItsOwnView() throws RemoteException {
+        View previous = ClientApp.view;
+        RecordingView application = new RecordingView();
+        RecordingView own = new RecordingView();
+        ClientApp.view = application;
+        Timer timer = new Timer(true);
+        try {
+            for (String transport : List.of("RMI", "SOCKET")) {
+                own.updates.clear();
+                Network network = NetworkFactory.instanceNetwork(transport, own, timer, () -> {});
+                try {
+                    assertSame(own, network.getView());
+                    MockPlayer player = new MockPlayer();
+                    player.setPlayerID("Alice");
+                    ChatMessage chat = new ChatMessage("Bob", "hi", "Alice");
+                    network.update(new MockBatch(List.of(player, chat), 7));
+                    assertEquals(List.of(player, chat), own.updates);
+                    assertEquals(7, own.getSequence());
+                } finally {
+                    network.close();
+                }
+            }
+            assertTrue(application.updates.isEmpty());
+        } finally {
+            ClientApp.view = previous;
+            timer.cancel();
+            unexport(application, own);
+        }
+    }
+
+    @Test
+    public void unknownUpdateIsReportedToTheView() throws RemoteException {
+        RecordingView view = new RecordingView();
+        Timer timer = new Timer(true);
+        Network network = NetworkFactory.instanceNetwork("SOCKET", view, timer, () -> {});
+        try {
+            network.update("not an update");
+            assertEquals(1, view.updates.size());
+            assertInstanceOf(RuntimeException.class, view.updates.get(0));
+        } finally {
+            network.close();
+            timer.cancel();
+            unexport(view);
+        }
+    }
+
+    @Test
+    public void closedNetworkIgnoresALostConnection() throws RemoteException {
+        RecordingView view = new RecordingView();
+        Timer timer = new Timer(true);
+        AtomicInteger lost = new AtomicInteger();
+        ClientRMI network = new ClientRMI(view, timer, lost::incrementAndGet);
+        try {
+            network.disconnected();
+            assertEquals(1, lost.get());
+            assertFalse(network.isClosed());
+
+            network.close();
+            assertTrue(network.isClosed());
+            network.disconnected();
+            assertEquals(1, lost.get());
+        } finally {
+            timer.cancel();
+            unexport(view);
+        }
+    }
+
+    @Test
+    public void pongGoesToTheNetworkThatReceivedIt() throws RemoteException {
+        Network previous = ClientApp.network;
+        RecordingView view = new RecordingView();
+        Timer timer = new Timer(true);
+        List<Network> pongs = new ArrayList<>();
+        ClientRMI application = new ClientRMI(view, timer, () -> {}) {
+            @Override
+            public void pong(String playerID, String lobbyID) {
+                pongs.add(this);
+            }
+        };
+        ClientRMI bot = new ClientRMI(view, timer, () -> {}) {
+            @Override
+            public void pong(String playerID, String lobbyID) {
+                pongs.add(this);
+            }
+        };
+        ClientApp.network = application;
+        try {
+            new PongMessage("Alice", "lobby").execute(bot);
+            assertEquals(List.of(bot), pongs);
+            // a message run on the view goes to the network of the application
+            new PongMessage("Alice", "lobby").execute(view);
+            assertEquals(List.of(bot, application), pongs);
+        } finally {
+            ClientApp.network = previous;
+            application.close();
+            bot.close();
+            timer.cancel();
+            unexport(view);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package Messages.Wire;
+
+import Messages.Client.GameController.InsertTilesMessage;
+import Messages.Client.GameController.SelectedTilesMessage;
+import Messages.Client.GameController.WriteChatMessage;
+import Messages.Client.Lobby.AddPlayerMessage;
+import Messages.Client.Lobby.PingMessage;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.NewTurnMessage;
+import Utils.ChatMessage;
+import Utils.Coordinates;
+import Utils.MockObjects.MockBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+
+    @Test
+    public void clientMessagesSurviveTheRoundTrip() throws IOException {
+        BinaryCodec encoder = new BinaryCodec();
+        BinaryCodec decoder = new BinaryCodec();
+
+        InsertTilesMessage insert = (InsertTilesMessage) decoder.decode(encoder.encode(new InsertTilesMessage("Alice", List.of(3, 1, 2), 4)));
+        assertEquals("Alice", insert.getPlayerID());
+        assertEquals(List.of(3, 1, 2), insert.getSorted());
+        assertEquals(4, insert.getColumn());
+
+        List<Coordinates> coordinates = List.of(new Coordinates(0, 8), new Coordinates(15, 15), new Coordinates(16, -1));
+        SelectedTilesMessage selected = (SelectedTilesMessage) decoder.decode(encoder.encode(new SelectedTilesMessage("Alice", coordinates)));
+        assertEquals("Alice", selected.getPlayerID());
+        assertEquals(coordinates, selected.getCoordinates());
+
+        WriteChatMessage chat = (WriteChatMessage) decoder.decode(encoder.encode(new WriteChatMessage("Alice", "ciao è€", null)));
+        assertEquals("Alice", chat.getPlayerID());
+        assertEquals("ciao è€", chat.getMessage());
+        assertNull(chat.getTo());
+    }
+
+    @Test
+    public void integersKeepTheirValueAtTheEdges() throws IOException {
+        BinaryCodec encoder = new BinaryCodec();
+        BinaryCodec decoder = new BinaryCodec();
+        int[] values = {0, 1, -1, 63, -64, 64, 127, 128, 16383, 16384, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int value : values) {
+            InsertTilesMessage message = (InsertTilesMessage) decoder.decode(encoder.encode(new InsertTilesMessage("Alice", List.of(value), value)));
+            assertEquals(List.of(value), message.getSorted());
+            assertEquals(value, message.getColumn());
+        }
+        long[] sequences = {-1, 0, 1, 127, 128, Integer.MAX_VALUE, Long.MAX_VALUE - 1};
+        for (long sequence : sequences) {
+            AddPlayerMessage message = (AddPlayerMessage) decoder.decode(encoder.encode(new AddPlayerMessage("Alice", "lobby", sequence)));
+            assertEquals(sequence, message.getLastSequence());
+        }
+    }
+
+    @Test
+    public void identifiersAreSentOnceThenAsHandles() throws IOException {
+        BinaryCodec encoder = new BinaryCodec();
+        BinaryCodec decoder = new BinaryCodec();
+        byte[] first = encoder.encode(new PingMessage("Alice", "lobby"));
+        byte[] second = encoder.encode(new PingMessage("Alice", "lobby"));
+        assertTrue(second.length < first.length);
+        assertEquals(3, second.length);
+
+        for (byte[] payload : List.of(first, second)) {
+            PingMessage ping = (PingMessage) decoder.decode(payload);
+            assertEquals("Alice", ping.getPlayerID());
+            assertEquals("lobby", ping.getLobbyID());
+        }
+    }
+
+    @Test
+    public void identifierRepeatedInAMessageIsAHandle() throws IOException {
+        BinaryCodec encoder = new BinaryCodec();
+        BinaryCodec decoder = new BinaryCodec();
+        WriteChatMessage chat = (WriteChatMessage) decoder.decode(encoder.encode(new WriteChatMessage("Alice", "hi", "Alice")));
+        assertEquals("Alice", chat.getPlayerID());
+        assertEquals("Alice", chat.getTo());
+    }
+
+    @Test
+    public void failedMessageLeavesTheHandlesInStep() throws IOException {
+        BinaryCodec encoder = new BinaryCodec();
+        BinaryCodec decoder = new BinaryCodec();
+        decoder.decode(encoder.encode(new NewTurnMessage("Alice")));
+
+        List<Object> updates = new ArrayList<>();
+        updates.add(new ChatMessage("Bob", "hi", "Carol"));
+        updates.add("not an update");
+        assertThrows(IOException.class, () -> encoder.encode(new UpdateMessage(new MockBatch(updates, 1))));
+
+        // the failed frame is never sent: Bob and Carol must still be new to the decoder
+        UpdateMessage update = (UpdateMessage) decoder.decode(encoder.encode(new UpdateMessage(new ChatMessage("Bob", "hi", "Carol"))));
+        assertEquals(new ChatMessage("Bob", "hi", "Carol"), update.getMessage());
+        NewTurnMessage newTurn = (NewTurnMessage) decoder.decode(encoder.encode(new NewTurnMessage("Alice")));
+        assertEquals("Alice", newTurn.getCurrentPlayer());
+    }
+
+    @Test
+    public void identifiersBeyondTheHandlesAreSentInFull() throws IOException {
+        BinaryCodec encoder = new BinaryCodec();
+        BinaryCodec decoder = new BinaryCodec();
+        for (int round = 0; round < 2; round++)
+            for (int i = 0; i < 5000; i++) {
+                NewTurnMessage message = (NewTurnMessage) decoder.decode(encoder.encode(new NewTurnMessage("player" + i)));
+                assertEquals("player" + i, message.getCurrentPlayer());
+            }
+    }
+
+    @Test
+    public void peerCannotGrowTheHandlesPastTheLimit() throws IOException {
+        BinaryCodec encoder = new BinaryCodec();
+        BinaryCodec decoder = new BinaryCodec();
+        for (int i = 0; i < 4096; i++)
+            decoder.decode(encoder.encode(new NewTurnMessage("player" + i)));
+
+        // a fresh encoder doesn't know the decoder is full and keeps announcing new handles
+        byte[] overflow = new BinaryCodec().encode(new NewTurnMessage("intruder"));
+        assertThrows(StreamCorruptedException.class, () -> decoder.decode(overflow));
+    }
+
+    @Test
+    public void codecWithoutHandlesIsStateless() throws IOException {
+        BinaryCodec encoder = new BinaryCodec(false);
+        byte[] first = encoder.encode(new PingMessage("Alice", "lobby"));
+        byte[] second = encoder.encode(new PingMessage("Alice", "lobby"));
+        assertArrayEquals(first, second);
+        PingMessage ping = (PingMessage) new BinaryCodec().decode(second);
+        assertEquals("Alice", ping.getPlayerID());
+    }
+
+    @Test
+    public void corruptedPayloadIsRejected() {
+        BinaryCodec decoder = new BinaryCodec();
+        assertThrows(IOException.class, () -> decoder.decode(new byte[]{0x7F}));
+        assertThrows(IOException.class, () -> decoder.decode(new byte[]{0x08, 5}));
+        assertThrows(IOException.class, () -> decoder.decode(new byte[]{0x08, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01}));
+    }
+}
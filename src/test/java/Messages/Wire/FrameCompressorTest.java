@@ -0,0 +1,58 @@
+package Messages.Wire;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameCompressorTest {
+
+    private static byte[] payload(int length) {
+        byte[] payload = new byte[length];
+        byte[] text = "player0 picked the tiles of the board ".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < length; i++) payload[i] = text[i % text.length];
+        return payload;
+    }
+
+    @Test
+    public void smallPayloadsDontAllocateTheDeflater() {
+        FrameCompressor compressor = new FrameCompressor(WireFormat.BINARY);
+        assertNull(compressor.compress(payload(FrameCompressor.THRESHOLD - 1)));
+        assertFalse(compressor.isAllocated());
+        assertNotNull(compressor.compress(payload(FrameCompressor.THRESHOLD)));
+        assertTrue(compressor.isAllocated());
+        compressor.close();
+        assertFalse(compressor.isAllocated());
+    }
+
+    @Test
+    public void payloadSurvivesTheRoundTrip() throws StreamCorruptedException {
+        FrameCompressor sender = new FrameCompressor(WireFormat.BINARY);
+        FrameCompressor receiver = new FrameCompressor(WireFormat.BINARY);
+        try {
+            byte[] payload = payload(4096);
+            byte[] compressed = sender.compress(payload);
+            assertNotNull(compressed);
+            assertTrue(compressed.length < payload.length);
+            assertFalse(receiver.isAllocated());
+            assertArrayEquals(payload, receiver.decompress(compressed));
+            assertTrue(receiver.isAllocated());
+        } finally {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void closedCompressorSendsThePayloadsAsTheyAre() {
+        FrameCompressor compressor = new FrameCompressor(WireFormat.JAVA);
+        byte[] compressed = compressor.compress(payload(1024));
+        compressor.close();
+        compressor.close();
+        assertNull(compressor.compress(payload(1024)));
+        assertThrows(StreamCorruptedException.class, () -> compressor.decompress(compressed));
+        assertFalse(compressor.isAllocated());
+    }
+}
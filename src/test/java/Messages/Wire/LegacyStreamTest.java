@@ -0,0 +1,107 @@
+package Messages.Wire;
+
+import Interface.Server.LobbyInterface;
+import Messages.Client.GameController.InsertTilesMessage;
+import Messages.Client.GameController.SelectedTilesMessage;
+import Messages.Client.GameController.WriteChatMessage;
+import Messages.Client.Lobby.*;
+import Messages.ClientMessage;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.AllGameMessage;
+import Messages.Server.View.EndGameMessage;
+import Messages.Server.View.NewTurnMessage;
+import Messages.ServerMessage;
+import Utils.ChatMessage;
+import Utils.Coordinates;
+import Utils.MockObjects.*;
+import Utils.Rank;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The fixtures are object streams written by the classes of the first release,
+ * the same bytes an old client sends and expects on the legacy connection.
+ */
+class LegacyStreamTest {
+
+    private static ObjectInputStream fixture(String name) throws IOException {
+        InputStream stream = Objects.requireNonNull(ClassLoader.getSystemResourceAsStream("legacy/" + name));
+        return new ObjectInputStream(stream);
+    }
+
+    @Test
+    public void oldClientMessagesAreRead() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = fixture("client-stream.bin")) {
+            AddPlayerMessage addPlayer = (AddPlayerMessage) in.readObject();
+            assertEquals("Alice", addPlayer.getPlayerID());
+            assertEquals("lobby", addPlayer.getLobbyID());
+            assertEquals(LobbyInterface.NO_SEQUENCE, addPlayer.getLastSequence());
+
+            LobbySizeMessage lobbySize = (LobbySizeMessage) in.readObject();
+            assertEquals("lobby", lobbySize.getLobbyID());
+            assertEquals(3, lobbySize.getLobbySize());
+
+            GetLobbiesInfoMessage lobbiesInfo = (GetLobbiesInfoMessage) in.readObject();
+            assertNull(lobbiesInfo.getQuery());
+
+            PingMessage ping = (PingMessage) in.readObject();
+            assertEquals("Alice", ping.getPlayerID());
+            assertEquals("lobby", ping.getLobbyID());
+
+            SelectedTilesMessage selected = (SelectedTilesMessage) in.readObject();
+            assertEquals(List.of(new Coordinates(1, 3), new Coordinates(1, 4)), selected.getCoordinates());
+
+            InsertTilesMessage insert = (InsertTilesMessage) in.readObject();
+            assertEquals(List.of(2, 1), insert.getSorted());
+            assertEquals(4, insert.getColumn());
+
+            WriteChatMessage chat = (WriteChatMessage) in.readObject();
+            assertEquals("ciao", chat.getMessage());
+            assertEquals("Bob", chat.getTo());
+
+            assertInstanceOf(LogOutMessage.class, in.readObject());
+        }
+    }
+
+    @Test
+    public void oldServerMessagesAreRead() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = fixture("server-stream.bin")) {
+            MockModel model = ((AllGameMessage) in.readObject()).getMockModel();
+            assertEquals(List.of("Alice", "Bob"), model.getMockPlayers().stream().map(MockPlayer::getPlayerID).toList());
+            assertEquals(2, model.getMockCommonGoal().size());
+            assertEquals("Alice", model.getCurrentPlayer());
+
+            MockBoard board = ((UpdateMessage) in.readObject()).getBoard();
+            assertEquals(model.getMockBoard().getBoard().length, board.getBoard().length);
+            assertFalse(board.isLastRound());
+
+            assertEquals(new ChatMessage("Bob", "ciao", null), ((UpdateMessage) in.readObject()).getMessage());
+            assertEquals("Bob", ((NewTurnMessage) in.readObject()).getCurrentPlayer());
+
+            List<Rank> rank = ((EndGameMessage) in.readObject()).getRank();
+            assertEquals("Bob", rank.get(0).getPlayerID());
+            assertEquals(20, rank.get(0).getTotalScore());
+            assertEquals(12, rank.get(1).getTotalScore());
+        }
+    }
+
+    @Test
+    public void classesSentToOldClientsKeepTheirVersion() {
+        assertEquals(-5941641693745235701L, ObjectStreamClass.lookup(ClientMessage.class).getSerialVersionUID());
+        assertEquals(7944011465258694908L, ObjectStreamClass.lookup(ServerMessage.class).getSerialVersionUID());
+        assertEquals(7970247734090058449L, ObjectStreamClass.lookup(UpdateMessage.class).getSerialVersionUID());
+        assertEquals(2087943400797346608L, ObjectStreamClass.lookup(AllGameMessage.class).getSerialVersionUID());
+        assertEquals(5869003808383352586L, ObjectStreamClass.lookup(MockModel.class).getSerialVersionUID());
+        assertEquals(-2448834704400115336L, ObjectStreamClass.lookup(MockBoard.class).getSerialVersionUID());
+        assertEquals(-611200536039068063L, ObjectStreamClass.lookup(MockPlayer.class).getSerialVersionUID());
+        assertEquals(-4667424271820586825L, ObjectStreamClass.lookup(MockCommonGoal.class).getSerialVersionUID());
+    }
+}
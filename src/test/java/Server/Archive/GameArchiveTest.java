@@ -0,0 +1,139 @@
+package Server.Archive;
+
+import Server.Model.GameModel;
+import Server.Model.Player.Player;
+import Server.ServerFixture;
+import Utils.Tile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static Server.ServerFixture.takeable;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    /**
+     * Plays a few turns of a game and gives the players their final scores.
+     */
+    private static GameModel finishedGame() throws Exception {
+        GameModel model = new GameModel("archived", List.of("Alice", "Bob", "Carol"), new Random(3));
+        for (int turn = 0; turn < 9; turn++) {
+            model.setCurrentPlayer(model.getPlayers().get(turn % 3));
+            List<Tile> tiles = new ArrayList<>(model.selectTiles(List.of(takeable(model))));
+            model.insertTiles(List.of(1), tiles, turn / 3 % 5);
+        }
+        for (int i = 0; i < 3; i++) {
+            Player player = model.getPlayers().get(i);
+            player.updateSharedScore(8 - 2 * i);
+            player.updatePersonalScore(i + 1);
+            player.updatePatternScore(3 * i);
+        }
+        return model;
+    }
+
+    /**
+     * The archive pads a smaller grid, like the board of two players, with empty cells.
+     */
+    private static void assertSameTiles(Tile[][] expected, Tile[][] actual) {
+        for (int x = 0; x < actual.length; x++)
+            for (int y = 0; y < actual[x].length; y++)
+                assertEquals(x < expected.length && y < expected[x].length ? expected[x][y] : null, actual[x][y]);
+    }
+
+    private static void assertSameGame(GameSummary expected, GameSummary actual) {
+        assertEquals(expected.gameID(), actual.gameID());
+        assertEquals(expected.outcome(), actual.outcome());
+        assertEquals(expected.endedAt(), actual.endedAt());
+        assertEquals(expected.players(), actual.players());
+        assertArrayEquals(expected.commonGoals(), actual.commonGoals());
+        assertArrayEquals(expected.personalGoals(), actual.personalGoals());
+        for (int i = 0; i < expected.players().size(); i++) assertArrayEquals(expected.scores()[i], actual.scores()[i]);
+        assertSameTiles(expected.board(), actual.board());
+        for (int i = 0; i < expected.players().size(); i++) assertSameTiles(expected.shelves().get(i), actual.shelves().get(i));
+        assertEquals(expected.moves(), actual.moves());
+    }
+
+    @Test
+    public void finishedGameIsReadBackAsItWasWritten() throws Exception {
+        Path file = Files.createTempFile("archive", ".bin");
+        Files.delete(file);
+        try {
+            GameModel model = finishedGame();
+            GameSummary game = GameSummary.of(model, GameSummary.Outcome.FINISHED);
+            GameSummary abandoned = GameSummary.of(new GameModel("left", List.of("Dave", "Erin"), new Random(4)), GameSummary.Outcome.ABANDONED);
+            try (GameArchive archive = new GameArchive(file)) {
+                archive.append(game);
+                archive.append(abandoned);
+                assertEquals(2, archive.getGames());
+            }
+
+            List<GameSummary> read = new ArrayList<>();
+            try (ArchiveReader reader = new ArchiveReader(file)) {
+                assertEquals(Files.size(file), reader.scan(entry -> {
+                    if (entry.outcome() == GameSummary.Outcome.FINISHED)
+                        for (int i = 0; i < 3; i++) assertEquals(model.getPlayers().get(i).getTotalScore(), entry.totalScore(i));
+                    read.add(entry.summary());
+                }));
+                List<ArchiveReader.CommonGoalsScore> scores = reader.scoreByCommonGoals();
+                assertEquals(1, scores.size());
+                assertEquals(1, scores.get(0).games());
+                assertEquals((8 + 1 + 0 + 6 + 2 + 3 + 4 + 3 + 6) / 3.0, scores.get(0).average(), 1e-9);
+            }
+            assertEquals(2, read.size());
+            assertSameGame(game, read.get(0));
+            assertSameGame(abandoned, read.get(1));
+            assertEquals(9, read.get(0).moves().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void tornGameIsCutWhenTheArchiveIsReopened() throws Exception {
+        Path file = Files.createTempFile("archive", ".bin");
+        Files.delete(file);
+        try {
+            GameSummary game = GameSummary.of(finishedGame(), GameSummary.Outcome.FINISHED);
+            try (GameArchive archive = new GameArchive(file)) {
+                archive.append(game);
+            }
+            long whole = Files.size(file);
+            // the server stopped in the middle of the next game
+            Files.write(file, new byte[]{(byte) 0x01, (byte) 0x00, 0, 1, 2}, StandardOpenOption.APPEND);
+
+            try (GameArchive archive = new GameArchive(file)) {
+                assertEquals(1, archive.getGames());
+                assertEquals(whole, Files.size(file));
+                archive.append(game);
+            }
+            List<GameSummary> read = new ArrayList<>();
+            try (ArchiveReader reader = new ArchiveReader(file)) {
+                reader.scan(entry -> read.add(entry.summary()));
+            }
+            assertEquals(2, read.size());
+            assertSameGame(game, read.get(1));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package Server.Controller;
+
+import Interface.Client.RemoteView;
+import Server.Journal.JournalRecord;
+import Server.Journal.MoveJournal;
+import Server.Model.GameModel;
+import Server.Model.Player.Player;
+import Server.Network.Client.ClientHandler;
+import Server.ServerApp;
+import Server.ServerFixture;
+import Utils.Cell;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static Server.ServerFixture.takeable;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameControllerTest {
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    /**
+     * A client that takes every call and shows nothing.
+     */
+    private static RemoteView silentView() {
+        return (RemoteView) Proxy.newProxyInstance(RemoteView.class.getClassLoader(), new Class<?>[]{RemoteView.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "silent view";
+                    default -> null;
+                });
+    }
+
+    /**
+     * Waits until the mailbox of a game ran every event queued before.
+     */
+    private static void await(GameController game) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        game.execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static List<JournalRecord> recovered(Path directory, String gameID) throws IOException {
+        MoveJournal journal = new MoveJournal(directory);
+        try {
+            return journal.getRecovered().get(gameID);
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+
+    @Test
+    public void gameThatEndedInTheReplayIsClosedInTheJournal() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            MoveJournal journal = new MoveJournal(directory);
+            journal.append(new JournalRecord.Start("game", 42, List.of("Alice", "Bob")));
+            journal.append(new JournalRecord.Leave("game", "Alice"));
+            journal.append(new JournalRecord.Leave("game", "Bob"));
+            // the server crashed before the end of the game was written
+            journal.close();
+
+            journal = new MoveJournal(directory);
+            ServerApp.journal = journal;
+            try {
+                assertNull(GameController.recover(journal.getRecovered().get("game")));
+            } finally {
+                ServerApp.journal = null;
+                journal.close();
+            }
+
+            assertNull(recovered(directory, "game"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void runningGameIsRestartedInTheJournal() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            MoveJournal journal = new MoveJournal(directory);
+            journal.append(new JournalRecord.Start("game", 42, List.of("Alice", "Bob")));
+            journal.close();
+
+            journal = new MoveJournal(directory);
+            ServerApp.journal = journal;
+            GameController game;
+            try {
+                game = GameController.recover(journal.getRecovered().get("game"));
+            } finally {
+                ServerApp.journal = null;
+                journal.close();
+            }
+            assertNotNull(game);
+            assertTrue(game.activePlayers().isEmpty());
+            UnicastRemoteObject.unexportObject(game, true);
+
+            List<JournalRecord> records = recovered(directory, "game");
+            assertEquals(List.of(new JournalRecord.Start("game", 42, List.of("Alice", "Bob")), new JournalRecord.Restart("game")), records);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void replayedGameIsTheGameThatWasPlayed() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("journal");
+        MoveJournal journal = new MoveJournal(directory);
+        ServerApp.journal = journal;
+        GameController live = null;
+        GameController recovered = null;
+        try {
+            HashMap<String, ClientHandler> players = new HashMap<>();
+            for (String playerID : List.of("Alice", "Bob")) players.put(playerID, new ClientHandler(playerID, "replay", silentView()));
+            live = new GameController("replay", players);
+            GameModel model = live.getGameModel();
+            for (int turn = 0; turn < 8; turn++) {
+                String current = model.getCurrentPlayer().getPlayerID();
+                live.selectTiles(current, List.of(takeable(model)));
+                live.insertTiles(current, List.of(1), turn / 2 % 5);
+                await(live);
+            }
+            // longer than the 64 KB of a string in modified UTF-8
+            String chat = "ciao ".repeat(20_000);
+            live.writeChat("Alice", chat, null);
+            await(live);
+            journal.close();
+
+            journal = new MoveJournal(directory);
+            ServerApp.journal = journal;
+            List<JournalRecord> records = journal.getRecovered().get("replay");
+            assertEquals(8, records.stream().filter(record -> record instanceof JournalRecord.Select).count());
+            assertEquals(8, records.stream().filter(record -> record instanceof JournalRecord.Insert).count());
+            assertEquals(chat, ((JournalRecord.Chat) records.get(records.size() - 1)).message());
+            recovered = GameController.recover(records);
+            assertNotNull(recovered);
+
+            GameModel replayed = recovered.getGameModel();
+            assertEquals(model.getMoves(), replayed.getMoves());
+            assertEquals(model.getCurrentPlayer().getPlayerID(), replayed.getCurrentPlayer().getPlayerID());
+            Cell[][] board = model.getBoard().getBoard();
+            for (int x = 0; x < board.length; x++)
+                for (int y = 0; y < board[x].length; y++)
+                    assertEquals(board[x][y].getTile(), replayed.getBoard().getBoard()[x][y].getTile());
+            for (Player player : model.getPlayers()) {
+                Player other = replayed.getPlayers().stream().filter(p -> p.getPlayerID().equals(player.getPlayerID())).findFirst().orElseThrow();
+                assertEquals(player.getTotalScore(), other.getTotalScore());
+                for (int row = 0; row < player.getMyShelf().numberRows(); row++)
+                    for (int column = 0; column < player.getMyShelf().numberColumns(); column++)
+                        assertEquals(player.getMyShelf().getTile(row, column), other.getMyShelf().getTile(row, column));
+            }
+            assertEquals(model.getChatRoom().getFlow(), replayed.getChatRoom().getFlow());
+        } finally {
+            ServerApp.journal = null;
+            journal.close();
+            if (live != null) UnicastRemoteObject.unexportObject(live, true);
+            if (recovered != null) UnicastRemoteObject.unexportObject(recovered, true);
+            delete(directory);
+        }
+    }
+}
@@ -12,6 +12,8 @@ import Utils.ChatMessage;
 import Utils.ChatRoom;
 import Utils.Coordinates;
 import Utils.Tile;
+import Utils.MockObjects.MockModel;
+import Utils.MockObjects.MockPlayer;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.stream.JsonReader;
@@ -24,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -243,6 +246,76 @@ class GameModelTest {
         assertThrows(NoValidMoveException.class, () -> gameModel.selectTiles(coordinates));
     }
 
+    @Test
+    public void snapshotIsSharedUntilTheGameChanges() throws Exception {
+        GameModel model = new GameModel("snapshot", Arrays.asList("Alice", "Bob", "Carlos"));
+        GameSnapshot before = model.snapshot();
+        assertSame(before, model.snapshot());
+
+        model.selectTiles(List.of(new Coordinates(0, 3)));
+        GameSnapshot after = model.snapshot();
+        assertTrue(after.version() > before.version());
+        assertNotNull(before.model().getMockBoard().getBoard()[0][3].getTile());
+        assertNull(after.model().getMockBoard().getBoard()[0][3].getTile());
+        assertSame(before.model().getMockBoard().getBoard()[4], after.model().getMockBoard().getBoard()[4]);
+        assertSame(before.model().getMockCommonGoal().get(0), after.model().getMockCommonGoal().get(0));
+    }
+
+    @Test
+    public void newTurnKeepsTheVersion() {
+        GameModel model = new GameModel("turn", Arrays.asList("Alice", "Bob", "Carlos"));
+        GameSnapshot before = model.snapshot();
+        Player next = model.getPlayers().get((model.getPlayers().indexOf(model.getCurrentPlayer()) + 1) % 3);
+
+        model.setCurrentPlayer(next);
+        GameSnapshot after = model.snapshot();
+        assertEquals(before.version(), model.getVersion());
+        assertEquals(before.version(), after.version());
+        assertEquals(next.getPlayerID(), after.model().getCurrentPlayer());
+        assertNotEquals(next.getPlayerID(), before.model().getCurrentPlayer());
+    }
+
+    @Test
+    public void snapshotDoesNotChangeWithTheShelf() throws Exception {
+        GameModel model = new GameModel("snapshot", Arrays.asList("Alice", "Bob", "Carlos"));
+        String current = model.getCurrentPlayer().getPlayerID();
+        MockModel before = model.snapshot().model();
+
+        model.insertTiles(new ArrayList<>(List.of(1)), new ArrayList<>(List.of(new Tile(Color.BLUE))), 0);
+        MockPlayer old = before.getPlayer(current);
+        for (Tile[] row : old.getShelf())
+            for (Tile tile : row) assertNull(tile);
+        assertNotSame(old, model.snapshot().model().getPlayer(current));
+    }
+
+    @Test
+    public void sameSeedGivesTheSameGame() {
+        GameModel first = new GameModel("seed", Arrays.asList("Alice", "Bob", "Carlos"), new Random(42));
+        GameModel second = new GameModel("seed", Arrays.asList("Alice", "Bob", "Carlos"), new Random(42));
+        MockModel one = first.snapshot().model();
+        MockModel other = second.snapshot().model();
+
+        for (int i = 0; i < one.getMockBoard().getBoard().length; i++)
+            for (int j = 0; j < one.getMockBoard().getBoard()[i].length; j++)
+                assertEquals(one.getMockBoard().getBoard()[i][j].getTile(), other.getMockBoard().getBoard()[i][j].getTile());
+        for (int i = 0; i < 2; i++)
+            assertEquals(one.getMockCommonGoal().get(i).getEnumeration(), other.getMockCommonGoal().get(i).getEnumeration());
+        for (int i = 0; i < 3; i++)
+            assertArrayEquals(one.getMockPlayers().get(i).getPersonalGoal(), other.getMockPlayers().get(i).getPersonalGoal());
+    }
+
+    @Test
+    public void movesAndPersonalGoalsAreKept() throws Exception {
+        GameModel model = new GameModel("moves", Arrays.asList("Alice", "Bob", "Carlos"));
+        String current = model.getCurrentPlayer().getPlayerID();
+        List<Tile> tiles = new ArrayList<>(model.selectTiles(List.of(new Coordinates(0, 3))));
+        model.insertTiles(new ArrayList<>(List.of(1)), tiles, 2);
+
+        assertEquals(List.of(new Move(current, List.of(new Coordinates(0, 3)), List.of(1), 2)), model.getMoves());
+        assertEquals(3, model.getPlayers().stream().mapToInt(player -> player.getPersonalGoal().getId()).distinct()
+                .filter(id -> id >= 0 && id < 12).count());
+    }
+
     private PersonalGoal decoPersonalGoal() {
         Gson gson = new Gson();
         JsonReader reader;
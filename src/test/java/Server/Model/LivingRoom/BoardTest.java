@@ -5,6 +5,9 @@ import Exception.Board.CantRefillBoardException;
 import Exception.Board.NullTileException;
 import Utils.Coordinates;
 import Utils.Tile;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockFactory;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.stream.JsonReader;
@@ -123,6 +126,34 @@ class BoardTest {
         });
     }
 
+    @Test
+    public void drainChangesTest() throws NullTileException {
+        // nothing changed, the version doesn't move
+        assertTrue(board.drainChanges().isEmpty());
+        assertEquals(0, board.getVersion());
+
+        MockBoard mock = MockFactory.getMock(board);
+        board.getTiles(List.of(new Coordinates(0, 2)));
+        MockBoardDelta delta = MockFactory.getDelta(board);
+        assertNotNull(delta);
+        assertEquals(0, delta.getBaseVersion());
+        assertEquals(1, delta.getVersion());
+        assertEquals(List.of(new Coordinates(0, 2)), delta.getCoordinates());
+        assertNull(MockFactory.getDelta(board));
+
+        // the delta applies to the board it started from
+        assertNotNull(mock.getBoard()[0][2].getTile());
+        assertTrue(mock.apply(delta));
+        assertNull(mock.getBoard()[0][2].getTile());
+        assertEquals(1, mock.getVersion());
+        // an old delta is ignored, a delta from a missed version is refused
+        assertTrue(mock.apply(delta));
+        MockBoardDelta missed = new MockBoardDelta();
+        missed.setBaseVersion(2);
+        missed.setVersion(3);
+        assertFalse(mock.apply(missed));
+    }
+
     @Test
     public void getBoard(){
         assertTrue(this.board.equals(this.board.getBoard()));
@@ -0,0 +1,243 @@
+package Server.Model;
+
+import Interface.BatchedScout;
+import Interface.Scout;
+import Interface.SharedScout;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Wire.SharedMessage;
+import Server.ServerFixture;
+import Utils.Cell;
+import Utils.ChatMessage;
+import Utils.Coordinates;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockPlayer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TalentTest {
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    private static MockBoardDelta delta(int baseVersion, int version, Coordinates coordinates) {
+        MockBoardDelta delta = new MockBoardDelta();
+        delta.setBaseVersion(baseVersion);
+        delta.setVersion(version);
+        delta.addCell(coordinates, new Cell());
+        return delta;
+    }
+
+    private static MockPlayer player(String playerID, int score) {
+        MockPlayer player = new MockPlayer();
+        player.setPlayerID(playerID);
+        player.setScore(score);
+        return player;
+    }
+
+    @Test
+    public void eventsOutsideCommandAreDeliveredImmediately() throws InterruptedException {
+        Talent talent = new Talent();
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        talent.addScout("Alice", (Scout<Object>) received::add);
+
+        ChatMessage chat = new ChatMessage("Bob", "hi", null);
+        talent.onEvent(chat);
+        assertSame(chat, received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void commandIsCoalescedInOneBatch() throws InterruptedException {
+        Talent talent = new Talent();
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        talent.addScout("Alice", (Scout<Object>) received::add);
+
+        ChatMessage chat = new ChatMessage("Bob", "hi", null);
+        MockPlayer last = player("Alice", 8);
+        talent.begin();
+        talent.onEvent(delta(0, 1, new Coordinates(4, 1)));
+        talent.onEvent(player("Alice", 3));
+        talent.onEvent(chat);
+        talent.onEvent(delta(1, 2, new Coordinates(4, 2)));
+        talent.onEvent(last);
+        assertTrue(received.isEmpty());
+        talent.commit();
+
+        Object update = received.poll(5, TimeUnit.SECONDS);
+        assertInstanceOf(MockBatch.class, update);
+        List<Object> updates = ((MockBatch) update).getUpdates();
+        assertEquals(3, updates.size());
+
+        MockBoardDelta merged = (MockBoardDelta) updates.get(0);
+        assertEquals(0, merged.getBaseVersion());
+        assertEquals(2, merged.getVersion());
+        assertEquals(List.of(new Coordinates(4, 1), new Coordinates(4, 2)), merged.getCoordinates());
+        assertSame(chat, updates.get(1));
+        assertSame(last, updates.get(2));
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * A scout living in the server process, it records what it receives.
+     */
+    private record LocalScout(BlockingQueue<Object> received) implements Scout<Object>, SharedScout {
+        @Override
+        public void update(Object objects) {
+            received.add(objects);
+        }
+
+        @Override
+        public void updateShared(SharedMessage message) {
+            received.add(message);
+        }
+    }
+
+    @Test
+    public void broadcastIsSharedByLocalScouts() throws InterruptedException {
+        Talent talent = new Talent();
+        BlockingQueue<Object> alice = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> bob = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> remote = new LinkedBlockingQueue<>();
+        talent.addScout("Alice", new LocalScout(alice));
+        talent.addScout("Bob", new LocalScout(bob));
+        talent.addScout("Carol", (Scout<Object>) remote::add);
+
+        ChatMessage chat = new ChatMessage("Bob", "hi", null);
+        talent.onEvent(chat);
+        SharedMessage shared = (SharedMessage) alice.poll(5, TimeUnit.SECONDS);
+        assertSame(shared, bob.poll(5, TimeUnit.SECONDS));
+        assertSame(chat, ((UpdateMessage) shared.getMessage()).getMessage());
+        assertSame(chat, remote.poll(5, TimeUnit.SECONDS));
+
+        talent.onEvent("Alice", chat);
+        assertSame(chat, alice.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void sameCommandUpdatesShareTheBatch() throws InterruptedException {
+        Talent talent = new Talent();
+        BlockingQueue<Object> alice = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> bob = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> carol = new LinkedBlockingQueue<>();
+        talent.addScout("Alice", new LocalScout(alice));
+        talent.addScout("Bob", new LocalScout(bob));
+        talent.addScout("Carol", new LocalScout(carol));
+
+        ChatMessage whisper = new ChatMessage("Alice", "psst", "Carol");
+        talent.begin();
+        talent.onEvent(delta(0, 1, new Coordinates(4, 1)));
+        talent.onEvent(delta(1, 2, new Coordinates(4, 2)));
+        talent.onEvent(player("Alice", 3));
+        talent.onEvent("Carol", whisper);
+        talent.commit();
+
+        SharedMessage shared = (SharedMessage) alice.poll(5, TimeUnit.SECONDS);
+        assertSame(shared, bob.poll(5, TimeUnit.SECONDS));
+        List<Object> updates = ((UpdateMessage) shared.getMessage()).getBatch().getUpdates();
+        assertEquals(2, updates.size());
+
+        // Carol collected one more update, she gets her own batch with the same merged delta
+        MockBatch own = (MockBatch) carol.poll(5, TimeUnit.SECONDS);
+        assertSame(updates.get(0), own.getUpdates().get(0));
+        assertSame(whisper, own.getUpdates().get(2));
+    }
+
+    @Test
+    public void sequencedEventsCarryTheirSequence() throws InterruptedException {
+        Talent talent = new Talent();
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        talent.addScout("Alice", (Scout<Object>) received::add);
+
+        MockPlayer alice = player("Alice", 3);
+        talent.onEvent(7, alice);
+        MockBatch batch = (MockBatch) received.poll(5, TimeUnit.SECONDS);
+        assertEquals(7, batch.getSequence());
+        assertSame(alice, batch.getUpdates().get(0));
+    }
+
+    @Test
+    public void resumingPlayerReceivesOnlyMissedUpdates() throws InterruptedException {
+        Talent talent = new Talent();
+        talent.addScout("Alice", (Scout<Object>) update -> {});
+        MockPlayer alice = player("Alice", 1);
+        MockPlayer bob = player("Bob", 2);
+        MockPlayer carol = player("Carol", 3);
+        talent.onEvent(1, alice);
+        talent.onEvent(2, bob);
+        talent.onEvent(3, carol);
+        talent.onEvent(4, List.of("Alice", "Bob"), new ChatMessage("Alice", "psst", "Bob"));
+
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        talent.resume("Carol", 1);
+        assertTrue(talent.addScout("Carol", (Scout<Object>) received::add));
+        MockBatch missed = (MockBatch) received.poll(5, TimeUnit.SECONDS);
+        assertEquals(List.of(bob, carol), missed.getUpdates());
+        assertEquals(3, missed.getSequence());
+    }
+
+    @Test
+    public void resumeOutsideHistoryNeedsTheWholeGame() {
+        Talent talent = new Talent();
+        for (int sequence = 1; sequence <= Talent.HISTORY + 2; sequence++)
+            talent.onEvent(sequence, player("Alice", sequence));
+
+        assertFalse(talent.canReplay(1));
+        assertTrue(talent.canReplay(2));
+        talent.resume("Bob", 1);
+        assertFalse(talent.addScout("Bob", (Scout<Object>) update -> {}));
+    }
+
+    @Test
+    public void updatesPiledUpForARemoteScoutAreSentInOneCall() throws InterruptedException {
+        Talent talent = new Talent();
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        CountDownLatch busy = new CountDownLatch(1), release = new CountDownLatch(1);
+        talent.addScout("Alice", new BatchedScout<Object>() {
+            @Override
+            public void update(Object objects) {
+                received.add(objects);
+                busy.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void updateBatch(List<?> updates) {
+                received.add(updates);
+            }
+        });
+
+        MockPlayer first = player("Alice", 1), second = player("Bob", 2), third = player("Carol", 3);
+        ChatMessage chat = new ChatMessage("Bob", "hi", null);
+        talent.onEvent(first);
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        talent.onEvent(second);
+        talent.onEvent(third);
+        talent.onEvent(chat);
+        release.countDown();
+
+        assertSame(first, received.poll(5, TimeUnit.SECONDS));
+        assertEquals(List.of(second, third, chat), received.poll(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,128 @@
+package Server.Network.Client;
+
+import Messages.Server.Network.UpdateMessage;
+import Messages.ServerMessage;
+import Utils.Cell;
+import Utils.ChatMessage;
+import Utils.Coordinates;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundBufferTest {
+
+    private static MockBoard board(int version) {
+        MockBoard board = new MockBoard();
+        board.setVersion(version);
+        return board;
+    }
+
+    private static MockBoardDelta delta(int baseVersion, Coordinates coordinates) {
+        MockBoardDelta delta = new MockBoardDelta();
+        delta.setBaseVersion(baseVersion);
+        delta.setVersion(baseVersion + 1);
+        delta.addCell(coordinates, new Cell());
+        return delta;
+    }
+
+    private static MockPlayer player(String playerID, int score) {
+        MockPlayer player = new MockPlayer();
+        player.setPlayerID(playerID);
+        player.setScore(score);
+        return player;
+    }
+
+    private static List<ServerMessage> drain(OutboundBuffer buffer) {
+        List<ServerMessage> messages = new ArrayList<>();
+        OutboundBuffer.Entry entry;
+        while ((entry = buffer.poll()) != null) messages.add(entry.message());
+        return messages;
+    }
+
+    @Test
+    public void coalesceKeepsOnlyTheNewestState() {
+        ConnectionStats stats = new ConnectionStats();
+        OutboundBuffer buffer = new OutboundBuffer(4, OverflowPolicy.COALESCE, stats);
+        MockBoard first = board(1);
+        ChatMessage chat = new ChatMessage("Bob", "hi", null);
+        assertTrue(buffer.offer(new UpdateMessage(first)));
+        assertTrue(buffer.offer(new UpdateMessage(player("Alice", 1))));
+        assertTrue(buffer.offer(new UpdateMessage(delta(1, new Coordinates(2, 3)))));
+        assertTrue(buffer.offer(new UpdateMessage(delta(2, new Coordinates(4, 4)))));
+        // the two deltas are merged
+        assertTrue(buffer.offer(new UpdateMessage(chat)));
+        // the older version of the player is dropped
+        MockPlayer alice = player("Alice", 2);
+        assertTrue(buffer.offer(new UpdateMessage(alice)));
+        // the new board supersedes the older board and the delta
+        MockBoard last = board(5);
+        assertTrue(buffer.offer(new UpdateMessage(last)));
+
+        List<ServerMessage> messages = drain(buffer);
+        assertEquals(3, messages.size());
+        assertEquals(chat, ((UpdateMessage) messages.get(0)).getMessage());
+        assertEquals(2, ((UpdateMessage) messages.get(1)).getPlayer().getScore());
+        assertSame(last, ((UpdateMessage) messages.get(2)).getBoard());
+        assertEquals(4, stats.getDiscarded());
+    }
+
+    @Test
+    public void coalesceMergesTheDeltasThatFollowEachOther() {
+        OutboundBuffer buffer = new OutboundBuffer(2, OverflowPolicy.COALESCE, new ConnectionStats());
+        assertTrue(buffer.offer(new UpdateMessage(delta(1, new Coordinates(2, 3)))));
+        assertTrue(buffer.offer(new UpdateMessage(delta(2, new Coordinates(4, 4)))));
+        assertTrue(buffer.offer(new UpdateMessage(delta(3, new Coordinates(5, 5)))));
+
+        List<ServerMessage> messages = drain(buffer);
+        assertEquals(1, messages.size());
+        MockBoardDelta merged = ((UpdateMessage) messages.get(0)).getBoardDelta();
+        assertEquals(1, merged.getBaseVersion());
+        assertEquals(4, merged.getVersion());
+        assertEquals(3, merged.getCoordinates().size());
+    }
+
+    @Test
+    public void coalesceCantDropChatMessages() {
+        OutboundBuffer buffer = new OutboundBuffer(2, OverflowPolicy.COALESCE, new ConnectionStats());
+        assertTrue(buffer.offer(new UpdateMessage(new ChatMessage("Bob", "1", null))));
+        assertTrue(buffer.offer(new UpdateMessage(new ChatMessage("Bob", "2", null))));
+        assertFalse(buffer.offer(new UpdateMessage(new ChatMessage("Bob", "3", null))));
+    }
+
+    @Test
+    public void dropChatKeepsTheStateUpdates() {
+        ConnectionStats stats = new ConnectionStats();
+        OutboundBuffer buffer = new OutboundBuffer(3, OverflowPolicy.DROP_CHAT, stats);
+        MockPlayer alice = player("Alice", 3);
+        MockBoard board = board(2);
+        assertTrue(buffer.offer(new UpdateMessage(new ChatMessage("Bob", "1", null))));
+        assertTrue(buffer.offer(new UpdateMessage(new MockBatch(List.of(alice, new ChatMessage("Bob", "2", null)), 7))));
+        assertTrue(buffer.offer(new UpdateMessage(board)));
+        assertTrue(buffer.offer(new UpdateMessage(new ChatMessage("Bob", "3", null))));
+
+        List<ServerMessage> messages = drain(buffer);
+        assertEquals(2, messages.size());
+        MockBatch batch = ((UpdateMessage) messages.get(0)).getBatch();
+        assertEquals(List.of(alice), batch.getUpdates());
+        assertEquals(7, batch.getSequence());
+        assertSame(board, ((UpdateMessage) messages.get(1)).getBoard());
+        assertEquals(2, stats.getDiscarded());
+    }
+
+    @Test
+    public void dropChatCantDropStateUpdates() {
+        OutboundBuffer buffer = new OutboundBuffer(2, OverflowPolicy.DROP_CHAT, new ConnectionStats());
+        assertTrue(buffer.offer(new UpdateMessage(board(1))));
+        assertTrue(buffer.offer(new UpdateMessage(new ChatMessage("Bob", "1", null))));
+        // the chat makes room for the second board, not for the third
+        assertTrue(buffer.offer(new UpdateMessage(board(2))));
+        assertFalse(buffer.offer(new UpdateMessage(board(3))));
+    }
+}
@@ -0,0 +1,124 @@
+package Server.Network.Client;
+
+import Interface.Scout;
+import Server.ServerFixture;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteDispatcherTest {
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    @Test
+    public void waitingCallsFailOnceTheClientIsEvicted() throws InterruptedException {
+        BlockingQueue<String> evicted = new LinkedBlockingQueue<>();
+        RemoteDispatcher dispatcher = new RemoteDispatcher(Executors.newFixedThreadPool(2, ServerFixture.daemon("dispatch")), 50, 2, 16, (playerID, lobbyID) -> evicted.add(playerID));
+        CountDownLatch stuck = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Scout<Object> scout = update -> {
+            calls.incrementAndGet();
+            try {
+                stuck.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        dispatcher.watch(scout, "Alice", "lobby");
+
+        CompletableFuture<Void> first = dispatcher.call(scout, target -> target.update("first"));
+        CompletableFuture<Void> second = dispatcher.call(scout, target -> target.update("second"));
+        assertEquals("Alice", evicted.poll(5, TimeUnit.SECONDS));
+
+        // the second call is failed while the first one is still stuck on the client
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertTrue(dispatcher.call(scout, target -> target.update("third")).isCompletedExceptionally());
+        stuck.countDown();
+        Thread.sleep(200);
+        assertEquals(1, calls.get());
+        assertNull(evicted.poll());
+        assertEquals(1, dispatcher.getEvictions());
+    }
+
+    @Test
+    public void failingClientIsEvictedOnce() throws InterruptedException {
+        BlockingQueue<String> evicted = new LinkedBlockingQueue<>();
+        RemoteDispatcher dispatcher = new RemoteDispatcher(Executors.newFixedThreadPool(2, ServerFixture.daemon("dispatch")), 5000, 3, 16, (playerID, lobbyID) -> evicted.add(playerID));
+        AtomicInteger calls = new AtomicInteger();
+        Scout<Object> scout = update -> {
+            calls.incrementAndGet();
+            throw new RemoteException("Connection refused");
+        };
+        dispatcher.watch(scout, "Bob", "lobby");
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) futures.add(dispatcher.call(scout, target -> target.update("update")));
+        assertEquals("Bob", evicted.poll(5, TimeUnit.SECONDS));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+
+        assertTrue(futures.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+        assertEquals(3, calls.get());
+        assertNull(evicted.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, dispatcher.getEvictions());
+    }
+
+    @Test
+    public void answeredCallClearsTheStrikes() {
+        RemoteDispatcher dispatcher = new RemoteDispatcher(Executors.newFixedThreadPool(2, ServerFixture.daemon("dispatch")), 5000, 2, 16, (playerID, lobbyID) -> fail());
+        AtomicInteger calls = new AtomicInteger();
+        Scout<Object> scout = update -> {
+            if (calls.incrementAndGet() % 2 == 1) throw new RemoteException("Connection reset");
+        };
+        dispatcher.watch(scout, "Carol", "lobby");
+
+        for (int i = 0; i < 6; i++) dispatcher.call(scout, target -> target.update("update")).exceptionally(e -> null).join();
+        assertEquals(6, calls.get());
+        assertEquals(0, dispatcher.getEvictions());
+    }
+
+    @Test
+    public void slowPromptIsNotStruckOut() throws InterruptedException {
+        RemoteDispatcher dispatcher = new RemoteDispatcher(Executors.newFixedThreadPool(2, ServerFixture.daemon("dispatch")), 50, 2, 16, (playerID, lobbyID) -> fail());
+        CountDownLatch typed = new CountDownLatch(1);
+        Scout<Object> scout = update -> {
+            if (update.equals("prompt")) {
+                try {
+                    typed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else throw new RemoteException("Connection reset");
+        };
+        dispatcher.watch(scout, "Dave", "lobby");
+
+        CompletableFuture<Void> prompt = dispatcher.prompt(scout, target -> target.update("prompt"));
+        Thread.sleep(300);
+        assertFalse(prompt.isDone());
+        typed.countDown();
+        prompt.join();
+
+        // a failing prompt gives no strike either
+        dispatcher.prompt(scout, target -> target.update("failing")).exceptionally(e -> null).join();
+        dispatcher.prompt(scout, target -> target.update("failing")).exceptionally(e -> null).join();
+        assertEquals(0, dispatcher.getEvictions());
+        assertEquals(0, dispatcher.getTimeouts());
+    }
+}
@@ -0,0 +1,107 @@
+package Server.Network.Client;
+
+import Enumeration.Color;
+import Messages.Server.Network.UpdateMessage;
+import Messages.Server.View.AllGameMessage;
+import Messages.Server.View.AskPlayerInfoMessage;
+import Server.ServerApp;
+import Server.ServerFixture;
+import Utils.Cell;
+import Utils.ChatMessage;
+import Utils.Coordinates;
+import Utils.MockObjects.MockBatch;
+import Utils.MockObjects.MockBoard;
+import Utils.MockObjects.MockBoardDelta;
+import Utils.MockObjects.MockModel;
+import Utils.Tile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamSocketHandlerTest {
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    private static MockBoard board(int version) {
+        Cell[][] cells = new Cell[9][9];
+        for (int i = 0; i < 9; i++)
+            for (int j = 0; j < 9; j++) {
+                cells[i][j] = new Cell();
+                cells[i][j].setTile(new Tile(Color.GREEN));
+            }
+        MockBoard board = new MockBoard();
+        board.setBoard(cells);
+        board.setVersion(version);
+        return board;
+    }
+
+    private static MockBoardDelta delta(int baseVersion, Coordinates coordinates) {
+        MockBoardDelta delta = new MockBoardDelta();
+        delta.setBaseVersion(baseVersion);
+        delta.setVersion(baseVersion + 1);
+        Cell cell = new Cell();
+        cell.setTile(new Tile(Color.BLUE));
+        delta.addCell(coordinates, cell);
+        return delta;
+    }
+
+    @Test
+    public void legacyClientReceivesOnlyTheMessagesOfTheFirstRelease() throws IOException, ClassNotFoundException {
+        try (ServerSocket server = new ServerSocket(0); Socket client = new Socket("localhost", server.getLocalPort())) {
+            StreamSocketHandler handler = new StreamSocketHandler(server.accept());
+            ServerApp.connectionService.execute(handler);
+            ObjectOutputStream out = new ObjectOutputStream(client.getOutputStream());
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(client.getInputStream());
+            assertInstanceOf(AskPlayerInfoMessage.class, in.readObject());
+
+            MockModel model = new MockModel();
+            model.setMockBoard(board(1));
+            handler.allGame(model);
+            assertInstanceOf(AllGameMessage.class, in.readObject());
+
+            ChatMessage chat = new ChatMessage("Bob", "hi", null);
+            handler.update(new MockBatch(List.of(delta(1, new Coordinates(2, 3)), chat), 4));
+            UpdateMessage first = (UpdateMessage) in.readObject();
+            assertNull(first.getBatch());
+            assertNull(first.getBoardDelta());
+            assertEquals(2, first.getBoard().getVersion());
+            assertEquals(new Tile(Color.BLUE), first.getBoard().getBoard()[2][3].getTile());
+            assertEquals(new Tile(Color.GREEN), first.getBoard().getBoard()[2][4].getTile());
+            UpdateMessage second = (UpdateMessage) in.readObject();
+            assertNull(second.getBatch());
+            assertEquals(chat, second.getMessage());
+
+            // a delta the client already has is dropped, the next one builds on the last board sent
+            handler.update(delta(1, new Coordinates(5, 5)));
+            handler.update(delta(2, new Coordinates(4, 4)));
+            MockBoard third = ((UpdateMessage) in.readObject()).getBoard();
+            assertEquals(3, third.getVersion());
+            assertEquals(new Tile(Color.BLUE), third.getBoard()[2][3].getTile());
+            assertEquals(new Tile(Color.BLUE), third.getBoard()[4][4].getTile());
+            assertEquals(new Tile(Color.GREEN), third.getBoard()[5][5].getTile());
+            // the board of the model sent before was never modified
+            assertEquals(new Tile(Color.GREEN), model.getMockBoard().getBoard()[2][3].getTile());
+            handler.logOut();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Server.Network.Lobby;
+
+import Server.ServerFixture;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeartbeatTest {
+    private static final long TIMEOUT = 200;
+    private static final long TICK = 20;
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    @Test
+    public void silentPlayerExpiresAfterTheTimeout() throws InterruptedException {
+        Heartbeat heartbeat = new Heartbeat(TIMEOUT, TICK);
+        BlockingQueue<String> expired = new LinkedBlockingQueue<>();
+        heartbeat.onExpired((playerID, lobbyID) -> expired.add(playerID + "@" + lobbyID));
+        try {
+            long start = System.nanoTime();
+            heartbeat.start("Alice", "lobby", null);
+            assertEquals("Alice@lobby", expired.poll(5, TimeUnit.SECONDS));
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsed >= TIMEOUT, "expired after " + elapsed + " ms");
+            assertEquals(0, heartbeat.getSessions());
+            assertEquals(1, heartbeat.getExpirations());
+        } finally {
+            heartbeat.shutdown();
+        }
+    }
+
+    @Test
+    public void touchPostponesTheExpiry() throws InterruptedException {
+        Heartbeat heartbeat = new Heartbeat(TIMEOUT, TICK);
+        BlockingQueue<String> expired = new LinkedBlockingQueue<>();
+        heartbeat.onExpired((playerID, lobbyID) -> expired.add(playerID));
+        try {
+            heartbeat.start("Alice", "lobby", null);
+            // three times the timeout, the session goes around the wheel more than once
+            for (int i = 0; i < 12; i++) {
+                Thread.sleep(TIMEOUT / 4);
+                heartbeat.touch("Alice", "lobby");
+            }
+            assertNull(expired.poll());
+            assertEquals(1, heartbeat.getSessions());
+
+            long silentFrom = System.nanoTime();
+            assertEquals("Alice", expired.poll(5, TimeUnit.SECONDS));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - silentFrom) >= TIMEOUT - TICK);
+        } finally {
+            heartbeat.shutdown();
+        }
+    }
+
+    @Test
+    public void sessionStartedAfterTheWheelWrappedExpiresOnTime() throws InterruptedException {
+        Heartbeat heartbeat = new Heartbeat(TIMEOUT, TICK);
+        BlockingQueue<String> expired = new LinkedBlockingQueue<>();
+        heartbeat.onExpired((playerID, lobbyID) -> expired.add(playerID));
+        try {
+            // the wheel has a slot per tick of the timeout and two more, it wraps every 240 ms
+            Thread.sleep(TIMEOUT * 3 + TICK * 3);
+            long start = System.nanoTime();
+            heartbeat.start("Bob", "lobby", null);
+            heartbeat.start("Carol", "lobby", null);
+            heartbeat.stop("Carol", "lobby");
+            assertEquals("Bob", expired.poll(5, TimeUnit.SECONDS));
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsed >= TIMEOUT && elapsed < TIMEOUT * 3, "expired after " + elapsed + " ms");
+            // a stopped session is dropped by the sweeper without expiring
+            assertNull(expired.poll(TIMEOUT * 2, TimeUnit.MILLISECONDS));
+            assertEquals(1, heartbeat.getExpirations());
+        } finally {
+            heartbeat.shutdown();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package Server.Network.Lobby;
+
+import Utils.LobbyQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyDirectoryTest {
+
+    private static LobbyDirectory directory(int lobbies, int games) {
+        LobbyDirectory directory = new LobbyDirectory();
+        for (int i = 0; i < lobbies; i++) directory.putLobby(String.format("lobby-%02d", i), 1, null);
+        for (int i = 0; i < games; i++) directory.putGame(String.format("game-%02d", i), 2, 2);
+        return directory;
+    }
+
+    /**
+     * Reads every page from the given query on, and returns the IDs of the lobbies and games in the order they came.
+     */
+    private static List<List<String>> pages(LobbyDirectory directory, LobbyQuery query) {
+        List<List<String>> pages = new ArrayList<>();
+        while (query != null) {
+            List<Map<String, String>> page = directory.page(query);
+            List<String> ids = new ArrayList<>(page.get(0).keySet());
+            ids.addAll(page.get(1).keySet());
+            pages.add(ids);
+            query = query.next(page);
+        }
+        return pages;
+    }
+
+    @Test
+    public void pagesGoFromTheLobbiesToTheGames() {
+        LobbyDirectory directory = directory(12, 4);
+        List<List<String>> pages = pages(directory, new LobbyQuery(null, false, 5, 0, 0));
+        assertEquals(List.of(
+                List.of("lobby-00", "lobby-01", "lobby-02", "lobby-03", "lobby-04"),
+                List.of("lobby-05", "lobby-06", "lobby-07", "lobby-08", "lobby-09"),
+                List.of("lobby-10", "lobby-11", "game-00", "game-01", "game-02"),
+                List.of("game-03")), pages);
+
+        Map<String, String> first = directory.page(new LobbyQuery(null, false, 5, 0, 0)).get(2);
+        assertEquals("12", first.get(LobbyQuery.LOBBIES));
+        assertEquals("4", first.get(LobbyQuery.GAMES));
+        assertEquals("lobby-04", first.get(LobbyQuery.NEXT));
+        assertNull(first.get(LobbyQuery.NEXT_IN_GAMES));
+        Map<String, String> third = directory.page(new LobbyQuery("lobby-09", false, 5, 0, 0)).get(2);
+        assertEquals("game-02", third.get(LobbyQuery.NEXT));
+        assertEquals("true", third.get(LobbyQuery.NEXT_IN_GAMES));
+    }
+
+    @Test
+    public void pageEndingWithTheLastLobbyStartsTheNextAtTheFirstGame() {
+        LobbyDirectory directory = directory(10, 2);
+        Map<String, String> second = directory.page(new LobbyQuery("lobby-04", false, 5, 0, 0)).get(2);
+        assertEquals("", second.get(LobbyQuery.NEXT));
+        assertEquals("true", second.get(LobbyQuery.NEXT_IN_GAMES));
+        assertEquals(List.of(List.of("game-00", "game-01")), pages(directory, new LobbyQuery(null, true, 5, 0, 0)));
+        // no entry is lost nor repeated across the boundary
+        assertEquals(12, pages(directory, new LobbyQuery(null, false, 5, 0, 0)).stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    public void cursorSurvivesTheRemovalOfItsEntry() {
+        LobbyDirectory directory = directory(8, 0);
+        LobbyQuery query = new LobbyQuery(null, false, 3, 0, 0);
+        List<Map<String, String>> first = directory.page(query);
+        // the last lobby of the page starts its game before the next page is asked
+        directory.removeLobby("lobby-02");
+        directory.putGame("lobby-02", 4, 4);
+        assertEquals(List.of(List.of("lobby-03", "lobby-04", "lobby-05"), List.of("lobby-06", "lobby-07", "lobby-02")),
+                pages(directory, query.next(first)));
+    }
+
+    @Test
+    public void filtersSkipFullLobbiesAndGames() {
+        LobbyDirectory directory = new LobbyDirectory();
+        directory.putLobby("a", 3, 4);
+        directory.putLobby("b", 1, 2);
+        directory.putLobby("c", 1, null);
+        directory.putLobby("d", 2, 3);
+        directory.putGame("e", 2, 2);
+
+        assertEquals(List.of(List.of("c")), pages(directory, new LobbyQuery(null, false, 2, 2, 0)));
+        assertEquals(List.of(List.of("b", "c"), List.of("e")), pages(directory, new LobbyQuery(null, false, 2, 0, 2)));
+        assertEquals(List.of(List.of("a", "c")), pages(directory, new LobbyQuery(null, false, 5, 0, 4)));
+    }
+
+    @Test
+    public void pageSizeIsBounded() {
+        LobbyDirectory directory = directory(LobbyDirectory.MAX_PAGE_SIZE + 10, 0);
+        assertEquals(LobbyDirectory.MAX_PAGE_SIZE, directory.page(new LobbyQuery(null, false, 1000, 0, 0)).get(0).size());
+        assertEquals(1, directory.page(new LobbyQuery(null, false, 0, 0, 0)).get(0).size());
+        assertNull(new LobbyDirectory().page(LobbyQuery.FIRST_PAGE));
+    }
+}
@@ -0,0 +1,140 @@
+package Server.Network.Lobby;
+
+import Interface.Client.RemoteClient;
+import Interface.Client.RemoteView;
+import Server.Controller.GameController;
+import Server.Network.Client.ClientHandler;
+import Server.ServerFixture;
+import Utils.LobbyQuery;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyTest {
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    /**
+     * A client that takes every call and does nothing.
+     */
+    private static <T> T silent(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "silent " + type.getSimpleName();
+                    default -> null;
+                }));
+    }
+
+    /**
+     * Runs the tasks all at once on many threads, and waits for them.
+     */
+    private static void together(List<Callable<Void>> tasks) throws InterruptedException, ExecutionException {
+        ExecutorService threads = Executors.newFixedThreadPool(16, ServerFixture.daemon("login"));
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks)
+                futures.add(threads.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            start.countDown();
+            for (Future<Void> future : futures) future.get(30, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            fail("The tasks didn't end");
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private static void close(Lobby lobby, Collection<GameController> games) throws RemoteException {
+        for (GameController game : games) UnicastRemoteObject.unexportObject(game, true);
+        UnicastRemoteObject.unexportObject(lobby, true);
+    }
+
+    @Test
+    public void concurrentLoginsNeverOverfillALobby() throws Exception {
+        Lobby lobby = Lobby.create();
+        List<GameController> games = new ArrayList<>();
+        try {
+            // more lobbies than locks, so some lobbies share their lock
+            int rooms = 100;
+            List<Callable<Void>> logins = new ArrayList<>();
+            for (int room = 0; room < rooms; room++)
+                for (int player = 0; player < 6; player++) {
+                    String lobbyID = "room-" + room, playerID = "player-" + player;
+                    logins.add(() -> {
+                        lobby.login(playerID, lobbyID, silent(RemoteView.class), silent(RemoteClient.class));
+                        return null;
+                    });
+                }
+            together(logins);
+
+            for (int room = 0; room < rooms; room++) {
+                GameController game = lobby.findGame("room-" + room);
+                assertNotNull(game);
+                games.add(game);
+                assertEquals(4, game.getPlayers().size());
+                assertEquals(4, game.activePlayers().stream().map(ClientHandler::playerID).distinct().count());
+            }
+            Map<String, String> page = lobby.getLobbyInfo(LobbyQuery.FIRST_PAGE).get(2);
+            assertEquals("0", page.get(LobbyQuery.LOBBIES));
+            assertEquals(String.valueOf(rooms), page.get(LobbyQuery.GAMES));
+        } finally {
+            close(lobby, games);
+        }
+    }
+
+    @Test
+    public void concurrentQuickPlaySeatsEveryPlayerOnce() throws Exception {
+        Lobby lobby = Lobby.create();
+        List<GameController> games = new ArrayList<>();
+        try {
+            int players = 40;
+            List<Callable<Void>> requests = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                String playerID = "player-" + i;
+                requests.add(() -> {
+                    lobby.quickPlay(playerID, 4, silent(RemoteView.class), silent(RemoteClient.class));
+                    return null;
+                });
+            }
+            together(requests);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (lobby.findGame("quick-" + players / 4) == null && System.currentTimeMillis() < deadline)
+                Thread.sleep(50);
+            Set<String> seated = new HashSet<>();
+            for (int i = 1; i <= players / 4; i++) {
+                GameController game = lobby.findGame("quick-" + i);
+                assertNotNull(game);
+                games.add(game);
+                assertEquals(4, game.getPlayers().size());
+                for (ClientHandler client : game.activePlayers()) assertTrue(seated.add(client.playerID()));
+            }
+            assertEquals(players, seated.size());
+            assertNull(lobby.findGame("quick-" + (players / 4 + 1)));
+        } finally {
+            close(lobby, games);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package Server.Network.Lobby;
+
+import Server.ServerFixture;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchmakerTest {
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    private static List<String> players(List<Matchmaker.Ticket> table) {
+        return table.stream().map(Matchmaker.Ticket::playerID).toList();
+    }
+
+    @Test
+    public void tablesOfAPreferredSizeAreFilledWithPlayersAcceptingAny() throws InterruptedException {
+        BlockingQueue<List<Matchmaker.Ticket>> tables = new LinkedBlockingQueue<>();
+        Matchmaker matchmaker = new Matchmaker(60_000, 200, tables::add);
+        try {
+            matchmaker.enqueue("Alice", 4, null, null);
+            matchmaker.enqueue("Bob", Matchmaker.ANY, null, null);
+            matchmaker.enqueue("Carol", 4, null, null);
+            matchmaker.enqueue("Dave", 2, null, null);
+            matchmaker.enqueue("Erin", 4, null, null);
+            matchmaker.enqueue("Frank", 2, null, null);
+            assertFalse(matchmaker.enqueue("Alice", 3, null, null));
+
+            // the bigger tables first
+            assertEquals(List.of("Alice", "Carol", "Erin", "Bob"), players(tables.poll(5, TimeUnit.SECONDS)));
+            assertEquals(List.of("Dave", "Frank"), players(tables.poll(5, TimeUnit.SECONDS)));
+            assertEquals(0, matchmaker.getQueued());
+            assertEquals(2, matchmaker.getMatchedGames());
+        } finally {
+            matchmaker.shutdown();
+        }
+    }
+
+    @Test
+    public void playersWaitForTheirSizeUntilTheMaximumWait() throws InterruptedException {
+        BlockingQueue<List<Matchmaker.Ticket>> tables = new LinkedBlockingQueue<>();
+        Matchmaker matchmaker = new Matchmaker(300, 20, tables::add);
+        try {
+            long start = System.nanoTime();
+            matchmaker.enqueue("Alice", 4, null, null);
+            matchmaker.enqueue("Bob", 3, null, null);
+            assertNull(tables.poll(150, TimeUnit.MILLISECONDS));
+
+            // both accept any table once they waited too long, and sit together
+            assertEquals(List.of("Alice", "Bob"), players(tables.poll(5, TimeUnit.SECONDS)));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 300);
+            assertTrue(matchmaker.getWait(100) >= 300);
+        } finally {
+            matchmaker.shutdown();
+        }
+    }
+
+    @Test
+    public void cancelledPlayerIsNotSeated() throws InterruptedException {
+        BlockingQueue<List<Matchmaker.Ticket>> tables = new LinkedBlockingQueue<>();
+        Matchmaker matchmaker = new Matchmaker(60_000, 20, tables::add);
+        try {
+            matchmaker.enqueue("Alice", 2, null, null);
+            assertTrue(matchmaker.cancel("Alice"));
+            assertFalse(matchmaker.cancel("Alice"));
+            matchmaker.enqueue("Bob", 2, null, null);
+            assertNull(tables.poll(100, TimeUnit.MILLISECONDS));
+
+            matchmaker.enqueue("Carol", Matchmaker.ANY, null, null);
+            assertEquals(List.of("Bob", "Carol"), players(tables.poll(5, TimeUnit.SECONDS)));
+        } finally {
+            matchmaker.shutdown();
+        }
+    }
+}
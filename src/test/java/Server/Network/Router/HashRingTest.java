@@ -0,0 +1,54 @@
+package Server.Network.Router;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+    private static final int KEYS = 10_000;
+
+    private static Map<String, String> assign(HashRing<String> ring) {
+        Map<String, String> assignment = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) assignment.put("lobby-" + i, ring.get("lobby-" + i));
+        return assignment;
+    }
+
+    @Test
+    public void addedBackendTakesOnlyItsShare() {
+        HashRing<String> ring = new HashRing<>();
+        for (String name : new String[]{"a", "b", "c"}) ring.add(name, name);
+        Map<String, String> before = assign(ring);
+        ring.add("d", "d");
+        Map<String, String> after = assign(ring);
+
+        int moved = 0;
+        for (String key : before.keySet()) {
+            if (before.get(key).equals(after.get(key))) continue;
+            // an ID only moves to the new backend
+            assertEquals("d", after.get(key));
+            moved++;
+        }
+        assertTrue(moved > KEYS * 0.15 && moved < KEYS * 0.35, moved + " IDs moved");
+    }
+
+    @Test
+    public void assignmentDependsOnlyOnTheNames() {
+        HashRing<String> first = new HashRing<>();
+        HashRing<String> second = new HashRing<>();
+        for (String name : new String[]{"a", "b", "c"}) first.add(name, name);
+        for (String name : new String[]{"c", "a", "b"}) second.add(name, name);
+        assertEquals(assign(first), assign(second));
+
+        Map<String, Integer> shares = new HashMap<>();
+        for (String backend : assign(first).values()) shares.merge(backend, 1, Integer::sum);
+        for (int share : shares.values()) assertTrue(share > KEYS / 5, shares.toString());
+    }
+
+    @Test
+    public void emptyRingHasNoBackend() {
+        assertNull(new HashRing<String>().get("lobby"));
+    }
+}
@@ -0,0 +1,74 @@
+package Server.Network.Router;
+
+import Server.Network.Lobby.LobbyDirectory;
+import Utils.LobbyQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyRouterTest {
+
+    /**
+     * Reads every page of the backends from the first on, merging them as the router does,
+     * and returns the IDs of the lobbies and games in the order they came.
+     */
+    private static List<String> walk(List<LobbyDirectory> backends, int limit) {
+        List<String> ids = new ArrayList<>();
+        LobbyQuery query = new LobbyQuery(null, false, limit, 0, 0);
+        while (query != null) {
+            List<List<Map<String, String>>> pages = new ArrayList<>();
+            for (LobbyDirectory backend : backends) pages.add(backend.page(query));
+            List<Map<String, String>> merged = LobbyRouter.merge(pages, limit);
+            assertTrue(merged.get(0).size() + merged.get(1).size() <= limit);
+            ids.addAll(merged.get(0).keySet());
+            ids.addAll(merged.get(1).keySet());
+            query = query.next(merged);
+        }
+        return ids;
+    }
+
+    @Test
+    public void mergedPagesKeepTheOrderOfAllTheBackends() {
+        List<LobbyDirectory> backends = List.of(new LobbyDirectory(), new LobbyDirectory(), new LobbyDirectory());
+        SortedSet<String> lobbies = new TreeSet<>();
+        SortedSet<String> games = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 40; i++) {
+            String lobbyID = String.format("lobby-%03d", random.nextInt(1000));
+            if (lobbies.add(lobbyID)) backends.get(random.nextInt(3)).putLobby(lobbyID, 1, null);
+            String gameID = String.format("game-%03d", random.nextInt(1000));
+            if (games.add(gameID)) backends.get(random.nextInt(3)).putGame(gameID, 2, 2);
+        }
+        List<String> expected = new ArrayList<>(lobbies);
+        expected.addAll(games);
+
+        for (int limit : new int[]{1, 3, 7, 10}) assertEquals(expected, walk(backends, limit), "pages of " + limit);
+    }
+
+    @Test
+    public void mergedPageCountsTheEntriesOfAllTheBackends() {
+        LobbyDirectory first = new LobbyDirectory();
+        first.putLobby("lobby-1", 1, null);
+        first.putLobby("lobby-4", 1, null);
+        first.putGame("game-2", 2, 2);
+        LobbyDirectory second = new LobbyDirectory();
+        second.putLobby("lobby-2", 1, 3);
+        second.putGame("game-1", 1, 2);
+
+        List<List<Map<String, String>>> pages = new ArrayList<>();
+        pages.add(first.page(new LobbyQuery(null, false, 2, 0, 0)));
+        pages.add(second.page(new LobbyQuery(null, false, 2, 0, 0)));
+        // an unreachable backend is left out
+        pages.add(null);
+        List<Map<String, String>> merged = LobbyRouter.merge(pages, 2);
+        assertEquals(List.of("lobby-1", "lobby-2"), new ArrayList<>(merged.get(0).keySet()));
+        assertTrue(merged.get(1).isEmpty());
+        assertEquals("3", merged.get(2).get(LobbyQuery.LOBBIES));
+        assertEquals("2", merged.get(2).get(LobbyQuery.GAMES));
+        assertEquals("lobby-2", merged.get(2).get(LobbyQuery.NEXT));
+
+        assertNull(LobbyRouter.merge(Arrays.asList(null, null), 2));
+    }
+}
@@ -0,0 +1,113 @@
+package Server.Network.Servers;
+
+import Messages.Server.View.AskPlayerInfoMessage;
+import Messages.ServerMessage;
+import Messages.Wire.Frame;
+import Messages.Wire.FrameCompressor;
+import Messages.Wire.MessageCodec;
+import Messages.Wire.WireFormat;
+import Server.ServerApp;
+import Server.ServerFixture;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectorLoopTest {
+
+    @BeforeAll
+    public static void setUp() throws RemoteException {
+        ServerFixture.setUp();
+    }
+
+    @AfterAll
+    public static void tearDown() throws NoSuchObjectException {
+        ServerFixture.tearDown();
+    }
+
+    @Test
+    public void framedAndLegacyClientsAreBothServed() throws IOException, ClassNotFoundException {
+        SelectorLoop loop = new SelectorLoop();
+        Thread thread = new Thread(loop, "nio-loop-test");
+        thread.setDaemon(true);
+        thread.start();
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+             Socket framed = new Socket("localhost", server.socket().getLocalPort());
+             Socket legacy = new Socket("localhost", server.socket().getLocalPort())) {
+            loop.register(server.accept());
+            loop.register(server.accept());
+            framed.setSoTimeout(5000);
+            legacy.setSoTimeout(5000);
+
+            // the framed client sends the stream header and the preamble, then picks a format
+            BufferedOutputStream rawOut = new BufferedOutputStream(framed.getOutputStream());
+            new ObjectOutputStream(rawOut);
+            rawOut.write(Frame.CLIENT_PREAMBLE);
+            rawOut.flush();
+            DataInputStream framedIn = new DataInputStream(new BufferedInputStream(framed.getInputStream()));
+            assertEquals(Frame.SERVER_MAGIC, framedIn.readInt());
+            byte offered = framedIn.readByte();
+            // the compression is only offered when the server is started with it
+            assertEquals(0, offered & Frame.COMPRESSION);
+            WireFormat format = WireFormat.choose(offered);
+            rawOut.write(format.getId());
+            rawOut.flush();
+            MessageCodec codec = format.newCodec();
+            Object framedGreeting = codec.decode(Frame.read(framedIn, null));
+
+            // the legacy client sends the stream header alone and waits for the one of the server
+            ObjectOutputStream legacyOut = new ObjectOutputStream(legacy.getOutputStream());
+            legacyOut.flush();
+            ObjectInputStream legacyIn = new ObjectInputStream(legacy.getInputStream());
+            Object legacyGreeting = legacyIn.readObject();
+
+            assertInstanceOf(ServerMessage.class, framedGreeting);
+            assertInstanceOf(AskPlayerInfoMessage.class, framedGreeting);
+            assertInstanceOf(ServerMessage.class, legacyGreeting);
+            assertInstanceOf(AskPlayerInfoMessage.class, legacyGreeting);
+        } finally {
+            thread.interrupt();
+        }
+    }
+
+    @Test
+    public void compressionIsOfferedWhenTurnedOn() throws IOException, ClassNotFoundException {
+        SelectorLoop loop = new SelectorLoop();
+        Thread thread = new Thread(loop, "nio-loop-test");
+        thread.setDaemon(true);
+        thread.start();
+        ServerApp.compression = true;
+        FrameCompressor compressor = new FrameCompressor(WireFormat.BINARY);
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+             Socket framed = new Socket("localhost", server.socket().getLocalPort())) {
+            loop.register(server.accept());
+            framed.setSoTimeout(5000);
+
+            BufferedOutputStream rawOut = new BufferedOutputStream(framed.getOutputStream());
+            new ObjectOutputStream(rawOut);
+            rawOut.write(Frame.CLIENT_PREAMBLE);
+            rawOut.flush();
+            DataInputStream framedIn = new DataInputStream(new BufferedInputStream(framed.getInputStream()));
+            assertEquals(Frame.SERVER_MAGIC, framedIn.readInt());
+            byte offered = framedIn.readByte();
+            assertNotEquals(0, offered & Frame.COMPRESSION);
+            assertEquals(WireFormat.BINARY, WireFormat.choose(offered));
+            rawOut.write(WireFormat.BINARY.getId() | Frame.COMPRESSION);
+            rawOut.flush();
+
+            assertInstanceOf(AskPlayerInfoMessage.class, WireFormat.BINARY.newCodec().decode(Frame.read(framedIn, compressor)));
+        } finally {
+            ServerApp.compression = false;
+            compressor.close();
+            thread.interrupt();
+        }
+    }
+}
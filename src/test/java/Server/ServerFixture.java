@@ -0,0 +1,91 @@
+package Server;
+
+import Server.Model.GameModel;
+import Server.Network.Client.RemoteDispatcher;
+import Server.Network.Lobby.Lobby;
+import Utils.Cell;
+import Utils.Coordinates;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+/**
+ * The set-up shared by the tests of the server: the globals of {@link ServerApp} the tests rely on,
+ * built as the server builds them when it starts, and the helpers that drive a game.
+ * The threads of the tests are daemons, like the ones of {@link ExecutionMode#gameExecutor()},
+ * and every test class that sets the globals up tears them down, so nothing keeps the JVM alive after the tests.
+ */
+public final class ServerFixture {
+
+    private ServerFixture() {
+    }
+
+    /**
+     * Sets the globals of the server that aren't set yet: the logger, the executors, the dispatcher and the lobby.
+     *
+     * @throws RemoteException if the lobby can't be exported
+     */
+    public static void setUp() throws RemoteException {
+        if (ServerApp.logger == null) ServerApp.logger = Logger.getLogger(ServerApp.class.getName());
+        if (ServerApp.executorService == null) ServerApp.executorService = Executors.newCachedThreadPool(daemon("task"));
+        if (ServerApp.connectionService == null) ServerApp.connectionService = ServerApp.executorService;
+        if (ServerApp.gameService == null) ServerApp.gameService = Executors.newFixedThreadPool(2, daemon("game"));
+        if (ServerApp.dispatcher == null) ServerApp.dispatcher = new RemoteDispatcher(ServerApp.executorService, (playerID, lobbyID) -> {});
+        if (ServerApp.lobby == null) ServerApp.lobby = Lobby.create();
+        if (ServerApp.front == null) ServerApp.front = ServerApp.lobby;
+    }
+
+    /**
+     * Stops the executors and the lobby set by {@link #setUp()}, the next test class sets them up again.
+     *
+     * @throws NoSuchObjectException if the lobby was already unexported
+     */
+    public static void tearDown() throws NoSuchObjectException {
+        if (ServerApp.executorService != null) ServerApp.executorService.shutdownNow();
+        if (ServerApp.gameService != null) ServerApp.gameService.shutdownNow();
+        if (ServerApp.lobby != null) UnicastRemoteObject.unexportObject(ServerApp.lobby, true);
+        ServerApp.executorService = null;
+        ServerApp.connectionService = null;
+        ServerApp.gameService = null;
+        ServerApp.dispatcher = null;
+        ServerApp.lobby = null;
+        ServerApp.front = null;
+    }
+
+    /**
+     * Returns a factory of daemon threads.
+     *
+     * @param name the name of the threads
+     * @return the thread factory
+     */
+    public static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Returns the first tile of the board that can be taken alone.
+     *
+     * @param model the game
+     * @return the coordinates of the tile
+     */
+    public static Coordinates takeable(GameModel model) {
+        Cell[][] board = model.getBoard().getBoard();
+        for (int x = 0; x < board.length; x++)
+            for (int y = 0; y < board[x].length; y++)
+                try {
+                    model.getBoard().convalidateMove(List.of(new Coordinates(x, y)));
+                    return new Coordinates(x, y);
+                } catch (Exception ignored) {
+                }
+        throw new AssertionError("No tile can be taken");
+    }
+}